@@ -1,9 +1,11 @@
 #!/bin/bash
 
 # Script to load demo data into microservices
-# Usage: ./scripts/load-demo-data.sh [API_GATEWAY_URL]
+# Usage: ./scripts/load-demo-data.sh [API_GATEWAY_URL] [seeding options...]
+# Example: ./scripts/load-demo-data.sh http://localhost:9000 --products 100000 --concurrency 32 --rate 1000
 
 API_GATEWAY_URL=${1:-http://35.198.90.238:9000}
+shift
 
 echo "Loading demo data to: $API_GATEWAY_URL"
 echo ""
@@ -20,6 +22,6 @@ fi
 # Explicitly specify mainClass to ensure we run DemoDataLoader, not LoadTestRunner
 mvn exec:java \
     -Dexec.mainClass="com.his.project.loadtest.DemoDataLoader" \
-    -Dexec.args="$API_GATEWAY_URL" \
+    -Dexec.args="$API_GATEWAY_URL $*" \
     -q
 
@@ -0,0 +1,35 @@
+#!/bin/bash
+
+# Benchmark Script - runs the JMH benchmarks of the load generator itself
+# Usage: ./scripts/run-benchmarks.sh [jmh options...]
+#        ./scripts/run-benchmarks.sh compare <baseline.json> <current.json> [threshold-percent]
+# Example: ./scripts/run-benchmarks.sh Payload          # only benchmarks matching "Payload"
+#          ./scripts/run-benchmarks.sh -f 1 -wi 1 -i 2  # quick run
+
+cd "$(dirname "$0")/.." || exit 1
+
+mvn -q -P benchmarks package -DskipTests || exit 1
+
+if [ "$1" == "compare" ]; then
+    shift
+    java -cp target/benchmarks.jar com.his.project.loadtest.benchmark.BenchmarkCompare "$@"
+    exit $?
+fi
+
+# One result file per commit so runs can be compared across commits
+COMMIT=$(git rev-parse --short HEAD 2>/dev/null || echo "local")
+if [ -n "$(git status --porcelain --untracked-files=no 2>/dev/null)" ]; then
+    COMMIT="$COMMIT-dirty"
+fi
+mkdir -p target/jmh
+RESULT="target/jmh/jmh-$COMMIT.json"
+
+echo "=========================================="
+echo "  Running Generator Benchmarks"
+echo "=========================================="
+echo "  Commit: $COMMIT"
+echo "  Results: $RESULT"
+echo "=========================================="
+echo ""
+
+java -jar target/benchmarks.jar -rf json -rff "$RESULT" "$@"
@@ -0,0 +1,41 @@
+#!/bin/bash
+
+# Distributed Load Test Script - starts a coordinator and N local worker processes
+# Usage: ./scripts/run-distributed.sh [workers] [load test options...]
+# Example: ./scripts/run-distributed.sh 4 --rate 2000 --duration 60 --url http://localhost:9000
+
+WORKERS=${1:-2}
+shift
+PORT=${COORDINATOR_PORT:-7070}
+
+cd "$(dirname "$0")/.." || exit 1
+
+# Compile and resolve the classpath once so the workers start quickly
+mvn compile -q || exit 1
+mvn dependency:build-classpath -q -Dmdep.outputFile=target/classpath.txt || exit 1
+CLASSPATH="target/classes:$(cat target/classpath.txt)"
+
+echo "=========================================="
+echo "  Running Distributed Load Test"
+echo "=========================================="
+echo "  Workers: $WORKERS (local)"
+echo "  Coordinator port: $PORT"
+echo "=========================================="
+echo ""
+
+mkdir -p target/workers
+WORKER_PIDS=()
+for ((i = 0; i < WORKERS; i++)); do
+    java -cp "$CLASSPATH" com.his.project.loadtest.LoadTestRunner --worker "localhost:$PORT" \
+        > "target/workers/worker-$i.log" 2>&1 &
+    WORKER_PIDS+=($!)
+done
+trap 'kill "${WORKER_PIDS[@]}" 2>/dev/null' EXIT
+
+java -cp "$CLASSPATH" com.his.project.loadtest.LoadTestRunner --coordinator "$WORKERS" --port "$PORT" "$@"
+STATUS=$?
+
+wait "${WORKER_PIDS[@]}"
+echo ""
+echo "Worker logs: target/workers/"
+exit $STATUS
@@ -0,0 +1,65 @@
+package com.his.project.loadtest.benchmark;
+
+import com.his.project.loadtest.client.ApiClient;
+import com.his.project.loadtest.model.PayloadMode;
+import com.his.project.loadtest.model.RequestSpec;
+import com.his.project.loadtest.payload.RequestTemplate;
+import com.his.project.loadtest.stub.StubConfig;
+import com.his.project.loadtest.stub.StubGateway;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// End-to-end cost of one request through ApiClient against an in-process StubGateway that
+// answers immediately, i.e. the generator's own per-request overhead plus loopback I/O
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@Threads(4)
+@State(Scope.Benchmark)
+public class ApiClientBenchmark {
+    private StubGateway stub;
+    private ApiClient client;
+    private RequestTemplate productGet;
+    private RequestTemplate productPost;
+    
+    @Setup
+    public void setUp() throws IOException {
+        StubConfig stubConfig = new StubConfig();
+        stubConfig.setPort(0);
+        stub = new StubGateway(stubConfig);
+        stub.start();
+        
+        String baseUrl = stub.getBaseUrl();
+        client = new ApiClient(baseUrl);
+        productGet = RequestTemplate.compile(new RequestSpec("GET /api/product", "GET", "/api/product", null, 1.0, 200),
+            baseUrl, PayloadMode.TEMPLATE, 0);
+        productPost = RequestTemplate.compile(new RequestSpec("POST /api/product", "POST", "/api/product", "product", 1.0, 201),
+            baseUrl, PayloadMode.TEMPLATE, 0);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        client.close();
+        stub.close();
+    }
+    
+    @Benchmark
+    public int getProduct() {
+        return client.execute(productGet);
+    }
+    
+    @Benchmark
+    public int createProduct() {
+        return client.execute(productPost);
+    }
+    
+    // Legacy fixed operation, including its own payload construction
+    @Benchmark
+    public boolean createProductLegacy() {
+        return client.createProduct();
+    }
+}
@@ -0,0 +1,82 @@
+package com.his.project.loadtest.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Compares two JMH JSON result files (e.g. from two commits) and flags regressions.
+// Usage: BenchmarkCompare baseline.json current.json [threshold-percent]
+// Exits with 1 when a benchmark got worse by more than the threshold (default 10%) and by more
+// than the two runs' combined error, so it can gate a build.
+public class BenchmarkCompare {
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkCompare <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        Map<String, JsonObject> baseline = load(Path.of(args[0]));
+        Map<String, JsonObject> current = load(Path.of(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        
+        int regressions = 0;
+        System.out.println(String.format("%-70s %14s %14s %9s", "Benchmark", "Baseline", "Current", "Change"));
+        for (Map.Entry<String, JsonObject> entry : current.entrySet()) {
+            JsonObject before = baseline.get(entry.getKey());
+            JsonObject metric = entry.getValue().getAsJsonObject("primaryMetric");
+            String unit = metric.get("scoreUnit").getAsString();
+            double score = metric.get("score").getAsDouble();
+            if (before == null) {
+                System.out.println(String.format("%-70s %14s %14.3f %9s  %s", entry.getKey(), "-", score, "new", unit));
+                continue;
+            }
+            JsonObject beforeMetric = before.getAsJsonObject("primaryMetric");
+            double baseScore = beforeMetric.get("score").getAsDouble();
+            double change = baseScore == 0 ? 0.0 : (score - baseScore) / baseScore * 100.0;
+            // Throughput modes are better when higher, time modes when lower
+            boolean higherIsBetter = unit.startsWith("ops/");
+            double worse = higherIsBetter ? -change : change;
+            double noise = errorOf(metric) + errorOf(beforeMetric);
+            boolean regressed = worse > threshold && Math.abs(score - baseScore) > noise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%-70s %14.3f %14.3f %+8.1f%%  %s%s", entry.getKey(), baseScore, score, change,
+                unit, regressed ? "  REGRESSION" : ""));
+        }
+        System.out.println("\n" + regressions + " regression(s) above " + threshold + "%");
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+    
+    // Results keyed by benchmark, mode and parameters
+    private static Map<String, JsonObject> load(Path file) throws IOException {
+        Map<String, JsonObject> results = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            JsonArray array = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : array) {
+                JsonObject result = element.getAsJsonObject();
+                String key = result.get("benchmark").getAsString().replace("com.his.project.loadtest.", "")
+                    + " [" + result.get("mode").getAsString() + "]";
+                if (result.has("params")) {
+                    key += " " + result.getAsJsonObject("params");
+                }
+                results.put(key, result);
+            }
+        }
+        return results;
+    }
+    
+    private static double errorOf(JsonObject metric) {
+        JsonElement error = metric.get("scoreError");
+        return error == null || !error.isJsonPrimitive() || !error.getAsJsonPrimitive().isNumber() ? 0.0 : error.getAsDouble();
+    }
+}
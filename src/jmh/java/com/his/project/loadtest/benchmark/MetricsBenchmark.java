@@ -0,0 +1,158 @@
+package com.his.project.loadtest.benchmark;
+
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.metrics.MetricsRegistry;
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.metrics.RequestPhase;
+import com.his.project.loadtest.metrics.RequestTrace;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.TestResult;
+import com.his.project.loadtest.recorder.SampleRecorder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Recording and reading latency statistics. Recording runs on 4 threads sharing one
+// EndpointStats, like the workers of a run; percentiles are read from a filled result.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MetricsBenchmark {
+    
+    @State(Scope.Benchmark)
+    public static class SharedStats {
+        EndpointStats stats;
+        
+        @Setup
+        public void setUp() {
+            stats = new EndpointStats();
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Registry {
+        MetricsRegistry registry;
+        
+        @Setup
+        public void setUp() {
+            registry = new MetricsRegistry(List.of("GET /api/product", "POST /api/product", "GET /api/inventory", "POST /api/order"),
+                LatencyHistogram.DEFAULT_SIGNIFICANT_DIGITS);
+        }
+    }
+    
+    // One request's trace as the client hooks leave it, per worker thread
+    @State(Scope.Thread)
+    public static class Trace {
+        RequestTrace trace;
+        
+        @Setup
+        public void setUp() {
+            trace = new RequestTrace();
+            for (RequestPhase phase : RequestPhase.values()) {
+                trace.end(phase);
+            }
+        }
+    }
+    
+    // Raw-sample recorder writing to a temporary directory; removed again after the trial
+    @State(Scope.Benchmark)
+    public static class Recording {
+        Path directory;
+        SampleRecorder recorder;
+        
+        @Setup
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("jmh-samples");
+            recorder = new SampleRecorder(directory.toString(), 64, List.of("GET /api/product"), System.currentTimeMillis());
+        }
+        
+        @TearDown
+        public void tearDown() throws IOException {
+            recorder.close();
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class FilledResult {
+        @Param({"1000000"})
+        int samples;
+        
+        TestResult result;
+        
+        @Setup
+        public void setUp() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < samples; i++) {
+                // Roughly lognormal response times around 20 ms
+                histogram.recordValue((long) (Math.exp(random.nextGaussian() * 0.6) * 20_000_000));
+            }
+            result = new TestResult();
+            result.setResponseTimes(histogram);
+        }
+    }
+    
+    // One request as recorded by the workers: counters plus the response time histogram
+    @Benchmark
+    @Threads(4)
+    public void endpointStatsRecord(SharedStats shared) {
+        EndpointStats stats = shared.stats;
+        stats.incrementRequest();
+        stats.addResponseTime(ThreadLocalRandom.current().nextLong(1_000_000, 100_000_000));
+        stats.incrementSuccess();
+    }
+    
+    // The same through the sharded registry the run records into
+    @Benchmark
+    @Threads(4)
+    public void registryRecord(Registry shared, Trace request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        shared.registry.record(random.nextInt(4), Outcome.SUCCESS, 200, random.nextLong(1_000_000, 100_000_000), request.trace);
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public void histogramRecord(SharedStats shared) {
+        shared.stats.getResponseTimes().recordValue(ThreadLocalRandom.current().nextLong(1_000_000, 100_000_000));
+    }
+    
+    // Cost --record adds to every request
+    @Benchmark
+    @Threads(4)
+    public void sampleRecord(Recording recording) {
+        long latency = ThreadLocalRandom.current().nextLong(1_000_000, 100_000_000);
+        recording.recorder.record(0, System.nanoTime(), latency, 200, 512, true);
+    }
+    
+    @Benchmark
+    public double resultPercentile(FilledResult filled) {
+        return filled.result.getPercentile(99.9);
+    }
+    
+    // All percentiles printed in the results summary
+    @Benchmark
+    public double resultSummary(FilledResult filled) {
+        TestResult result = filled.result;
+        return result.getMedianResponseTime() + result.getPercentile(90.0) + result.getPercentile(99.0)
+            + result.getPercentile(99.9) + result.getPercentile(99.99) + result.getMaxResponseTime();
+    }
+    
+    // Copy taken by the live interval reporter every second
+    @Benchmark
+    public LatencyHistogram histogramCopy(FilledResult filled) {
+        return filled.result.getResponseTimes().copy();
+    }
+}
@@ -0,0 +1,85 @@
+package com.his.project.loadtest.benchmark;
+
+import com.his.project.loadtest.model.PayloadMode;
+import com.his.project.loadtest.model.RequestSpec;
+import com.his.project.loadtest.payload.PayloadBuffer;
+import com.his.project.loadtest.payload.RequestTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Cost of building one request payload, as done by ApiClient before every send
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PayloadBenchmark {
+    private static final String BASE_URL = "http://localhost:9000";
+    
+    private RequestTemplate productTemplate;
+    private RequestTemplate productPool;
+    private RequestTemplate orderTemplate;
+    private RequestTemplate inventoryTemplate;
+    private final Random random = new Random();
+    
+    @Setup
+    public void setUp() {
+        RequestSpec product = new RequestSpec("POST /api/product", "POST", "/api/product", "product", 1.0, 201);
+        productTemplate = RequestTemplate.compile(product, BASE_URL, PayloadMode.TEMPLATE, 0);
+        productPool = RequestTemplate.compile(product, BASE_URL, PayloadMode.POOL, 10000);
+        orderTemplate = RequestTemplate.compile(new RequestSpec("POST /api/order", "POST", "/api/order", "order", 1.0, 201),
+            BASE_URL, PayloadMode.TEMPLATE, 0);
+        inventoryTemplate = RequestTemplate.compile(new RequestSpec("GET /api/inventory", "GET", "/api/inventory", "inventory", 1.0, 200),
+            BASE_URL, PayloadMode.TEMPLATE, 0);
+    }
+    
+    // The String.format + UUID construction used before payload templates, kept as a baseline
+    @Benchmark
+    public byte[] productFormatBaseline() {
+        String json = String.format(
+            "{\"name\":\"Test Product %s\",\"description\":\"Load test product\",\"skuCode\":\"TEST-%s\",\"price\":%.2f}",
+            UUID.randomUUID().toString().substring(0, 8),
+            UUID.randomUUID().toString().substring(0, 8).toUpperCase(),
+            10.0 + random.nextDouble() * 990.0
+        );
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @Benchmark
+    public void productTemplate(Blackhole blackhole) {
+        PayloadBuffer buffer = PayloadBuffer.current();
+        blackhole.consume(productTemplate.body(buffer));
+        blackhole.consume(buffer.getLength());
+    }
+    
+    @Benchmark
+    public void productPool(Blackhole blackhole) {
+        PayloadBuffer buffer = PayloadBuffer.current();
+        blackhole.consume(productPool.body(buffer));
+        blackhole.consume(buffer.getLength());
+    }
+    
+    // Async client path: the rendered body is copied so it outlives the calling thread's buffer
+    @Benchmark
+    public byte[] productTemplateDetached() {
+        return productTemplate.detachedBody();
+    }
+    
+    @Benchmark
+    public void orderTemplate(Blackhole blackhole) {
+        PayloadBuffer buffer = PayloadBuffer.current();
+        blackhole.consume(orderTemplate.body(buffer));
+        blackhole.consume(buffer.getLength());
+    }
+    
+    @Benchmark
+    public String inventoryUri() {
+        return inventoryTemplate.uri();
+    }
+}
@@ -0,0 +1,54 @@
+package com.his.project.loadtest.service;
+
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.metrics.RequestPhase;
+import com.his.project.loadtest.metrics.RequestTrace;
+import com.his.project.loadtest.model.TestConfig;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// The bookkeeping LoadTestService does after every response, by 4 worker threads spread over
+// the four standard endpoints. Run with -t N to check the cost stays flat as threads grow.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(4)
+@State(Scope.Benchmark)
+public class UpdateStatsBenchmark {
+    private static final int ENDPOINTS = 4;
+    
+    private LoadTestService service;
+    
+    // One request's trace as the client hooks leave it, per worker thread
+    @State(Scope.Thread)
+    public static class Trace {
+        RequestTrace trace;
+        
+        @Setup
+        public void setUp() {
+            trace = new RequestTrace();
+            for (RequestPhase phase : RequestPhase.values()) {
+                trace.end(phase);
+            }
+        }
+    }
+    
+    @Setup
+    public void setUp() {
+        TestConfig config = new TestConfig();
+        config.setGatewayBaseUrl("http://localhost:9000");
+        service = new LoadTestService(config);
+    }
+    
+    @Benchmark
+    public void updateStats(Trace request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean success = random.nextInt(100) != 0;
+        service.updateStats(random.nextInt(ENDPOINTS), success ? Outcome.SUCCESS : Outcome.HTTP_5XX, success ? 200 : 503,
+            random.nextLong(1_000_000, 100_000_000), request.trace);
+    }
+}
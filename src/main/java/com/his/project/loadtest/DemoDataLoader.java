@@ -1,234 +1,286 @@
 package com.his.project.loadtest;
 
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import com.his.project.loadtest.client.ApiClient;
+import com.his.project.loadtest.client.ConnectionMetrics;
+import com.his.project.loadtest.model.ConnectionPoolConfig;
+import com.his.project.loadtest.seed.JsonArrayStream;
+import com.his.project.loadtest.seed.RateLimiter;
+import com.his.project.loadtest.seed.SeedConfig;
+import com.his.project.loadtest.seed.SeedPhase;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+// Seeds the services through the gateway. Every phase sends its records from a bounded queue with
+// a pool of workers, at an optional shared request rate. Inventory for a product is created as
+// soon as that product has been created, so the first two phases overlap; inventory checks and
+// orders start once all inventory exists.
 public class DemoDataLoader {
+    private static final String[] CATEGORIES = {"Electronics", "Computers", "Phones", "Accessories", "Home", "Kitchen",
+                                                "Fitness", "Gaming", "Audio", "Cameras", "TVs", "Wearables", "Smart Home",
+                                                "Appliances", "Tools"};
+    private static final String[] BRANDS = {"TechPro", "SmartBrand", "EliteTech", "ProMax", "UltraTech", "PrimeTech",
+                                            "Apex", "Nexus", "Vertex", "Quantum", "Fusion", "Nova", "Titan", "Zenith", "Pinnacle"};
     
     private final ApiClient apiClient;
     private final Gson gson;
+    private final SeedConfig seedConfig;
+    private final RateLimiter rateLimiter;
+    private final List<SeedPhase<?>> phases = new CopyOnWriteArrayList<>();
     
     public DemoDataLoader(String baseUrl) {
-        this.apiClient = new ApiClient(baseUrl);
+        this(baseUrl, new SeedConfig());
+    }
+    
+    public DemoDataLoader(String baseUrl, SeedConfig seedConfig) {
+        // Up to two phases run at once, each with its own workers
+        ConnectionPoolConfig pool = new ConnectionPoolConfig().resolvedFor(seedConfig.getConcurrency() * 2);
+        this.apiClient = new ApiClient(baseUrl, pool, new ConnectionMetrics());
         this.gson = new Gson();
+        this.seedConfig = seedConfig;
+        this.rateLimiter = new RateLimiter(seedConfig.getRatePerSecond());
     }
     
     public void loadDemoData() {
         System.out.println("==========================================");
         System.out.println("  Loading Demo Data to Microservices");
         System.out.println("==========================================\n");
+        System.out.println("Concurrency: " + seedConfig.getConcurrency() + " workers per phase, rate: "
+            + (seedConfig.getRatePerSecond() > 0 ? seedConfig.getRatePerSecond() + " req/s" : "unlimited")
+            + ", retries: " + seedConfig.getMaxRetries() + "\n");
         
-        // Load products
-        System.out.println("1. Loading Products...");
-        loadProducts();
-        
-        // Wait a bit
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seed-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        progress.scheduleAtFixedRate(this::printProgress, seedConfig.getProgressIntervalSeconds(),
+            seedConfig.getProgressIntervalSeconds(), TimeUnit.SECONDS);
         try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        // Create inventory entries
-        System.out.println("\n2. Creating Inventory Entries...");
-        createInventoryEntries();
-        
-        // Wait a bit
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        // Check inventory
-        System.out.println("\n3. Checking Inventory...");
-        checkInventory();
-        
-        // Wait a bit
-        try {
-            Thread.sleep(1000);
+            // Products and inventory
+            System.out.println("1. Loading Products (and their inventory)...");
+            SeedPhase<Map<String, Object>> products = new SeedPhase<>("products", seedConfig, rateLimiter,
+                product -> apiClient.send("POST", "/api/product", gson.toJson(product)),
+                product -> String.valueOf(product.get("skuCode")));
+            SeedPhase<String> inventory = new SeedPhase<>("inventory", seedConfig, rateLimiter,
+                skuCode -> apiClient.send("POST", "/api/inventory?skuCode=" + skuCode + "&quantity=" + seedConfig.getInventoryQuantity(), null),
+                skuCode -> skuCode);
+            products.setOnSuccess(product -> submit(inventory, String.valueOf(product.get("skuCode"))));
+            // The products file is opened before any worker starts, so a missing file fails cleanly
+            try (JsonArrayStream file = seedConfig.getProductsFile() != null ? new JsonArrayStream(
+                    Files.newBufferedReader(Path.of(seedConfig.getProductsFile()), StandardCharsets.UTF_8), gson) : null) {
+                runPhase(inventory, null);
+                if (file != null) {
+                    runPhase(products, file);
+                } else {
+                    System.out.println("  Generating and loading " + seedConfig.getProductCount() + " products...");
+                    products.setExpected(seedConfig.getProductCount());
+                    runPhase(products, generatedProducts(seedConfig.getProductCount()));
+                }
+            }
+            products.finish();
+            System.out.println(products.summaryLine());
+            
+            // The demo catalogue the checks and orders refer to
+            System.out.println("\n2. Creating Inventory Entries...");
+            try (JsonArrayStream catalogue = resourceStream("demo-products.json")) {
+                while (catalogue.hasNext()) {
+                    inventory.submit(String.valueOf(catalogue.next().get("skuCode")));
+                }
+            }
+            inventory.finish();
+            System.out.println(inventory.summaryLine());
+            
+            System.out.println("\n3. Checking Inventory...");
+            SeedPhase<Map<String, Object>> checks = new SeedPhase<>("checks", seedConfig, rateLimiter,
+                check -> apiClient.send("GET", "/api/inventory?skuCode=" + check.get("skuCode")
+                    + "&quantity=" + ((Number) check.get("quantity")).intValue(), null),
+                check -> String.valueOf(check.get("skuCode")));
+            try (JsonArrayStream source = resourceStream("demo-inventory-checks.json")) {
+                runPhase(checks, source);
+            }
+            checks.finish();
+            System.out.println(checks.summaryLine());
+            
+            System.out.println("\n4. Placing Orders...");
+            SeedPhase<Map<String, Object>> orders = new SeedPhase<>("orders", seedConfig, rateLimiter,
+                order -> apiClient.send("POST", "/api/order", gson.toJson(order)),
+                order -> String.valueOf(((Map<?, ?>) order.get("userDetails")).get("email")));
+            try (JsonArrayStream source = resourceStream("demo-orders.json")) {
+                runPhase(orders, source);
+            }
+            orders.finish();
+            System.out.println(orders.summaryLine());
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            System.err.println("Seeding interrupted");
+        } catch (Exception e) {
+            System.err.println("Error loading demo data: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            // A failure part way leaves started phases waiting for records that never come
+            stopPhases();
+            progress.shutdownNow();
+            try {
+                apiClient.close();
+            } catch (IOException e) {
+                System.err.println("Error closing HTTP client: " + e.getMessage());
+            }
         }
         
-        // Place orders
-        System.out.println("\n4. Placing Orders...");
-        placeOrders();
-        
         System.out.println("\n==========================================");
         System.out.println("  Demo Data Loading Complete!");
         System.out.println("==========================================\n");
     }
     
-    private void loadProducts() {
-        try {
-            // Generate 1000 products programmatically
-            List<Map<String, Object>> products = generateProducts(1000);
-            int success = 0;
-            int failed = 0;
-            
-            System.out.println("  Generating and loading 1000 products...");
-            
-            for (Map<String, Object> product : products) {
-                String productJson = gson.toJson(product);
-                boolean result = apiClient.createProductWithData(productJson);
-                if (result) {
-                    success++;
-                    // Only print every 100th product to avoid cluttering output
-                    if (success % 100 == 0) {
-                        System.out.println("  ✓ Created: " + product.get("name") + " (Progress: " + success + "/1000)");
-                    }
-                } else {
-                    failed++;
-                    System.out.println("  ✗ Failed: " + product.get("name"));
-                }
-                // Reduced delay to overload the API
-                Thread.sleep(10);
+    // Starts the phase's workers and, when a source is given, streams it into the phase
+    private <T> void runPhase(SeedPhase<T> phase, Iterator<T> source) throws InterruptedException {
+        phases.add(phase);
+        phase.start();
+        if (source != null) {
+            while (source.hasNext()) {
+                phase.submit(source.next());
             }
-            
-            System.out.println("\n  Summary: " + success + " created, " + failed + " failed");
-        } catch (Exception e) {
-            System.err.println("Error loading products: " + e.getMessage());
-            e.printStackTrace();
         }
     }
     
-    private List<Map<String, Object>> generateProducts(int count) {
-        List<Map<String, Object>> products = new ArrayList<>();
-        String[] categories = {"Electronics", "Computers", "Phones", "Accessories", "Home", "Kitchen", 
-                              "Fitness", "Gaming", "Audio", "Cameras", "TVs", "Wearables", "Smart Home", 
-                              "Appliances", "Tools"};
-        String[] brands = {"TechPro", "SmartBrand", "EliteTech", "ProMax", "UltraTech", "PrimeTech", 
-                          "Apex", "Nexus", "Vertex", "Quantum", "Fusion", "Nova", "Titan", "Zenith", "Pinnacle"};
-        
-        for (int i = 1; i <= count; i++) {
-            Map<String, Object> product = new HashMap<>();
-            String category = categories[i % categories.length];
-            String brand = brands[i % brands.length];
-            String model = "Model-" + String.format("%04d", i);
-            
-            product.put("name", brand + " " + category + " " + model);
-            product.put("description", "High-quality " + category.toLowerCase() + " from " + brand + 
-                       ". Premium features and excellent performance. Model number: " + model);
-            product.put("skuCode", "SKU-" + category.toUpperCase().replace(" ", "-") + "-" + 
-                       String.format("%04d", i));
-            // Generate prices between $19.99 and $9999.99
-            double price = 19.99 + (Math.random() * 9980.0);
-            product.put("price", Math.round(price * 100.0) / 100.0);
-            
-            products.add(product);
+    private void stopPhases() {
+        for (SeedPhase<?> phase : phases) {
+            if (phase.isRunning()) {
+                try {
+                    phase.abort();
+                } catch (InterruptedException e) {
+                    // The workers are interrupted already and exit on their own
+                    Thread.currentThread().interrupt();
+                }
+            }
         }
-        
-        return products;
     }
     
-    private void createInventoryEntries() {
+    private <T> void submit(SeedPhase<T> phase, T record) {
         try {
-            List<Map<String, Object>> products = loadJsonFile("demo-products.json");
-            int success = 0;
-            int failed = 0;
-            
-            for (Map<String, Object> product : products) {
-                String skuCode = (String) product.get("skuCode");
-                // Create inventory with initial quantity of 100 for each product
-                boolean result = apiClient.createInventory(skuCode, 100);
-                if (result) {
-                    success++;
-                    System.out.println("  ✓ Created inventory: " + skuCode + " (qty: 100)");
-                } else {
-                    failed++;
-                    System.out.println("  ✗ Failed: " + skuCode);
-                }
-                Thread.sleep(150); // Small delay between requests
-            }
-            
-            System.out.println("\n  Summary: " + success + " created, " + failed + " failed");
-        } catch (Exception e) {
-            System.err.println("Error creating inventory entries: " + e.getMessage());
+            phase.submit(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
     
-    private void checkInventory() {
-        try {
-            List<Map<String, Object>> checks = loadJsonFile("demo-inventory-checks.json");
-            int success = 0;
-            int failed = 0;
-            
-            for (Map<String, Object> check : checks) {
-                String skuCode = (String) check.get("skuCode");
-                int quantity = ((Double) check.get("quantity")).intValue();
-                boolean result = apiClient.checkInventoryWithParams(skuCode, quantity);
-                if (result) {
-                    success++;
-                    System.out.println("  ✓ Checked: " + skuCode + " (qty: " + quantity + ")");
-                } else {
-                    failed++;
-                    System.out.println("  ✗ Failed: " + skuCode);
-                }
-                Thread.sleep(100);
+    private void printProgress() {
+        for (SeedPhase<?> phase : phases) {
+            if (phase.isRunning()) {
+                System.out.println(phase.progressLine());
             }
-            
-            System.out.println("\n  Summary: " + success + " checked, " + failed + " failed");
-        } catch (Exception e) {
-            System.err.println("Error checking inventory: " + e.getMessage());
         }
     }
     
-    private void placeOrders() {
-        try {
-            List<Map<String, Object>> orders = loadJsonFile("demo-orders.json");
-            int success = 0;
-            int failed = 0;
+    // Products generated on the fly, so any count fits in memory
+    private Iterator<Map<String, Object>> generatedProducts(int count) {
+        return new Iterator<>() {
+            private int next = 1;
             
-            for (Map<String, Object> order : orders) {
-                String orderJson = gson.toJson(order);
-                boolean result = apiClient.placeOrderWithData(orderJson);
-                if (result) {
-                    success++;
-                    Map<String, Object> userDetails = (Map<String, Object>) order.get("userDetails");
-                    System.out.println("  ✓ Order placed for: " + userDetails.get("email"));
-                } else {
-                    failed++;
-                    Map<String, Object> userDetails = (Map<String, Object>) order.get("userDetails");
-                    System.out.println("  ✗ Failed for: " + userDetails.get("email"));
-                }
-                Thread.sleep(300);
+            @Override
+            public boolean hasNext() {
+                return next <= count;
             }
             
-            System.out.println("\n  Summary: " + success + " orders placed, " + failed + " failed");
-        } catch (Exception e) {
-            System.err.println("Error placing orders: " + e.getMessage());
-        }
+            @Override
+            public Map<String, Object> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return generateProduct(next++);
+            }
+        };
+    }
+    
+    private Map<String, Object> generateProduct(int i) {
+        Map<String, Object> product = new HashMap<>();
+        String category = CATEGORIES[i % CATEGORIES.length];
+        String brand = BRANDS[i % BRANDS.length];
+        String model = "Model-" + String.format("%04d", i);
+        
+        product.put("name", brand + " " + category + " " + model);
+        product.put("description", "High-quality " + category.toLowerCase() + " from " + brand +
+                   ". Premium features and excellent performance. Model number: " + model);
+        product.put("skuCode", "SKU-" + category.toUpperCase().replace(" ", "-") + "-" +
+                   String.format("%04d", i));
+        // Generate prices between $19.99 and $9999.99
+        double price = 19.99 + (ThreadLocalRandom.current().nextDouble() * 9980.0);
+        product.put("price", Math.round(price * 100.0) / 100.0);
+        return product;
     }
     
-    @SuppressWarnings("unchecked")
-    private List<Map<String, Object>> loadJsonFile(String filename) throws IOException {
+    private JsonArrayStream resourceStream(String filename) throws IOException {
         InputStream inputStream = getClass().getClassLoader().getResourceAsStream("data/" + filename);
         if (inputStream == null) {
             throw new IOException("File not found: " + filename);
         }
-        
-        Type type = new TypeToken<List<Map<String, Object>>>(){}.getType();
-        try (InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
-            return gson.fromJson(reader, type);
-        }
+        return new JsonArrayStream(new InputStreamReader(inputStream, StandardCharsets.UTF_8), gson);
     }
     
     public static void main(String[] args) {
-        String baseUrl = args.length > 0 ? args[0] : "http://35.198.90.238:9000";
-        DemoDataLoader loader = new DemoDataLoader(baseUrl);
+        String baseUrl = args.length > 0 && !args[0].startsWith("--") ? args[0] : "http://35.198.90.238:9000";
+        SeedConfig seedConfig = new SeedConfig();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--concurrency":
+                    if (i + 1 < args.length) {
+                        seedConfig.setConcurrency(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--rate":
+                    if (i + 1 < args.length) {
+                        seedConfig.setRatePerSecond(Double.parseDouble(args[++i]));
+                    }
+                    break;
+                case "--products":
+                    if (i + 1 < args.length) {
+                        seedConfig.setProductCount(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--products-file":
+                    if (i + 1 < args.length) {
+                        seedConfig.setProductsFile(args[++i]);
+                    }
+                    break;
+                case "--queue":
+                    if (i + 1 < args.length) {
+                        seedConfig.setQueueCapacity(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--retries":
+                    if (i + 1 < args.length) {
+                        seedConfig.setMaxRetries(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--retry-backoff-ms":
+                    if (i + 1 < args.length) {
+                        seedConfig.setRetryBackoffMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--inventory-quantity":
+                    if (i + 1 < args.length) {
+                        seedConfig.setInventoryQuantity(Integer.parseInt(args[++i]));
+                    }
+                    break;
+            }
+        }
+        DemoDataLoader loader = new DemoDataLoader(baseUrl, seedConfig);
         loader.loadDemoData();
     }
 }
-
@@ -1,9 +1,60 @@
 package com.his.project.loadtest;
 
+import com.google.gson.Gson;
+import com.his.project.loadtest.distributed.Coordinator;
+import com.his.project.loadtest.distributed.Worker;
+import com.his.project.loadtest.feeder.FeederConfig;
+import com.his.project.loadtest.feeder.FeederFormat;
+import com.his.project.loadtest.feeder.FeederStrategy;
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.metrics.RequestPhase;
+import com.his.project.loadtest.model.CapacityLevel;
+import com.his.project.loadtest.model.CapacityResult;
+import com.his.project.loadtest.model.ClientEngine;
+import com.his.project.loadtest.model.ConnectionReuse;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.ExecutionMode;
+import com.his.project.loadtest.model.HttpProtocol;
+import com.his.project.loadtest.model.IntervalStats;
+import com.his.project.loadtest.model.LoadProfile;
+import com.his.project.loadtest.model.LoadStage;
+import com.his.project.loadtest.model.PayloadMode;
+import com.his.project.loadtest.model.ProfileUnit;
+import com.his.project.loadtest.model.RequestSpec;
+import com.his.project.loadtest.model.ResponseCheck;
+import com.his.project.loadtest.model.Scenario;
+import com.his.project.loadtest.model.ScenarioMode;
+import com.his.project.loadtest.model.StageStats;
 import com.his.project.loadtest.model.TestConfig;
 import com.his.project.loadtest.model.TestResult;
+import com.his.project.loadtest.model.Threshold;
+import com.his.project.loadtest.model.ThresholdResult;
+import com.his.project.loadtest.recorder.RecordingAnalysis;
+import com.his.project.loadtest.recorder.SampleAnalyzer;
+import com.his.project.loadtest.report.ReportWriter;
+import com.his.project.loadtest.results.MetricComparison;
+import com.his.project.loadtest.results.RunComparison;
+import com.his.project.loadtest.results.RunRecord;
+import com.his.project.loadtest.results.RunStore;
+import com.his.project.loadtest.results.Verdict;
+import com.his.project.loadtest.service.CapacitySearch;
 import com.his.project.loadtest.service.LoadTestService;
+import com.his.project.loadtest.stub.CalibrationResult;
+import com.his.project.loadtest.stub.Calibrator;
+import com.his.project.loadtest.stub.StubGateway;
+import com.his.project.loadtest.util.Distribution;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 public class LoadTestRunner {
@@ -13,25 +64,117 @@ public class LoadTestRunner {
         System.out.println("  Microservices Load Testing Tool");
         System.out.println("==========================================\n");
         
+        // Worker role: everything else comes from the coordinator's plan
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--worker")) {
+                runWorker(args[i + 1]);
+                return;
+            }
+            if (args[i].equals("--analyze")) {
+                runAnalysis(args[i + 1], args);
+                return;
+            }
+            if (args[i].equals("--report-from")) {
+                runReport(args[i + 1], args);
+                return;
+            }
+            if (args[i].equals("--compare")) {
+                runComparison(args, i + 1);
+                return;
+            }
+        }
+        
+        // Stub gateway and calibration against it; both take the normal options
+        for (String arg : args) {
+            if (arg.equals("--stub")) {
+                runStub(parseCommandLineArgs(args));
+                return;
+            }
+            if (arg.equals("--calibrate")) {
+                runCalibration(parseCommandLineArgs(args));
+                return;
+            }
+            if (arg.equals("--capacity-search")) {
+                runCapacitySearch(parseCommandLineArgs(args));
+                return;
+            }
+        }
+        
         TestConfig config;
         
         // Check if command-line arguments are provided for non-interactive mode
         if (args.length > 0) {
             config = parseCommandLineArgs(args);
             System.out.println("Running in non-interactive mode:");
-            if (config.getRequestsPerService() != null) {
+            if (config.getLoadProfile() != null) {
+                LoadProfile profile = config.getLoadProfile();
+                String unit = profile.getUnit() == ProfileUnit.RATE ? " req/s" : " users";
+                System.out.println("  Mode: staged load profile (" + profile.getTotalDurationSeconds() + " s)");
+                for (LoadStage stage : profile.getStages()) {
+                    System.out.println("    " + stage.getName() + ": " + stage.getDurationSeconds() + " s, "
+                        + stage.getTransition().name().toLowerCase() + " to " + stage.getTarget() + unit);
+                }
+            } else if (config.isOpenModel()) {
+                System.out.println("  Mode: open model (constant arrival rate)");
+                if (config.getTargetRps() != null) {
+                    System.out.println("  Target rate: " + config.getTargetRps() + " req/s");
+                }
+                config.getEndpointRps().forEach((endpoint, rate) ->
+                    System.out.println("  Rate for " + endpoint + ": " + rate + " req/s"));
+                if (config.getDurationSeconds() > 0) {
+                    System.out.println("  Duration: " + config.getDurationSeconds() + " s");
+                }
+            }
+            if (config.getScenario() != null) {
+                Scenario scenario = config.getScenario();
+                System.out.println("  Scenario: " + scenario.getName() + " (" + scenario.getMode().name().toLowerCase() + ")");
+                for (RequestSpec request : scenario.getRequests()) {
+                    System.out.println("    " + request.getName()
+                        + (scenario.getMode() == ScenarioMode.WEIGHTED ? " weight " + request.getWeight() : "")
+                        + (!request.getExtract().isEmpty() ? ", extracts " + String.join(", ", request.getExtract().keySet()) : "")
+                        + (scenario.getMode() == ScenarioMode.JOURNEY && request.getThinkTime() != null
+                            && request != scenario.getRequests().get(scenario.getRequests().size() - 1)
+                            ? ", then thinks " + request.getThinkTime() + " ms" : ""));
+                }
+            }
+            if (config.getRequestsPerService() != null && config.getScenario() != null) {
+                System.out.println("  Requests per scenario request: " + config.getRequestsPerService());
+            } else if (config.getRequestsPerService() != null) {
                 System.out.println("  Requests per service endpoint: " + config.getRequestsPerService());
                 if (config.isTestProductService()) {
                     System.out.println("  Product Service: GET " + config.getRequestsPerService() + " + POST " + config.getRequestsPerService() + " = " + (config.getRequestsPerService() * 2) + " total");
                 }
                 System.out.println("  Inventory Service: " + (config.isTestInventoryService() ? "GET " + config.getRequestsPerService() : "disabled"));
                 System.out.println("  Order Service: " + (config.isTestOrderService() ? "POST " + config.getRequestsPerService() : "disabled"));
-            } else {
+            } else if (config.getLoadProfile() == null) {
                 System.out.println("  Total Requests: " + calculateTotalRequests(config));
             }
-            System.out.println("  Threads: " + config.getThreads());
+            System.out.println("  Threads: " + config.getThreads()
+                + (config.getExecutionMode() == ExecutionMode.VIRTUAL ? " (virtual)" : " (platform)"));
             System.out.println("  Requests per thread: " + config.getRequestsPerThread());
+            if (config.getClientEngine() == ClientEngine.ASYNC) {
+                System.out.println("  Client: async " + config.getHttpProtocol() + ", max in-flight " + config.getMaxInFlight()
+                    + ", " + config.getIoThreads() + " I/O threads");
+            }
             System.out.println("  Delay: " + config.getDelayMs() + " ms");
+            if (config.getPayloadMode() == PayloadMode.POOL) {
+                System.out.println("  Payloads: pool of " + config.getPayloadPoolSize() + " per request");
+            }
+            if (config.getFeeder() != null) {
+                System.out.println("  Feeder: " + config.getFeeder().getFile() + " (" + config.getFeeder().getFormat()
+                    + ", " + config.getFeeder().getStrategy() + ")");
+            }
+            if (!config.getThresholds().isEmpty()) {
+                System.out.println("  Thresholds (" + config.getSloWindowSeconds() + " s window"
+                    + (config.getAbortAfterSeconds() > 0 ? ", abort after " + config.getAbortAfterSeconds() + " s breached" : "") + "):");
+                for (Threshold threshold : config.getThresholds()) {
+                    System.out.println("    " + threshold.describe());
+                }
+            }
+            if (config.getWorkers() > 0) {
+                System.out.println("  Distributed: " + config.getWorkers() + " workers (port " + config.getCoordinatorPort()
+                    + "), totals above are split evenly between them");
+            }
         } else {
             Scanner scanner = new Scanner(System.in);
             config = getTestConfiguration(scanner);
@@ -41,14 +184,377 @@ public class LoadTestRunner {
         System.out.println("\nStarting load test...");
         System.out.println("Press Ctrl+C to stop early\n");
         
-        LoadTestService loadTestService = new LoadTestService(config);
-        TestResult result = loadTestService.runLoadTest();
+        TestResult result;
+        if (config.getWorkers() > 0) {
+            try {
+                result = new Coordinator(config).run();
+            } catch (Exception e) {
+                System.err.println("Distributed test failed: " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        } else {
+            LoadTestService loadTestService = new LoadTestService(config);
+            result = loadTestService.runLoadTest();
+        }
         
         // Print results
         printResults(result);
+        if (config.getResultFile() != null || config.getReportFile() != null) {
+            RunRecord record = RunRecord.of(config, result);
+            if (config.getResultFile() != null) {
+                saveResult(record, config.getResultFile());
+            }
+            if (config.getReportFile() != null) {
+                writeReport(record, config.getReportFile());
+            }
+        }
+        if (!result.isSloPassed()) {
+            // Distinct from 1 (the tool itself failed), so CI can tell a regression from a broken run
+            System.exit(2);
+        }
+    }
+    
+    // Format: host:port of the coordinator
+    private static void runWorker(String coordinator) {
+        int colon = coordinator.lastIndexOf(':');
+        String host = colon > 0 ? coordinator.substring(0, colon) : "localhost";
+        int port = Integer.parseInt(colon >= 0 ? coordinator.substring(colon + 1) : coordinator);
+        try {
+            new Worker(host, port).run();
+        } catch (Exception e) {
+            System.err.println("Worker failed: " + e.getMessage());
+            System.exit(1);
+        }
     }
     
+    private static void runStub(TestConfig config) {
+        StubGateway stub = new StubGateway(config.getStub());
+        try {
+            stub.start();
+        } catch (IOException e) {
+            System.err.println("Cannot start stub gateway: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.println("Stub gateway listening on " + stub.getBaseUrl());
+        System.out.println("  Latency: " + config.getStub().getLatency() + " ms");
+        System.out.println("  Error rate: " + config.getStub().getErrorRate() + " (status " + config.getStub().getErrorStatus() + ")");
+        System.out.println("  Response size: " + (config.getStub().getResponseBytes() > 0 ? config.getStub().getResponseBytes() + " bytes" : "minimal"));
+        System.out.println("Press Ctrl+C to stop\n");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stub.close();
+            System.out.println("Served " + stub.getRequestCount() + " requests (" + stub.getErrorCount() + " injected errors)");
+        }));
+        try {
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static void runCalibration(TestConfig config) {
+        System.out.println("Calibrating the generator against an embedded stub gateway...");
+        System.out.println("  Execution: " + config.getExecutionMode() + ", client: " + config.getClientEngine()
+            + ", up to " + config.getThreads() + " users\n");
+        CalibrationResult calibration;
+        try {
+            calibration = new Calibrator(config).run();
+        } catch (IOException e) {
+            System.err.println("Calibration failed: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        
+        System.out.println("\n==========================================");
+        System.out.println("  Calibration Results");
+        System.out.println("==========================================\n");
+        System.out.println("Maximum Rate (stub latency 0):");
+        for (StageStats step : calibration.getSteps()) {
+            System.out.println("  " + String.format("%5d users  rps=%10.1f  p50=%7.3f  p99=%7.3f ms  failed=%d",
+                (int) step.getStage().getTarget(), step.getThroughput(), step.getTotal().getPercentile(50.0),
+                step.getTotal().getPercentile(99.0), step.getTotal().getFailedCount()));
+        }
+        System.out.println("  Max: " + String.format("%.1f", calibration.getMaxThroughput()) + " req/s at "
+            + calibration.getUsersAtMax() + " users"
+            + (calibration.getSaturationUsers() > 0 ? ", saturated from " + calibration.getSaturationUsers() + " users" : ""));
+        
+        TestResult probe = calibration.getProbeResult();
+        System.out.println("\nAdded Latency (" + String.format("%.1f", calibration.getProbeRate()) + " req/s, stub latency "
+            + calibration.getProbeLatency() + " ms):");
+        System.out.println("  Achieved: " + String.format("%.1f", probe.getThroughput()) + " req/s, failed " + probe.getFailedRequests());
+        System.out.println("  " + String.format("%-8s %10s %10s %10s", "", "client", "stub", "added"));
+        double[] percentiles = {50.0, 90.0, 99.0, 99.9};
+        String[] labels = {"p50", "p90", "p99", "p99.9"};
+        for (int i = 0; i < percentiles.length; i++) {
+            double percentile = percentiles[i];
+            System.out.println("  " + String.format("%-8s %10.3f %10.3f %10.3f ms", labels[i],
+                probe.getPercentile(percentile), calibration.getStubServiceTimes().getValueAtPercentile(percentile) / 1_000_000.0,
+                calibration.getAddedLatencyMs(percentile)));
+        }
+        System.out.println("  Max Lag Behind Plan: " + probe.getMaxScheduleLagMs() + " ms");
+    }
+    
+    private static void runCapacitySearch(TestConfig config) {
+        CapacitySearch search;
+        try {
+            search = new CapacitySearch(config);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.println("Searching for the maximum sustainable rate against " + config.getGatewayBaseUrl());
+        for (Threshold threshold : search.getSlo()) {
+            System.out.println("  SLO: " + threshold.describe());
+        }
+        System.out.println();
+        CapacityResult capacity = search.run();
+        
+        System.out.println("\n==========================================");
+        System.out.println("  Capacity Search Results");
+        System.out.println("==========================================\n");
+        String percentile = capacity.getKneePercentile() == Math.floor(capacity.getKneePercentile())
+            ? String.valueOf((long) capacity.getKneePercentile()) : String.valueOf(capacity.getKneePercentile());
+        System.out.println("Throughput vs Latency (measured stage of each level, warm-up excluded):");
+        System.out.println("  " + String.format("%3s %10s %10s %10s %10s %8s %8s  %s",
+            "#", "rate", "goodput", "p50 ms", "p" + percentile + " ms", "errors", "lag ms", "SLO"));
+        for (CapacityLevel level : capacity.getLevelsByRate()) {
+            EndpointStats measured = level.getMeasured().getTotal();
+            System.out.println("  " + String.format("%3d %10.1f %10.1f %10.3f %10.3f %7.2f%% %8d  %s",
+                level.getOrder(), level.getTargetRps(), level.getGoodput(), measured.getPercentile(50.0),
+                measured.getPercentile(capacity.getKneePercentile()), level.getErrorRate(), level.getMaxScheduleLagMs(),
+                level.isSustained() ? "PASS" : "FAIL") + (level == capacity.getKnee() ? "  <- knee" : ""));
+        }
+        System.out.println();
+        if (capacity.getMaxSustainableRps() > 0) {
+            System.out.println("Max Sustainable Rate: " + String.format("%.1f", capacity.getMaxSustainableRps()) + " req/s"
+                + (capacity.getFirstFailingRps() > 0 ? String.format(" (first failing level: %.1f req/s)", capacity.getFirstFailingRps())
+                    : " (no level failed; raise --capacity-max or --capacity-levels)"));
+        } else {
+            System.out.println("Max Sustainable Rate: none, every level broke the SLO (lower --capacity-start)");
+        }
+        if (capacity.getKnee() != null) {
+            System.out.println("Latency Knee: " + String.format("%.1f req/s (p%s %.3f ms)", capacity.getKnee().getTargetRps(),
+                percentile, capacity.getKnee().getMeasured().getTotal().getPercentile(capacity.getKneePercentile())));
+        } else {
+            System.out.println("Latency Knee: not found (needs three levels with rising latency)");
+        }
+        if (capacity.getMaxSustainableRps() == 0) {
+            System.exit(2);
+        }
+    }
+    
+    private static void saveResult(RunRecord record, String file) {
+        try {
+            Path path = RunStore.save(record, file);
+            System.out.println("\nResult saved: " + path + " (" + Files.size(path) / 1024 + " KB)");
+        } catch (IOException e) {
+            System.err.println("Cannot save result to " + file + ": " + e.getMessage());
+        }
+    }
+    
+    private static void writeReport(RunRecord record, String file) {
+        try {
+            List<Path> paths = new ReportWriter(record).write(file);
+            System.out.println("Report written: " + paths.get(0) + ", " + paths.get(1));
+        } catch (IOException e) {
+            System.err.println("Cannot write report " + file + ": " + e.getMessage());
+        }
+    }
+    
+    // Report of a saved result; --report names it (default: the result's name)
+    private static void runReport(String resultFile, String[] args) {
+        String target = resultFile.replaceFirst("(?i)(\\.json)?(\\.gz)?$", "") + "-report";
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--report")) {
+                target = args[i + 1];
+            }
+        }
+        RunRecord record;
+        try {
+            record = RunStore.load(Path.of(resultFile));
+        } catch (IOException e) {
+            System.err.println("Cannot read " + resultFile + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        writeReport(record, target);
+    }
+    
+    // Compares saved results: the first file is the baseline, every further file is compared
+    // against it. --compare-threshold sets the smallest change in percent that counts,
+    // --compare-alpha the significance level. Exits 2 if any run regressed.
+    private static void runComparison(String[] args, int first) {
+        List<String> files = new ArrayList<>();
+        int i = first;
+        while (i < args.length && !args[i].startsWith("--")) {
+            files.add(args[i++]);
+        }
+        double threshold = RunComparison.DEFAULT_THRESHOLD_PERCENT;
+        double alpha = RunComparison.DEFAULT_ALPHA;
+        for (; i < args.length; i++) {
+            switch (args[i]) {
+                case "--compare-threshold":
+                    if (i + 1 < args.length) {
+                        threshold = Double.parseDouble(args[++i]);
+                    }
+                    break;
+                case "--compare-alpha":
+                    if (i + 1 < args.length) {
+                        alpha = Double.parseDouble(args[++i]);
+                    }
+                    break;
+            }
+        }
+        if (files.size() < 2) {
+            System.err.println("--compare needs a baseline and at least one result to compare with it");
+            System.exit(1);
+            return;
+        }
+        List<RunRecord> runs = new ArrayList<>();
+        for (String file : files) {
+            try {
+                runs.add(RunStore.load(Path.of(file)));
+            } catch (IOException e) {
+                System.err.println("Cannot read " + file + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+        }
+        
+        RunComparison comparison = new RunComparison(threshold, alpha);
+        RunRecord baseline = runs.get(0);
+        int regressions = 0;
+        System.out.println("Baseline: " + describeRun(files.get(0), baseline));
+        for (int run = 1; run < runs.size(); run++) {
+            RunRecord candidate = runs.get(run);
+            System.out.println("\n==========================================");
+            System.out.println("Compared: " + describeRun(files.get(run), candidate));
+            List<String> configChanges = RunComparison.differences(baseline.getConfig(), candidate.getConfig());
+            List<String> environmentChanges = RunComparison.differences(baseline.getEnvironment(), candidate.getEnvironment());
+            if (!configChanges.isEmpty() || !environmentChanges.isEmpty()) {
+                System.out.println("Differences from the baseline (results may not be comparable):");
+                configChanges.forEach(change -> System.out.println("  config " + change));
+                environmentChanges.forEach(change -> System.out.println("  environment " + change));
+            }
+            System.out.println("\n  " + String.format("%-22s %-10s %12s %12s %9s %8s %-9s  %s",
+                "endpoint", "metric", "baseline", "compared", "delta", "p-value", "test", "verdict"));
+            String previous = null;
+            for (MetricComparison row : comparison.compare(baseline, candidate)) {
+                String delta = Double.isInfinite(row.getDeltaPercent()) ? "new" : String.format("%+.1f%%", row.getDeltaPercent());
+                String pValue = Double.isNaN(row.getPValue()) ? "-" : String.format("%.4f", row.getPValue());
+                System.out.println("  " + String.format("%-22s %-10s %12.3f %12.3f %9s %8s %-9s  %s",
+                    row.getEndpoint().equals(previous) ? "" : row.getEndpoint(), row.getMetric(), row.getBaseline(),
+                    row.getCandidate(), delta, pValue, row.getTest(), row.getVerdict().getLabel()));
+                previous = row.getEndpoint();
+                if (row.getVerdict() == Verdict.REGRESSION) {
+                    regressions++;
+                }
+            }
+        }
+        System.out.println("\nChanges count when above " + threshold + "% and significant at p < " + alpha
+            + "; throughput in req/s, latency in ms, errors in % of requests");
+        System.out.println(regressions == 0 ? "Result: no regressions" : "Result: " + regressions + " regressed metrics");
+        if (regressions > 0) {
+            System.exit(2);
+        }
+    }
+    
+    private static String describeRun(String file, RunRecord run) {
+        return file + (run.getLabel() != null ? " [" + run.getLabel() + "]" : "") + ", "
+            + Instant.ofEpochMilli(run.getStartEpochMillis()) + ", " + run.getTotalRequests() + " requests in "
+            + String.format("%.1f", run.getDurationSeconds()) + " s";
+    }
+    
+    // Offline analysis of a --record directory: --from / --to (seconds since the run started)
+    // select a window, --interval sets the time-series resolution, --endpoint filters
+    private static void runAnalysis(String directory, String[] args) {
+        SampleAnalyzer analyzer = new SampleAnalyzer(directory);
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--from":
+                    if (i + 1 < args.length) {
+                        analyzer.setFromSeconds(Double.parseDouble(args[++i]));
+                    }
+                    break;
+                case "--to":
+                    if (i + 1 < args.length) {
+                        analyzer.setToSeconds(Double.parseDouble(args[++i]));
+                    }
+                    break;
+                case "--interval":
+                    if (i + 1 < args.length) {
+                        analyzer.setIntervalSeconds(Double.parseDouble(args[++i]));
+                    }
+                    break;
+                case "--endpoint":
+                    if (i + 1 < args.length) {
+                        analyzer.setEndpoint(args[++i]);
+                    }
+                    break;
+            }
+        }
+        RecordingAnalysis analysis;
+        try {
+            analysis = analyzer.run();
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Cannot analyze " + directory + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        
+        System.out.println("Recording: " + directory + " (" + analysis.getSamplesRead() + " samples in "
+            + analysis.getFiles() + " files" + (analysis.getManifest().isComplete() ? "" : ", run did not finish cleanly") + ")");
+        System.out.println("Window: " + String.format("%.3f - %.3f s", analysis.getWindowStartSeconds(), analysis.getWindowEndSeconds())
+            + " after start (" + Instant.ofEpochMilli(analysis.getManifest().getStartEpochMillis()) + ")");
+        System.out.println("\nRequests: " + analysis.getRequests() + " (" + analysis.getFailures() + " failed) from "
+            + analysis.getThreads() + " threads");
+        System.out.println("Throughput: " + String.format("%.2f", analysis.getThroughput()) + " req/s");
+        if (analysis.getResponseBytes() > 0) {
+            System.out.println("Response Bytes: " + analysis.getResponseBytes());
+        }
+        if (analysis.getRequests() == 0) {
+            return;
+        }
+        System.out.println("Response Times (ms):");
+        System.out.println("  " + String.format("%-22s %8s %8s %8s %8s %8s %8s %8s", "", "count", "failed", "p50", "p90", "p99", "p99.9", "max"));
+        for (Map.Entry<String, EndpointStats> entry : analysis.getEndpointStats().entrySet()) {
+            EndpointStats stats = entry.getValue();
+            System.out.println("  " + String.format("%-22s %8d %8d %8.2f %8.2f %8.2f %8.2f %8.2f", entry.getKey(),
+                stats.getRequestCount(), stats.getFailedCount(), stats.getPercentile(50.0), stats.getPercentile(90.0),
+                stats.getPercentile(99.0), stats.getPercentile(99.9), stats.getMaxResponseTime()));
+        }
+        System.out.println("  " + String.format("%-22s %8d %8d %8.2f %8.2f %8.2f %8.2f %8.2f", "ALL",
+            analysis.getRequests(), analysis.getFailures(),
+            analysis.getResponseTimes().getValueAtPercentile(50.0) / 1_000_000.0,
+            analysis.getResponseTimes().getValueAtPercentile(90.0) / 1_000_000.0,
+            analysis.getResponseTimes().getValueAtPercentile(99.0) / 1_000_000.0,
+            analysis.getResponseTimes().getValueAtPercentile(99.9) / 1_000_000.0,
+            analysis.getResponseTimes().getMaxValue() / 1_000_000.0));
+        System.out.println("Status Codes:");
+        analysis.getStatusCounts().forEach((status, count) ->
+            System.out.println("  " + (status < 0 ? "no response" : String.valueOf(status)) + ": " + count));
+        System.out.println("\nTime Series (" + String.format("%.3f", analysis.getIntervalSeconds()) + " s intervals):");
+        System.out.println("  " + String.format("%10s %8s %10s %8s %8s %8s %8s", "t (s)", "count", "rps", "failed", "p50", "p99", "max"));
+        for (IntervalStats row : analysis.getIntervals()) {
+            System.out.println("  " + String.format("%10.3f %8d %10.1f %8d %8.2f %8.2f %8.2f", row.getElapsedSeconds(),
+                row.getRequests(), row.getThroughput(), row.getFailures(), row.getP50Ms(), row.getP99Ms(), row.getMaxMs()));
+        }
+    }
+    
+    // Invalid option values end the run with a usage error instead of a stack trace
     private static TestConfig parseCommandLineArgs(String[] args) {
+        try {
+            return parseOptions(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid arguments: " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+    
+    private static TestConfig parseOptions(String[] args) {
         TestConfig config = new TestConfig();
         
         // Default: all services enabled
@@ -57,6 +563,14 @@ public class LoadTestRunner {
         config.setTestInventoryService(true);
         
         Integer totalRequestsTarget = null;
+        String scenarioFile = null;
+        String mixSpec = null;
+        boolean journey = false;
+        String thinkTime = null;
+        String profileShape = null;
+        String stagesSpec = null;
+        Double profileTarget = null;
+        ProfileUnit profileUnit = null;
         
         // Parse arguments
         for (int i = 0; i < args.length; i++) {
@@ -107,7 +621,403 @@ public class LoadTestRunner {
                         config.setRequestsPerService(Integer.parseInt(args[++i]));
                     }
                     break;
+                case "--rate":
+                    if (i + 1 < args.length) {
+                        config.setTargetRps(Double.parseDouble(args[++i]));
+                    }
+                    break;
+                case "--endpoint-rate":
+                    // Format: "GET /api/product=50"
+                    if (i + 1 < args.length) {
+                        String spec = args[++i];
+                        int eq = spec.lastIndexOf('=');
+                        if (eq > 0) {
+                            config.getEndpointRps().put(spec.substring(0, eq).trim(),
+                                Double.parseDouble(spec.substring(eq + 1).trim()));
+                        }
+                    }
+                    break;
+                case "--check":
+                    // Response checks of one request: "GET /api/product=0.id,0.skuCode,bytes>=20"
+                    if (i + 1 < args.length) {
+                        String spec = args[++i];
+                        int eq = spec.indexOf('=');
+                        if (eq > 0) {
+                            config.getResponseChecks().put(spec.substring(0, eq).trim(),
+                                ResponseCheck.parse(spec.substring(eq + 1)));
+                        }
+                    }
+                    break;
+                case "--execution":
+                case "-e":
+                    // platform | virtual
+                    if (i + 1 < args.length) {
+                        config.setExecutionMode(ExecutionMode.valueOf(args[++i].toUpperCase()));
+                    }
+                    break;
+                case "--pinned-threshold-ms":
+                    // Shortest virtual-thread pinning event that is counted (0 = all)
+                    if (i + 1 < args.length) {
+                        config.setPinnedThresholdMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--virtual-threads":
+                    config.setExecutionMode(ExecutionMode.VIRTUAL);
+                    break;
+                case "--client":
+                    // classic | async
+                    if (i + 1 < args.length) {
+                        config.setClientEngine(ClientEngine.valueOf(args[++i].toUpperCase()));
+                    }
+                    break;
+                case "--http2":
+                    config.setClientEngine(ClientEngine.ASYNC);
+                    config.setHttpProtocol(HttpProtocol.HTTP_2);
+                    break;
+                case "--max-in-flight":
+                    if (i + 1 < args.length) {
+                        config.setMaxInFlight(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--io-threads":
+                    if (i + 1 < args.length) {
+                        config.setIoThreads(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--pool-max-total":
+                    if (i + 1 < args.length) {
+                        config.getConnectionPool().setMaxTotal(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--pool-max-per-route":
+                    if (i + 1 < args.length) {
+                        config.getConnectionPool().setMaxPerRoute(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--keep-alive-ms":
+                    if (i + 1 < args.length) {
+                        config.getConnectionPool().setKeepAliveMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--idle-evict-ms":
+                    if (i + 1 < args.length) {
+                        config.getConnectionPool().setIdleEvictMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--validate-after-ms":
+                    if (i + 1 < args.length) {
+                        config.getConnectionPool().setValidateAfterInactivityMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--connection-ttl-ms":
+                    if (i + 1 < args.length) {
+                        config.getConnectionPool().setConnectionTtlMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--connection-reuse":
+                    // persistent | per-user | per-request
+                    if (i + 1 < args.length) {
+                        config.getConnectionPool().setReuse(ConnectionReuse.valueOf(args[++i].toUpperCase().replace('-', '_')));
+                    }
+                    break;
+                case "--connect-timeout-ms":
+                    // Client timeouts; 0 = wait indefinitely
+                    if (i + 1 < args.length) {
+                        config.getTimeouts().setConnectTimeoutMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--lease-timeout-ms":
+                    if (i + 1 < args.length) {
+                        config.getTimeouts().setLeaseTimeoutMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--response-timeout-ms":
+                    if (i + 1 < args.length) {
+                        config.getTimeouts().setResponseTimeoutMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--deadline-ms":
+                    // Whole-request deadline, lease to last body byte (0 = none)
+                    if (i + 1 < args.length) {
+                        config.getTimeouts().setDeadlineMs(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--histogram-digits":
+                    if (i + 1 < args.length) {
+                        int digits = Integer.parseInt(args[++i]);
+                        if (digits < 1 || digits > LatencyHistogram.MAX_SIGNIFICANT_DIGITS) {
+                            throw new IllegalArgumentException("--histogram-digits must be between 1 and "
+                                + LatencyHistogram.MAX_SIGNIFICANT_DIGITS + ": " + digits);
+                        }
+                        config.setHistogramDigits(digits);
+                    }
+                    break;
+                case "--duration":
+                    if (i + 1 < args.length) {
+                        config.setDurationSeconds(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--report-interval":
+                    // Seconds between live interval reports (0 = off)
+                    if (i + 1 < args.length) {
+                        config.setReportIntervalSeconds(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--threshold":
+                    // SLO gate, repeatable: "p99<500", "GET /api/product:p95<200", "error_rate<1", "rps>50"
+                    if (i + 1 < args.length) {
+                        config.getThresholds().add(Threshold.parse(args[++i]));
+                    }
+                    break;
+                case "--slo-window":
+                    if (i + 1 < args.length) {
+                        config.setSloWindowSeconds(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--abort-after":
+                    // Stop once a threshold stays breached this many seconds (0 = never)
+                    if (i + 1 < args.length) {
+                        config.setAbortAfterSeconds(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--capacity-start":
+                    // Capacity search: first level in req/s, doubled until the SLO breaks
+                    if (i + 1 < args.length) {
+                        config.getCapacitySearch().setStartRps(Double.parseDouble(args[++i]));
+                    }
+                    break;
+                case "--capacity-max":
+                    if (i + 1 < args.length) {
+                        config.getCapacitySearch().setMaxRps(Double.parseDouble(args[++i]));
+                    }
+                    break;
+                case "--capacity-warm-up":
+                    if (i + 1 < args.length) {
+                        config.getCapacitySearch().setWarmUpSeconds(Long.parseLong(args[++i]));
+                    }
+                    break;
+                case "--capacity-resolution":
+                    // Percent gap between the last passing and first failing level at which the search stops
+                    if (i + 1 < args.length) {
+                        config.getCapacitySearch().setResolutionPercent(Double.parseDouble(args[++i]));
+                    }
+                    break;
+                case "--capacity-levels":
+                    if (i + 1 < args.length) {
+                        config.getCapacitySearch().setMaxLevels(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--metrics-port":
+                    // Serve live metrics for Prometheus at http://host:PORT/metrics
+                    if (i + 1 < args.length) {
+                        config.setMetricsPort(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--scenario":
+                    // JSON test plan with the request mix
+                    if (i + 1 < args.length) {
+                        scenarioFile = args[++i];
+                    }
+                    break;
+                case "--mix":
+                    // Weighted mix of the standard requests: "GET /api/product=70,GET /api/inventory=20,POST /api/order=10"
+                    if (i + 1 < args.length) {
+                        mixSpec = args[++i];
+                    }
+                    break;
+                case "--journey":
+                    // Built-in shopper journey: browse products, check stock of the picked one, order it
+                    journey = true;
+                    break;
+                case "--think-time":
+                    // Pause between journey steps that set none, as a distribution in ms (e.g. exponential:2000)
+                    if (i + 1 < args.length) {
+                        thinkTime = args[++i];
+                    }
+                    break;
+                case "--profile":
+                    // Built-in shape: ramp | staircase | spike | soak
+                    if (i + 1 < args.length) {
+                        profileShape = args[++i];
+                    }
+                    break;
+                case "--stages":
+                    // Custom stages: "duration:target[:step|linear[:name]],..."
+                    if (i + 1 < args.length) {
+                        stagesSpec = args[++i];
+                    }
+                    break;
+                case "--profile-target":
+                    if (i + 1 < args.length) {
+                        profileTarget = Double.parseDouble(args[++i]);
+                    }
+                    break;
+                case "--profile-unit":
+                    // users | rate
+                    if (i + 1 < args.length) {
+                        profileUnit = ProfileUnit.valueOf(args[++i].toUpperCase());
+                    }
+                    break;
+                case "--coordinator":
+                    // Number of workers to wait for
+                    if (i + 1 < args.length) {
+                        config.setWorkers(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--port":
+                    if (i + 1 < args.length) {
+                        config.setCoordinatorPort(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--timeseries":
+                    if (i + 1 < args.length) {
+                        config.setTimeSeriesFile(args[++i]);
+                    }
+                    break;
+                case "--payload-mode":
+                    // template | pool
+                    if (i + 1 < args.length) {
+                        config.setPayloadMode(PayloadMode.valueOf(args[++i].toUpperCase()));
+                    }
+                    break;
+                case "--stub-port":
+                    if (i + 1 < args.length) {
+                        config.getStub().setPort(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--stub-latency":
+                    // fixed:MS | uniform:MIN:MAX | exponential:MEAN | lognormal:MEDIAN:SIGMA | bimodal:FAST:SLOW:FRACTION
+                    if (i + 1 < args.length) {
+                        config.getStub().setLatency(Distribution.parse(args[++i]));
+                    }
+                    break;
+                case "--stub-error-rate":
+                    if (i + 1 < args.length) {
+                        config.getStub().setErrorRate(Double.parseDouble(args[++i]));
+                    }
+                    break;
+                case "--stub-error-status":
+                    if (i + 1 < args.length) {
+                        config.getStub().setErrorStatus(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--stub-response-bytes":
+                    if (i + 1 < args.length) {
+                        config.getStub().setResponseBytes(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--payload-pool-size":
+                    if (i + 1 < args.length) {
+                        config.setPayloadPoolSize(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--record":
+                    if (i + 1 < args.length) {
+                        config.setRecordDirectory(args[++i]);
+                    }
+                    break;
+                case "--save-result":
+                    // File, or a directory to create run-<time>.json.gz in
+                    if (i + 1 < args.length) {
+                        config.setResultFile(args[++i]);
+                    }
+                    break;
+                case "--report":
+                    // NAME writes NAME.html and NAME.json
+                    if (i + 1 < args.length) {
+                        config.setReportFile(args[++i]);
+                    }
+                    break;
+                case "--label":
+                    if (i + 1 < args.length) {
+                        config.setResultLabel(args[++i]);
+                    }
+                    break;
+                case "--record-segment-mb":
+                    if (i + 1 < args.length) {
+                        config.setRecordSegmentMb(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--feeder":
+                    if (i + 1 < args.length) {
+                        feeder(config).setFile(args[++i]);
+                    }
+                    break;
+                case "--feeder-format":
+                    // json | jsonl | csv (default: from the file extension)
+                    if (i + 1 < args.length) {
+                        feeder(config).setFormat(FeederFormat.valueOf(args[++i].toUpperCase()));
+                    }
+                    break;
+                case "--feeder-strategy":
+                    // sequential | circular | random | unique
+                    if (i + 1 < args.length) {
+                        feeder(config).setStrategy(FeederStrategy.valueOf(args[++i].toUpperCase()));
+                    }
+                    break;
+                case "--feeder-buffer":
+                    if (i + 1 < args.length) {
+                        feeder(config).setRandomBufferSize(Integer.parseInt(args[++i]));
+                    }
+                    break;
+                case "--feeder-batch":
+                    if (i + 1 < args.length) {
+                        feeder(config).setBatchSize(Integer.parseInt(args[++i]));
+                    }
+                    break;
+            }
+        }
+        
+        if (scenarioFile != null) {
+            config.setScenario(loadScenario(scenarioFile));
+        } else if (mixSpec != null) {
+            config.setScenario(weightedMix(mixSpec));
+        } else if (journey) {
+            config.setScenario(Scenario.journey(null));
+        }
+        if (thinkTime != null) {
+            Scenario scenario = config.getScenario();
+            if (scenario == null || scenario.getMode() != ScenarioMode.JOURNEY) {
+                throw new IllegalArgumentException("--think-time needs a journey (--journey or a JOURNEY scenario)");
+            }
+            for (RequestSpec request : scenario.getRequests()) {
+                if (request.getThinkTime() == null) {
+                    request.setThinkTime(thinkTime);
+                }
+            }
+            scenario.validate();
+        }
+        
+        // Build the load profile; stage targets are users unless a rate was requested
+        if (profileShape != null || stagesSpec != null) {
+            if (profileUnit == null) {
+                profileUnit = config.getTargetRps() != null || !config.getEndpointRps().isEmpty() ? ProfileUnit.RATE : ProfileUnit.USERS;
             }
+            LoadProfile profile;
+            if (stagesSpec != null) {
+                profile = LoadProfile.parse(stagesSpec, profileUnit);
+            } else {
+                double target = profileTarget != null ? profileTarget
+                    : profileUnit == ProfileUnit.RATE && config.getTargetRps() != null ? config.getTargetRps() : config.getThreads();
+                long duration = config.getDurationSeconds() > 0 ? config.getDurationSeconds() : 300;
+                profile = LoadProfile.builtIn(profileShape, profileUnit, target, duration);
+            }
+            config.setLoadProfile(profile);
+            if (profileUnit == ProfileUnit.USERS) {
+                // One worker (and pooled connection) per user at the profile's peak
+                config.setThreads(Math.max(1, (int) Math.ceil(profile.getMaxTarget())));
+            }
+        }
+        
+        if (config.getConnectionPool().getReuse() == ConnectionReuse.PER_USER && config.isOpenModel()) {
+            // Open-model arrivals are not tied to a virtual user that could own a connection
+            throw new IllegalArgumentException("--connection-reuse per-user needs the closed model (no --rate or rate profile)");
+        }
+        if (config.getScenario() != null && config.getScenario().getMode() == ScenarioMode.JOURNEY && config.isOpenModel()
+            && config.getLoadProfile() == null && config.getTargetRps() == null) {
+            // Journeys start on one timeline, so per-endpoint rates have nothing to set
+            throw new IllegalArgumentException("An open-model journey needs --rate (journeys per second) or a rate profile;"
+                + " --endpoint-rate does not apply to journeys");
         }
         
         // Calculate requests per thread if requests per service was specified
@@ -116,6 +1026,14 @@ public class LoadTestRunner {
             // So we need enough iterations to cover all endpoints
             int maxRequestsPerService = config.getRequestsPerService();
             int maxIterations = maxRequestsPerService; // Each endpoint needs this many iterations
+            Scenario scenario = config.getScenario();
+            if (scenario != null && scenario.getMode() == ScenarioMode.WEIGHTED) {
+                // One request per iteration: the rarest request decides how many iterations are needed
+                double totalWeight = scenario.getRequests().stream().mapToDouble(RequestSpec::getWeight).sum();
+                double minWeight = scenario.getRequests().stream().mapToDouble(RequestSpec::getWeight)
+                    .filter(weight -> weight > 0).min().orElse(totalWeight);
+                maxIterations = (int) Math.ceil(maxRequestsPerService * totalWeight / minWeight);
+            }
             
             if (maxIterations > 0) {
                 int threads = config.getThreads();
@@ -124,10 +1042,7 @@ public class LoadTestRunner {
             }
         } else if (totalRequestsTarget != null) {
             // Original logic for total requests
-            int endpointsPerIteration = 0;
-            if (config.isTestProductService()) endpointsPerIteration += 2; // GET + POST
-            if (config.isTestInventoryService()) endpointsPerIteration += 1; // GET
-            if (config.isTestOrderService()) endpointsPerIteration += 1; // POST
+            int endpointsPerIteration = requestsPerIteration(config);
             
             if (endpointsPerIteration > 0) {
                 int iterationsNeeded = (int) Math.ceil((double) totalRequestsTarget / endpointsPerIteration);
@@ -140,12 +1055,58 @@ public class LoadTestRunner {
     }
     
     private static int calculateTotalRequests(TestConfig config) {
+        return config.getThreads() * config.getRequestsPerThread() * requestsPerIteration(config);
+    }
+    
+    private static int requestsPerIteration(TestConfig config) {
+        if (config.getScenario() != null) {
+            return config.getScenario().getRequestsPerIteration();
+        }
         int endpointsPerIteration = 0;
         if (config.isTestProductService()) endpointsPerIteration += 2; // GET + POST
         if (config.isTestInventoryService()) endpointsPerIteration += 1; // GET
         if (config.isTestOrderService()) endpointsPerIteration += 1; // POST
-        
-        return config.getThreads() * config.getRequestsPerThread() * endpointsPerIteration;
+        return endpointsPerIteration;
+    }
+    
+    // Feeder settings, created by the first --feeder* option
+    private static FeederConfig feeder(TestConfig config) {
+        if (config.getFeeder() == null) {
+            config.setFeeder(new FeederConfig());
+        }
+        return config.getFeeder();
+    }
+    
+    private static Scenario loadScenario(String file) {
+        try (Reader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8)) {
+            Scenario scenario = new Gson().fromJson(reader, Scenario.class);
+            if (scenario == null) {
+                throw new IllegalArgumentException("Empty scenario file: " + file);
+            }
+            scenario.validate();
+            return scenario;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot read scenario file " + file + ": " + e.getMessage(), e);
+        }
+    }
+    
+    private static Scenario weightedMix(String spec) {
+        Scenario standard = Scenario.standard(true, true, true);
+        Scenario mix = new Scenario();
+        mix.setName("mix");
+        mix.setMode(ScenarioMode.WEIGHTED);
+        for (String part : spec.split(",")) {
+            int eq = part.lastIndexOf('=');
+            String name = eq > 0 ? part.substring(0, eq).trim() : part.trim();
+            RequestSpec request = standard.getRequests().stream()
+                .filter(candidate -> candidate.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown request in --mix: " + name));
+            request.setWeight(eq > 0 ? Double.parseDouble(part.substring(eq + 1).trim()) : 1.0);
+            mix.getRequests().add(request);
+        }
+        mix.validate();
+        return mix;
     }
     
     private static TestConfig getTestConfiguration(Scanner scanner) {
@@ -185,6 +1146,21 @@ public class LoadTestRunner {
         return config;
     }
     
+    // Failed requests per category over the given endpoints, e.g. "http_5xx 12, response_timeout 3"
+    private static String describeFailures(Collection<EndpointStats> endpoints) {
+        StringBuilder text = new StringBuilder();
+        for (Outcome outcome : Outcome.values()) {
+            long count = 0;
+            for (EndpointStats stats : endpoints) {
+                count += stats.getOutcomeCount(outcome);
+            }
+            if (outcome != Outcome.SUCCESS && count > 0) {
+                text.append(text.length() == 0 ? "" : ", ").append(outcome.getLabel()).append(' ').append(count);
+            }
+        }
+        return text.toString();
+    }
+    
     private static void printResults(TestResult result) {
         System.out.println("\n==========================================");
         System.out.println("  Load Test Results");
@@ -194,19 +1170,148 @@ public class LoadTestRunner {
         System.out.println("Successful: " + result.getSuccessfulRequests());
         System.out.println("Failed: " + result.getFailedRequests());
         System.out.println("Success Rate: " + String.format("%.2f%%", result.getSuccessRate()));
-        System.out.println("\nResponse Times:");
-        System.out.println("  Min: " + result.getMinResponseTime() + " ms");
-        System.out.println("  Max: " + result.getMaxResponseTime() + " ms");
+        if (result.getFailedRequests() > 0) {
+            System.out.println("Failures: " + describeFailures(result.getEndpointStats().values()));
+        }
+        System.out.println("Throughput: " + String.format("%.2f", result.getThroughput()) + " req/s");
+        // Body bytes only; headers and TLS framing are not counted
+        System.out.println("Transfer: " + String.format("sent %.2f MB (%.3f MB/s), received %.2f MB (%.3f MB/s)",
+            result.getTotalBytesSent() / 1_000_000.0, result.getSentMbPerSecond(),
+            result.getTotalBytesReceived() / 1_000_000.0, result.getReceivedMbPerSecond()));
+        if (result.getAllocatedBytes() >= 0) {
+            // Whole-JVM allocation during the run, so includes the HTTP client and JDK threads
+            System.out.println("Generator Allocation: " + String.format("%.0f", result.getAllocatedBytesPerRequest())
+                + " bytes/request (" + String.format("%.1f", result.getAllocatedBytes() / 1_048_576.0) + " MB total)");
+        }
+        if (result.getRecordedSamples() >= 0) {
+            System.out.println("Raw Samples: " + result.getRecordedSamples() + " recorded"
+                + (result.getDroppedSamples() > 0 ? ", " + result.getDroppedSamples() + " dropped" : ""));
+        }
+        if (result.getFeederRecords() >= 0) {
+            System.out.println("Feeder Records: " + result.getFeederRecords()
+                + (result.isFeederExhausted() ? " (file exhausted, test stopped early)" : ""));
+        }
+        if (result.isOpenModel()) {
+            System.out.println("\nSchedule (open model, latency measured from intended send time):");
+            System.out.println("  Target Rate: " + String.format("%.2f", result.getTargetRps())
+                + (result.getTransactionStats().isEmpty() ? " req/s" : " journeys/s"));
+            System.out.println("  Max Lag Behind Plan: " + result.getMaxScheduleLagMs() + " ms");
+            System.out.println("  Avg Lag Behind Plan: " + String.format("%.2f", result.getAvgScheduleLagMs()) + " ms");
+        }
+        if (result.getExecutionMode() == ExecutionMode.VIRTUAL) {
+            System.out.println("\nVirtual Threads:");
+            System.out.println("  Peak Carrier Threads: " + result.getCarrierThreads()
+                + " (scheduler parallelism " + result.getSchedulerParallelism() + ")");
+            System.out.println("  Pinning Events (>= " + result.getPinnedThresholdMs() + " ms): " + result.getPinnedEvents());
+            result.getPinnedSites().forEach((site, count) ->
+                System.out.println("    " + count + "x " + site));
+            if (result.getCarrierThreads() > result.getSchedulerParallelism()) {
+                System.out.println("  Carriers grew past the parallelism: virtual threads blocked their carrier outside");
+                System.out.println("  pinning (e.g. Object.wait, file I/O) and the scheduler added carriers to compensate");
+            }
+        }
+        if (result.getPoolWaitTimes() != null && result.getPoolWaitTimes().getTotalCount() > 0) {
+            System.out.println("\nConnections (" + result.getConnectionReuse() + "):");
+            System.out.println("  Pool Size: " + result.getMaxPoolConnections());
+            System.out.println("  Peak Leased: " + result.getPeakLeasedConnections());
+            System.out.println("  Peak Pending Leases: " + result.getPeakPendingLeases());
+            System.out.println("  Connections Opened: " + result.getConnectionsOpened());
+            System.out.println("  Pool Wait p50/p99/max: " + String.format("%.2f / %.2f / %.2f",
+                result.getPoolWaitTimes().getValueAtPercentile(50.0) / 1_000_000.0,
+                result.getPoolWaitTimes().getValueAtPercentile(99.0) / 1_000_000.0,
+                result.getPoolWaitTimes().getMaxValue() / 1_000_000.0) + " ms");
+        }
+        System.out.println("\nResponse Times (successful requests):");
+        System.out.println("  Min: " + String.format("%.2f", result.getMinResponseTime()) + " ms");
         System.out.println("  Average: " + String.format("%.2f", result.getAvgResponseTime()) + " ms");
-        System.out.println("  Median: " + result.getMedianResponseTime() + " ms");
+        System.out.println("  Median: " + String.format("%.2f", result.getMedianResponseTime()) + " ms");
+        System.out.println("  p90: " + String.format("%.2f", result.getPercentile(90.0)) + " ms");
+        System.out.println("  p99: " + String.format("%.2f", result.getPercentile(99.0)) + " ms");
+        System.out.println("  p99.9: " + String.format("%.2f", result.getPercentile(99.9)) + " ms");
+        System.out.println("  p99.99: " + String.format("%.2f", result.getPercentile(99.99)) + " ms");
+        System.out.println("  Max: " + String.format("%.2f", result.getMaxResponseTime()) + " ms");
+        if (!result.getStageStats().isEmpty()) {
+            System.out.println("\nPer Stage Statistics:");
+            for (StageStats stage : result.getStageStats()) {
+                System.out.println("  " + String.format("%-12s %5ds target=%8.1f requests=%8d rps=%8.1f failed=%6d avg=%8.2f p50=%8.2f p99=%8.2f max=%8.2f ms",
+                    stage.getStage().getName(), stage.getStage().getDurationSeconds(), stage.getStage().getTarget(),
+                    stage.getTotal().getRequestCount(), stage.getThroughput(), stage.getTotal().getFailedCount(),
+                    stage.getTotal().getAvgResponseTime(), stage.getTotal().getPercentile(50.0),
+                    stage.getTotal().getPercentile(99.0), stage.getTotal().getMaxResponseTime()));
+            }
+        }
         System.out.println("\nPer Endpoint Statistics:");
         result.getEndpointStats().forEach((endpoint, stats) -> {
             System.out.println("\n  " + endpoint + ":");
             System.out.println("    Requests: " + stats.getRequestCount());
             System.out.println("    Success: " + stats.getSuccessCount());
             System.out.println("    Failed: " + stats.getFailedCount());
+            if (stats.getCheckFailedCount() > 0) {
+                System.out.println("    Failed Response Checks: " + stats.getCheckFailedCount());
+            }
+            // Failures by category, each with its own latency so timeouts and fast errors stay apart
+            for (Outcome outcome : Outcome.values()) {
+                if (outcome != Outcome.SUCCESS && stats.getOutcomeCount(outcome) > 0) {
+                    System.out.println("      " + outcome.getLabel() + ": " + stats.getOutcomeCount(outcome)
+                        + String.format(" (p50/p99/max %.2f / %.2f / %.2f ms)", stats.getOutcomePercentile(outcome, 50.0),
+                            stats.getOutcomePercentile(outcome, 99.0), stats.getOutcomeTimes(outcome).getMaxValue() / 1_000_000.0));
+                }
+            }
+            if (!stats.getStatusCounts().isEmpty()) {
+                StringBuilder codes = new StringBuilder("    Status Codes:");
+                stats.getStatusCounts().forEach((status, count) -> codes.append(' ').append(status).append('=').append(count));
+                System.out.println(codes);
+            }
+            System.out.println("    Bytes: " + String.format("sent %.1f KB, received %.1f KB (%.3f MB/s)",
+                stats.getBytesSent() / 1000.0, stats.getBytesReceived() / 1000.0,
+                stats.getReceivedMbPerSecond(result.getDurationMs())));
             System.out.println("    Avg Response Time: " + String.format("%.2f", stats.getAvgResponseTime()) + " ms");
+            System.out.println("    p50/p90/p99/p99.9/p99.99/max: " + String.format("%.2f / %.2f / %.2f / %.2f / %.2f / %.2f",
+                stats.getPercentile(50.0), stats.getPercentile(90.0), stats.getPercentile(99.0),
+                stats.getPercentile(99.9), stats.getPercentile(99.99), stats.getMaxResponseTime()) + " ms");
+            if (stats.hasPhaseTimes()) {
+                // Where the time went: pool, connection setup, sending, gateway, body
+                StringBuilder phases = new StringBuilder("    Phases p50/p99:");
+                for (RequestPhase phase : RequestPhase.values()) {
+                    if (stats.getPhaseTimes(phase).getTotalCount() > 0) {
+                        phases.append(String.format("  %s %.2f / %.2f", phase.getLabel(),
+                            stats.getPhasePercentile(phase, 50.0), stats.getPhasePercentile(phase, 99.0)));
+                    }
+                }
+                System.out.println(phases + " ms");
+            }
         });
+        result.getTransactionStats().forEach((journey, stats) -> {
+            // Transactions: whole journeys next to the requests above
+            System.out.println("\nJourney Statistics (" + journey + ", think time excluded):");
+            System.out.println("  Journeys: " + stats.getRequestCount());
+            System.out.println("  Completed: " + stats.getSuccessCount());
+            System.out.println("  Failed: " + stats.getFailedCount()
+                + (result.getSkippedSteps() > 0 ? " (" + result.getSkippedSteps() + " later steps not sent)" : ""));
+            for (Outcome outcome : Outcome.values()) {
+                if (outcome != Outcome.SUCCESS && stats.getOutcomeCount(outcome) > 0) {
+                    System.out.println("    " + outcome.getLabel() + ": " + stats.getOutcomeCount(outcome));
+                }
+            }
+            System.out.println("  Journeys/s: " + String.format("%.2f", stats.getRequestCount() * 1000.0 / Math.max(result.getDurationMs(), 1)));
+            System.out.println("  Avg Transaction Time: " + String.format("%.2f", stats.getAvgResponseTime()) + " ms");
+            System.out.println("  p50/p90/p99/p99.9/p99.99/max: " + String.format("%.2f / %.2f / %.2f / %.2f / %.2f / %.2f",
+                stats.getPercentile(50.0), stats.getPercentile(90.0), stats.getPercentile(99.0),
+                stats.getPercentile(99.9), stats.getPercentile(99.99), stats.getMaxResponseTime()) + " ms");
+        });
+        if (!result.getThresholdResults().isEmpty()) {
+            System.out.println("\nThresholds (whole run):");
+            for (ThresholdResult threshold : result.getThresholdResults()) {
+                String actual = Double.isNaN(threshold.getActual()) ? "no requests"
+                    : String.format("%.2f %s", threshold.getActual(), threshold.getThreshold().unit());
+                System.out.println("  " + (threshold.isPassed() ? "PASS" : "FAIL") + "  " + threshold.getThreshold().describe()
+                    + ": " + actual + (threshold.isAbortedRun() ? " (aborted the run)" : ""));
+            }
+            if (result.getAbortReason() != null) {
+                System.out.println("  Run aborted early: " + result.getAbortReason());
+            }
+            System.out.println("SLO Verdict: " + (result.isSloPassed() ? "PASS" : "FAIL"));
+        }
     }
 }
 
@@ -1,30 +1,164 @@
 package com.his.project.loadtest.client;
 
 import com.google.gson.Gson;
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.metrics.RequestPhase;
+import com.his.project.loadtest.metrics.RequestTrace;
+import com.his.project.loadtest.model.ConnectionPoolConfig;
+import com.his.project.loadtest.model.ConnectionReuse;
+import com.his.project.loadtest.model.TimeoutConfig;
+import com.his.project.loadtest.payload.PayloadBuffer;
+import com.his.project.loadtest.payload.PayloadTemplate;
+import com.his.project.loadtest.payload.RequestTemplate;
+import com.his.project.loadtest.payload.ResponseValidator;
+import org.apache.hc.client5.http.ConnectTimeoutException;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
-import java.util.Random;
-import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-public class ApiClient {
+public class ApiClient implements Closeable {
+    // Payloads of the built-in operations, shared with AsyncApiClient
+    static final PayloadTemplate PRODUCT_BODY = PayloadTemplate.compile(RequestTemplate.PRODUCT_BODY);
+    static final PayloadTemplate ORDER_BODY = PayloadTemplate.compile(RequestTemplate.ORDER_BODY);
+    static final PayloadTemplate INVENTORY_PATH = PayloadTemplate.compile(RequestTemplate.INVENTORY_PATH);
+    
     private final String baseUrl;
     private final CloseableHttpClient httpClient;
+    private final InstrumentedConnectionManager connectionManager;
     private final Gson gson;
-    private final Random random;
+    private final long deadlineMs;
+    private final ScheduledThreadPoolExecutor deadlines; // Cancels requests past their deadline; null = no deadline
+    private final boolean ownsDeadlines;
     
     public ApiClient(String baseUrl) {
+        this(baseUrl, new ConnectionPoolConfig().resolvedFor(PoolingHttpClientConnectionManager.DEFAULT_MAX_TOTAL_CONNECTIONS),
+            new ConnectionMetrics());
+    }
+    
+    public ApiClient(String baseUrl, ConnectionPoolConfig pool, ConnectionMetrics connectionMetrics) {
+        this(baseUrl, pool, new TimeoutConfig(), connectionMetrics);
+    }
+    
+    public ApiClient(String baseUrl, ConnectionPoolConfig pool, TimeoutConfig timeouts, ConnectionMetrics connectionMetrics) {
+        this(baseUrl, pool, timeouts, connectionMetrics, null);
+    }
+    
+    // sharedDeadlines: deadline timer shared by many clients (e.g. one per virtual user), so each
+    // does not start a thread of its own; null = the client creates one when it needs it
+    public ApiClient(String baseUrl, ConnectionPoolConfig pool, TimeoutConfig timeouts, ConnectionMetrics connectionMetrics,
+                     ScheduledThreadPoolExecutor sharedDeadlines) {
         // Remove trailing slash to avoid double slashes when appending paths
         this.baseUrl = baseUrl != null && baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
-        this.httpClient = HttpClients.createDefault();
+        
+        ConnectionConfig.Builder connectionConfig = ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.ofMilliseconds(timeouts.getConnectTimeoutMs()))
+            .setValidateAfterInactivity(TimeValue.ofMilliseconds(pool.getValidateAfterInactivityMs()));
+        if (pool.getConnectionTtlMs() > 0) {
+            connectionConfig.setTimeToLive(TimeValue.ofMilliseconds(pool.getConnectionTtlMs()));
+        }
+        this.connectionManager = new InstrumentedConnectionManager(
+            PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxTotal())
+                .setMaxConnPerRoute(pool.getMaxPerRoute())
+                .setDefaultConnectionConfig(connectionConfig.build())
+                .build(),
+            connectionMetrics);
+        
+        HttpClientBuilder builder = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setRequestExecutor(new TimedRequestExecutor())
+            .setDefaultRequestConfig(requestConfig(timeouts));
+        if (pool.getKeepAliveMs() > 0) {
+            TimeValue keepAlive = TimeValue.ofMilliseconds(pool.getKeepAliveMs());
+            builder.setKeepAliveStrategy((response, context) -> keepAlive);
+        }
+        // The evictor is a thread per client; a single-connection client does without it, since its
+        // connection is revalidated after inactivity and checked against the TTL on every lease
+        if (pool.getIdleEvictMs() > 0 && pool.getMaxTotal() > 1) {
+            builder.evictIdleConnections(TimeValue.ofMilliseconds(pool.getIdleEvictMs()));
+        }
+        if (pool.getConnectionTtlMs() > 0 && pool.getMaxTotal() > 1) {
+            builder.evictExpiredConnections();
+        }
+        if (pool.getReuse() == ConnectionReuse.PER_REQUEST) {
+            // Never return a connection to the pool so every request pays the connection setup cost
+            builder.setConnectionReuseStrategy((request, response, context) -> false);
+        }
+        this.httpClient = builder.build();
         this.gson = new Gson();
-        this.random = new Random();
+        this.deadlineMs = timeouts.getDeadlineMs();
+        this.ownsDeadlines = sharedDeadlines == null;
+        this.deadlines = deadlineMs <= 0 ? null : sharedDeadlines != null ? sharedDeadlines : deadlineTimer();
+    }
+    
+    // Lease and response timeouts of every request; shared with AsyncApiClient
+    static RequestConfig requestConfig(TimeoutConfig timeouts) {
+        return RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.ofMilliseconds(timeouts.getLeaseTimeoutMs()))
+            .setResponseTimeout(Timeout.ofMilliseconds(timeouts.getResponseTimeoutMs()))
+            .build();
+    }
+    
+    // One daemon thread that fires the deadlines of all requests of a client; cancelled timers
+    // are removed at once, since nearly every request finishes before its deadline
+    public static ScheduledThreadPoolExecutor deadlineTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "request-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+    
+    // Failure category of an exception from sending a request or reading its response
+    static Outcome failureOf(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectionRequestTimeoutException || cause instanceof TimeoutException) {
+                return Outcome.LEASE_TIMEOUT;
+            }
+            if (cause instanceof ConnectTimeoutException) {
+                return Outcome.CONNECT_TIMEOUT;
+            }
+            if (cause instanceof SocketTimeoutException) {
+                return Outcome.RESPONSE_TIMEOUT;
+            }
+            if (cause instanceof ConnectException || cause instanceof NoRouteToHostException || cause instanceof UnknownHostException) {
+                return Outcome.CONNECT_ERROR;
+            }
+        }
+        return Outcome.IO_ERROR;
     }
     
     public boolean getProducts() {
@@ -40,16 +174,8 @@ public class ApiClient {
     
     public boolean createProduct() {
         try {
-            String productJson = String.format(
-                "{\"name\":\"Test Product %s\",\"description\":\"Load test product\",\"skuCode\":\"TEST-%s\",\"price\":%.2f}",
-                UUID.randomUUID().toString().substring(0, 8),
-                UUID.randomUUID().toString().substring(0, 8).toUpperCase(),
-                10.0 + random.nextDouble() * 990.0
-            );
-            
             HttpPost request = new HttpPost(baseUrl + "/api/product");
-            request.setHeader("Content-Type", "application/json; charset=UTF-8");
-            request.setEntity(new StringEntity(productJson, StandardCharsets.UTF_8));
+            request.setEntity(templateEntity(PRODUCT_BODY));
             
             try (CloseableHttpResponse response = httpClient.execute(request)) {
                 return response.getCode() == 201;
@@ -61,11 +187,7 @@ public class ApiClient {
     
     public boolean checkInventory() {
         try {
-            String skuCode = "IPHONE-15-PRO-256";
-            int quantity = 1 + random.nextInt(5);
-            HttpGet request = new HttpGet(
-                baseUrl + "/api/inventory?skuCode=" + skuCode + "&quantity=" + quantity
-            );
+            HttpGet request = new HttpGet(baseUrl + INVENTORY_PATH.renderToString());
             
             try (CloseableHttpResponse response = httpClient.execute(request)) {
                 return response.getCode() == 200;
@@ -77,15 +199,8 @@ public class ApiClient {
     
     public boolean placeOrder() {
         try {
-            String orderJson = String.format(
-                "{\"skuCode\":\"IPHONE-15-PRO-256\",\"price\":999.99,\"quantity\":%d,\"userDetails\":{\"email\":\"test%d@example.com\",\"firstName\":\"Test\",\"lastName\":\"User\"}}",
-                1 + random.nextInt(3),
-                random.nextInt(10000)
-            );
-            
             HttpPost request = new HttpPost(baseUrl + "/api/order");
-            request.setHeader("Content-Type", "application/json; charset=UTF-8");
-            request.setEntity(new StringEntity(orderJson, StandardCharsets.UTF_8));
+            request.setEntity(templateEntity(ORDER_BODY));
             
             try (CloseableHttpResponse response = httpClient.execute(request)) {
                 return response.getCode() == 201;
@@ -95,6 +210,98 @@ public class ApiClient {
         }
     }
     
+    // Sends any scenario request and returns the HTTP status code, or -1 if no response arrived;
+    // the calling thread's RequestTrace then holds the request's phases, bytes, check outcome and,
+    // without a response, the failure category
+    public int execute(RequestTemplate template) {
+        // Lease, connect, write and TTFB are closed by the connection manager and request executor
+        RequestTrace trace = RequestTrace.current();
+        trace.begin();
+        // Outside the try so a FeederExhaustedException reaches the caller instead of counting as a failure
+        String uri = template.uri();
+        HttpUriRequestBase request;
+        try {
+            request = new HttpUriRequestBase(template.getMethod(), URI.create(uri));
+        } catch (IllegalArgumentException e) {
+            // A generated URI that is not valid
+            trace.setError(Outcome.IO_ERROR);
+            return -1;
+        }
+        // Aborting the request fails whichever blocking call it is in, lease to body read
+        ScheduledFuture<?> deadline = deadlines != null
+            ? deadlines.schedule(request::cancel, deadlineMs, TimeUnit.MILLISECONDS) : null;
+        try {
+            if (template.hasBody()) {
+                // The body is the thread's reusable buffer; safe because the classic client sends
+                // it before execute() returns
+                PayloadBuffer buffer = PayloadBuffer.current();
+                byte[] body = template.body(buffer);
+                request.setEntity(new ByteArrayEntity(body, 0, buffer.getLength(), ContentType.APPLICATION_JSON));
+                trace.setBytesSent(buffer.getLength());
+            }
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                receive(response.getEntity(), template.getValidator(), trace);
+                trace.end(RequestPhase.READ);
+                return response.getCode();
+            }
+        } catch (Exception e) {
+            trace.setError(request.isCancelled() ? Outcome.DEADLINE_EXCEEDED : failureOf(e));
+            return -1;
+        } finally {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+        }
+    }
+    
+    // Reads the body to the end so the connection can be reused, recording its size and, when the
+    // request has response checks, whether it passed them
+    private static void receive(HttpEntity entity, ResponseValidator validator, RequestTrace trace) throws IOException {
+        if (validator != null) {
+            try (InputStream in = entity != null ? entity.getContent() : InputStream.nullInputStream()) {
+                validator.consume(in, trace);
+            }
+            return;
+        }
+        if (entity == null) {
+            trace.setBytesReceived(0);
+            return;
+        }
+        long length = entity.getContentLength();
+        if (length >= 0) {
+            EntityUtils.consume(entity);
+            trace.setBytesReceived(length);
+            return;
+        }
+        // Chunked: count while reading
+        long total = 0;
+        try (InputStream in = entity.getContent()) {
+            byte[] scratch = new byte[4096];
+            int n;
+            while ((n = in.read(scratch)) > 0) {
+                total += n;
+            }
+        }
+        trace.setBytesReceived(total);
+    }
+    
+    // Sends a request with an optional JSON body and returns the HTTP status code, or -1 if no
+    // response arrived; used where the caller decides what counts as success (e.g. seeding retries)
+    public int send(String method, String path, String json) {
+        try {
+            HttpUriRequestBase request = new HttpUriRequestBase(method, URI.create(baseUrl + path));
+            if (json != null) {
+                request.setEntity(new StringEntity(json, ContentType.APPLICATION_JSON));
+            }
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                EntityUtils.consume(response.getEntity());
+                return response.getCode();
+            }
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+    
     public boolean createProductWithData(String productJson) {
         try {
             HttpPost request = new HttpPost(baseUrl + "/api/product");
@@ -173,5 +380,23 @@ public class ApiClient {
             return false;
         }
     }
+    
+    // Live pool state: leased, pending (waiting for a lease) and available connections
+    public PoolStats getPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+        if (deadlines != null && ownsDeadlines) {
+            deadlines.shutdownNow();
+        }
+    }
+    
+    private static ByteArrayEntity templateEntity(PayloadTemplate template) {
+        PayloadBuffer buffer = PayloadBuffer.current();
+        byte[] body = template.render(buffer);
+        return new ByteArrayEntity(body, 0, buffer.getLength(), ContentType.APPLICATION_JSON);
+    }
 }
-
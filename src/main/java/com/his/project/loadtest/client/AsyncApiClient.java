@@ -0,0 +1,196 @@
+package com.his.project.loadtest.client;
+
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.metrics.RequestTrace;
+import com.his.project.loadtest.model.HttpProtocol;
+import com.his.project.loadtest.model.TimeoutConfig;
+import com.his.project.loadtest.payload.RequestTemplate;
+import com.his.project.loadtest.payload.ResponseValidator;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Non-blocking counterpart of ApiClient built on the httpclient5 async client.
+// Every operation returns immediately with a future; a semaphore caps the number of
+// requests in flight so an overloaded gateway cannot make the generator queue without bound.
+public class AsyncApiClient implements Closeable {
+    private final String baseUrl;
+    private final CloseableHttpAsyncClient httpClient;
+    private final HttpProtocol protocol;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final long deadlineMs;
+    private final ScheduledThreadPoolExecutor deadlines; // null = no deadline
+    
+    public AsyncApiClient(String baseUrl, HttpProtocol protocol, int maxInFlight, int ioThreads) {
+        this(baseUrl, protocol, maxInFlight, ioThreads, new TimeoutConfig());
+    }
+    
+    public AsyncApiClient(String baseUrl, HttpProtocol protocol, int maxInFlight, int ioThreads, TimeoutConfig timeouts) {
+        this.baseUrl = baseUrl != null && baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.protocol = protocol;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+            .setIoThreadCount(ioThreads)
+            .build();
+        RequestConfig requestConfig = ApiClient.requestConfig(timeouts);
+        if (protocol == HttpProtocol.HTTP_2) {
+            // All requests to the gateway are multiplexed over HTTP/2 streams; without a pool the
+            // connect timeout can only be set per request
+            @SuppressWarnings("deprecation")
+            RequestConfig h2Config = RequestConfig.copy(requestConfig)
+                .setConnectTimeout(Timeout.ofMilliseconds(timeouts.getConnectTimeoutMs()))
+                .build();
+            this.httpClient = HttpAsyncClients.customHttp2()
+                .setIOReactorConfig(ioReactorConfig)
+                .setDefaultRequestConfig(h2Config)
+                .build();
+        } else {
+            this.httpClient = HttpAsyncClients.custom()
+                .setIOReactorConfig(ioReactorConfig)
+                .setDefaultRequestConfig(requestConfig)
+                .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(maxInFlight)
+                    .setMaxConnPerRoute(maxInFlight)
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(timeouts.getConnectTimeoutMs()))
+                        .build())
+                    .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_1)
+                        .build())
+                    .build())
+                .build();
+        }
+        this.httpClient.start();
+        this.deadlineMs = timeouts.getDeadlineMs();
+        this.deadlines = deadlineMs > 0 ? ApiClient.deadlineTimer() : null;
+    }
+    
+    public CompletableFuture<Boolean> getProducts() {
+        return execute(SimpleRequestBuilder.get(baseUrl + "/api/product").build(), 200);
+    }
+    
+    public CompletableFuture<Boolean> createProduct() {
+        SimpleHttpRequest request = SimpleRequestBuilder.post(baseUrl + "/api/product")
+            .setBody(ApiClient.PRODUCT_BODY.renderToArray(), ContentType.APPLICATION_JSON)
+            .build();
+        return execute(request, 201);
+    }
+    
+    public CompletableFuture<Boolean> checkInventory() {
+        return execute(SimpleRequestBuilder.get(baseUrl + ApiClient.INVENTORY_PATH.renderToString()).build(), 200);
+    }
+    
+    public CompletableFuture<Boolean> placeOrder() {
+        SimpleHttpRequest request = SimpleRequestBuilder.post(baseUrl + "/api/order")
+            .setBody(ApiClient.ORDER_BODY.renderToArray(), ContentType.APPLICATION_JSON)
+            .build();
+        return execute(request, 201);
+    }
+    
+    // Sends any scenario request; completes with the HTTP status code, or -1 if no response arrived.
+    // The I/O thread fills in the TTFB and read phases, bytes received, check outcome and failure
+    // category before the future completes.
+    public CompletableFuture<Integer> execute(RequestTemplate template, RequestTrace trace) {
+        trace.begin();
+        SimpleRequestBuilder builder = SimpleRequestBuilder.create(template.getMethod())
+            .setUri(template.uri());
+        if (template.hasBody()) {
+            // Sent later on an I/O thread, so the body must not be the caller's reusable buffer
+            byte[] body = template.detachedBody();
+            builder.setBody(body, ContentType.APPLICATION_JSON);
+            trace.setBytesSent(body.length);
+        }
+        return send(builder.build(), trace, template.getValidator());
+    }
+    
+    private CompletableFuture<Boolean> execute(SimpleHttpRequest request, int expectedStatus) {
+        return send(request, new RequestTrace(), null).thenApply(status -> status == expectedStatus);
+    }
+    
+    private CompletableFuture<Integer> send(SimpleHttpRequest request, RequestTrace trace, ResponseValidator validator) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        try {
+            // Blocks the caller only when the in-flight cap is reached
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.complete(-1);
+            return future;
+        }
+        // Permits are released after completing the future so awaitIdle() also covers the
+        // dependent stages that record the result
+        FutureCallback<Integer> callback = new FutureCallback<Integer>() {
+            @Override
+            public void completed(Integer status) {
+                future.complete(status);
+                inFlight.release();
+            }
+            
+            @Override
+            public void failed(Exception ex) {
+                trace.setError(ApiClient.failureOf(ex));
+                future.complete(-1);
+                inFlight.release();
+            }
+            
+            @Override
+            public void cancelled() {
+                // Only the deadline cancels requests
+                trace.setError(Outcome.DEADLINE_EXCEEDED);
+                future.complete(-1);
+                inFlight.release();
+            }
+        };
+        Future<Integer> call = httpClient.execute(SimpleRequestProducer.create(request), new TimedResponseConsumer(trace, validator), callback);
+        if (deadlines != null) {
+            ScheduledFuture<?> deadline = deadlines.schedule(() -> call.cancel(true), deadlineMs, TimeUnit.MILLISECONDS);
+            future.whenComplete((status, error) -> deadline.cancel(false));
+        }
+        return future;
+    }
+    
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+    
+    public HttpProtocol getProtocol() {
+        return protocol;
+    }
+    
+    // Waits until every request handed to the client has completed
+    public void awaitIdle() throws InterruptedException {
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+    
+    @Override
+    public void close() {
+        httpClient.close(CloseMode.GRACEFUL);
+        if (deadlines != null) {
+            deadlines.shutdownNow();
+        }
+    }
+}
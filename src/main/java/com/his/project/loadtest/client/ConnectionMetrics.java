@@ -0,0 +1,38 @@
+package com.his.project.loadtest.client;
+
+import com.his.project.loadtest.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Connection-level measurements shared by every connection manager of a test run.
+// Lease wait is the time a request spent waiting for a pooled connection before it could be
+// sent; it is kept apart from the response time so pool starvation is visible on its own.
+// Per-request phases (lease included) go to the request's RequestTrace instead.
+public class ConnectionMetrics {
+    private final LatencyHistogram leaseWaitTimes;
+    private final LongAdder connectionsOpened = new LongAdder();
+    
+    public ConnectionMetrics() {
+        this(LatencyHistogram.DEFAULT_SIGNIFICANT_DIGITS);
+    }
+    
+    public ConnectionMetrics(int significantDigits) {
+        this.leaseWaitTimes = new LatencyHistogram(significantDigits);
+    }
+    
+    void recordLeaseWait(long nanos) {
+        leaseWaitTimes.recordValue(nanos);
+    }
+    
+    void recordConnectionOpened() {
+        connectionsOpened.increment();
+    }
+    
+    public LatencyHistogram getLeaseWaitTimes() {
+        return leaseWaitTimes;
+    }
+    
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+}
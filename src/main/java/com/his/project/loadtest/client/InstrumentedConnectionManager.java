@@ -0,0 +1,141 @@
+package com.his.project.loadtest.client;
+
+import com.his.project.loadtest.metrics.RequestPhase;
+import com.his.project.loadtest.metrics.RequestTrace;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+// Pooling connection manager that times how long each lease waits for a free connection and
+// counts newly opened connections. Lease and connect also close those phases of the calling
+// thread's RequestTrace. Implements ConnPoolControl as well so HttpClientBuilder's
+// idle/expired eviction keeps working through the wrapper.
+public class InstrumentedConnectionManager implements HttpClientConnectionManager, ConnPoolControl<HttpRoute> {
+    private final PoolingHttpClientConnectionManager delegate;
+    private final ConnectionMetrics metrics;
+    
+    public InstrumentedConnectionManager(PoolingHttpClientConnectionManager delegate, ConnectionMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        long start = System.nanoTime();
+        LeaseRequest request = delegate.lease(id, route, requestTimeout, state);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                try {
+                    return request.get(timeout);
+                } finally {
+                    metrics.recordLeaseWait(System.nanoTime() - start);
+                    RequestTrace trace = RequestTrace.current();
+                    trace.end(RequestPhase.LEASE);
+                    // Overwritten by connect() when the leased connection is not open yet
+                    trace.skip(RequestPhase.CONNECT);
+                }
+            }
+            
+            @Override
+            public boolean cancel() {
+                return request.cancel();
+            }
+        };
+    }
+    
+    @Override
+    public void release(ConnectionEndpoint endpoint, Object newState, TimeValue validDuration) {
+        delegate.release(endpoint, newState, validDuration);
+    }
+    
+    @Override
+    public void connect(ConnectionEndpoint endpoint, TimeValue connectTimeout, HttpContext context) throws IOException {
+        metrics.recordConnectionOpened();
+        delegate.connect(endpoint, connectTimeout, context);
+        RequestTrace.current().end(RequestPhase.CONNECT);
+    }
+    
+    @Override
+    public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+        delegate.upgrade(endpoint, context);
+    }
+    
+    @Override
+    public void close(CloseMode closeMode) {
+        delegate.close(closeMode);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+    
+    @Override
+    public void setMaxTotal(int max) {
+        delegate.setMaxTotal(max);
+    }
+    
+    @Override
+    public int getMaxTotal() {
+        return delegate.getMaxTotal();
+    }
+    
+    @Override
+    public void setDefaultMaxPerRoute(int max) {
+        delegate.setDefaultMaxPerRoute(max);
+    }
+    
+    @Override
+    public int getDefaultMaxPerRoute() {
+        return delegate.getDefaultMaxPerRoute();
+    }
+    
+    @Override
+    public void setMaxPerRoute(HttpRoute route, int max) {
+        delegate.setMaxPerRoute(route, max);
+    }
+    
+    @Override
+    public int getMaxPerRoute(HttpRoute route) {
+        return delegate.getMaxPerRoute(route);
+    }
+    
+    @Override
+    public void closeIdle(TimeValue idleTime) {
+        delegate.closeIdle(idleTime);
+    }
+    
+    @Override
+    public void closeExpired() {
+        delegate.closeExpired();
+    }
+    
+    @Override
+    public Set<HttpRoute> getRoutes() {
+        return delegate.getRoutes();
+    }
+    
+    @Override
+    public PoolStats getTotalStats() {
+        return delegate.getTotalStats();
+    }
+    
+    @Override
+    public PoolStats getStats(HttpRoute route) {
+        return delegate.getStats(route);
+    }
+}
@@ -0,0 +1,143 @@
+package com.his.project.loadtest.client;
+
+import com.his.project.loadtest.metrics.RequestPhase;
+import com.his.project.loadtest.metrics.RequestTrace;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.EndpointDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http.impl.io.HttpRequestExecutor;
+import org.apache.hc.core5.http.io.HttpClientConnection;
+import org.apache.hc.core5.http.io.HttpResponseInformationCallback;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.Timeout;
+
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.SocketAddress;
+
+// Request executor of the classic client that closes the write and time-to-first-byte phases of
+// the calling thread's RequestTrace. The executor sends the request and reads the response head
+// through the connection it is handed, so it is handed a wrapper that notes when the request has
+// been flushed and when the final response head has been parsed.
+class TimedRequestExecutor extends HttpRequestExecutor {
+    @Override
+    public ClassicHttpResponse execute(ClassicHttpRequest request, HttpClientConnection conn,
+                                       HttpResponseInformationCallback informationCallback,
+                                       HttpContext context) throws IOException, HttpException {
+        return super.execute(request, new TimedConnection(conn, RequestTrace.current()), informationCallback, context);
+    }
+    
+    private static final class TimedConnection implements HttpClientConnection {
+        private final HttpClientConnection delegate;
+        private final RequestTrace trace;
+    
+        TimedConnection(HttpClientConnection delegate, RequestTrace trace) {
+            this.delegate = delegate;
+            this.trace = trace;
+        }
+    
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+            trace.end(RequestPhase.WRITE);
+        }
+    
+        @Override
+        public ClassicHttpResponse receiveResponseHeader() throws HttpException, IOException {
+            ClassicHttpResponse response = delegate.receiveResponseHeader();
+            // 1xx informational heads are followed by the final one
+            if (response.getCode() >= 200) {
+                trace.end(RequestPhase.TTFB);
+            }
+            return response;
+        }
+    
+        @Override
+        public void sendRequestHeader(ClassicHttpRequest request) throws HttpException, IOException {
+            delegate.sendRequestHeader(request);
+        }
+    
+        @Override
+        public void sendRequestEntity(ClassicHttpRequest request) throws HttpException, IOException {
+            delegate.sendRequestEntity(request);
+        }
+    
+        @Override
+        public void terminateRequest(ClassicHttpRequest request) throws HttpException, IOException {
+            delegate.terminateRequest(request);
+        }
+    
+        @Override
+        public void receiveResponseEntity(ClassicHttpResponse response) throws HttpException, IOException {
+            delegate.receiveResponseEntity(response);
+        }
+    
+        @Override
+        public boolean isConsistent() {
+            return delegate.isConsistent();
+        }
+    
+        @Override
+        public boolean isDataAvailable(Timeout timeout) throws IOException {
+            return delegate.isDataAvailable(timeout);
+        }
+    
+        @Override
+        public boolean isStale() throws IOException {
+            return delegate.isStale();
+        }
+    
+        @Override
+        public EndpointDetails getEndpointDetails() {
+            return delegate.getEndpointDetails();
+        }
+    
+        @Override
+        public SocketAddress getLocalAddress() {
+            return delegate.getLocalAddress();
+        }
+    
+        @Override
+        public SocketAddress getRemoteAddress() {
+            return delegate.getRemoteAddress();
+        }
+    
+        @Override
+        public ProtocolVersion getProtocolVersion() {
+            return delegate.getProtocolVersion();
+        }
+    
+        @Override
+        public SSLSession getSSLSession() {
+            return delegate.getSSLSession();
+        }
+    
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+    
+        @Override
+        public Timeout getSocketTimeout() {
+            return delegate.getSocketTimeout();
+        }
+    
+        @Override
+        public void setSocketTimeout(Timeout timeout) {
+            delegate.setSocketTimeout(timeout);
+        }
+    
+        @Override
+        public void close(CloseMode closeMode) {
+            delegate.close(closeMode);
+        }
+    
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.his.project.loadtest.client;
+
+import com.his.project.loadtest.metrics.RequestPhase;
+import com.his.project.loadtest.metrics.RequestTrace;
+import com.his.project.loadtest.payload.ResponseValidator;
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+// Response consumer of the async client that closes the time-to-first-byte phase when the
+// response head arrives and the read phase when the body ends, counting the body bytes on the
+// way and completing with the status code. Lease, connect and write happen on the I/O reactor
+// without a per-request hook, so for async requests they are part of TTFB.
+// The body arrives as buffers pushed by the reactor, which a pull parser cannot walk, so it is
+// kept only when the request has JSON response checks; they are evaluated once it is complete,
+// reading the buffer in place. A body past the check's byte limit fails on its size alone, so it
+// is dropped as soon as it gets there instead of being held to the end.
+class TimedResponseConsumer extends AbstractBinResponseConsumer<Integer> {
+    // Largest buffer sized up front from Content-Length; beyond it the buffer grows as data arrives
+    private static final int MAX_PRESIZE = 1 << 20;
+    
+    private final RequestTrace trace;
+    private final ResponseValidator validator;
+    private final boolean parse;
+    private final long limit;
+    private BodyBuffer body; // null until the head arrives, and again once the body is over the limit
+    private int status;
+    private long bytes;
+    
+    TimedResponseConsumer(RequestTrace trace, ResponseValidator validator) {
+        this.trace = trace;
+        this.validator = validator;
+        this.parse = validator != null && validator.hasJsonChecks();
+        this.limit = validator != null ? validator.getMaxBytes() : 0;
+    }
+    
+    @Override
+    protected void start(HttpResponse response, ContentType contentType) throws HttpException, IOException {
+        trace.end(RequestPhase.TTFB);
+        status = response.getCode();
+        if (parse) {
+            body = new BodyBuffer(initialSize(response.getFirstHeader(HttpHeaders.CONTENT_LENGTH)));
+        }
+    }
+    
+    private int initialSize(Header contentLength) {
+        long size = 256;
+        if (contentLength != null) {
+            try {
+                size = Long.parseLong(contentLength.getValue().trim());
+            } catch (NumberFormatException e) {
+                // Keep the default
+            }
+        }
+        if (limit > 0) {
+            size = Math.min(size, limit + 1);
+        }
+        return (int) Math.max(Math.min(size, MAX_PRESIZE), 32);
+    }
+    
+    @Override
+    protected int capacityIncrement() {
+        return Integer.MAX_VALUE;
+    }
+    
+    @Override
+    protected void data(ByteBuffer src, boolean endOfStream) throws IOException {
+        int length = src.remaining();
+        bytes += length;
+        if (body != null && limit > 0 && bytes > limit) {
+            body = null;
+        }
+        if (body != null) {
+            if (src.hasArray()) {
+                body.write(src.array(), src.arrayOffset() + src.position(), length);
+                src.position(src.limit());
+            } else {
+                while (src.hasRemaining()) {
+                    body.write(src.get());
+                }
+            }
+        } else {
+            src.position(src.limit());
+        }
+    }
+    
+    @Override
+    protected Integer buildResult() {
+        trace.end(RequestPhase.READ);
+        trace.setBytesReceived(bytes);
+        if (body != null) {
+            try {
+                validator.consume(body.toInputStream(), trace);
+            } catch (IOException e) {
+                trace.setCheckFailed(true);
+            }
+        } else if (validator != null) {
+            trace.setCheckFailed(!validator.sizeMatches(bytes));
+        }
+        return status;
+    }
+    
+    @Override
+    public void releaseResources() {
+        body = null;
+    }
+    
+    // Growable buffer whose bytes are read where they are, without the copy toByteArray() makes
+    private static final class BodyBuffer extends ByteArrayOutputStream {
+        BodyBuffer(int size) {
+            super(size);
+        }
+    
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
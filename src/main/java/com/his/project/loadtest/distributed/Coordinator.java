@@ -0,0 +1,199 @@
+package com.his.project.loadtest.distributed;
+
+import com.google.gson.Gson;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.LoadProfile;
+import com.his.project.loadtest.model.LoadStage;
+import com.his.project.loadtest.model.ProfileUnit;
+import com.his.project.loadtest.model.StageStats;
+import com.his.project.loadtest.model.TestConfig;
+import com.his.project.loadtest.model.TestResult;
+import com.his.project.loadtest.service.IntervalReporter;
+import com.his.project.loadtest.service.SloGate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Coordinator role: waits for N workers, gives each an equal share of the test plan with a common
+// start time, shows the merged live interval stream and merges the final worker results.
+public class Coordinator {
+    private static final int WORKER_WAIT_MS = 300_000;
+    // Lead time for every worker to receive its plan and build its clients before the start
+    private static final long START_DELAY_MS = 3000;
+    
+    private final TestConfig config;
+    private final Gson gson = new Gson();
+    // Cumulative live statistics assembled from the workers' interval deltas
+    private final Map<String, EndpointStats> liveStats = new ConcurrentHashMap<>();
+    
+    public Coordinator(TestConfig config) {
+        this.config = config;
+    }
+    
+    public TestResult run() throws IOException, InterruptedException {
+        int workers = config.getWorkers();
+        List<MessageChannel> channels = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(config.getCoordinatorPort())) {
+            server.setSoTimeout(WORKER_WAIT_MS);
+            System.out.println("Waiting for " + workers + " workers on port " + config.getCoordinatorPort() + "...");
+            while (channels.size() < workers) {
+                MessageChannel channel = new MessageChannel(server.accept());
+                Message hello = channel.read();
+                if (hello == null || !Message.HELLO.equals(hello.getType())) {
+                    channel.close();
+                    continue;
+                }
+                channels.add(channel);
+                System.out.println("  Worker " + (channels.size() - 1) + " connected from " + channel.getRemoteAddress());
+            }
+        }
+    
+        long startAtMs = System.currentTimeMillis() + START_DELAY_MS;
+        for (int i = 0; i < workers; i++) {
+            Message plan = new Message(Message.PLAN);
+            plan.setWorkerId(i);
+            plan.setConfig(planFor(i, workers));
+            plan.setStartAtMs(startAtMs);
+            channels.get(i).send(plan);
+        }
+    
+        TestResult merged = new TestResult();
+        LoadProfile profile = config.getLoadProfile();
+        if (profile != null) {
+            for (LoadStage stage : profile.getStages()) {
+                merged.getStageStats().add(new StageStats(stage, config.getHistogramDigits()));
+            }
+        }
+    
+        IntervalReporter reporter = null;
+        if (config.getReportIntervalSeconds() > 0 || !config.getThresholds().isEmpty()) {
+            reporter = new IntervalReporter(liveStats, TimeUnit.SECONDS.toMillis(Math.max(config.getReportIntervalSeconds(), 1)),
+                config.getTimeSeriesFile(), null, config.getHistogramDigits());
+            if (profile != null) {
+                long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(startAtMs - System.currentTimeMillis());
+                reporter.setStageSource(
+                    () -> profile.getStages().get(profile.stageIndexAt(System.nanoTime() - startNanos)).getName(),
+                    () -> profile.targetAt(System.nanoTime() - startNanos));
+            }
+        }
+        long wait = startAtMs - System.currentTimeMillis();
+        if (wait > 0) {
+            Thread.sleep(wait);
+        }
+        // Thresholds are judged on the merged stream, since rates and counts are split between workers
+        SloGate gate = null;
+        if (!config.getThresholds().isEmpty()) {
+            gate = new SloGate(config.getThresholds(), config.getSloWindowSeconds(), config.getAbortAfterSeconds(),
+                config.getHistogramDigits());
+            gate.setOnAbort(reason -> stopWorkers(channels, "SLO breached: " + reason));
+            reporter.setListener(gate);
+        }
+        if (reporter != null) {
+            reporter.start();
+        }
+    
+        List<Thread> readers = new ArrayList<>();
+        for (MessageChannel channel : channels) {
+            Thread reader = new Thread(() -> receive(channel, merged), "coordinator-" + channel.getRemoteAddress());
+            readers.add(reader);
+            reader.start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+    
+        if (reporter != null) {
+            reporter.stop();
+            merged.setIntervals(reporter.getIntervals());
+        }
+        if (gate != null) {
+            gate.finish(merged);
+        }
+        return merged;
+    }
+    
+    private static void stopWorkers(List<MessageChannel> channels, String reason) {
+        System.out.println(reason + ", stopping the workers");
+        Message stop = new Message(Message.STOP);
+        stop.setReason(reason);
+        for (MessageChannel channel : channels) {
+            try {
+                channel.send(stop);
+            } catch (IOException e) {
+                System.err.println("Cannot stop worker " + channel.getRemoteAddress() + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    private void receive(MessageChannel channel, TestResult merged) {
+        try (channel) {
+            Message message;
+            while ((message = channel.read()) != null) {
+                switch (message.getType()) {
+                    case Message.INTERVAL:
+                        message.getInterval().forEach((endpoint, report) -> liveStats.merge(endpoint, report.toStats(),
+                            (existing, added) -> {
+                                existing.merge(added);
+                                return existing;
+                            }));
+                        break;
+                    case Message.RESULT:
+                        synchronized (merged) {
+                            message.getResult().mergeInto(merged);
+                        }
+                        return;
+                    case Message.ERROR:
+                        System.err.println("Worker " + message.getWorkerId() + " failed: " + message.getError());
+                        return;
+                    default:
+                        System.err.println("Ignoring unexpected message " + message.getType());
+                }
+            }
+            System.err.println("Worker at " + channel.getRemoteAddress() + " disconnected without a result");
+        } catch (IOException e) {
+            System.err.println("Error reading from worker " + channel.getRemoteAddress() + ": " + e.getMessage());
+        }
+    }
+    
+    // Worker i's share: threads, request counts, rates and profile targets divided evenly
+    private TestConfig planFor(int index, int workers) {
+        TestConfig plan = gson.fromJson(gson.toJson(config), TestConfig.class);
+        plan.setWorkers(0);
+        plan.setTimeSeriesFile(null);
+        plan.setThresholds(new ArrayList<>());
+        plan.setThreads(Math.max(1, share(config.getThreads(), index, workers)));
+        if (config.getRequestsPerService() != null) {
+            int requests = share(config.getRequestsPerService(), index, workers);
+            plan.setRequestsPerService(requests);
+            // Same headroom rule as the command line: enough iterations per thread to reach the target
+            plan.setRequestsPerThread((int) Math.ceil((double) requests / plan.getThreads()) + 100);
+        }
+        if (config.getTargetRps() != null) {
+            plan.setTargetRps(config.getTargetRps() / workers);
+        }
+        plan.getEndpointRps().replaceAll((endpoint, rate) -> rate / workers);
+        if (plan.getLoadProfile() != null) {
+            plan.getLoadProfile().getStages().forEach(stage -> stage.setTarget(stage.getTarget() / workers));
+            if (plan.getLoadProfile().getUnit() == ProfileUnit.USERS) {
+                plan.setThreads(Math.max(1, (int) Math.ceil(plan.getLoadProfile().getMaxTarget())));
+            }
+        }
+        if (config.getConnectionPool().getMaxTotal() > 0) {
+            plan.getConnectionPool().setMaxTotal(Math.max(1, share(config.getConnectionPool().getMaxTotal(), index, workers)));
+        }
+        if (config.getConnectionPool().getMaxPerRoute() > 0) {
+            plan.getConnectionPool().setMaxPerRoute(Math.max(1, share(config.getConnectionPool().getMaxPerRoute(), index, workers)));
+        }
+        plan.setMaxInFlight(Math.max(1, share(config.getMaxInFlight(), index, workers)));
+        return plan;
+    }
+    
+    private static int share(int total, int index, int workers) {
+        return total / workers + (index < total % workers ? 1 : 0);
+    }
+}
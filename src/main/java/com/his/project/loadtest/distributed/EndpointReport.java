@@ -0,0 +1,95 @@
+package com.his.project.loadtest.distributed;
+
+import com.his.project.loadtest.metrics.EncodedHistogram;
+import com.his.project.loadtest.metrics.EndpointSnapshot;
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.metrics.RequestPhase;
+import com.his.project.loadtest.model.EndpointStats;
+
+import java.util.Map;
+
+// Wire form of one endpoint's statistics, either cumulative or for one interval
+public class EndpointReport {
+    private long requests;
+    private long successes;
+    private long failures;
+    private long checkFailures;
+    private long bytesSent;
+    private long bytesReceived;
+    private EncodedHistogram responseTimes;
+    private EncodedHistogram[] phaseTimes; // indexed by RequestPhase ordinal
+    private long[] outcomes; // indexed by Outcome ordinal
+    private EncodedHistogram[] failureTimes; // indexed by Outcome ordinal, null where none occurred
+    private Map<Integer, Long> statusCodes;
+    
+    public static EndpointReport from(EndpointStats stats) {
+        EndpointReport report = new EndpointReport();
+        report.requests = stats.getRequestCount();
+        report.successes = stats.getSuccessCount();
+        report.failures = stats.getFailedCount();
+        report.checkFailures = stats.getCheckFailedCount();
+        report.bytesSent = stats.getBytesSent();
+        report.bytesReceived = stats.getBytesReceived();
+        report.responseTimes = stats.getResponseTimes().encode();
+        report.phaseTimes = new EncodedHistogram[RequestPhase.values().length];
+        for (RequestPhase phase : RequestPhase.values()) {
+            report.phaseTimes[phase.ordinal()] = stats.getPhaseTimes(phase).encode();
+        }
+        report.outcomes = new long[Outcome.values().length];
+        report.failureTimes = new EncodedHistogram[Outcome.values().length];
+        for (Outcome outcome : Outcome.values()) {
+            report.outcomes[outcome.ordinal()] = stats.getOutcomeCount(outcome);
+            LatencyHistogram times = stats.getOutcomeTimes(outcome);
+            if (outcome != Outcome.SUCCESS && times != null) {
+                report.failureTimes[outcome.ordinal()] = times.encode();
+            }
+        }
+        report.statusCodes = stats.getStatusCounts();
+        return report;
+    }
+    
+    public static EndpointReport from(EndpointSnapshot snapshot) {
+        EndpointReport report = new EndpointReport();
+        report.requests = snapshot.getRequests();
+        report.successes = snapshot.getSuccesses();
+        report.failures = snapshot.getFailures();
+        report.responseTimes = snapshot.getResponseTimes().encode();
+        return report;
+    }
+    
+    public EndpointStats toStats() {
+        LatencyHistogram times = LatencyHistogram.decode(responseTimes);
+        LatencyHistogram[] phases = EndpointStats.newPhaseTimes();
+        if (phaseTimes != null) {
+            for (int i = 0; i < phases.length && i < phaseTimes.length; i++) {
+                phases[i] = LatencyHistogram.decode(phaseTimes[i]);
+            }
+        }
+        EndpointStats stats = EndpointStats.of(requests, successes, failures, times, phases);
+        stats.addTransfer(bytesSent, bytesReceived, checkFailures);
+        if (outcomes != null) {
+            Outcome[] all = Outcome.values();
+            for (int i = 0; i < all.length && i < outcomes.length; i++) {
+                EncodedHistogram encoded = failureTimes != null && i < failureTimes.length ? failureTimes[i] : null;
+                stats.addOutcome(all[i], outcomes[i], encoded != null ? LatencyHistogram.decode(encoded) : null);
+            }
+        }
+        if (statusCodes != null) {
+            statusCodes.forEach(stats::addStatusCount);
+        }
+        return stats;
+    }
+    
+    public long getRequests() {
+        return requests;
+    }
+    
+    public long getSuccesses() {
+        return successes;
+    }
+    
+    public long getFailures() {
+        return failures;
+    }
+}
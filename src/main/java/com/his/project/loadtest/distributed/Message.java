@@ -0,0 +1,98 @@
+package com.his.project.loadtest.distributed;
+
+import com.his.project.loadtest.model.TestConfig;
+
+import java.util.Map;
+
+// One line of the coordinator/worker protocol (JSON, newline-delimited):
+//   worker -> coordinator  HELLO, then INTERVAL every report interval, then RESULT (or ERROR)
+//   coordinator -> worker  PLAN with the worker's share of the test and the common start time,
+//                          then STOP if a threshold aborts the run
+public class Message {
+    public static final String HELLO = "HELLO";
+    public static final String PLAN = "PLAN";
+    public static final String INTERVAL = "INTERVAL";
+    public static final String RESULT = "RESULT";
+    public static final String ERROR = "ERROR";
+    public static final String STOP = "STOP";
+    
+    private String type;
+    private int workerId;
+    private TestConfig config;
+    private long startAtMs;
+    private Map<String, EndpointReport> interval;
+    private WorkerResult result;
+    private String error;
+    private String reason; // STOP only
+    
+    public Message() {
+    }
+    
+    public Message(String type) {
+        this.type = type;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public int getWorkerId() {
+        return workerId;
+    }
+    
+    public void setWorkerId(int workerId) {
+        this.workerId = workerId;
+    }
+    
+    public TestConfig getConfig() {
+        return config;
+    }
+    
+    public void setConfig(TestConfig config) {
+        this.config = config;
+    }
+    
+    public long getStartAtMs() {
+        return startAtMs;
+    }
+    
+    public void setStartAtMs(long startAtMs) {
+        this.startAtMs = startAtMs;
+    }
+    
+    public Map<String, EndpointReport> getInterval() {
+        return interval;
+    }
+    
+    public void setInterval(Map<String, EndpointReport> interval) {
+        this.interval = interval;
+    }
+    
+    public WorkerResult getResult() {
+        return result;
+    }
+    
+    public void setResult(WorkerResult result) {
+        this.result = result;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+    
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+}
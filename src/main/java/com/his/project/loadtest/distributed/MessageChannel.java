@@ -0,0 +1,48 @@
+package com.his.project.loadtest.distributed;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+// Newline-delimited JSON messages over a socket; sends are synchronized because a worker's
+// reporter thread and main thread share the connection
+class MessageChannel implements Closeable {
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final BufferedWriter writer;
+    private final Gson gson = new Gson();
+    
+    MessageChannel(Socket socket) throws IOException {
+        this.socket = socket;
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+    
+    synchronized void send(Message message) throws IOException {
+        writer.write(gson.toJson(message));
+        writer.newLine();
+        writer.flush();
+    }
+    
+    // Next message, or null once the other side has closed the connection
+    Message read() throws IOException {
+        String line = reader.readLine();
+        return line != null ? gson.fromJson(line, Message.class) : null;
+    }
+    
+    String getRemoteAddress() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+    
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,35 @@
+package com.his.project.loadtest.distributed;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Wire form of one load-profile stage's statistics
+public class StageReport {
+    private String name;
+    private EndpointReport total;
+    private Map<String, EndpointReport> endpoints = new LinkedHashMap<>();
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public EndpointReport getTotal() {
+        return total;
+    }
+    
+    public void setTotal(EndpointReport total) {
+        this.total = total;
+    }
+    
+    public Map<String, EndpointReport> getEndpoints() {
+        return endpoints;
+    }
+    
+    public void setEndpoints(Map<String, EndpointReport> endpoints) {
+        this.endpoints = endpoints;
+    }
+}
@@ -0,0 +1,115 @@
+package com.his.project.loadtest.distributed;
+
+import com.his.project.loadtest.model.TestConfig;
+import com.his.project.loadtest.model.TestResult;
+import com.his.project.loadtest.service.LoadTestService;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Worker role: connects to the coordinator, runs its share of the test starting at the common
+// start time, streams every interval and finally sends its complete result.
+public class Worker {
+    private static final long CONNECT_TIMEOUT_MS = 60_000;
+    
+    private final String host;
+    private final int port;
+    
+    public Worker(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+    
+    public void run() throws IOException, InterruptedException {
+        try (MessageChannel channel = new MessageChannel(connect())) {
+            channel.send(new Message(Message.HELLO));
+            Message plan = channel.read();
+            if (plan == null || !Message.PLAN.equals(plan.getType())) {
+                throw new IOException("Coordinator closed the connection before sending a plan");
+            }
+            int workerId = plan.getWorkerId();
+            TestConfig config = plan.getConfig();
+            if (config.getRecordDirectory() != null) {
+                // Workers on one machine would otherwise write the same segment files
+                config.setRecordDirectory(Path.of(config.getRecordDirectory(), "worker-" + workerId).toString());
+            }
+            System.out.println("Worker " + workerId + ": " + config.getThreads() + " threads against "
+                + config.getGatewayBaseUrl() + ", starting in " + (plan.getStartAtMs() - System.currentTimeMillis()) + " ms");
+    
+            try {
+                LoadTestService service = new LoadTestService(config);
+                // A failed send stops the live stream but not the run; the final result still follows
+                AtomicBoolean streaming = new AtomicBoolean(true);
+                service.setIntervalListener(interval -> {
+                    if (!streaming.get()) {
+                        return;
+                    }
+                    Map<String, EndpointReport> endpoints = new LinkedHashMap<>();
+                    interval.getEndpoints().forEach((endpoint, snapshot) -> endpoints.put(endpoint, EndpointReport.from(snapshot)));
+                    Message message = new Message(Message.INTERVAL);
+                    message.setWorkerId(workerId);
+                    message.setInterval(endpoints);
+                    try {
+                        channel.send(message);
+                    } catch (IOException e) {
+                        streaming.set(false);
+                        System.err.println("Worker " + workerId + ": stopped streaming intervals: " + e.getMessage());
+                    }
+                });
+                // The coordinator judges the thresholds over all workers and may stop the run
+                Thread control = new Thread(() -> listenForStop(channel, service), "worker-control");
+                control.setDaemon(true);
+                control.start();
+                long wait = plan.getStartAtMs() - System.currentTimeMillis();
+                if (wait > 0) {
+                    Thread.sleep(wait);
+                }
+                TestResult result = service.runLoadTest();
+    
+                Message done = new Message(Message.RESULT);
+                done.setWorkerId(workerId);
+                done.setResult(WorkerResult.from(result));
+                channel.send(done);
+                System.out.println("Worker " + workerId + ": finished, " + result.getTotalRequests() + " requests");
+            } catch (RuntimeException e) {
+                Message error = new Message(Message.ERROR);
+                error.setWorkerId(workerId);
+                error.setError(e.toString());
+                channel.send(error);
+                throw e;
+            }
+        }
+    }
+    
+    private static void listenForStop(MessageChannel channel, LoadTestService service) {
+        try {
+            Message message;
+            while ((message = channel.read()) != null) {
+                if (Message.STOP.equals(message.getType())) {
+                    service.stop(message.getReason());
+                }
+            }
+        } catch (IOException e) {
+            // Closed once the result has been sent
+        }
+    }
+    
+    // The coordinator may still be starting, so keep retrying for a while
+    private Socket connect() throws IOException, InterruptedException {
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MS;
+        while (true) {
+            try {
+                return new Socket(host, port);
+            } catch (IOException e) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Cannot reach coordinator at " + host + ":" + port, e);
+                }
+                Thread.sleep(500);
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.his.project.loadtest.distributed;
+
+import com.his.project.loadtest.metrics.EncodedHistogram;
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.model.ConnectionReuse;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.ExecutionMode;
+import com.his.project.loadtest.model.StageStats;
+import com.his.project.loadtest.model.TestResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Final result of one worker. Histograms travel bucket by bucket, so merging the results of all
+// workers gives exactly the percentiles a single process recording every request would report.
+public class WorkerResult {
+    private long totalRequests;
+    private long successfulRequests;
+    private long failedRequests;
+    private EncodedHistogram responseTimes;
+    private Map<String, EndpointReport> endpoints = new LinkedHashMap<>();
+    private List<StageReport> stages = new ArrayList<>();
+    private long durationMs;
+    private boolean openModel;
+    private double targetRps;
+    private long maxScheduleLagMs;
+    private double avgScheduleLagMs;
+    private ExecutionMode executionMode;
+    private int carrierThreads;
+    private int schedulerParallelism;
+    private long pinnedThresholdMs;
+    private long pinnedEvents;
+    private Map<String, Long> pinnedSites = new HashMap<>();
+    private ConnectionReuse connectionReuse;
+    private int maxPoolConnections;
+    private int peakLeasedConnections;
+    private int peakPendingLeases;
+    private long connectionsOpened;
+    private long allocatedBytes = -1;
+    private EncodedHistogram poolWaitTimes;
+    private Map<String, EndpointReport> transactions = new LinkedHashMap<>();
+    private long skippedSteps;
+    private long feederRecords = -1;
+    private boolean feederExhausted;
+    private long recordedSamples = -1;
+    private long droppedSamples;
+    
+    public static WorkerResult from(TestResult result) {
+        WorkerResult worker = new WorkerResult();
+        worker.totalRequests = result.getTotalRequests();
+        worker.successfulRequests = result.getSuccessfulRequests();
+        worker.failedRequests = result.getFailedRequests();
+        worker.responseTimes = result.getResponseTimes() != null ? result.getResponseTimes().encode() : null;
+        result.getEndpointStats().forEach((endpoint, stats) -> worker.endpoints.put(endpoint, EndpointReport.from(stats)));
+        for (StageStats stage : result.getStageStats()) {
+            StageReport report = new StageReport();
+            report.setName(stage.getStage().getName());
+            report.setTotal(EndpointReport.from(stage.getTotal()));
+            stage.getEndpointStats().forEach((endpoint, stats) -> report.getEndpoints().put(endpoint, EndpointReport.from(stats)));
+            worker.stages.add(report);
+        }
+        worker.durationMs = result.getDurationMs();
+        worker.openModel = result.isOpenModel();
+        worker.targetRps = result.getTargetRps();
+        worker.maxScheduleLagMs = result.getMaxScheduleLagMs();
+        worker.avgScheduleLagMs = result.getAvgScheduleLagMs();
+        worker.executionMode = result.getExecutionMode();
+        worker.carrierThreads = result.getCarrierThreads();
+        worker.schedulerParallelism = result.getSchedulerParallelism();
+        worker.pinnedThresholdMs = result.getPinnedThresholdMs();
+        worker.pinnedEvents = result.getPinnedEvents();
+        worker.pinnedSites = result.getPinnedSites();
+        worker.connectionReuse = result.getConnectionReuse();
+        worker.maxPoolConnections = result.getMaxPoolConnections();
+        worker.peakLeasedConnections = result.getPeakLeasedConnections();
+        worker.peakPendingLeases = result.getPeakPendingLeases();
+        worker.connectionsOpened = result.getConnectionsOpened();
+        worker.allocatedBytes = result.getAllocatedBytes();
+        worker.poolWaitTimes = result.getPoolWaitTimes() != null ? result.getPoolWaitTimes().encode() : null;
+        result.getTransactionStats().forEach((journey, stats) -> worker.transactions.put(journey, EndpointReport.from(stats)));
+        worker.skippedSteps = result.getSkippedSteps();
+        worker.feederRecords = result.getFeederRecords();
+        worker.feederExhausted = result.isFeederExhausted();
+        worker.recordedSamples = result.getRecordedSamples();
+        worker.droppedSamples = result.getDroppedSamples();
+        return worker;
+    }
+    
+    // Adds this worker's result to the merged result. Counts and histograms add up exactly;
+    // peaks (leased connections, carrier threads) are summed across JVMs as an upper bound.
+    public void mergeInto(TestResult merged) {
+        long previousRequests = merged.getTotalRequests();
+        merged.setTotalRequests(previousRequests + totalRequests);
+        merged.setSuccessfulRequests(merged.getSuccessfulRequests() + successfulRequests);
+        merged.setFailedRequests(merged.getFailedRequests() + failedRequests);
+        merged.setResponseTimes(add(merged.getResponseTimes(), responseTimes));
+        endpoints.forEach((endpoint, report) -> merged.getEndpointStats().merge(endpoint, report.toStats(),
+            (existing, stats) -> {
+                existing.merge(stats);
+                return existing;
+            }));
+        for (int i = 0; i < stages.size() && i < merged.getStageStats().size(); i++) {
+            StageStats stage = merged.getStageStats().get(i);
+            stage.getTotal().merge(stages.get(i).getTotal().toStats());
+            stages.get(i).getEndpoints().forEach((endpoint, report) -> {
+                EndpointStats stats = report.toStats();
+                stage.getEndpointStats().merge(endpoint, stats, (existing, added) -> {
+                    existing.merge(added);
+                    return existing;
+                });
+            });
+        }
+        merged.setDurationMs(Math.max(merged.getDurationMs(), durationMs));
+        merged.setOpenModel(merged.isOpenModel() || openModel);
+        merged.setTargetRps(merged.getTargetRps() + targetRps);
+        merged.setMaxScheduleLagMs(Math.max(merged.getMaxScheduleLagMs(), maxScheduleLagMs));
+        if (merged.getTotalRequests() > 0) {
+            merged.setAvgScheduleLagMs((merged.getAvgScheduleLagMs() * previousRequests + avgScheduleLagMs * totalRequests)
+                / merged.getTotalRequests());
+        }
+        merged.setExecutionMode(executionMode);
+        merged.setCarrierThreads(merged.getCarrierThreads() + carrierThreads);
+        merged.setSchedulerParallelism(merged.getSchedulerParallelism() + schedulerParallelism);
+        merged.setPinnedThresholdMs(pinnedThresholdMs);
+        merged.setPinnedEvents(merged.getPinnedEvents() + pinnedEvents);
+        pinnedSites.forEach((site, count) -> merged.getPinnedSites().merge(site, count, Long::sum));
+        merged.setConnectionReuse(connectionReuse);
+        merged.setMaxPoolConnections(merged.getMaxPoolConnections() + maxPoolConnections);
+        merged.setPeakLeasedConnections(merged.getPeakLeasedConnections() + peakLeasedConnections);
+        merged.setPeakPendingLeases(merged.getPeakPendingLeases() + peakPendingLeases);
+        merged.setConnectionsOpened(merged.getConnectionsOpened() + connectionsOpened);
+        if (allocatedBytes >= 0) {
+            merged.setAllocatedBytes(Math.max(merged.getAllocatedBytes(), 0) + allocatedBytes);
+        }
+        merged.setPoolWaitTimes(add(merged.getPoolWaitTimes(), poolWaitTimes));
+        transactions.forEach((journey, report) -> merged.getTransactionStats().merge(journey, report.toStats(),
+            (existing, stats) -> {
+                existing.merge(stats);
+                return existing;
+            }));
+        merged.setSkippedSteps(merged.getSkippedSteps() + skippedSteps);
+        // -1 means the worker had no feeder or recording; the merged count stays -1 unless one did
+        if (feederRecords >= 0) {
+            merged.setFeederRecords(Math.max(merged.getFeederRecords(), 0) + feederRecords);
+            merged.setFeederExhausted(merged.isFeederExhausted() || feederExhausted);
+        }
+        if (recordedSamples >= 0) {
+            merged.setRecordedSamples(Math.max(merged.getRecordedSamples(), 0) + recordedSamples);
+            merged.setDroppedSamples(merged.getDroppedSamples() + droppedSamples);
+        }
+    }
+    
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+    
+    public Map<String, EndpointReport> getEndpoints() {
+        return endpoints;
+    }
+    
+    public long getDurationMs() {
+        return durationMs;
+    }
+    
+    public Map<String, EndpointReport> getTransactions() {
+        return transactions;
+    }
+    
+    private static LatencyHistogram add(LatencyHistogram merged, EncodedHistogram encoded) {
+        if (encoded == null) {
+            return merged;
+        }
+        LatencyHistogram histogram = LatencyHistogram.decode(encoded);
+        if (merged == null) {
+            return histogram;
+        }
+        merged.add(histogram);
+        return merged;
+    }
+}
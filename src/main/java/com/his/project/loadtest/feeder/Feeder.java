@@ -0,0 +1,177 @@
+package com.his.project.loadtest.feeder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Thread-safe source of test data records streamed from a file. Platform threads take records
+// in batches so the shared lock is acquired once per batch instead of once per request; virtual
+// threads usually live for a single request and take one record at a time so none are wasted.
+public class Feeder implements Closeable {
+    // A thread's batch starts at one record and doubles up to the configured size, so a small
+    // file is still spread over all threads instead of landing in the first thread's batch
+    private static final class Batch {
+        final ArrayDeque<FeederRecord> records = new ArrayDeque<>();
+        int size = 1;
+    }
+    
+    private final FeederConfig config;
+    private final FeederFormat format;
+    private final FeederStrategy strategy;
+    private final int batchSize;
+    private final ThreadLocal<Batch> batches = ThreadLocal.withInitial(Batch::new);
+    private final AtomicLong recordsDrawn = new AtomicLong();
+    
+    // Guarded by this
+    private RecordReader reader;
+    private long recordsRead = 0;
+    private long recordsInPass = 0;
+    private boolean exhausted = false;
+    private FeederRecord[] shuffle;
+    private int shuffleSize = 0;
+    
+    private Feeder(FeederConfig config) throws IOException {
+        this.config = config;
+        this.format = config.getFormat();
+        this.strategy = config.getStrategy();
+        // SEQUENTIAL keeps the global file order, which per-thread batches would break
+        this.batchSize = strategy == FeederStrategy.SEQUENTIAL ? 1 : Math.max(1, config.getBatchSize());
+        this.reader = RecordReader.open(config.getFile(), format);
+        if (strategy == FeederStrategy.RANDOM) {
+            this.shuffle = new FeederRecord[Math.max(1, config.getRandomBufferSize())];
+        }
+    }
+    
+    public static Feeder open(FeederConfig config) throws IOException {
+        if (config.getFile() == null) {
+            throw new IllegalArgumentException("Feeder file is not set");
+        }
+        return new Feeder(config);
+    }
+    
+    // Record for the next request; throws FeederExhaustedException once a SEQUENTIAL or UNIQUE
+    // feeder has no records left
+    public FeederRecord next() {
+        Batch batch = batches.get();
+        FeederRecord record = batch.records.poll();
+        if (record == null) {
+            if (Thread.currentThread().isVirtual()) {
+                fill(batch.records, 1);
+            } else {
+                fill(batch.records, batch.size);
+                batch.size = Math.min(batch.size * 2, batchSize);
+            }
+            record = batch.records.poll();
+            if (record == null) {
+                throw new FeederExhaustedException(config.getFile(), getRecordsRead());
+            }
+        }
+        recordsDrawn.incrementAndGet();
+        return record;
+    }
+    
+    private synchronized void fill(ArrayDeque<FeederRecord> batch, int size) {
+        try {
+            for (int i = 0; i < size; i++) {
+                FeederRecord record;
+                switch (strategy) {
+                    case CIRCULAR:
+                        record = readCircular();
+                        break;
+                    case RANDOM:
+                        record = readShuffled();
+                        break;
+                    default:
+                        record = readOnce();
+                        break;
+                }
+                if (record == null) {
+                    return;
+                }
+                batch.add(record);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read feeder file " + config.getFile(), e);
+        }
+    }
+    
+    private FeederRecord readOnce() throws IOException {
+        if (exhausted) {
+            return null;
+        }
+        FeederRecord record = reader.read();
+        if (record == null) {
+            exhausted = true;
+            reader.close();
+            return null;
+        }
+        recordsRead++;
+        return record;
+    }
+    
+    private FeederRecord readCircular() throws IOException {
+        FeederRecord record = reader.read();
+        if (record == null) {
+            if (recordsInPass == 0) {
+                throw new IOException("file contains no records");
+            }
+            reader.close();
+            reader = RecordReader.open(config.getFile(), format);
+            recordsInPass = 0;
+            record = reader.read();
+        }
+        recordsRead++;
+        recordsInPass++;
+        return record;
+    }
+    
+    // Keeps a window of records and hands out a random one, refilling its slot from the file.
+    // With a window as large as the file this is a uniform shuffle; smaller windows trade
+    // randomness over distant records for bounded memory.
+    private FeederRecord readShuffled() throws IOException {
+        if (shuffleSize == 0) {
+            // The window is filled once; a file smaller than the window is shuffled as a whole
+            while (shuffleSize < shuffle.length) {
+                FeederRecord record = reader.read();
+                if (record == null) {
+                    break;
+                }
+                shuffle[shuffleSize++] = record;
+                recordsRead++;
+                recordsInPass++;
+            }
+            if (shuffleSize == 0) {
+                throw new IOException("file contains no records");
+            }
+        }
+        int index = ThreadLocalRandom.current().nextInt(shuffleSize);
+        FeederRecord record = shuffle[index];
+        FeederRecord replacement = readCircular();
+        shuffle[index] = replacement;
+        return record;
+    }
+    
+    public FeederConfig getConfig() {
+        return config;
+    }
+    
+    public long getRecordsDrawn() {
+        return recordsDrawn.get();
+    }
+    
+    public synchronized long getRecordsRead() {
+        return recordsRead;
+    }
+    
+    public synchronized boolean isExhausted() {
+        return exhausted;
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,49 @@
+package com.his.project.loadtest.feeder;
+
+public class FeederConfig {
+    private String file;
+    private FeederFormat format = null; // null = from the file extension
+    private FeederStrategy strategy = FeederStrategy.CIRCULAR;
+    private int batchSize = 64; // Records a platform thread takes per lock acquisition
+    private int randomBufferSize = 10000; // Shuffle buffer for RANDOM; bounds memory, not the file size
+    
+    public String getFile() {
+        return file;
+    }
+    
+    public void setFile(String file) {
+        this.file = file;
+    }
+    
+    public FeederFormat getFormat() {
+        return format != null ? format : FeederFormat.forFile(file);
+    }
+    
+    public void setFormat(FeederFormat format) {
+        this.format = format;
+    }
+    
+    public FeederStrategy getStrategy() {
+        return strategy;
+    }
+    
+    public void setStrategy(FeederStrategy strategy) {
+        this.strategy = strategy;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public int getRandomBufferSize() {
+        return randomBufferSize;
+    }
+    
+    public void setRandomBufferSize(int randomBufferSize) {
+        this.randomBufferSize = randomBufferSize;
+    }
+}
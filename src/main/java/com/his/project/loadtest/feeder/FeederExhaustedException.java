@@ -0,0 +1,10 @@
+package com.his.project.loadtest.feeder;
+
+// Thrown when a SEQUENTIAL or UNIQUE feeder has handed out every record of its file
+public class FeederExhaustedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    
+    public FeederExhaustedException(String file, long records) {
+        super("Feeder " + file + " exhausted after " + records + " records");
+    }
+}
@@ -0,0 +1,18 @@
+package com.his.project.loadtest.feeder;
+
+public enum FeederFormat {
+    JSON,  // One top-level array of objects
+    JSONL, // One object per line
+    CSV;   // Header line with field names, then one record per line
+    
+    public static FeederFormat forFile(String file) {
+        String name = file.toLowerCase();
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSONL;
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,38 @@
+package com.his.project.loadtest.feeder;
+
+import java.nio.charset.StandardCharsets;
+
+// One record with its values already encoded as UTF-8, so templates copy bytes instead of
+// encoding strings on every request. Nested JSON objects are flattened to dotted names
+// (e.g. userDetails.email).
+public class FeederRecord {
+    private final String[] names;
+    private final byte[][] values;
+    
+    FeederRecord(String[] names, String[] values) {
+        this.names = names;
+        this.values = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            this.values[i] = values[i] != null ? values[i].getBytes(StandardCharsets.UTF_8) : new byte[0];
+        }
+    }
+    
+    // UTF-8 value of a field, or null if the record has no such field
+    public byte[] get(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+    
+    public String getString(String name) {
+        byte[] value = get(name);
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+    
+    public String[] getNames() {
+        return names;
+    }
+}
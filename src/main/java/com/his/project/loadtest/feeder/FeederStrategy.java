@@ -0,0 +1,8 @@
+package com.his.project.loadtest.feeder;
+
+public enum FeederStrategy {
+    SEQUENTIAL, // Every record once, in file order; the run stops drawing when the file is used up
+    CIRCULAR,   // File order, starting over at the end
+    RANDOM,     // Random order over the whole file through a bounded shuffle buffer, repeating
+    UNIQUE      // Every record once, each handed to exactly one thread in per-thread batches
+}
@@ -0,0 +1,209 @@
+package com.his.project.loadtest.feeder;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Streams records from a file one at a time, so memory stays flat however large the file is
+abstract class RecordReader implements Closeable {
+    
+    // Next record, or null at the end of the file
+    abstract FeederRecord read() throws IOException;
+    
+    static RecordReader open(String file, FeederFormat format) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(Path.of(file), StandardCharsets.UTF_8);
+        switch (format) {
+            case CSV:
+                return new CsvReader(reader);
+            case JSONL:
+                return new JsonLinesReader(reader);
+            default:
+                return new JsonArrayReader(reader);
+        }
+    }
+    
+    // Reads one JSON object, flattening nested objects to dotted names. Arrays are kept as
+    // their JSON text because a template can only insert scalar values meaningfully.
+    static FeederRecord readObject(JsonReader reader) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        readFields(reader, "", names, values);
+        return new FeederRecord(names.toArray(new String[0]), values.toArray(new String[0]));
+    }
+    
+    private static void readFields(JsonReader reader, String prefix, List<String> names, List<String> values) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = prefix + reader.nextName();
+            JsonToken token = reader.peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    readFields(reader, name + ".", names, values);
+                    break;
+                case BEGIN_ARRAY:
+                    names.add(name);
+                    values.add(JsonParser.parseReader(reader).toString());
+                    break;
+                case NULL:
+                    reader.nextNull();
+                    names.add(name);
+                    values.add("");
+                    break;
+                case BOOLEAN:
+                    names.add(name);
+                    values.add(Boolean.toString(reader.nextBoolean()));
+                    break;
+                default:
+                    // Numbers are read as their original text so 12.50 stays 12.50
+                    names.add(name);
+                    values.add(reader.nextString());
+                    break;
+            }
+        }
+        reader.endObject();
+    }
+    
+    private static class JsonArrayReader extends RecordReader {
+        private final JsonReader reader;
+        private boolean started = false;
+        
+        JsonArrayReader(BufferedReader in) {
+            this.reader = new JsonReader(in);
+        }
+        
+        @Override
+        FeederRecord read() throws IOException {
+            if (!started) {
+                reader.beginArray();
+                started = true;
+            }
+            if (!reader.hasNext()) {
+                return null;
+            }
+            return readObject(reader);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+    
+    private static class JsonLinesReader extends RecordReader {
+        private final BufferedReader reader;
+        
+        JsonLinesReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+        
+        @Override
+        FeederRecord read() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    return readObject(new JsonReader(new StringReader(line)));
+                }
+            }
+            return null;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+    
+    // RFC 4180 style: comma separated, fields optionally quoted, "" inside quotes is a quote,
+    // quoted fields may span lines
+    private static class CsvReader extends RecordReader {
+        private final BufferedReader reader;
+        private final StringBuilder field = new StringBuilder();
+        private String[] header;
+        
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+        
+        @Override
+        FeederRecord read() throws IOException {
+            if (header == null) {
+                List<String> names = readRow();
+                if (names == null) {
+                    return null;
+                }
+                if (!names.isEmpty() && names.get(0).startsWith("\uFEFF")) {
+                    names.set(0, names.get(0).substring(1));
+                }
+                header = new String[names.size()];
+                for (int i = 0; i < header.length; i++) {
+                    header[i] = names.get(i).trim();
+                }
+            }
+            List<String> row;
+            do {
+                row = readRow();
+                if (row == null) {
+                    return null;
+                }
+            } while (row.size() == 1 && row.get(0).isEmpty());
+            String[] values = new String[header.length];
+            for (int i = 0; i < header.length; i++) {
+                values[i] = i < row.size() ? row.get(i) : "";
+            }
+            return new FeederRecord(header, values);
+        }
+        
+        private List<String> readRow() throws IOException {
+            int c = reader.read();
+            if (c < 0) {
+                return null;
+            }
+            List<String> row = new ArrayList<>();
+            boolean quoted = false;
+            field.setLength(0);
+            while (c >= 0) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    row.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            row.add(field.toString());
+            return row;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.his.project.loadtest.metrics;
+
+// Sparse, JSON-friendly form of a LatencyHistogram: only non-empty buckets are listed, so a
+// histogram with a few hundred populated buckets stays a few kilobytes on the wire.
+public class EncodedHistogram {
+    private int significantDigits;
+    private long highestTrackableValue;
+    private long totalSum;
+    private long minValue;
+    private long maxValue;
+    private int[] indexes;
+    private long[] counts;
+
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    public void setSignificantDigits(int significantDigits) {
+        this.significantDigits = significantDigits;
+    }
+
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    public void setHighestTrackableValue(long highestTrackableValue) {
+        this.highestTrackableValue = highestTrackableValue;
+    }
+
+    public long getTotalSum() {
+        return totalSum;
+    }
+
+    public void setTotalSum(long totalSum) {
+        this.totalSum = totalSum;
+    }
+
+    public long getMinValue() {
+        return minValue;
+    }
+
+    public void setMinValue(long minValue) {
+        this.minValue = minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public void setMaxValue(long maxValue) {
+        this.maxValue = maxValue;
+    }
+
+    public int[] getIndexes() {
+        return indexes;
+    }
+
+    public void setIndexes(int[] indexes) {
+        this.indexes = indexes;
+    }
+
+    public long[] getCounts() {
+        return counts;
+    }
+
+    public void setCounts(long[] counts) {
+        this.counts = counts;
+    }
+}
@@ -0,0 +1,47 @@
+package com.his.project.loadtest.metrics;
+
+import com.his.project.loadtest.model.EndpointStats;
+
+// Counters and latency histogram of one endpoint at a point in time (or over an interval)
+public class EndpointSnapshot {
+    private final long requests;
+    private final long successes;
+    private final long failures;
+    private final LatencyHistogram responseTimes;
+    
+    public EndpointSnapshot(long requests, long successes, long failures, LatencyHistogram responseTimes) {
+        this.requests = requests;
+        this.successes = successes;
+        this.failures = failures;
+        this.responseTimes = responseTimes;
+    }
+    
+    public static EndpointSnapshot capture(EndpointStats stats) {
+        return new EndpointSnapshot(stats.getRequestCount(), stats.getSuccessCount(), stats.getFailedCount(),
+            stats.getResponseTimes().copy());
+    }
+    
+    public EndpointSnapshot minus(EndpointSnapshot earlier) {
+        if (earlier == null) {
+            return this;
+        }
+        return new EndpointSnapshot(requests - earlier.requests, successes - earlier.successes,
+            failures - earlier.failures, responseTimes.minus(earlier.responseTimes));
+    }
+    
+    public long getRequests() {
+        return requests;
+    }
+    
+    public long getSuccesses() {
+        return successes;
+    }
+    
+    public long getFailures() {
+        return failures;
+    }
+    
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
+    }
+}
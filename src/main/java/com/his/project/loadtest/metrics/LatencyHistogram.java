@@ -0,0 +1,318 @@
+package com.his.project.loadtest.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed-memory, lock-free log-linear latency histogram (same bucket layout as HdrHistogram).
+// Values are nanoseconds. Bucket 0 is linear with unit 1; every following bucket doubles the
+// range and the unit, with the same number of sub-buckets, so the relative error stays below
+// 10^-significantDigits across the whole range. Memory depends only on the precision and the
+// highest trackable value, never on the number of recorded samples.
+public class LatencyHistogram {
+    public static final int DEFAULT_SIGNIFICANT_DIGITS = 3;
+    // About 250 KB per histogram at 3 digits over the default range, but 3.5 MB at 4 and 25 MB at 5,
+    // and a run keeps one per endpoint and registry shard
+    public static final int MAX_SIGNIFICANT_DIGITS = 3;
+    public static final long DEFAULT_HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final int significantDigits;
+    private final long highestTrackableValue;
+    private final int subBucketHalfCountMagnitude;
+    private final int subBucketHalfCount;
+    private final long subBucketMask;
+    private final AtomicLongArray counts;
+
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxValue = new AtomicLong(0);
+
+    public LatencyHistogram() {
+        this(DEFAULT_SIGNIFICANT_DIGITS);
+    }
+
+    public LatencyHistogram(int significantDigits) {
+        this(significantDigits, DEFAULT_HIGHEST_TRACKABLE_NANOS);
+    }
+
+    public LatencyHistogram(int significantDigits, long highestTrackableValue) {
+        if (significantDigits < 1 || significantDigits > MAX_SIGNIFICANT_DIGITS) {
+            throw new IllegalArgumentException("Significant digits must be between 1 and " + MAX_SIGNIFICANT_DIGITS
+                + ": " + significantDigits);
+        }
+        if (highestTrackableValue < 2) {
+            throw new IllegalArgumentException("Highest trackable value must be at least 2: " + highestTrackableValue);
+        }
+        this.significantDigits = significantDigits;
+        this.highestTrackableValue = highestTrackableValue;
+
+        long largestValueWithSingleUnitResolution = 2 * (long) Math.pow(10, significantDigits);
+        int subBucketCountMagnitude = (int) Math.ceil(Math.log(largestValueWithSingleUnitResolution) / Math.log(2));
+        this.subBucketHalfCountMagnitude = Math.max(subBucketCountMagnitude, 1) - 1;
+        int subBucketCount = 1 << (subBucketHalfCountMagnitude + 1);
+        this.subBucketHalfCount = subBucketCount / 2;
+        this.subBucketMask = subBucketCount - 1;
+
+        // Number of doubling buckets needed so that the top bucket covers highestTrackableValue
+        long smallestUntrackableValue = subBucketCount;
+        int bucketCount = 1;
+        while (smallestUntrackableValue <= highestTrackableValue) {
+            if (smallestUntrackableValue > Long.MAX_VALUE / 2) {
+                bucketCount++;
+                break;
+            }
+            smallestUntrackableValue <<= 1;
+            bucketCount++;
+        }
+        this.counts = new AtomicLongArray((bucketCount + 1) * subBucketHalfCount);
+    }
+
+    public void recordValue(long value) {
+        recordValue(value, 1);
+    }
+
+    public void recordValue(long value, long count) {
+        if (value < 0) {
+            value = 0;
+        }
+        // Out-of-range values are clamped into the top bucket rather than dropped
+        int index = countsIndexFor(Math.min(value, highestTrackableValue));
+        counts.getAndAdd(index, count);
+        totalCount.add(count);
+        totalSum.add(value * count);
+        if (value < minValue.get()) {
+            minValue.accumulateAndGet(value, Math::min);
+        }
+        if (value > maxValue.get()) {
+            maxValue.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    // Adds all counts of another histogram with the same layout (e.g. merging per-worker histograms)
+    public void add(LatencyHistogram other) {
+        checkCompatible(other);
+        for (int i = 0; i < other.counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.getAndAdd(i, count);
+            }
+        }
+        totalCount.add(other.getTotalCount());
+        totalSum.add(other.totalSum.sum());
+        if (other.getTotalCount() > 0) {
+            minValue.accumulateAndGet(other.minValue.get(), Math::min);
+            maxValue.accumulateAndGet(other.maxValue.get(), Math::max);
+        }
+    }
+
+    // Point-in-time copy taken without locking: the counts are read one by one while writers
+    // keep recording, so the copy may include a few samples more than totalCount had at the start.
+    public LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram(significantDigits, highestTrackableValue);
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                copy.counts.set(i, count);
+                total += count;
+            }
+        }
+        copy.totalCount.add(total);
+        copy.totalSum.add(totalSum.sum());
+        if (total > 0) {
+            copy.minValue.set(minValue.get());
+            copy.maxValue.set(maxValue.get());
+        }
+        return copy;
+    }
+
+    // Histogram of the samples recorded between an earlier copy and this one. Min and max are
+    // derived from the populated buckets because exact extremes are only tracked cumulatively.
+    public LatencyHistogram minus(LatencyHistogram earlier) {
+        checkCompatible(earlier);
+        LatencyHistogram interval = new LatencyHistogram(significantDigits, highestTrackableValue);
+        long total = 0;
+        int lowestIndex = -1;
+        int highestIndex = -1;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i) - earlier.counts.get(i);
+            if (count > 0) {
+                interval.counts.set(i, count);
+                total += count;
+                if (lowestIndex < 0) {
+                    lowestIndex = i;
+                }
+                highestIndex = i;
+            }
+        }
+        interval.totalCount.add(total);
+        interval.totalSum.add(Math.max(0, totalSum.sum() - earlier.totalSum.sum()));
+        if (total > 0) {
+            interval.minValue.set(valueFromIndex(lowestIndex));
+            interval.maxValue.set(Math.min(highestEquivalentValue(valueFromIndex(highestIndex)), getMaxValue()));
+        }
+        return interval;
+    }
+
+    // Sparse copy for sending to another process; decoding it and merging with add() is exact
+    public EncodedHistogram encode() {
+        int populated = 0;
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            if (snapshot[i] != 0) {
+                populated++;
+            }
+        }
+        int[] indexes = new int[populated];
+        long[] values = new long[populated];
+        int n = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            if (snapshot[i] != 0) {
+                indexes[n] = i;
+                values[n++] = snapshot[i];
+            }
+        }
+        EncodedHistogram encoded = new EncodedHistogram();
+        encoded.setSignificantDigits(significantDigits);
+        encoded.setHighestTrackableValue(highestTrackableValue);
+        encoded.setTotalSum(totalSum.sum());
+        encoded.setMinValue(getMinValue());
+        encoded.setMaxValue(getMaxValue());
+        encoded.setIndexes(indexes);
+        encoded.setCounts(values);
+        return encoded;
+    }
+
+    public static LatencyHistogram decode(EncodedHistogram encoded) {
+        LatencyHistogram histogram = new LatencyHistogram(encoded.getSignificantDigits(), encoded.getHighestTrackableValue());
+        long total = 0;
+        for (int i = 0; i < encoded.getIndexes().length; i++) {
+            histogram.counts.set(encoded.getIndexes()[i], encoded.getCounts()[i]);
+            total += encoded.getCounts()[i];
+        }
+        histogram.totalCount.add(total);
+        histogram.totalSum.add(encoded.getTotalSum());
+        if (total > 0) {
+            histogram.minValue.set(encoded.getMinValue());
+            histogram.maxValue.set(encoded.getMaxValue());
+        }
+        return histogram;
+    }
+
+    public long getTotalCount() {
+        return totalCount.sum();
+    }
+
+    // Sum of all recorded values
+    public long getTotalSum() {
+        return totalSum.sum();
+    }
+
+    public long getMinValue() {
+        return getTotalCount() == 0 ? 0 : minValue.get();
+    }
+
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long count = getTotalCount();
+        return count == 0 ? 0.0 : (double) totalSum.sum() / count;
+    }
+
+    // Returns the value at the given percentile (0-100), reported as the highest value that
+    // is equivalent to the matching bucket so percentiles are never understated.
+    public long getValueAtPercentile(double percentile) {
+        return getValuesAtPercentiles(percentile)[0];
+    }
+
+    // Values at several ascending percentiles in one walk over the counts. The counts are read in
+    // place, first for the total and then cumulatively, so nothing is copied; as with copy(),
+    // samples recorded between the two passes may shift a percentile by those few samples.
+    public long[] getValuesAtPercentiles(double... percentiles) {
+        long[] values = new long[percentiles.length];
+        int length = counts.length();
+        long total = 0;
+        for (int i = 0; i < length; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return values;
+        }
+        long[] countsAtPercentiles = new long[percentiles.length];
+        for (int p = 0; p < percentiles.length; p++) {
+            if (p > 0 && percentiles[p] < percentiles[p - 1]) {
+                throw new IllegalArgumentException("Percentiles must be ascending: " + percentiles[p - 1] + ", " + percentiles[p]);
+            }
+            double requested = Math.min(Math.max(percentiles[p], 0.0), 100.0);
+            countsAtPercentiles[p] = Math.max(1, (long) Math.ceil(requested / 100.0 * total));
+        }
+        int next = 0;
+        long running = 0;
+        for (int i = 0; i < length && next < percentiles.length; i++) {
+            long count = counts.get(i);
+            if (count == 0) {
+                continue;
+            }
+            running += count;
+            while (next < percentiles.length && running >= countsAtPercentiles[next]) {
+                values[next++] = Math.min(highestEquivalentValue(valueFromIndex(i)), getMaxValue());
+            }
+        }
+        while (next < percentiles.length) {
+            values[next++] = getMaxValue();
+        }
+        return values;
+    }
+
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    public int getBucketLength() {
+        return counts.length();
+    }
+
+    public long getCountAtIndex(int index) {
+        return counts.get(index);
+    }
+
+    public long valueFromIndex(int index) {
+        int bucketIndex = (index >> subBucketHalfCountMagnitude) - 1;
+        int subBucketIndex = (index & (subBucketHalfCount - 1)) + subBucketHalfCount;
+        if (bucketIndex < 0) {
+            subBucketIndex -= subBucketHalfCount;
+            bucketIndex = 0;
+        }
+        return (long) subBucketIndex << bucketIndex;
+    }
+
+    public long highestEquivalentValue(long value) {
+        int bucketIndex = bucketIndexFor(value);
+        return value + (1L << bucketIndex) - 1 - (value & ((1L << bucketIndex) - 1));
+    }
+
+    private int countsIndexFor(long value) {
+        int bucketIndex = bucketIndexFor(value);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << subBucketHalfCountMagnitude) + (subBucketIndex - subBucketHalfCount);
+    }
+
+    private int bucketIndexFor(long value) {
+        return 63 - Long.numberOfLeadingZeros(value | subBucketMask) - subBucketHalfCountMagnitude;
+    }
+
+    private void checkCompatible(LatencyHistogram other) {
+        if (other.significantDigits != significantDigits || other.highestTrackableValue != highestTrackableValue) {
+            throw new IllegalArgumentException("Cannot merge histograms with different precision or range");
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.his.project.loadtest.metrics;
+
+import com.his.project.loadtest.model.EndpointStats;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Per-request statistics of a run, written without shared hot spots. Endpoints are registered
+// up front and addressed by integer id; callers resolve ids with idOf() once when they set up
+// (per scenario step or scheduler), so record() itself does no map lookups. Every thread records
+// into one of a fixed set of shards (about one per core, up to 64), each with its own counters
+// and histograms; readers merge the shards on demand. Counters are atomic, so a shard shared by
+// two threads stays exact, but with one shard per core that sharing rarely contends.
+// The response time histograms hold successful requests; each failure outcome gets its own
+// histogram. Histograms are created in a shard the first time they are needed there, so shards
+// no thread records into, failures that never happen and phases of untraced requests cost nothing.
+public class MetricsRegistry {
+    private static final int REQUESTS = 0;
+    private static final int SUCCESSES = 1;
+    private static final int FAILURES = 2;
+    private static final int CHECK_FAILURES = 3;
+    private static final int BYTES_SENT = 4;
+    private static final int BYTES_RECEIVED = 5;
+    private static final int STARTED = 6;
+    // Longs per endpoint slot and around each shard's counters: 64 bytes, so neither endpoints
+    // nor neighbouring shards share a cache line
+    private static final int PAD = 8;
+    private static final int MAX_SHARDS = 64;
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    private static final int STATUS_CODES = 600; // Counted codes are 0-599
+    
+    private static final class Shard {
+        final AtomicLongArray counters;
+        final AtomicReferenceArray<LatencyHistogram> responseTimes; // Created on first use
+        final AtomicReferenceArray<LatencyHistogram[]> phaseTimes; // Created on first trace
+        final AtomicLongArray outcomes; // endpoint * OUTCOMES.length + outcome
+        final AtomicReferenceArray<LatencyHistogram> failureTimes; // Same index, created on first use
+        final AtomicLongArray statuses; // endpoint * STATUS_CODES + status
+    
+        Shard(int endpoints) {
+            counters = new AtomicLongArray((endpoints + 2) * PAD);
+            outcomes = new AtomicLongArray(endpoints * OUTCOMES.length);
+            failureTimes = new AtomicReferenceArray<>(endpoints * OUTCOMES.length);
+            statuses = new AtomicLongArray(endpoints * STATUS_CODES);
+            responseTimes = new AtomicReferenceArray<>(endpoints);
+            phaseTimes = new AtomicReferenceArray<>(endpoints);
+        }
+    }
+    
+    private final String[] names;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final int significantDigits;
+    private final Shard[] shards;
+    private final int mask;
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final ThreadLocal<Shard> ownShard;
+    
+    public MetricsRegistry(List<String> endpoints, int significantDigits) {
+        this(endpoints, significantDigits, Runtime.getRuntime().availableProcessors());
+    }
+    
+    public MetricsRegistry(List<String> endpoints, int significantDigits, int shardCount) {
+        this.names = endpoints.toArray(new String[0]);
+        for (int i = 0; i < names.length; i++) {
+            ids.putIfAbsent(names[i], i);
+        }
+        this.significantDigits = significantDigits;
+        // Power of two so a thread id maps to a shard with a mask
+        int count = Integer.highestOneBit(Math.max(1, Math.min(shardCount, MAX_SHARDS)) * 2 - 1);
+        this.shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard(names.length);
+        }
+        this.mask = count - 1;
+        // Platform threads are spread round-robin; virtual threads are too short-lived for a
+        // thread-local and map by id instead
+        this.ownShard = ThreadLocal.withInitial(() -> shards[nextShard.getAndIncrement() & mask]);
+    }
+    
+    // Id of a registered endpoint, or -1
+    public int idOf(String endpoint) {
+        Integer id = ids.get(endpoint);
+        return id != null ? id : -1;
+    }
+    
+    public String nameOf(int endpoint) {
+        return names[endpoint];
+    }
+    
+    public int size() {
+        return names.length;
+    }
+    
+    // Marks a request as sent; it counts as in flight until record()
+    public void begin(int endpoint) {
+        currentShard().counters.getAndIncrement((endpoint + 1) * PAD + STARTED);
+    }
+    
+    // Takes back a begin() for a request that will never be recorded
+    public void abandon(int endpoint) {
+        currentShard().counters.getAndDecrement((endpoint + 1) * PAD + STARTED);
+    }
+    
+    // Records one request with its outcome, status (-1 if no response) and the phases and bytes
+    // of its trace; trace may be null
+    public void record(int endpoint, Outcome outcome, int status, long responseTimeNanos, RequestTrace trace) {
+        Shard shard = currentShard();
+        int base = (endpoint + 1) * PAD;
+        shard.counters.getAndIncrement(base + REQUESTS);
+        int slot = endpoint * OUTCOMES.length + outcome.ordinal();
+        shard.outcomes.getAndIncrement(slot);
+        if (outcome == Outcome.SUCCESS) {
+            shard.counters.getAndIncrement(base + SUCCESSES);
+            histogram(shard.responseTimes, endpoint).recordValue(responseTimeNanos);
+        } else {
+            shard.counters.getAndIncrement(base + FAILURES);
+            histogram(shard.failureTimes, slot).recordValue(responseTimeNanos);
+        }
+        if (status >= 0 && status < STATUS_CODES) {
+            shard.statuses.getAndIncrement(endpoint * STATUS_CODES + status);
+        }
+        if (trace != null) {
+            if (trace.isCheckFailed()) {
+                shard.counters.getAndIncrement(base + CHECK_FAILURES);
+            }
+            shard.counters.getAndAdd(base + BYTES_SENT, trace.getBytesSent());
+            if (trace.getBytesReceived() > 0) {
+                shard.counters.getAndAdd(base + BYTES_RECEIVED, trace.getBytesReceived());
+            }
+            LatencyHistogram[] phaseTimes = shard.phaseTimes.get(endpoint);
+            if (phaseTimes == null) {
+                shard.phaseTimes.compareAndSet(endpoint, null, EndpointStats.newPhaseTimes());
+                phaseTimes = shard.phaseTimes.get(endpoint);
+            }
+            for (RequestPhase phase : PHASES) {
+                long nanos = trace.get(phase);
+                if (nanos >= 0) {
+                    phaseTimes[phase.ordinal()].recordValue(nanos);
+                }
+            }
+        }
+    }
+    
+    // The histogram at index, created by whichever thread gets there first
+    private LatencyHistogram histogram(AtomicReferenceArray<LatencyHistogram> histograms, int index) {
+        LatencyHistogram histogram = histograms.get(index);
+        if (histogram == null) {
+            histograms.compareAndSet(index, null, new LatencyHistogram(significantDigits));
+            histogram = histograms.get(index);
+        }
+        return histogram;
+    }
+    
+    private Shard currentShard() {
+        Thread thread = Thread.currentThread();
+        return thread.isVirtual() ? shards[(int) thread.threadId() & mask] : ownShard.get();
+    }
+    
+    // Merged copy of one endpoint's statistics
+    public EndpointStats snapshot(int endpoint) {
+        LatencyHistogram responseTimes = new LatencyHistogram(significantDigits);
+        LatencyHistogram[] phaseTimes = EndpointStats.newPhaseTimes();
+        for (Shard shard : shards) {
+            LatencyHistogram shardResponseTimes = shard.responseTimes.get(endpoint);
+            if (shardResponseTimes != null) {
+                responseTimes.add(shardResponseTimes);
+            }
+            LatencyHistogram[] shardPhaseTimes = shard.phaseTimes.get(endpoint);
+            if (shardPhaseTimes != null) {
+                for (int i = 0; i < phaseTimes.length; i++) {
+                    phaseTimes[i].add(shardPhaseTimes[i]);
+                }
+            }
+        }
+        EndpointStats stats = EndpointStats.of(sum(endpoint, REQUESTS), sum(endpoint, SUCCESSES),
+            sum(endpoint, FAILURES), responseTimes, phaseTimes);
+        stats.addTransfer(sum(endpoint, BYTES_SENT), sum(endpoint, BYTES_RECEIVED), sum(endpoint, CHECK_FAILURES));
+        for (Outcome outcome : OUTCOMES) {
+            int slot = endpoint * OUTCOMES.length + outcome.ordinal();
+            LatencyHistogram times = null;
+            for (Shard shard : shards) {
+                LatencyHistogram shardTimes = shard.failureTimes.get(slot);
+                if (shardTimes != null) {
+                    times = times != null ? times : new LatencyHistogram(significantDigits);
+                    times.add(shardTimes);
+                }
+            }
+            stats.addOutcome(outcome, getOutcomeCount(endpoint, outcome), times);
+        }
+        for (int status = 0; status < STATUS_CODES; status++) {
+            long count = 0;
+            for (Shard shard : shards) {
+                count += shard.statuses.get(endpoint * STATUS_CODES + status);
+            }
+            if (count > 0) {
+                stats.addStatusCount(status, count);
+            }
+        }
+        return stats;
+    }
+    
+    // Merged copies of every endpoint that has recorded requests, in registration order
+    public Map<String, EndpointStats> snapshot() {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (sum(i, REQUESTS) > 0) {
+                stats.put(names[i], snapshot(i));
+            }
+        }
+        return stats;
+    }
+    
+    // Counters and response times only (what interval reports need), without the phases
+    public MetricsSnapshot capture() {
+        Map<String, EndpointSnapshot> endpoints = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            long requests = sum(i, REQUESTS);
+            if (requests > 0) {
+                LatencyHistogram responseTimes = new LatencyHistogram(significantDigits);
+                for (Shard shard : shards) {
+                    LatencyHistogram shardResponseTimes = shard.responseTimes.get(i);
+                    if (shardResponseTimes != null) {
+                        responseTimes.add(shardResponseTimes);
+                    }
+                }
+                endpoints.put(names[i], new EndpointSnapshot(requests, sum(i, SUCCESSES), sum(i, FAILURES), responseTimes));
+            }
+        }
+        return new MetricsSnapshot(System.currentTimeMillis(), System.nanoTime(), endpoints);
+    }
+    
+    // All endpoints' response times in one histogram
+    public LatencyHistogram mergedResponseTimes() {
+        LatencyHistogram merged = new LatencyHistogram(significantDigits);
+        for (Shard shard : shards) {
+            for (int i = 0; i < names.length; i++) {
+                LatencyHistogram histogram = shard.responseTimes.get(i);
+                if (histogram != null) {
+                    merged.add(histogram);
+                }
+            }
+        }
+        return merged;
+    }
+    
+    // Live per-endpoint reads for scrapers: summed over the shards without copying anything, so
+    // they never block recording threads and may lag a request that is being recorded
+    public long getRequests(int endpoint) {
+        return sum(endpoint, REQUESTS);
+    }
+    
+    public long getSuccesses(int endpoint) {
+        return sum(endpoint, SUCCESSES);
+    }
+    
+    public long getFailures(int endpoint) {
+        return sum(endpoint, FAILURES);
+    }
+    
+    public long getCheckFailures(int endpoint) {
+        return sum(endpoint, CHECK_FAILURES);
+    }
+    
+    public long getBytesSent(int endpoint) {
+        return sum(endpoint, BYTES_SENT);
+    }
+    
+    public long getBytesReceived(int endpoint) {
+        return sum(endpoint, BYTES_RECEIVED);
+    }
+    
+    public long getOutcomeCount(int endpoint, Outcome outcome) {
+        long sum = 0;
+        for (Shard shard : shards) {
+            sum += shard.outcomes.get(endpoint * OUTCOMES.length + outcome.ordinal());
+        }
+        return sum;
+    }
+    
+    public long getInFlight(int endpoint) {
+        return Math.max(0, sum(endpoint, STARTED) - sum(endpoint, REQUESTS));
+    }
+    
+    // Adds the live bucket counts of one endpoint's response times, over all shards, into
+    // slots[slotOfIndex[bucket]]; returns the sum of the counted values in nanoseconds
+    public long addResponseTimeCounts(int endpoint, int[] slotOfIndex, long[] slots) {
+        long sum = 0;
+        for (Shard shard : shards) {
+            LatencyHistogram histogram = shard.responseTimes.get(endpoint);
+            if (histogram == null) {
+                continue;
+            }
+            for (int i = 0; i < slotOfIndex.length; i++) {
+                long count = histogram.getCountAtIndex(i);
+                if (count != 0) {
+                    slots[slotOfIndex[i]] += count;
+                }
+            }
+            sum += histogram.getTotalSum();
+        }
+        return sum;
+    }
+    
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+    
+    public long getTotalRequests() {
+        return total(REQUESTS);
+    }
+    
+    public long getSuccessfulRequests() {
+        return total(SUCCESSES);
+    }
+    
+    public long getFailedRequests() {
+        return total(FAILURES);
+    }
+    
+    public int getShardCount() {
+        return shards.length;
+    }
+    
+    private long sum(int endpoint, int counter) {
+        long sum = 0;
+        for (Shard shard : shards) {
+            sum += shard.counters.get((endpoint + 1) * PAD + counter);
+        }
+        return sum;
+    }
+    
+    private long total(int counter) {
+        long total = 0;
+        for (int i = 0; i < names.length; i++) {
+            total += sum(i, counter);
+        }
+        return total;
+    }
+}
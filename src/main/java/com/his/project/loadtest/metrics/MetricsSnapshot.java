@@ -0,0 +1,55 @@
+package com.his.project.loadtest.metrics;
+
+import com.his.project.loadtest.model.EndpointStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Copy of all endpoint statistics at one instant. Taking one only reads counters and copies
+// histogram buckets, so workers are never blocked; subtracting two snapshots yields the
+// activity of the interval between them.
+public class MetricsSnapshot {
+    private final long timestampMs;
+    private final long nanoTime;
+    private final Map<String, EndpointSnapshot> endpoints;
+    
+    public MetricsSnapshot(long timestampMs, long nanoTime, Map<String, EndpointSnapshot> endpoints) {
+        this.timestampMs = timestampMs;
+        this.nanoTime = nanoTime;
+        this.endpoints = endpoints;
+    }
+    
+    public static MetricsSnapshot capture(Map<String, EndpointStats> endpointStats) {
+        Map<String, EndpointSnapshot> endpoints = new LinkedHashMap<>();
+        endpointStats.forEach((endpoint, stats) -> endpoints.put(endpoint, EndpointSnapshot.capture(stats)));
+        return new MetricsSnapshot(System.currentTimeMillis(), System.nanoTime(), endpoints);
+    }
+    
+    public static MetricsSnapshot empty() {
+        return new MetricsSnapshot(System.currentTimeMillis(), System.nanoTime(), new LinkedHashMap<>());
+    }
+    
+    public MetricsSnapshot minus(MetricsSnapshot earlier) {
+        Map<String, EndpointSnapshot> interval = new LinkedHashMap<>();
+        endpoints.forEach((endpoint, snapshot) -> interval.put(endpoint, snapshot.minus(earlier.endpoints.get(endpoint))));
+        return new MetricsSnapshot(timestampMs, nanoTime, interval);
+    }
+    
+    // Nanoseconds elapsed since an earlier snapshot
+    public long nanosSince(MetricsSnapshot earlier) {
+        return nanoTime - earlier.nanoTime;
+    }
+    
+    // System.nanoTime() when the snapshot was taken
+    public long getNanoTime() {
+        return nanoTime;
+    }
+    
+    public long getTimestampMs() {
+        return timestampMs;
+    }
+    
+    public Map<String, EndpointSnapshot> getEndpoints() {
+        return endpoints;
+    }
+}
@@ -0,0 +1,43 @@
+package com.his.project.loadtest.metrics;
+
+// How a request ended; exactly one per request, and only SUCCESS counts as successful. Failures
+// are counted and timed per outcome, so fast errors and slow timeouts stay out of the response
+// times of the requests that succeeded.
+public enum Outcome {
+    SUCCESS("success"),
+    UNEXPECTED_STATUS("unexpected_status"), // 1xx-3xx status the request does not accept
+    HTTP_4XX("http_4xx"),
+    HTTP_5XX("http_5xx"),
+    CHECK_FAILED("check_failed"),           // Accepted status, but the body failed a response check
+    LEASE_TIMEOUT("lease_timeout"),         // No pooled connection within the lease timeout
+    CONNECT_TIMEOUT("connect_timeout"),
+    RESPONSE_TIMEOUT("response_timeout"),   // The server sent nothing for the response timeout
+    DEADLINE_EXCEEDED("deadline_exceeded"), // The whole request took longer than the deadline
+    CONNECT_ERROR("connect_error"),         // Connection refused, host unreachable or unknown
+    IO_ERROR("io_error");                   // Connection reset or closed, protocol error, anything else
+    
+    private final String label;
+    
+    Outcome(String label) {
+        this.label = label;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    // Outcome of a request given its status (-1 if no response arrived), whether the request
+    // accepts that status, and the trace the client filled in
+    public static Outcome of(int status, boolean accepted, RequestTrace trace) {
+        if (status < 0) {
+            return trace.getError() != null ? trace.getError() : IO_ERROR;
+        }
+        if (!accepted) {
+            if (status >= 500) {
+                return HTTP_5XX;
+            }
+            return status >= 400 ? HTTP_4XX : UNEXPECTED_STATUS;
+        }
+        return trace.isCheckFailed() ? CHECK_FAILED : SUCCESS;
+    }
+}
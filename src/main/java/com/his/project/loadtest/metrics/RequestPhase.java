@@ -0,0 +1,24 @@
+package com.his.project.loadtest.metrics;
+
+// Consecutive parts of one request's response time, in the order the request passes them
+public enum RequestPhase {
+    LEASE("lease"),     // Waiting for a pooled connection
+    CONNECT("connect"), // Opening a new connection (0 when a pooled one was reused)
+    WRITE("write"),     // Sending the request line, headers and body
+    TTFB("ttfb"),       // Waiting for the response headers (the gateway's share)
+    READ("read");       // Reading the response body
+    
+    // Phases are for telling where time goes, so 1% precision is enough and keeps the
+    // per-endpoint, per-shard histograms small
+    public static final int SIGNIFICANT_DIGITS = 2;
+    
+    private final String label;
+    
+    RequestPhase(String label) {
+        this.label = label;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,101 @@
+package com.his.project.loadtest.metrics;
+
+import java.util.Arrays;
+
+// What the client observed about one request: phase durations, body bytes each way, the
+// outcome of the response checks and why no response arrived, if none did. Each hook closes the phase it observed at the current
+// System.nanoTime(), so the phases that were reached add up to the time since begin().
+// Phases never reached stay at -1. A classic request runs on one thread and uses that thread's
+// instance; an async request gets its own, handed from the sending thread to an I/O thread.
+public final class RequestTrace {
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+    private static final ThreadLocal<RequestTrace> CURRENT = ThreadLocal.withInitial(RequestTrace::new);
+    
+    private final long[] nanos = new long[PHASES.length];
+    private long mark;
+    private long bytesSent;
+    private long bytesReceived;
+    private boolean checkFailed;
+    private Outcome error;
+    private String[] extracted;
+    
+    public RequestTrace() {
+        begin();
+    }
+    
+    // The calling thread's instance, holding its last request until the next begin()
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+    
+    public void begin() {
+        Arrays.fill(nanos, -1);
+        mark = System.nanoTime();
+        bytesSent = 0;
+        bytesReceived = -1;
+        checkFailed = false;
+        error = null;
+        extracted = null;
+    }
+    
+    public void end(RequestPhase phase) {
+        long now = System.nanoTime();
+        nanos[phase.ordinal()] = now - mark;
+        mark = now;
+    }
+    
+    // Marks a phase the request did not need (e.g. connect on a reused connection)
+    public void skip(RequestPhase phase) {
+        nanos[phase.ordinal()] = 0;
+    }
+    
+    public long get(RequestPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+    
+    // Request body bytes
+    public long getBytesSent() {
+        return bytesSent;
+    }
+    
+    public void setBytesSent(long bytesSent) {
+        this.bytesSent = bytesSent;
+    }
+    
+    // Response body bytes; -1 if no response was read
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+    
+    public void setBytesReceived(long bytesReceived) {
+        this.bytesReceived = bytesReceived;
+    }
+    
+    // True when the response arrived but failed a configured check of its body
+    public boolean isCheckFailed() {
+        return checkFailed;
+    }
+    
+    public void setCheckFailed(boolean checkFailed) {
+        this.checkFailed = checkFailed;
+    }
+    
+    // Failure category when the request got no response (timeout, connect or I/O error); null otherwise
+    public Outcome getError() {
+        return error;
+    }
+    
+    public void setError(Outcome error) {
+        this.error = error;
+    }
+    
+    // Values the response checks extracted for a journey, in the order of the validator's
+    // variables (null where not found); null when nothing was extracted
+    public String[] getExtracted() {
+        return extracted;
+    }
+    
+    public void setExtracted(String[] extracted) {
+        this.extracted = extracted;
+    }
+}
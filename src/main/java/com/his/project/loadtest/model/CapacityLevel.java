@@ -0,0 +1,81 @@
+package com.his.project.loadtest.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One load level of a capacity search: its target rate and the statistics of the measured stage
+public class CapacityLevel {
+    private int order; // Position in the search, from 1
+    private double targetRps;
+    private long measuredSeconds;
+    private StageStats measured; // Requests sent after the warm-up
+    private List<ThresholdResult> thresholdResults = new ArrayList<>();
+    private boolean sustained; // Every latency and error-rate threshold held
+    private long maxScheduleLagMs; // Whole level; a large lag means the generator could not keep up
+    
+    public int getOrder() {
+        return order;
+    }
+    
+    public void setOrder(int order) {
+        this.order = order;
+    }
+    
+    public double getTargetRps() {
+        return targetRps;
+    }
+    
+    public void setTargetRps(double targetRps) {
+        this.targetRps = targetRps;
+    }
+    
+    public long getMeasuredSeconds() {
+        return measuredSeconds;
+    }
+    
+    public void setMeasuredSeconds(long measuredSeconds) {
+        this.measuredSeconds = measuredSeconds;
+    }
+    
+    public StageStats getMeasured() {
+        return measured;
+    }
+    
+    public void setMeasured(StageStats measured) {
+        this.measured = measured;
+    }
+    
+    public List<ThresholdResult> getThresholdResults() {
+        return thresholdResults;
+    }
+    
+    public void setThresholdResults(List<ThresholdResult> thresholdResults) {
+        this.thresholdResults = thresholdResults;
+    }
+    
+    public boolean isSustained() {
+        return sustained;
+    }
+    
+    public void setSustained(boolean sustained) {
+        this.sustained = sustained;
+    }
+    
+    public long getMaxScheduleLagMs() {
+        return maxScheduleLagMs;
+    }
+    
+    public void setMaxScheduleLagMs(long maxScheduleLagMs) {
+        this.maxScheduleLagMs = maxScheduleLagMs;
+    }
+    
+    // Successful responses per second of the measured stage
+    public double getGoodput() {
+        return measuredSeconds == 0 ? 0.0 : (double) measured.getTotal().getSuccessCount() / measuredSeconds;
+    }
+    
+    public double getErrorRate() {
+        long requests = measured.getTotal().getRequestCount();
+        return requests == 0 ? 0.0 : measured.getTotal().getFailedCount() * 100.0 / requests;
+    }
+}
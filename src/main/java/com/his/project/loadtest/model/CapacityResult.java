@@ -0,0 +1,60 @@
+package com.his.project.loadtest.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class CapacityResult {
+    private List<CapacityLevel> levels = new ArrayList<>(); // In the order they were run
+    private double maxSustainableRps; // Highest level that held the SLO; 0 = none did
+    private double firstFailingRps; // Lowest level that broke it; 0 = none did
+    private double kneePercentile = 99.0; // Latency percentile the knee is found on
+    private CapacityLevel knee; // Where latency starts to climb steeply; null if the curve has no knee
+    
+    public List<CapacityLevel> getLevels() {
+        return levels;
+    }
+    
+    public void setLevels(List<CapacityLevel> levels) {
+        this.levels = levels;
+    }
+    
+    public double getMaxSustainableRps() {
+        return maxSustainableRps;
+    }
+    
+    public void setMaxSustainableRps(double maxSustainableRps) {
+        this.maxSustainableRps = maxSustainableRps;
+    }
+    
+    public double getFirstFailingRps() {
+        return firstFailingRps;
+    }
+    
+    public void setFirstFailingRps(double firstFailingRps) {
+        this.firstFailingRps = firstFailingRps;
+    }
+    
+    public double getKneePercentile() {
+        return kneePercentile;
+    }
+    
+    public void setKneePercentile(double kneePercentile) {
+        this.kneePercentile = kneePercentile;
+    }
+    
+    public CapacityLevel getKnee() {
+        return knee;
+    }
+    
+    public void setKnee(CapacityLevel knee) {
+        this.knee = knee;
+    }
+    
+    // The levels from the lowest rate to the highest: the throughput-vs-latency curve
+    public List<CapacityLevel> getLevelsByRate() {
+        List<CapacityLevel> sorted = new ArrayList<>(levels);
+        sorted.sort(Comparator.comparingDouble(CapacityLevel::getTargetRps));
+        return sorted;
+    }
+}
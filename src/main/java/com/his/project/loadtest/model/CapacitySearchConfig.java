@@ -0,0 +1,49 @@
+package com.his.project.loadtest.model;
+
+public class CapacitySearchConfig {
+    private double startRps = 10; // First level; doubled until a level breaks the SLO
+    private double maxRps = 0; // Highest level tried (0 = no limit)
+    private long warmUpSeconds = 5; // Start of every level left out of its numbers
+    private double resolutionPercent = 5; // Stop once the last passing and first failing rate are this close
+    private int maxLevels = 15; // Upper bound on the number of levels run
+    
+    public double getStartRps() {
+        return startRps;
+    }
+    
+    public void setStartRps(double startRps) {
+        this.startRps = startRps;
+    }
+    
+    public double getMaxRps() {
+        return maxRps;
+    }
+    
+    public void setMaxRps(double maxRps) {
+        this.maxRps = maxRps;
+    }
+    
+    public long getWarmUpSeconds() {
+        return warmUpSeconds;
+    }
+    
+    public void setWarmUpSeconds(long warmUpSeconds) {
+        this.warmUpSeconds = warmUpSeconds;
+    }
+    
+    public double getResolutionPercent() {
+        return resolutionPercent;
+    }
+    
+    public void setResolutionPercent(double resolutionPercent) {
+        this.resolutionPercent = resolutionPercent;
+    }
+    
+    public int getMaxLevels() {
+        return maxLevels;
+    }
+    
+    public void setMaxLevels(int maxLevels) {
+        this.maxLevels = maxLevels;
+    }
+}
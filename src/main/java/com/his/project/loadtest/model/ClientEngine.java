@@ -0,0 +1,6 @@
+package com.his.project.loadtest.model;
+
+public enum ClientEngine {
+    CLASSIC, // Blocking ApiClient: every in-flight request holds a thread
+    ASYNC    // Non-blocking AsyncApiClient: a few I/O threads drive all in-flight requests
+}
@@ -0,0 +1,80 @@
+package com.his.project.loadtest.model;
+
+public class ConnectionPoolConfig {
+    private int maxTotal = 0; // 0 = size the pool to the number of virtual users
+    private int maxPerRoute = 0; // 0 = same as maxTotal (all load goes through the gateway route)
+    private long keepAliveMs = 30000; // How long an idle connection may be reused (0 = honour server Keep-Alive header)
+    private long idleEvictMs = 60000; // Background eviction of connections idle longer than this (0 = disabled)
+    private long validateAfterInactivityMs = 2000; // Stale check before reusing a connection idle this long
+    private long connectionTtlMs = 0; // Maximum connection lifetime (0 = unlimited)
+    private ConnectionReuse reuse = ConnectionReuse.PERSISTENT;
+    
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+    
+    public void setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+    }
+    
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+    
+    public void setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+    }
+    
+    public long getKeepAliveMs() {
+        return keepAliveMs;
+    }
+    
+    public void setKeepAliveMs(long keepAliveMs) {
+        this.keepAliveMs = keepAliveMs;
+    }
+    
+    public long getIdleEvictMs() {
+        return idleEvictMs;
+    }
+    
+    public void setIdleEvictMs(long idleEvictMs) {
+        this.idleEvictMs = idleEvictMs;
+    }
+    
+    public long getValidateAfterInactivityMs() {
+        return validateAfterInactivityMs;
+    }
+    
+    public void setValidateAfterInactivityMs(long validateAfterInactivityMs) {
+        this.validateAfterInactivityMs = validateAfterInactivityMs;
+    }
+    
+    public long getConnectionTtlMs() {
+        return connectionTtlMs;
+    }
+    
+    public void setConnectionTtlMs(long connectionTtlMs) {
+        this.connectionTtlMs = connectionTtlMs;
+    }
+    
+    public ConnectionReuse getReuse() {
+        return reuse;
+    }
+    
+    public void setReuse(ConnectionReuse reuse) {
+        this.reuse = reuse;
+    }
+    
+    // Copy with unset pool limits filled in for the given number of concurrent virtual users
+    public ConnectionPoolConfig resolvedFor(int virtualUsers) {
+        ConnectionPoolConfig resolved = new ConnectionPoolConfig();
+        resolved.maxTotal = maxTotal > 0 ? maxTotal : Math.max(virtualUsers, 1);
+        resolved.maxPerRoute = maxPerRoute > 0 ? maxPerRoute : resolved.maxTotal;
+        resolved.keepAliveMs = keepAliveMs;
+        resolved.idleEvictMs = idleEvictMs;
+        resolved.validateAfterInactivityMs = validateAfterInactivityMs;
+        resolved.connectionTtlMs = connectionTtlMs;
+        resolved.reuse = reuse;
+        return resolved;
+    }
+}
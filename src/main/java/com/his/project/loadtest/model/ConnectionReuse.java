@@ -0,0 +1,7 @@
+package com.his.project.loadtest.model;
+
+public enum ConnectionReuse {
+    PERSISTENT,  // All virtual users share one keep-alive connection pool
+    PER_USER,    // Each virtual user owns a single persistent connection (closed model only)
+    PER_REQUEST  // A new connection is opened and closed for every request
+}
@@ -1,46 +1,239 @@
 package com.his.project.loadtest.model;
 
-import java.util.ArrayList;
-import java.util.List;
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.metrics.RequestPhase;
 
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Statistics of one endpoint. Safe to update from many threads (stage statistics, live
+// coordinator view); the run's own hot path records into a MetricsRegistry instead and gets
+// merged copies of this class from it. The response times are those of successful requests;
+// every failure outcome has its own count and response time histogram.
 public class EndpointStats {
-    private long requestCount = 0;
-    private long successCount = 0;
-    private long failedCount = 0;
-    private List<Long> responseTimes = new ArrayList<>();
+    private final LongAdder requestCount = new LongAdder();
+    private final LongAdder successCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder checkFailedCount = new LongAdder(); // Included in failedCount
+    private final LongAdder bytesSent = new LongAdder(); // Request bodies
+    private final LongAdder bytesReceived = new LongAdder(); // Response bodies
+    private final LatencyHistogram responseTimes; // nanoseconds
+    private final LatencyHistogram[] phaseTimes; // nanoseconds, indexed by RequestPhase ordinal
+    private final LongAdder[] outcomeCounts = newCounters(Outcome.values().length);
+    private final AtomicReferenceArray<LatencyHistogram> failureTimes = new AtomicReferenceArray<>(Outcome.values().length); // Created on first use
+    private final Map<Integer, LongAdder> statusCounts = new ConcurrentSkipListMap<>(); // Responses by HTTP status code
+    
+    public EndpointStats() {
+        this(LatencyHistogram.DEFAULT_SIGNIFICANT_DIGITS);
+    }
+    
+    public EndpointStats(int significantDigits) {
+        this(new LatencyHistogram(significantDigits), newPhaseTimes());
+    }
+    
+    // Rebuilds statistics from merged or received histograms
+    public static EndpointStats of(long requests, long successes, long failures,
+                                   LatencyHistogram responseTimes, LatencyHistogram[] phaseTimes) {
+        EndpointStats stats = new EndpointStats(responseTimes, phaseTimes);
+        stats.requestCount.add(requests);
+        stats.successCount.add(successes);
+        stats.failedCount.add(failures);
+        return stats;
+    }
+    
+    private EndpointStats(LatencyHistogram responseTimes, LatencyHistogram[] phaseTimes) {
+        this.responseTimes = responseTimes;
+        this.phaseTimes = phaseTimes;
+    }
+    
+    private static LongAdder[] newCounters(int count) {
+        LongAdder[] counters = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+    
+    public static LatencyHistogram[] newPhaseTimes() {
+        LatencyHistogram[] phaseTimes = new LatencyHistogram[RequestPhase.values().length];
+        for (int i = 0; i < phaseTimes.length; i++) {
+            phaseTimes[i] = new LatencyHistogram(RequestPhase.SIGNIFICANT_DIGITS);
+        }
+        return phaseTimes;
+    }
     
     public void incrementRequest() {
-        requestCount++;
+        requestCount.increment();
     }
     
     public void incrementSuccess() {
-        successCount++;
+        successCount.increment();
     }
     
     public void incrementFailed() {
-        failedCount++;
+        failedCount.increment();
+    }
+    
+    // Records one request under its outcome; status is -1 when no response arrived
+    public void record(Outcome outcome, int status, long responseTimeNanos) {
+        requestCount.increment();
+        if (outcome == Outcome.SUCCESS) {
+            successCount.increment();
+        } else {
+            failedCount.increment();
+        }
+        addOutcome(outcome, 1, null);
+        timesOf(outcome).recordValue(responseTimeNanos);
+        if (status >= 0) {
+            addStatusCount(status, 1);
+        }
     }
     
-    public void addResponseTime(long responseTime) {
-        responseTimes.add(responseTime);
+    // Adds requests to an outcome's count, with their response times if known; the request,
+    // success and failure counts are kept separately (see of())
+    public void addOutcome(Outcome outcome, long count, LatencyHistogram times) {
+        outcomeCounts[outcome.ordinal()].add(count);
+        if (times != null && times.getTotalCount() > 0) {
+            timesOf(outcome).add(times);
+        }
+    }
+    
+    public void addStatusCount(int status, long count) {
+        statusCounts.computeIfAbsent(status, k -> new LongAdder()).add(count);
+    }
+    
+    private LatencyHistogram timesOf(Outcome outcome) {
+        if (outcome == Outcome.SUCCESS) {
+            return responseTimes;
+        }
+        LatencyHistogram times = failureTimes.get(outcome.ordinal());
+        if (times == null) {
+            failureTimes.compareAndSet(outcome.ordinal(), null, new LatencyHistogram(responseTimes.getSignificantDigits()));
+            times = failureTimes.get(outcome.ordinal());
+        }
+        return times;
+    }
+    
+    // Adds another set of statistics for the same endpoint (e.g. from another worker); exact
+    // because the histograms are merged bucket by bucket
+    public void merge(EndpointStats other) {
+        requestCount.add(other.getRequestCount());
+        successCount.add(other.getSuccessCount());
+        failedCount.add(other.getFailedCount());
+        addTransfer(other.getBytesSent(), other.getBytesReceived(), other.getCheckFailedCount());
+        responseTimes.add(other.responseTimes);
+        for (int i = 0; i < phaseTimes.length; i++) {
+            phaseTimes[i].add(other.phaseTimes[i]);
+        }
+        for (Outcome outcome : Outcome.values()) {
+            addOutcome(outcome, other.getOutcomeCount(outcome), outcome == Outcome.SUCCESS ? null : other.failureTimes.get(outcome.ordinal()));
+        }
+        other.statusCounts.forEach((status, count) -> addStatusCount(status, count.sum()));
+    }
+    
+    public void addTransfer(long sent, long received, long checkFailures) {
+        bytesSent.add(sent);
+        bytesReceived.add(received);
+        checkFailedCount.add(checkFailures);
+    }
+    
+    public void addResponseTime(long responseTimeNanos) {
+        responseTimes.recordValue(responseTimeNanos);
+    }
+    
+    public void addPhaseTime(RequestPhase phase, long nanos) {
+        phaseTimes[phase.ordinal()].recordValue(nanos);
     }
     
     public long getRequestCount() {
-        return requestCount;
+        return requestCount.sum();
     }
     
     public long getSuccessCount() {
-        return successCount;
+        return successCount.sum();
     }
     
     public long getFailedCount() {
-        return failedCount;
+        return failedCount.sum();
+    }
+    
+    // Responses that arrived with an expected status but failed a response check
+    public long getCheckFailedCount() {
+        return checkFailedCount.sum();
+    }
+    
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+    
+    public long getBytesReceived() {
+        return bytesReceived.sum();
+    }
+    
+    public double getSentMbPerSecond(long durationMs) {
+        return durationMs > 0 ? bytesSent.sum() / 1_000_000.0 * 1000.0 / durationMs : 0.0;
+    }
+    
+    public double getReceivedMbPerSecond(long durationMs) {
+        return durationMs > 0 ? bytesReceived.sum() / 1_000_000.0 * 1000.0 / durationMs : 0.0;
+    }
+    
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
     }
     
     public double getAvgResponseTime() {
-        return responseTimes.isEmpty()
-            ? 0.0
-            : responseTimes.stream().mapToLong(Long::longValue).average().orElse(0.0);
+        return responseTimes.getMean() / 1_000_000.0;
+    }
+    
+    public double getPercentile(double percentile) {
+        return responseTimes.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+    
+    public double getMaxResponseTime() {
+        return responseTimes.getMaxValue() / 1_000_000.0;
+    }
+    
+    public LatencyHistogram getPhaseTimes(RequestPhase phase) {
+        return phaseTimes[phase.ordinal()];
+    }
+    
+    public double getPhasePercentile(RequestPhase phase, double percentile) {
+        return phaseTimes[phase.ordinal()].getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+    
+    public long getOutcomeCount(Outcome outcome) {
+        return outcomeCounts[outcome.ordinal()].sum();
+    }
+    
+    // Response times of the requests with this outcome; null for a failure outcome that never occurred
+    public LatencyHistogram getOutcomeTimes(Outcome outcome) {
+        return outcome == Outcome.SUCCESS ? responseTimes : failureTimes.get(outcome.ordinal());
+    }
+    
+    public double getOutcomePercentile(Outcome outcome, double percentile) {
+        LatencyHistogram times = getOutcomeTimes(outcome);
+        return times != null ? times.getValueAtPercentile(percentile) / 1_000_000.0 : 0.0;
+    }
+    
+    // Responses by status code, in ascending code order
+    public Map<Integer, Long> getStatusCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+    
+    // True when the engine measured phases for this endpoint (the async engine measures fewer)
+    public boolean hasPhaseTimes() {
+        for (LatencyHistogram histogram : phaseTimes) {
+            if (histogram.getTotalCount() > 0) {
+                return true;
+            }
+        }
+        return false;
     }
 }
-
@@ -0,0 +1,6 @@
+package com.his.project.loadtest.model;
+
+public enum ExecutionMode {
+    PLATFORM, // One platform thread per virtual user (fixed thread pool)
+    VIRTUAL   // One virtual thread per virtual user, multiplexed over a small set of carrier threads
+}
@@ -0,0 +1,6 @@
+package com.his.project.loadtest.model;
+
+public enum HttpProtocol {
+    HTTP_1_1, // One request per connection at a time, concurrency comes from the connection pool
+    HTTP_2    // Requests multiplexed as streams over a shared connection (h2c prior knowledge for http://)
+}
@@ -0,0 +1,131 @@
+package com.his.project.loadtest.model;
+
+// One row of the live time series: activity of one endpoint (or "ALL") during one interval
+public class IntervalStats {
+    private long timestampMs;
+    private double elapsedSeconds;
+    private String endpoint;
+    private long requests;
+    private long successes;
+    private long failures;
+    private double throughput;
+    private double meanMs;
+    private double p50Ms;
+    private double p90Ms;
+    private double p99Ms;
+    private double maxMs;
+    private String stage; // Load profile stage active at the end of the interval
+    private double target; // Profile target (users or req/s) at the end of the interval
+    
+    public long getTimestampMs() {
+        return timestampMs;
+    }
+    
+    public void setTimestampMs(long timestampMs) {
+        this.timestampMs = timestampMs;
+    }
+    
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+    
+    public void setElapsedSeconds(double elapsedSeconds) {
+        this.elapsedSeconds = elapsedSeconds;
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+    
+    public long getRequests() {
+        return requests;
+    }
+    
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+    
+    public long getSuccesses() {
+        return successes;
+    }
+    
+    public void setSuccesses(long successes) {
+        this.successes = successes;
+    }
+    
+    public long getFailures() {
+        return failures;
+    }
+    
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+    
+    public double getThroughput() {
+        return throughput;
+    }
+    
+    public void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+    
+    public double getMeanMs() {
+        return meanMs;
+    }
+    
+    public void setMeanMs(double meanMs) {
+        this.meanMs = meanMs;
+    }
+    
+    public double getP50Ms() {
+        return p50Ms;
+    }
+    
+    public void setP50Ms(double p50Ms) {
+        this.p50Ms = p50Ms;
+    }
+    
+    public double getP90Ms() {
+        return p90Ms;
+    }
+    
+    public void setP90Ms(double p90Ms) {
+        this.p90Ms = p90Ms;
+    }
+    
+    public double getP99Ms() {
+        return p99Ms;
+    }
+    
+    public void setP99Ms(double p99Ms) {
+        this.p99Ms = p99Ms;
+    }
+    
+    public double getMaxMs() {
+        return maxMs;
+    }
+    
+    public void setMaxMs(double maxMs) {
+        this.maxMs = maxMs;
+    }
+    
+    public String getStage() {
+        return stage;
+    }
+    
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+    
+    public double getTarget() {
+        return target;
+    }
+    
+    public void setTarget(double target) {
+        this.target = target;
+    }
+}
@@ -0,0 +1,151 @@
+package com.his.project.loadtest.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A sequence of stages the load follows over time, in concurrent users or requests per second.
+// A LINEAR stage interpolates from the previous stage's target (0 before the first stage).
+public class LoadProfile {
+    private ProfileUnit unit = ProfileUnit.USERS;
+    private List<LoadStage> stages = new ArrayList<>();
+    
+    public LoadProfile() {
+    }
+    
+    public LoadProfile(ProfileUnit unit) {
+        this.unit = unit;
+    }
+    
+    public LoadProfile addStage(String name, long durationSeconds, double target, StageTransition transition) {
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Stage duration must be positive: " + durationSeconds);
+        }
+        if (target < 0) {
+            throw new IllegalArgumentException("Stage target must not be negative: " + target);
+        }
+        stages.add(new LoadStage(name, durationSeconds, target, transition));
+        return this;
+    }
+    
+    // Built-in shapes over a total duration, peaking at the given target
+    public static LoadProfile builtIn(String shape, ProfileUnit unit, double target, long durationSeconds) {
+        LoadProfile profile = new LoadProfile(unit);
+        long d = Math.max(durationSeconds, 10);
+        switch (shape.toLowerCase()) {
+            case "ramp":
+                // Warm up gradually, hold, then ramp down so the services drain cleanly
+                // (the hold takes what rounding leaves, so the stages add up to the duration)
+                long rampUp = part(d, 0.25);
+                long rampDown = part(d, 0.1);
+                profile.addStage("ramp-up", rampUp, target, StageTransition.LINEAR);
+                profile.addStage("hold", d - rampUp - rampDown, target, StageTransition.STEP);
+                profile.addStage("ramp-down", rampDown, 0, StageTransition.LINEAR);
+                break;
+            case "staircase":
+                // Five equal steps up to the target to find the level where latency degrades
+                // (steps differ by at most a second when the duration does not divide by five)
+                for (int i = 1; i <= 5; i++) {
+                    profile.addStage("step-" + i, d * i / 5 - d * (i - 1) / 5, target * i / 5, StageTransition.STEP);
+                }
+                break;
+            case "spike":
+                // Baseline at a fifth of the target, a sudden burst, then recovery at baseline
+                profile.addStage("baseline", part(d, 0.4), target / 5, StageTransition.STEP);
+                profile.addStage("spike", part(d, 0.2), target, StageTransition.STEP);
+                profile.addStage("recovery", Math.max(1, d - part(d, 0.4) - part(d, 0.2)), target / 5, StageTransition.STEP);
+                break;
+            case "soak":
+                // Short warm-up (at most five minutes) followed by a long steady hold
+                long warmUp = Math.min(part(d, 0.1), 300);
+                profile.addStage("warm-up", warmUp, target, StageTransition.LINEAR);
+                profile.addStage("soak", d - warmUp, target, StageTransition.STEP);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown load profile: " + shape + " (ramp, staircase, spike, soak)");
+        }
+        return profile;
+    }
+    
+    // Parses "duration:target[:step|linear[:name]],..." e.g. "60:100,300:100,30:0"
+    public static LoadProfile parse(String spec, ProfileUnit unit) {
+        LoadProfile profile = new LoadProfile(unit);
+        String[] parts = spec.split(",");
+        for (int i = 0; i < parts.length; i++) {
+            String[] fields = parts[i].trim().split(":");
+            if (fields.length < 2) {
+                throw new IllegalArgumentException("Invalid stage '" + parts[i] + "', expected duration:target[:step|linear[:name]]");
+            }
+            long duration = Long.parseLong(fields[0].trim().replaceAll("s$", ""));
+            double target = Double.parseDouble(fields[1].trim());
+            StageTransition transition = fields.length > 2
+                ? StageTransition.valueOf(fields[2].trim().toUpperCase())
+                : StageTransition.LINEAR;
+            String name = fields.length > 3 ? fields[3].trim() : "stage-" + (i + 1);
+            profile.addStage(name, duration, target, transition);
+        }
+        return profile;
+    }
+    
+    public long getTotalDurationNanos() {
+        return TimeUnit.SECONDS.toNanos(getTotalDurationSeconds());
+    }
+    
+    public long getTotalDurationSeconds() {
+        return stages.stream().mapToLong(LoadStage::getDurationSeconds).sum();
+    }
+    
+    public double getMaxTarget() {
+        return stages.stream().mapToDouble(LoadStage::getTarget).max().orElse(0);
+    }
+    
+    // Index of the stage active at the given time since the start (last stage once the profile ends)
+    public int stageIndexAt(long elapsedNanos) {
+        long stageEnd = 0;
+        for (int i = 0; i < stages.size(); i++) {
+            stageEnd += TimeUnit.SECONDS.toNanos(stages.get(i).getDurationSeconds());
+            if (elapsedNanos < stageEnd) {
+                return i;
+            }
+        }
+        return stages.size() - 1;
+    }
+    
+    public double targetAt(long elapsedNanos) {
+        long stageStart = 0;
+        double previousTarget = 0;
+        for (LoadStage stage : stages) {
+            long stageNanos = TimeUnit.SECONDS.toNanos(stage.getDurationSeconds());
+            if (elapsedNanos < stageStart + stageNanos) {
+                if (stage.getTransition() == StageTransition.STEP) {
+                    return stage.getTarget();
+                }
+                double progress = (double) (elapsedNanos - stageStart) / stageNanos;
+                return previousTarget + (stage.getTarget() - previousTarget) * Math.max(progress, 0);
+            }
+            stageStart += stageNanos;
+            previousTarget = stage.getTarget();
+        }
+        return 0;
+    }
+    
+    public ProfileUnit getUnit() {
+        return unit;
+    }
+    
+    public void setUnit(ProfileUnit unit) {
+        this.unit = unit;
+    }
+    
+    public List<LoadStage> getStages() {
+        return stages;
+    }
+    
+    public void setStages(List<LoadStage> stages) {
+        this.stages = stages;
+    }
+    
+    private static long part(long durationSeconds, double fraction) {
+        return Math.max(1, Math.round(durationSeconds * fraction));
+    }
+}
@@ -0,0 +1,50 @@
+package com.his.project.loadtest.model;
+
+public class LoadStage {
+    private String name;
+    private long durationSeconds;
+    private double target;
+    private StageTransition transition = StageTransition.LINEAR;
+    
+    public LoadStage() {
+    }
+    
+    public LoadStage(String name, long durationSeconds, double target, StageTransition transition) {
+        this.name = name;
+        this.durationSeconds = durationSeconds;
+        this.target = target;
+        this.transition = transition;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+    
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+    
+    public double getTarget() {
+        return target;
+    }
+    
+    public void setTarget(double target) {
+        this.target = target;
+    }
+    
+    public StageTransition getTransition() {
+        return transition;
+    }
+    
+    public void setTransition(StageTransition transition) {
+        this.transition = transition;
+    }
+}
@@ -0,0 +1,6 @@
+package com.his.project.loadtest.model;
+
+public enum PayloadMode {
+    TEMPLATE, // Fill pre-compiled templates into a reused per-thread buffer for every request
+    POOL      // Pre-generate a pool of payloads before the run and cycle through them
+}
@@ -0,0 +1,6 @@
+package com.his.project.loadtest.model;
+
+public enum ProfileUnit {
+    USERS, // Stage targets are concurrent virtual users (closed model)
+    RATE   // Stage targets are total requests per second (open model)
+}
@@ -0,0 +1,116 @@
+package com.his.project.loadtest.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// One request of a scenario. The name identifies it in all statistics (e.g. "GET /api/product").
+public class RequestSpec {
+    private String name;
+    private String method = "GET";
+    private String path;
+    private String body; // Literal request body (JSON), sent as application/json
+    private String generator; // Built-in random data instead of a literal: product | order | inventory
+    private double weight = 1.0; // Relative frequency in WEIGHTED scenarios
+    private int expectedStatus = 0; // 0 = any 2xx status counts as success
+    private ResponseCheck check; // Optional body checks; a response failing them counts as failed
+    // JOURNEY scenarios: session variables and the JSON paths of the response they are taken from
+    // (e.g. "skuCode": "*.skuCode"), read by ${var:NAME} in later steps
+    private Map<String, String> extract = new LinkedHashMap<>();
+    private String thinkTime; // JOURNEY scenarios: pause before the next step, a distribution such as "exponential:2000" (ms)
+    
+    public RequestSpec() {
+    }
+    
+    public RequestSpec(String name, String method, String path, String generator, double weight, int expectedStatus) {
+        this.name = name;
+        this.method = method;
+        this.path = path;
+        this.generator = generator;
+        this.weight = weight;
+        this.expectedStatus = expectedStatus;
+    }
+    
+    public boolean isSuccess(int status) {
+        return expectedStatus > 0 ? status == expectedStatus : status >= 200 && status < 300;
+    }
+    
+    public String getName() {
+        return name != null ? name : method + " " + path;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getMethod() {
+        return method;
+    }
+    
+    public void setMethod(String method) {
+        this.method = method;
+    }
+    
+    public String getPath() {
+        return path;
+    }
+    
+    public void setPath(String path) {
+        this.path = path;
+    }
+    
+    public String getBody() {
+        return body;
+    }
+    
+    public void setBody(String body) {
+        this.body = body;
+    }
+    
+    public String getGenerator() {
+        return generator;
+    }
+    
+    public void setGenerator(String generator) {
+        this.generator = generator;
+    }
+    
+    public double getWeight() {
+        return weight;
+    }
+    
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+    
+    public int getExpectedStatus() {
+        return expectedStatus;
+    }
+    
+    public void setExpectedStatus(int expectedStatus) {
+        this.expectedStatus = expectedStatus;
+    }
+    
+    public ResponseCheck getCheck() {
+        return check;
+    }
+    
+    public void setCheck(ResponseCheck check) {
+        this.check = check;
+    }
+    
+    public Map<String, String> getExtract() {
+        return extract;
+    }
+    
+    public void setExtract(Map<String, String> extract) {
+        this.extract = extract;
+    }
+    
+    public String getThinkTime() {
+        return thinkTime;
+    }
+    
+    public void setThinkTime(String thinkTime) {
+        this.thinkTime = thinkTime;
+    }
+}
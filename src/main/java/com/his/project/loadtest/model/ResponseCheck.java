@@ -0,0 +1,70 @@
+package com.his.project.loadtest.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Checks of a response body on top of the status code. JSON paths are dotted names with array
+// indexes as numbers ("0.skuCode", "status"); "$" is the whole body.
+public class ResponseCheck {
+    private List<String> fields = new ArrayList<>(); // Paths that must be present
+    private Map<String, String> values = new LinkedHashMap<>(); // Paths and the scalar text they must hold ("$" = "true")
+    private long minBytes = 0;
+    private long maxBytes = 0; // 0 = no limit
+    
+    // Comma-separated rules: "path" (present), "path==value", "bytes>=N", "bytes<=N"
+    public static ResponseCheck parse(String rules) {
+        ResponseCheck check = new ResponseCheck();
+        for (String part : rules.split(",")) {
+            String rule = part.trim();
+            if (rule.startsWith("bytes>=")) {
+                check.setMinBytes(Long.parseLong(rule.substring(7).trim()));
+            } else if (rule.startsWith("bytes<=")) {
+                check.setMaxBytes(Long.parseLong(rule.substring(7).trim()));
+            } else if (rule.contains("==")) {
+                int eq = rule.indexOf("==");
+                check.getValues().put(rule.substring(0, eq).trim(), rule.substring(eq + 2).trim());
+            } else if (!rule.isEmpty()) {
+                check.getFields().add(rule);
+            }
+        }
+        return check;
+    }
+    
+    public boolean hasJsonChecks() {
+        return !fields.isEmpty() || !values.isEmpty();
+    }
+    
+    public List<String> getFields() {
+        return fields;
+    }
+    
+    public void setFields(List<String> fields) {
+        this.fields = fields;
+    }
+    
+    public Map<String, String> getValues() {
+        return values;
+    }
+    
+    public void setValues(Map<String, String> values) {
+        this.values = values;
+    }
+    
+    public long getMinBytes() {
+        return minBytes;
+    }
+    
+    public void setMinBytes(long minBytes) {
+        this.minBytes = minBytes;
+    }
+    
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+}
@@ -0,0 +1,154 @@
+package com.his.project.loadtest.model;
+
+import com.his.project.loadtest.util.Distribution;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// The mix of requests virtual users send, either built from the service flags or loaded from a
+// JSON test plan, e.g. {"mode": "WEIGHTED", "requests": [{"method": "GET", "path": "/api/product", "weight": 70}, ...]}
+public class Scenario {
+    // ${var:NAME...} placeholders; group 2 is set when the placeholder has a |fallback
+    private static final Pattern VARIABLE = Pattern.compile("\\$\\{var:([^}:|]*)[^}|]*(\\|)?[^}]*}");
+    // Order of the product the shopper picked, at the price the catalogue showed
+    private static final String JOURNEY_ORDER_BODY =
+        "{\"skuCode\":\"${var:skuCode:json}\",\"price\":${var:price},\"quantity\":${int:1:3},"
+            + "\"userDetails\":{\"email\":\"test${int:0:9999}@example.com\",\"firstName\":\"Test\",\"lastName\":\"User\"}}";
+    
+    private String name = "default";
+    private ScenarioMode mode = ScenarioMode.SEQUENTIAL;
+    private List<RequestSpec> requests = new ArrayList<>();
+    
+    // The original fixed sequence: product GET and POST, inventory GET, order POST
+    public static Scenario standard(boolean product, boolean inventory, boolean order) {
+        Scenario scenario = new Scenario();
+        if (product) {
+            scenario.requests.add(new RequestSpec("GET /api/product", "GET", "/api/product", null, 1.0, 200));
+            scenario.requests.add(new RequestSpec("POST /api/product", "POST", "/api/product", "product", 1.0, 201));
+        }
+        if (inventory) {
+            scenario.requests.add(new RequestSpec("GET /api/inventory", "GET", "/api/inventory", "inventory", 1.0, 200));
+        }
+        if (order) {
+            scenario.requests.add(new RequestSpec("POST /api/order", "POST", "/api/order", "order", 1.0, 201));
+        }
+        return scenario;
+    }
+    
+    // A shopper's journey: browse the catalogue, pick one of the listed products at random, check
+    // its stock and order it, so inventory and order requests follow the product the user saw
+    // instead of one fixed SKU. thinkTime (a Distribution, may be null) pauses between the steps.
+    public static Scenario journey(String thinkTime) {
+        Scenario scenario = new Scenario();
+        scenario.name = "shopper";
+        scenario.mode = ScenarioMode.JOURNEY;
+        RequestSpec browse = new RequestSpec("GET /api/product", "GET", "/api/product", null, 1.0, 200);
+        browse.getExtract().put("skuCode", "*.skuCode");
+        browse.getExtract().put("price", "*.price");
+        RequestSpec stock = new RequestSpec("GET /api/inventory", "GET",
+            "/api/inventory?skuCode=${var:skuCode:url}&quantity=${int:1:5}", null, 1.0, 200);
+        RequestSpec order = new RequestSpec("POST /api/order", "POST", "/api/order", null, 1.0, 201);
+        order.setBody(JOURNEY_ORDER_BODY);
+        scenario.requests.add(browse);
+        scenario.requests.add(stock);
+        scenario.requests.add(order);
+        for (RequestSpec request : scenario.requests) {
+            request.setThinkTime(thinkTime);
+        }
+        return scenario;
+    }
+    
+    public void validate() {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("Scenario '" + name + "' has no requests");
+        }
+        Set<String> names = new HashSet<>();
+        // Session variables extracted by the steps so far
+        Set<String> extracted = new HashSet<>();
+        for (RequestSpec request : requests) {
+            if (request.getPath() == null || !request.getPath().startsWith("/")) {
+                throw new IllegalArgumentException("Request '" + request.getName() + "' needs a path starting with /");
+            }
+            if (request.getWeight() < 0) {
+                throw new IllegalArgumentException("Invalid weight for '" + request.getName() + "': " + request.getWeight());
+            }
+            if (!names.add(request.getName())) {
+                throw new IllegalArgumentException("Duplicate request name in scenario: " + request.getName());
+            }
+            if (request.getExtract() == null) {
+                request.setExtract(new LinkedHashMap<>());
+            }
+            List<String> variables = requiredVariables(request.getPath());
+            variables.addAll(requiredVariables(request.getBody()));
+            if (mode != ScenarioMode.JOURNEY) {
+                if (!request.getExtract().isEmpty() || request.getThinkTime() != null || request.getPath().contains("${var:")
+                        || (request.getBody() != null && request.getBody().contains("${var:"))) {
+                    throw new IllegalArgumentException("Request '" + request.getName()
+                        + "' uses extract, thinkTime or ${var:...}, which need a JOURNEY scenario");
+                }
+                continue;
+            }
+            for (String variable : variables) {
+                if (!extracted.contains(variable)) {
+                    throw new IllegalArgumentException("Step '" + request.getName() + "' reads ${var:" + variable
+                        + "}, which no earlier step extracts (add it to an earlier extract or give it a |fallback)");
+                }
+            }
+            extracted.addAll(request.getExtract().keySet());
+            if (request.getThinkTime() != null) {
+                Distribution.parse(request.getThinkTime());
+            }
+        }
+        if (mode == ScenarioMode.WEIGHTED && requests.stream().mapToDouble(RequestSpec::getWeight).sum() <= 0) {
+            throw new IllegalArgumentException("Weighted scenario '" + name + "' needs at least one positive weight");
+        }
+    }
+    
+    // Session variables read without a fallback
+    private static List<String> requiredVariables(String template) {
+        List<String> variables = new ArrayList<>();
+        if (template != null) {
+            Matcher matcher = VARIABLE.matcher(template);
+            while (matcher.find()) {
+                if (matcher.group(2) == null) {
+                    variables.add(matcher.group(1));
+                }
+            }
+        }
+        return variables;
+    }
+    
+    // Requests one iteration of a virtual user sends
+    public int getRequestsPerIteration() {
+        return mode == ScenarioMode.WEIGHTED ? 1 : requests.size();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public ScenarioMode getMode() {
+        return mode;
+    }
+    
+    public void setMode(ScenarioMode mode) {
+        this.mode = mode;
+    }
+    
+    public List<RequestSpec> getRequests() {
+        return requests;
+    }
+    
+    public void setRequests(List<RequestSpec> requests) {
+        this.requests = requests;
+    }
+}
@@ -0,0 +1,7 @@
+package com.his.project.loadtest.model;
+
+public enum ScenarioMode {
+    SEQUENTIAL, // Every iteration sends each request of the scenario once, in order
+    WEIGHTED,   // Every iteration sends one request picked at random by weight
+    JOURNEY     // Every iteration is one user journey: the requests in order, passing extracted values on
+}
@@ -0,0 +1,39 @@
+package com.his.project.loadtest.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Statistics of all requests issued while one stage of the load profile was active. A run records
+// a stage into its own sharded MetricsRegistry and adds the merged endpoints here when it ends.
+public class StageStats {
+    private final LoadStage stage;
+    private final EndpointStats total;
+    private final Map<String, EndpointStats> endpointStats = new ConcurrentHashMap<>();
+    
+    public StageStats(LoadStage stage, int significantDigits) {
+        this.stage = stage;
+        this.total = new EndpointStats(significantDigits);
+    }
+    
+    // Adds one endpoint's statistics for the stage and counts them in the total
+    public void add(String endpoint, EndpointStats stats) {
+        endpointStats.put(endpoint, stats);
+        total.merge(stats);
+    }
+    
+    public LoadStage getStage() {
+        return stage;
+    }
+    
+    public EndpointStats getTotal() {
+        return total;
+    }
+    
+    public Map<String, EndpointStats> getEndpointStats() {
+        return endpointStats;
+    }
+    
+    public double getThroughput() {
+        return stage.getDurationSeconds() == 0 ? 0.0 : (double) total.getRequestCount() / stage.getDurationSeconds();
+    }
+}
@@ -0,0 +1,6 @@
+package com.his.project.loadtest.model;
+
+public enum StageTransition {
+    LINEAR, // Move gradually from the previous stage's target to this one over the stage duration
+    STEP    // Jump to this stage's target at the start of the stage and hold it
+}
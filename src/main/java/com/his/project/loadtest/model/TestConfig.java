@@ -1,5 +1,13 @@
 package com.his.project.loadtest.model;
 
+import com.his.project.loadtest.feeder.FeederConfig;
+import com.his.project.loadtest.stub.StubConfig;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class TestConfig {
     private String gatewayBaseUrl = "http://35.198.90.238:9000";
     private int threads = 10;
@@ -9,6 +17,39 @@ public class TestConfig {
     private boolean testOrderService = true;
     private boolean testInventoryService = true;
     private Integer requestsPerService = null; // If set, each service endpoint gets this many requests
+    private Double targetRps = null; // If set, requests follow a fixed timeline (open model) instead of a closed loop
+    private Map<String, Double> endpointRps = new LinkedHashMap<>(); // Per-endpoint rate overrides, e.g. "GET /api/product" -> 50
+    private Map<String, ResponseCheck> responseChecks = new LinkedHashMap<>(); // --check rules by request name, replacing the scenario's
+    private long durationSeconds = 0; // Open model only: stop issuing after this long (0 = stop on request count)
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM; // VIRTUAL runs each virtual user on a virtual thread
+    private long pinnedThresholdMs = 1; // Virtual threads only: shortest pinning event that is counted (0 = all)
+    private ClientEngine clientEngine = ClientEngine.CLASSIC;
+    private HttpProtocol httpProtocol = HttpProtocol.HTTP_1_1; // Async engine only
+    private int maxInFlight = 1000; // Async engine only: cap on concurrently outstanding requests
+    private int ioThreads = Runtime.getRuntime().availableProcessors(); // Async engine only
+    private ConnectionPoolConfig connectionPool = new ConnectionPoolConfig(); // Classic client only
+    private TimeoutConfig timeouts = new TimeoutConfig();
+    private int histogramDigits = 3; // Latency histogram precision in significant decimal digits (1-3)
+    private Scenario scenario = null; // Request mix; null = the standard sequence of the enabled services
+    private LoadProfile loadProfile = null; // Staged load; overrides threads/duration (users) or rate/duration (rate)
+    private int workers = 0; // Coordinator mode: number of worker processes sharing the test (0 = run locally)
+    private int coordinatorPort = 7070;
+    private int reportIntervalSeconds = 1; // Live per-interval report period (0 = off)
+    private int metricsPort = 0; // Port of the Prometheus/OpenMetrics scrape endpoint (0 = off)
+    private String timeSeriesFile = null; // Per-interval rows as JSONL, or CSV if the name ends in .csv
+    private PayloadMode payloadMode = PayloadMode.TEMPLATE;
+    private int payloadPoolSize = 10000; // Pre-generated payloads per request in POOL mode
+    private StubConfig stub = new StubConfig(); // Embedded stub gateway (--stub, --calibrate)
+    private FeederConfig feeder; // Test data file for ${feed:...} placeholders; null = generated data only
+    private String recordDirectory; // Raw per-request sample log (--record); null = off
+    private int recordSegmentMb = 16; // Size of each memory-mapped segment file
+    private List<Threshold> thresholds = new ArrayList<>(); // SLO gates judged live and at the end
+    private int sloWindowSeconds = 10; // Sliding window the thresholds are judged over during the run
+    private int abortAfterSeconds = 0; // Stop the run once a threshold stays breached this long (0 = never)
+    private CapacitySearchConfig capacitySearch = new CapacitySearchConfig(); // --capacity-search levels
+    private String resultFile; // Run result saved for later comparison (--save-result); null = not saved
+    private String resultLabel; // Name stored with the saved result, e.g. a build or release
+    private String reportFile; // HTML and JSON end-of-run report (--report); null = none
     
     public String getGatewayBaseUrl() {
         return gatewayBaseUrl;
@@ -73,5 +114,275 @@ public class TestConfig {
     public void setRequestsPerService(Integer requestsPerService) {
         this.requestsPerService = requestsPerService;
     }
+    
+    public Double getTargetRps() {
+        return targetRps;
+    }
+    
+    public void setTargetRps(Double targetRps) {
+        this.targetRps = targetRps;
+    }
+    
+    public Map<String, ResponseCheck> getResponseChecks() {
+        return responseChecks;
+    }
+    
+    public void setResponseChecks(Map<String, ResponseCheck> responseChecks) {
+        this.responseChecks = responseChecks;
+    }
+    
+    public Map<String, Double> getEndpointRps() {
+        return endpointRps;
+    }
+    
+    public void setEndpointRps(Map<String, Double> endpointRps) {
+        this.endpointRps = endpointRps;
+    }
+    
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+    
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+    
+    public boolean isOpenModel() {
+        if (loadProfile != null) {
+            return loadProfile.getUnit() == ProfileUnit.RATE;
+        }
+        return targetRps != null || !endpointRps.isEmpty();
+    }
+    
+    public LoadProfile getLoadProfile() {
+        return loadProfile;
+    }
+    
+    public void setLoadProfile(LoadProfile loadProfile) {
+        this.loadProfile = loadProfile;
+    }
+    
+    public int getHistogramDigits() {
+        return histogramDigits;
+    }
+    
+    public void setHistogramDigits(int histogramDigits) {
+        this.histogramDigits = histogramDigits;
+    }
+    
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+    
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+    
+    public long getPinnedThresholdMs() {
+        return pinnedThresholdMs;
+    }
+    
+    public void setPinnedThresholdMs(long pinnedThresholdMs) {
+        this.pinnedThresholdMs = pinnedThresholdMs;
+    }
+    
+    public ClientEngine getClientEngine() {
+        return clientEngine;
+    }
+    
+    public void setClientEngine(ClientEngine clientEngine) {
+        this.clientEngine = clientEngine;
+    }
+    
+    public HttpProtocol getHttpProtocol() {
+        return httpProtocol;
+    }
+    
+    public void setHttpProtocol(HttpProtocol httpProtocol) {
+        this.httpProtocol = httpProtocol;
+    }
+    
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+    
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+    
+    public int getIoThreads() {
+        return ioThreads;
+    }
+    
+    public void setIoThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+    }
+    
+    public ConnectionPoolConfig getConnectionPool() {
+        return connectionPool;
+    }
+    
+    public void setConnectionPool(ConnectionPoolConfig connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+    
+    public TimeoutConfig getTimeouts() {
+        return timeouts;
+    }
+    
+    public void setTimeouts(TimeoutConfig timeouts) {
+        this.timeouts = timeouts;
+    }
+    
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+    
+    public void setMetricsPort(int metricsPort) {
+        this.metricsPort = metricsPort;
+    }
+    
+    public int getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+    
+    public void setReportIntervalSeconds(int reportIntervalSeconds) {
+        this.reportIntervalSeconds = reportIntervalSeconds;
+    }
+    
+    public String getTimeSeriesFile() {
+        return timeSeriesFile;
+    }
+    
+    public void setTimeSeriesFile(String timeSeriesFile) {
+        this.timeSeriesFile = timeSeriesFile;
+    }
+    
+    public int getWorkers() {
+        return workers;
+    }
+    
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+    
+    public int getCoordinatorPort() {
+        return coordinatorPort;
+    }
+    
+    public void setCoordinatorPort(int coordinatorPort) {
+        this.coordinatorPort = coordinatorPort;
+    }
+    
+    public Scenario getScenario() {
+        return scenario;
+    }
+    
+    public void setScenario(Scenario scenario) {
+        this.scenario = scenario;
+    }
+    
+    public PayloadMode getPayloadMode() {
+        return payloadMode;
+    }
+    
+    public void setPayloadMode(PayloadMode payloadMode) {
+        this.payloadMode = payloadMode;
+    }
+    
+    public int getPayloadPoolSize() {
+        return payloadPoolSize;
+    }
+    
+    public void setPayloadPoolSize(int payloadPoolSize) {
+        this.payloadPoolSize = payloadPoolSize;
+    }
+    
+    public FeederConfig getFeeder() {
+        return feeder;
+    }
+    
+    public void setFeeder(FeederConfig feeder) {
+        this.feeder = feeder;
+    }
+    
+    public String getRecordDirectory() {
+        return recordDirectory;
+    }
+    
+    public void setRecordDirectory(String recordDirectory) {
+        this.recordDirectory = recordDirectory;
+    }
+    
+    public int getRecordSegmentMb() {
+        return recordSegmentMb;
+    }
+    
+    public void setRecordSegmentMb(int recordSegmentMb) {
+        this.recordSegmentMb = recordSegmentMb;
+    }
+    
+    public StubConfig getStub() {
+        return stub;
+    }
+    
+    public void setStub(StubConfig stub) {
+        this.stub = stub;
+    }
+    
+    public List<Threshold> getThresholds() {
+        return thresholds;
+    }
+    
+    public void setThresholds(List<Threshold> thresholds) {
+        this.thresholds = thresholds;
+    }
+    
+    public int getSloWindowSeconds() {
+        return sloWindowSeconds;
+    }
+    
+    public void setSloWindowSeconds(int sloWindowSeconds) {
+        this.sloWindowSeconds = sloWindowSeconds;
+    }
+    
+    public int getAbortAfterSeconds() {
+        return abortAfterSeconds;
+    }
+    
+    public void setAbortAfterSeconds(int abortAfterSeconds) {
+        this.abortAfterSeconds = abortAfterSeconds;
+    }
+    
+    public CapacitySearchConfig getCapacitySearch() {
+        return capacitySearch;
+    }
+    
+    public void setCapacitySearch(CapacitySearchConfig capacitySearch) {
+        this.capacitySearch = capacitySearch;
+    }
+    
+    public String getResultFile() {
+        return resultFile;
+    }
+    
+    public void setResultFile(String resultFile) {
+        this.resultFile = resultFile;
+    }
+    
+    public String getResultLabel() {
+        return resultLabel;
+    }
+    
+    public void setResultLabel(String resultLabel) {
+        this.resultLabel = resultLabel;
+    }
+    
+    public String getReportFile() {
+        return reportFile;
+    }
+    
+    public void setReportFile(String reportFile) {
+        this.reportFile = reportFile;
+    }
 }
-
@@ -1,15 +1,50 @@
 package com.his.project.loadtest.model;
 
+import com.his.project.loadtest.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TestResult {
     private long totalRequests;
     private long successfulRequests;
     private long failedRequests;
-    private List<Long> responseTimes;
-    private Map<String, EndpointStats> endpointStats = new HashMap<>();
+    private LatencyHistogram responseTimes;
+    // Concurrent so the interval reporter can iterate it while workers add endpoints
+    private Map<String, EndpointStats> endpointStats = new ConcurrentHashMap<>();
+    private long durationMs;
+    private boolean openModel;
+    private double targetRps;
+    private long maxScheduleLagMs;
+    private double avgScheduleLagMs;
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+    private int carrierThreads;
+    private int schedulerParallelism;
+    private long pinnedThresholdMs;
+    private long pinnedEvents;
+    private Map<String, Long> pinnedSites = new HashMap<>();
+    private ConnectionReuse connectionReuse = ConnectionReuse.PERSISTENT;
+    private int maxPoolConnections;
+    private int peakLeasedConnections;
+    private int peakPendingLeases;
+    private long connectionsOpened;
+    private LatencyHistogram poolWaitTimes;
+    private List<IntervalStats> intervals = new ArrayList<>();
+    private List<StageStats> stageStats = new ArrayList<>();
+    private long allocatedBytes = -1; // Heap allocated by all generator threads during the run; -1 = not measured
+    private long feederRecords = -1; // Feeder records drawn during the run; -1 = no feeder
+    private boolean feederExhausted = false; // The run stopped early because the feeder ran out
+    private long recordedSamples = -1; // Raw samples written by --record; -1 = not recording
+    private long droppedSamples = 0; // Raw samples lost because a segment file could not be created
+    private List<ThresholdResult> thresholdResults = new ArrayList<>(); // Empty = no thresholds configured
+    private String abortReason; // Threshold breach that stopped the run early; null = ran to the end
+    // JOURNEY scenarios: whole-journey (transaction) statistics by journey name, think time excluded
+    private Map<String, EndpointStats> transactionStats = new LinkedHashMap<>();
+    private long skippedSteps; // Journey steps not sent because an earlier step of the journey failed
     
     public long getTotalRequests() {
         return totalRequests;
@@ -35,44 +70,203 @@ public class TestResult {
         this.failedRequests = failedRequests;
     }
     
+    public long getDurationMs() {
+        return durationMs;
+    }
+    
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+    
+    public double getThroughput() {
+        if (durationMs == 0) return 0.0;
+        return totalRequests * 1000.0 / durationMs;
+    }
+    
+    // Body bytes of all endpoints, summed from the endpoint statistics
+    public long getTotalBytesSent() {
+        return endpointStats.values().stream().mapToLong(EndpointStats::getBytesSent).sum();
+    }
+    
+    public long getTotalBytesReceived() {
+        return endpointStats.values().stream().mapToLong(EndpointStats::getBytesReceived).sum();
+    }
+    
+    public double getReceivedMbPerSecond() {
+        if (durationMs == 0) return 0.0;
+        return getTotalBytesReceived() / 1_000_000.0 * 1000.0 / durationMs;
+    }
+    
+    public double getSentMbPerSecond() {
+        if (durationMs == 0) return 0.0;
+        return getTotalBytesSent() / 1_000_000.0 * 1000.0 / durationMs;
+    }
+    
+    public boolean isOpenModel() {
+        return openModel;
+    }
+    
+    public void setOpenModel(boolean openModel) {
+        this.openModel = openModel;
+    }
+    
+    public double getTargetRps() {
+        return targetRps;
+    }
+    
+    public void setTargetRps(double targetRps) {
+        this.targetRps = targetRps;
+    }
+    
+    // How far behind its planned send time a request actually started (scheduler + queueing delay)
+    public long getMaxScheduleLagMs() {
+        return maxScheduleLagMs;
+    }
+    
+    public void setMaxScheduleLagMs(long maxScheduleLagMs) {
+        this.maxScheduleLagMs = maxScheduleLagMs;
+    }
+    
+    public double getAvgScheduleLagMs() {
+        return avgScheduleLagMs;
+    }
+    
+    public void setAvgScheduleLagMs(double avgScheduleLagMs) {
+        this.avgScheduleLagMs = avgScheduleLagMs;
+    }
+    
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+    
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+    
+    // Virtual-thread mode only: peak number of carrier threads that were alive during the run
+    public int getCarrierThreads() {
+        return carrierThreads;
+    }
+    
+    public void setCarrierThreads(int carrierThreads) {
+        this.carrierThreads = carrierThreads;
+    }
+    
+    // Carrier threads the virtual-thread scheduler runs when none is blocked
+    public int getSchedulerParallelism() {
+        return schedulerParallelism;
+    }
+    
+    public void setSchedulerParallelism(int schedulerParallelism) {
+        this.schedulerParallelism = schedulerParallelism;
+    }
+    
+    // Pinning events shorter than this were not counted
+    public long getPinnedThresholdMs() {
+        return pinnedThresholdMs;
+    }
+    
+    public void setPinnedThresholdMs(long pinnedThresholdMs) {
+        this.pinnedThresholdMs = pinnedThresholdMs;
+    }
+    
+    public long getPinnedEvents() {
+        return pinnedEvents;
+    }
+    
+    public void setPinnedEvents(long pinnedEvents) {
+        this.pinnedEvents = pinnedEvents;
+    }
+    
+    public Map<String, Long> getPinnedSites() {
+        return pinnedSites;
+    }
+    
+    public void setPinnedSites(Map<String, Long> pinnedSites) {
+        this.pinnedSites = pinnedSites;
+    }
+    
+    public ConnectionReuse getConnectionReuse() {
+        return connectionReuse;
+    }
+    
+    public void setConnectionReuse(ConnectionReuse connectionReuse) {
+        this.connectionReuse = connectionReuse;
+    }
+    
+    public int getMaxPoolConnections() {
+        return maxPoolConnections;
+    }
+    
+    public void setMaxPoolConnections(int maxPoolConnections) {
+        this.maxPoolConnections = maxPoolConnections;
+    }
+    
+    public int getPeakLeasedConnections() {
+        return peakLeasedConnections;
+    }
+    
+    public void setPeakLeasedConnections(int peakLeasedConnections) {
+        this.peakLeasedConnections = peakLeasedConnections;
+    }
+    
+    // Peak number of requests queued waiting for a connection lease
+    public int getPeakPendingLeases() {
+        return peakPendingLeases;
+    }
+    
+    public void setPeakPendingLeases(int peakPendingLeases) {
+        this.peakPendingLeases = peakPendingLeases;
+    }
+    
+    public long getConnectionsOpened() {
+        return connectionsOpened;
+    }
+    
+    public void setConnectionsOpened(long connectionsOpened) {
+        this.connectionsOpened = connectionsOpened;
+    }
+    
+    public LatencyHistogram getPoolWaitTimes() {
+        return poolWaitTimes;
+    }
+    
+    public void setPoolWaitTimes(LatencyHistogram poolWaitTimes) {
+        this.poolWaitTimes = poolWaitTimes;
+    }
+    
     public double getSuccessRate() {
         if (totalRequests == 0) return 0.0;
         return (successfulRequests * 100.0) / totalRequests;
     }
     
-    public List<Long> getResponseTimes() {
+    public LatencyHistogram getResponseTimes() {
         return responseTimes;
     }
     
-    public void setResponseTimes(List<Long> responseTimes) {
+    public void setResponseTimes(LatencyHistogram responseTimes) {
         this.responseTimes = responseTimes;
     }
     
-    public long getMinResponseTime() {
-        return responseTimes != null && !responseTimes.isEmpty() 
-            ? responseTimes.stream().mapToLong(Long::longValue).min().orElse(0)
-            : 0;
+    // Response times are recorded in nanoseconds and reported in milliseconds
+    public double getMinResponseTime() {
+        return responseTimes != null ? responseTimes.getMinValue() / 1_000_000.0 : 0.0;
     }
     
-    public long getMaxResponseTime() {
-        return responseTimes != null && !responseTimes.isEmpty()
-            ? responseTimes.stream().mapToLong(Long::longValue).max().orElse(0)
-            : 0;
+    public double getMaxResponseTime() {
+        return responseTimes != null ? responseTimes.getMaxValue() / 1_000_000.0 : 0.0;
     }
     
     public double getAvgResponseTime() {
-        return responseTimes != null && !responseTimes.isEmpty()
-            ? responseTimes.stream().mapToLong(Long::longValue).average().orElse(0.0)
-            : 0.0;
+        return responseTimes != null ? responseTimes.getMean() / 1_000_000.0 : 0.0;
+    }
+    
+    public double getMedianResponseTime() {
+        return getPercentile(50.0);
     }
     
-    public long getMedianResponseTime() {
-        if (responseTimes == null || responseTimes.isEmpty()) return 0;
-        List<Long> sorted = responseTimes.stream().sorted().toList();
-        int middle = sorted.size() / 2;
-        return sorted.size() % 2 == 0
-            ? (sorted.get(middle - 1) + sorted.get(middle)) / 2
-            : sorted.get(middle);
+    public double getPercentile(double percentile) {
+        return responseTimes != null ? responseTimes.getValueAtPercentile(percentile) / 1_000_000.0 : 0.0;
     }
     
     public Map<String, EndpointStats> getEndpointStats() {
@@ -82,5 +276,101 @@ public class TestResult {
     public void setEndpointStats(Map<String, EndpointStats> endpointStats) {
         this.endpointStats = endpointStats;
     }
+    
+    public List<IntervalStats> getIntervals() {
+        return intervals;
+    }
+    
+    public void setIntervals(List<IntervalStats> intervals) {
+        this.intervals = intervals;
+    }
+    
+    public List<StageStats> getStageStats() {
+        return stageStats;
+    }
+    
+    public void setStageStats(List<StageStats> stageStats) {
+        this.stageStats = stageStats;
+    }
+    
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+    
+    public void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+    
+    public long getFeederRecords() {
+        return feederRecords;
+    }
+    
+    public void setFeederRecords(long feederRecords) {
+        this.feederRecords = feederRecords;
+    }
+    
+    public boolean isFeederExhausted() {
+        return feederExhausted;
+    }
+    
+    public void setFeederExhausted(boolean feederExhausted) {
+        this.feederExhausted = feederExhausted;
+    }
+    
+    public long getRecordedSamples() {
+        return recordedSamples;
+    }
+    
+    public void setRecordedSamples(long recordedSamples) {
+        this.recordedSamples = recordedSamples;
+    }
+    
+    public long getDroppedSamples() {
+        return droppedSamples;
+    }
+    
+    public void setDroppedSamples(long droppedSamples) {
+        this.droppedSamples = droppedSamples;
+    }
+    
+    public double getAllocatedBytesPerRequest() {
+        return allocatedBytes < 0 || totalRequests == 0 ? 0.0 : (double) allocatedBytes / totalRequests;
+    }
+    
+    public List<ThresholdResult> getThresholdResults() {
+        return thresholdResults;
+    }
+    
+    public void setThresholdResults(List<ThresholdResult> thresholdResults) {
+        this.thresholdResults = thresholdResults;
+    }
+    
+    public String getAbortReason() {
+        return abortReason;
+    }
+    
+    public void setAbortReason(String abortReason) {
+        this.abortReason = abortReason;
+    }
+    
+    public Map<String, EndpointStats> getTransactionStats() {
+        return transactionStats;
+    }
+    
+    public void setTransactionStats(Map<String, EndpointStats> transactionStats) {
+        this.transactionStats = transactionStats;
+    }
+    
+    public long getSkippedSteps() {
+        return skippedSteps;
+    }
+    
+    public void setSkippedSteps(long skippedSteps) {
+        this.skippedSteps = skippedSteps;
+    }
+    
+    // False when any threshold failed; true without thresholds
+    public boolean isSloPassed() {
+        return thresholdResults.stream().allMatch(ThresholdResult::isPassed);
+    }
 }
-
@@ -0,0 +1,106 @@
+package com.his.project.loadtest.model;
+
+// One service level objective of a run on one endpoint, or on all endpoints together
+public class Threshold {
+    private String endpoint; // Request name; null = all endpoints
+    private ThresholdMetric metric;
+    private double percentile; // LATENCY only, e.g. 99.0
+    private double limit; // ms for LATENCY, percent for ERROR_RATE, req/s for THROUGHPUT
+    
+    // "p99<500", "GET /api/product:p95<200", "error_rate<1", "rps>50"
+    public static Threshold parse(String spec) {
+        Threshold threshold = new Threshold();
+        String rule = spec.trim();
+        int colon = rule.lastIndexOf(':');
+        if (colon > 0) {
+            threshold.setEndpoint(rule.substring(0, colon).trim());
+            rule = rule.substring(colon + 1).trim();
+        }
+        int op = Math.max(rule.indexOf('<'), rule.indexOf('>'));
+        if (op <= 0) {
+            throw new IllegalArgumentException("Invalid threshold '" + spec + "', expected [endpoint:]metric<limit or rps>limit");
+        }
+        String name = rule.substring(0, op).trim().toLowerCase();
+        boolean below = rule.charAt(op) == '<';
+        threshold.setLimit(Double.parseDouble(rule.substring(op + 1).trim().replaceAll("(ms|%)$", "")));
+        if (name.equals("rps") || name.equals("throughput")) {
+            threshold.setMetric(ThresholdMetric.THROUGHPUT);
+        } else if (name.equals("error_rate") || name.equals("errors")) {
+            threshold.setMetric(ThresholdMetric.ERROR_RATE);
+        } else if (name.startsWith("p")) {
+            threshold.setMetric(ThresholdMetric.LATENCY);
+            threshold.setPercentile(Double.parseDouble(name.substring(1)));
+        } else {
+            throw new IllegalArgumentException("Unknown threshold metric '" + name + "' in '" + spec + "'");
+        }
+        if (below == (threshold.getMetric() == ThresholdMetric.THROUGHPUT)) {
+            throw new IllegalArgumentException("Threshold '" + spec + "' must use "
+                + (below ? "'>' (throughput is a minimum)" : "'<' (latency and errors are maximums)"));
+        }
+        return threshold;
+    }
+    
+    public boolean isMet(double actual) {
+        return metric == ThresholdMetric.THROUGHPUT ? actual > limit : actual < limit;
+    }
+    
+    // e.g. "GET /api/product p95 < 200 ms"
+    public String describe() {
+        String scope = endpoint != null ? endpoint + " " : "";
+        switch (metric) {
+            case LATENCY:
+                return scope + "p" + formatPercentile() + " < " + limit + " ms";
+            case ERROR_RATE:
+                return scope + "error rate < " + limit + "%";
+            default:
+                return scope + "throughput > " + limit + " req/s";
+        }
+    }
+    
+    public String unit() {
+        switch (metric) {
+            case LATENCY:
+                return "ms";
+            case ERROR_RATE:
+                return "%";
+            default:
+                return "req/s";
+        }
+    }
+    
+    private String formatPercentile() {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+    
+    public ThresholdMetric getMetric() {
+        return metric;
+    }
+    
+    public void setMetric(ThresholdMetric metric) {
+        this.metric = metric;
+    }
+    
+    public double getPercentile() {
+        return percentile;
+    }
+    
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+    
+    public double getLimit() {
+        return limit;
+    }
+    
+    public void setLimit(double limit) {
+        this.limit = limit;
+    }
+}
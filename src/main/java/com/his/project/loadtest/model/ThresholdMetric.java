@@ -0,0 +1,7 @@
+package com.his.project.loadtest.model;
+
+public enum ThresholdMetric {
+    LATENCY,    // Response time percentile in ms must stay below the limit
+    ERROR_RATE, // Failed requests in percent must stay below the limit
+    THROUGHPUT  // Completed requests per second must stay above the limit
+}
@@ -0,0 +1,51 @@
+package com.his.project.loadtest.model;
+
+// Verdict of one threshold: its value over the whole run, and whether it held
+public class ThresholdResult {
+    private Threshold threshold;
+    private double actual;
+    private boolean passed;
+    private boolean abortedRun; // Stayed breached long enough to stop the run early
+    
+    public ThresholdResult() {
+    }
+    
+    public ThresholdResult(Threshold threshold, double actual, boolean passed, boolean abortedRun) {
+        this.threshold = threshold;
+        this.actual = actual;
+        this.passed = passed;
+        this.abortedRun = abortedRun;
+    }
+    
+    public Threshold getThreshold() {
+        return threshold;
+    }
+    
+    public void setThreshold(Threshold threshold) {
+        this.threshold = threshold;
+    }
+    
+    public double getActual() {
+        return actual;
+    }
+    
+    public void setActual(double actual) {
+        this.actual = actual;
+    }
+    
+    public boolean isPassed() {
+        return passed;
+    }
+    
+    public void setPassed(boolean passed) {
+        this.passed = passed;
+    }
+    
+    public boolean isAbortedRun() {
+        return abortedRun;
+    }
+    
+    public void setAbortedRun(boolean abortedRun) {
+        this.abortedRun = abortedRun;
+    }
+}
@@ -0,0 +1,41 @@
+package com.his.project.loadtest.model;
+
+// Client timeouts in milliseconds; 0 = wait indefinitely
+public class TimeoutConfig {
+    private long connectTimeoutMs = 10000; // Opening a connection
+    private long leaseTimeoutMs = 30000; // Waiting for a pooled connection
+    private long responseTimeoutMs = 30000; // Silence from the server while waiting for or reading a response
+    private long deadlineMs = 0; // Whole request, from the lease to the last byte of the body
+    
+    public long getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+    
+    public void setConnectTimeoutMs(long connectTimeoutMs) {
+        this.connectTimeoutMs = connectTimeoutMs;
+    }
+    
+    public long getLeaseTimeoutMs() {
+        return leaseTimeoutMs;
+    }
+    
+    public void setLeaseTimeoutMs(long leaseTimeoutMs) {
+        this.leaseTimeoutMs = leaseTimeoutMs;
+    }
+    
+    public long getResponseTimeoutMs() {
+        return responseTimeoutMs;
+    }
+    
+    public void setResponseTimeoutMs(long responseTimeoutMs) {
+        this.responseTimeoutMs = responseTimeoutMs;
+    }
+    
+    public long getDeadlineMs() {
+        return deadlineMs;
+    }
+    
+    public void setDeadlineMs(long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
+}
@@ -0,0 +1,71 @@
+package com.his.project.loadtest.payload;
+
+import com.his.project.loadtest.feeder.FeederRecord;
+
+// Per-thread scratch space for rendering templates, plus the thread's sequence counter and the
+// feeder record and pool entry of the request being built, so its URL and body agree, and the
+// session of the virtual user whose journey runs on the thread.
+// A buffer is reused by the next render on the same thread, so callers must send (or copy)
+// the bytes before rendering again.
+public class PayloadBuffer {
+    private static final ThreadLocal<PayloadBuffer> CURRENT = ThreadLocal.withInitial(PayloadBuffer::new);
+    
+    private byte[] data = new byte[256];
+    private int length;
+    private long sequence;
+    private FeederRecord record;
+    private int poolIndex;
+    private Session session;
+    
+    public static PayloadBuffer current() {
+        return CURRENT.get();
+    }
+    
+    byte[] ensureCapacity(int capacity) {
+        if (data.length < capacity) {
+            data = new byte[Math.max(capacity, data.length * 2)];
+        }
+        return data;
+    }
+    
+    long nextSequence() {
+        return ++sequence;
+    }
+    
+    FeederRecord getRecord() {
+        return record;
+    }
+    
+    void setRecord(FeederRecord record) {
+        this.record = record;
+    }
+    
+    Session getSession() {
+        return session;
+    }
+    
+    // Attached for the duration of a journey; null outside journeys
+    public void setSession(Session session) {
+        this.session = session;
+    }
+    
+    int getPoolIndex() {
+        return poolIndex;
+    }
+    
+    void setPoolIndex(int poolIndex) {
+        this.poolIndex = poolIndex;
+    }
+    
+    void setLength(int length) {
+        this.length = length;
+    }
+    
+    public byte[] getData() {
+        return data;
+    }
+    
+    public int getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,363 @@
+package com.his.project.loadtest.payload;
+
+import com.his.project.loadtest.feeder.FeederRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+// A body or URL pre-compiled into literal byte segments and placeholder slots. Rendering writes
+// straight into a per-thread buffer: no String.format, no UUIDs, no shared Random.
+//
+// Placeholders:
+//   ${hex:N}            N random lowercase hex digits     ${HEX:N}  uppercase
+//   ${int:MIN:MAX}      random integer, inclusive
+//   ${decimal:MIN:MAX}  random number with two decimals in [MIN, MAX); MIN:MIN is the constant MIN
+//   ${seq}              per-thread counter (1, 2, 3, ...)
+//   ${feed:FIELD}       field of the request's feeder record; FIELD:url percent-encodes it for
+//                       a URL, FIELD:json escapes it for a JSON string; a trailing |TEXT is used
+//                       when there is no record or the record lacks the field
+//   ${var:NAME}         value an earlier journey step extracted into the virtual user's session;
+//                       takes the same :url, :json and |TEXT suffixes as feed
+public class PayloadTemplate {
+    private static final byte[] HEX_LOWER = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX_UPPER = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_NUMBER_LENGTH = 20;
+    
+    private enum SlotType { LITERAL, HEX, HEX_UPPER, INT, DECIMAL, SEQ, FEED, VAR }
+    
+    private enum Encoding { RAW, URL, JSON }
+    
+    private static final class Segment {
+        final SlotType type;
+        final byte[] literal;
+        final long min;
+        final long max;
+        final String field;
+        final Encoding encoding;
+    
+        Segment(SlotType type, byte[] literal, long min, long max) {
+            this(type, literal, min, max, null, Encoding.RAW);
+        }
+    
+        Segment(SlotType type, byte[] literal, long min, long max, String field, Encoding encoding) {
+            this.type = type;
+            this.literal = literal;
+            this.min = min;
+            this.max = max;
+            this.field = field;
+            this.encoding = encoding;
+        }
+    }
+    
+    private final String source;
+    private final Segment[] segments;
+    private final int maxLength; // Excluding feeder and session values, whose length is only known per request
+    private final boolean fed;
+    private final boolean sessionBound;
+    
+    private PayloadTemplate(String source, Segment[] segments, int maxLength) {
+        this.source = source;
+        this.segments = segments;
+        this.maxLength = maxLength;
+        boolean fed = false;
+        boolean sessionBound = false;
+        for (Segment segment : segments) {
+            fed |= segment.type == SlotType.FEED;
+            sessionBound |= segment.type == SlotType.VAR;
+        }
+        this.fed = fed;
+        this.sessionBound = sessionBound;
+    }
+    
+    public static PayloadTemplate compile(String template) {
+        List<Segment> segments = new ArrayList<>();
+        int maxLength = 0;
+        int pos = 0;
+        while (pos < template.length()) {
+            int open = template.indexOf("${", pos);
+            int close = open >= 0 ? template.indexOf('}', open) : -1;
+            if (open < 0 || close < 0) {
+                open = template.length();
+            }
+            if (open > pos) {
+                byte[] literal = template.substring(pos, open).getBytes(StandardCharsets.UTF_8);
+                segments.add(new Segment(SlotType.LITERAL, literal, 0, 0));
+                maxLength += literal.length;
+            }
+            if (open == template.length()) {
+                break;
+            }
+            Segment slot = parseSlot(template.substring(open + 2, close));
+            segments.add(slot);
+            if (slot.type == SlotType.HEX || slot.type == SlotType.HEX_UPPER) {
+                maxLength += (int) slot.min;
+            } else if (slot.type != SlotType.FEED && slot.type != SlotType.VAR) {
+                maxLength += MAX_NUMBER_LENGTH;
+            }
+            pos = close + 1;
+        }
+        return new PayloadTemplate(template, segments.toArray(new Segment[0]), maxLength);
+    }
+    
+    private static Segment parseSlot(String slot) {
+        if (slot.startsWith("feed:")) {
+            return parseValueSlot(slot, "feed:", SlotType.FEED);
+        }
+        if (slot.startsWith("var:")) {
+            return parseValueSlot(slot, "var:", SlotType.VAR);
+        }
+        String[] parts = slot.split(":");
+        try {
+            switch (parts[0]) {
+                case "hex":
+                    return new Segment(SlotType.HEX, null, Integer.parseInt(parts[1]), 0);
+                case "HEX":
+                    return new Segment(SlotType.HEX_UPPER, null, Integer.parseInt(parts[1]), 0);
+                case "int":
+                    return numberSlot(slot, SlotType.INT, Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                case "decimal":
+                    // Stored in hundredths so rendering stays in integer arithmetic
+                    return numberSlot(slot, SlotType.DECIMAL, Math.round(Double.parseDouble(parts[1]) * 100),
+                        Math.round(Double.parseDouble(parts[2]) * 100));
+                case "seq":
+                    return new Segment(SlotType.SEQ, null, 0, 0);
+                default:
+                    throw new IllegalArgumentException("Unknown placeholder ${" + slot + "}");
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid placeholder ${" + slot + "}", e);
+        }
+    }
+    
+    // Bounds are checked here rather than left to ThreadLocalRandom, which would throw on every render
+    private static Segment numberSlot(String slot, SlotType type, long min, long max) {
+        if (min > max) {
+            throw new IllegalArgumentException("Minimum above maximum in ${" + slot + "}");
+        }
+        if (max == Long.MAX_VALUE || min == Long.MIN_VALUE) {
+            throw new IllegalArgumentException("Bounds out of range in ${" + slot + "}");
+        }
+        return new Segment(type, null, min, max);
+    }
+    
+    // feed:FIELD[:url|:json][|fallback] or var:NAME[...]; the fallback is split off first so it
+    // may contain ':'
+    private static Segment parseValueSlot(String slot, String prefix, SlotType type) {
+        String spec = slot.substring(prefix.length());
+        byte[] fallback = null;
+        int bar = spec.indexOf('|');
+        if (bar >= 0) {
+            fallback = spec.substring(bar + 1).getBytes(StandardCharsets.UTF_8);
+            spec = spec.substring(0, bar);
+        }
+        Encoding encoding = Encoding.RAW;
+        int colon = spec.lastIndexOf(':');
+        if (colon >= 0) {
+            switch (spec.substring(colon + 1)) {
+                case "url":
+                    encoding = Encoding.URL;
+                    break;
+                case "json":
+                    encoding = Encoding.JSON;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown encoding in ${" + slot + "}, expected url or json");
+            }
+            spec = spec.substring(0, colon);
+        }
+        if (spec.isEmpty()) {
+            throw new IllegalArgumentException("Missing field name in ${" + slot + "}");
+        }
+        return new Segment(type, fallback, 0, 0, spec, encoding);
+    }
+    
+    public boolean isConstant() {
+        return segments.length == 0 || (segments.length == 1 && segments[0].type == SlotType.LITERAL);
+    }
+    
+    // True if rendering reads the buffer's feeder record
+    public boolean isFed() {
+        return fed;
+    }
+    
+    // True if rendering reads the journey session, so the result differs per virtual user
+    public boolean isSessionBound() {
+        return sessionBound;
+    }
+    
+    // Names of the session variables a ${var:NAME} without a fallback reads
+    public List<String> requiredVariables() {
+        List<String> names = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.type == SlotType.VAR && segment.literal == null) {
+                names.add(segment.field);
+            }
+        }
+        return names;
+    }
+    
+    // Renders into the thread's buffer and returns it; valid bytes are [0, buffer.getLength())
+    public byte[] render(PayloadBuffer buffer) {
+        byte[] out = buffer.ensureCapacity(fed || sessionBound ? maxLength + valueLength(buffer) : maxLength);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pos = 0;
+        for (Segment segment : segments) {
+            switch (segment.type) {
+                case LITERAL:
+                    System.arraycopy(segment.literal, 0, out, pos, segment.literal.length);
+                    pos += segment.literal.length;
+                    break;
+                case HEX:
+                case HEX_UPPER:
+                    pos = writeHex(out, pos, (int) segment.min, segment.type == SlotType.HEX ? HEX_LOWER : HEX_UPPER, random);
+                    break;
+                case INT:
+                    pos = writeLong(out, pos, random.nextLong(segment.min, segment.max + 1));
+                    break;
+                case DECIMAL:
+                    long cents = segment.max > segment.min ? random.nextLong(segment.min, segment.max) : segment.min;
+                    // Written from the magnitude so -0.50 keeps its sign and the fraction stays two digits
+                    if (cents < 0) {
+                        out[pos++] = '-';
+                        cents = -cents;
+                    }
+                    pos = writeLong(out, pos, cents / 100);
+                    out[pos++] = '.';
+                    out[pos++] = (byte) ('0' + (cents % 100) / 10);
+                    out[pos++] = (byte) ('0' + cents % 10);
+                    break;
+                case SEQ:
+                    pos = writeLong(out, pos, buffer.nextSequence());
+                    break;
+                case FEED:
+                case VAR:
+                    pos = writeValue(out, pos, segment, valueOf(segment, buffer));
+                    break;
+            }
+        }
+        buffer.setLength(pos);
+        return out;
+    }
+    
+    // Renders into a new array of exactly the payload's size (for pools and asynchronous sends)
+    public byte[] renderToArray() {
+        PayloadBuffer buffer = PayloadBuffer.current();
+        byte[] data = render(buffer);
+        byte[] copy = new byte[buffer.getLength()];
+        System.arraycopy(data, 0, copy, 0, copy.length);
+        return copy;
+    }
+    
+    public String renderToString() {
+        PayloadBuffer buffer = PayloadBuffer.current();
+        return new String(render(buffer), 0, buffer.getLength(), StandardCharsets.UTF_8);
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    // Worst case the fed and session values can take once encoded
+    private int valueLength(PayloadBuffer buffer) {
+        int length = 0;
+        for (Segment segment : segments) {
+            if (segment.type == SlotType.FEED || segment.type == SlotType.VAR) {
+                byte[] value = valueOf(segment, buffer);
+                if (value == null) {
+                    value = segment.literal;
+                }
+                if (value != null) {
+                    length += value.length * (segment.encoding == Encoding.JSON ? 6 : segment.encoding == Encoding.URL ? 3 : 1);
+                }
+            }
+        }
+        return length;
+    }
+    
+    // Feeder field or session variable of a slot, or null when there is none
+    private static byte[] valueOf(Segment segment, PayloadBuffer buffer) {
+        if (segment.type == SlotType.FEED) {
+            FeederRecord record = buffer.getRecord();
+            return record != null ? record.get(segment.field) : null;
+        }
+        Session session = buffer.getSession();
+        return session != null ? session.get(segment.field) : null;
+    }
+    
+    // A missing value without a fallback renders as nothing
+    private static int writeValue(byte[] out, int pos, Segment segment, byte[] value) {
+        if (value == null) {
+            if (segment.literal == null) {
+                return pos;
+            }
+            // Fallbacks are written as given; they are part of the template, not data
+            System.arraycopy(segment.literal, 0, out, pos, segment.literal.length);
+            return pos + segment.literal.length;
+        }
+        switch (segment.encoding) {
+            case URL:
+                for (byte b : value) {
+                    if ((b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9')
+                        || b == '-' || b == '.' || b == '_' || b == '~') {
+                        out[pos++] = b;
+                    } else {
+                        out[pos++] = '%';
+                        out[pos++] = HEX_UPPER[(b >> 4) & 15];
+                        out[pos++] = HEX_UPPER[b & 15];
+                    }
+                }
+                return pos;
+            case JSON:
+                for (byte b : value) {
+                    if (b == '"' || b == '\\') {
+                        out[pos++] = '\\';
+                        out[pos++] = b;
+                    } else if (b >= 0 && b < 0x20) {
+                        out[pos++] = '\\';
+                        out[pos++] = 'u';
+                        out[pos++] = '0';
+                        out[pos++] = '0';
+                        out[pos++] = HEX_LOWER[b >> 4];
+                        out[pos++] = HEX_LOWER[b & 15];
+                    } else {
+                        // Multi-byte UTF-8 sequences are valid inside JSON strings as they are
+                        out[pos++] = b;
+                    }
+                }
+                return pos;
+            default:
+                System.arraycopy(value, 0, out, pos, value.length);
+                return pos + value.length;
+        }
+    }
+    
+    private static int writeHex(byte[] out, int pos, int digits, byte[] alphabet, ThreadLocalRandom random) {
+        long bits = 0;
+        for (int i = 0; i < digits; i++) {
+            if ((i & 15) == 0) {
+                bits = random.nextLong();
+            }
+            out[pos++] = alphabet[(int) (bits & 15)];
+            bits >>>= 4;
+        }
+        return pos;
+    }
+    
+    private static int writeLong(byte[] out, int pos, long value) {
+        if (value < 0) {
+            out[pos++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+}
@@ -0,0 +1,164 @@
+package com.his.project.loadtest.payload;
+
+import com.his.project.loadtest.feeder.Feeder;
+import com.his.project.loadtest.feeder.FeederExhaustedException;
+import com.his.project.loadtest.model.PayloadMode;
+import com.his.project.loadtest.model.RequestSpec;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+// A scenario request compiled once before the run: the full URL and the body as PayloadTemplates
+// (built-in generators are expressed as templates too), or in POOL mode a set of pre-rendered
+// URLs and bodies that requests cycle through at random. With a feeder, each request draws one
+// record that both its URL and its body read. Requests reading journey session variables are
+// always rendered per request, as their values differ between virtual users.
+public class RequestTemplate {
+    // Built-in generators, same shape as the payloads the services expect
+    public static final String PRODUCT_BODY =
+        "{\"name\":\"Test Product ${hex:8}\",\"description\":\"Load test product\",\"skuCode\":\"TEST-${HEX:8}\",\"price\":${decimal:10:1000}}";
+    public static final String ORDER_BODY =
+        "{\"skuCode\":\"IPHONE-15-PRO-256\",\"price\":999.99,\"quantity\":${int:1:3},\"userDetails\":{\"email\":\"test${int:0:9999}@example.com\",\"firstName\":\"Test\",\"lastName\":\"User\"}}";
+    public static final String INVENTORY_PATH = "/api/inventory?skuCode=IPHONE-15-PRO-256&quantity=${int:1:5}";
+    // Built-in generators when a feeder is configured: fields the records lack fall back to the
+    // values above, so a file with only skuCode (or only emails) still works
+    public static final String FED_ORDER_BODY =
+        "{\"skuCode\":\"${feed:skuCode:json|IPHONE-15-PRO-256}\",\"price\":${feed:price|999.99},\"quantity\":${feed:quantity|1},"
+            + "\"userDetails\":{\"email\":\"${feed:userDetails.email:json|test@example.com}\","
+            + "\"firstName\":\"${feed:userDetails.firstName:json|Test}\",\"lastName\":\"${feed:userDetails.lastName:json|User}\"}}";
+    public static final String FED_INVENTORY_PATH = "/api/inventory?skuCode=${feed:skuCode:url|IPHONE-15-PRO-256}&quantity=${feed:quantity|1}";
+    
+    private final RequestSpec spec;
+    private final ResponseValidator validator; // null when the spec has no response checks or extraction
+    private final PayloadMode mode;
+    private final PayloadTemplate uri;
+    private final String constantUri;
+    private final PayloadTemplate body; // null when the request has no body
+    private final Feeder feeder; // null unless the URL or body reads feeder fields
+    private final int poolEntries;
+    private final String[] uriPool;
+    private final byte[][] bodyPool;
+    
+    private RequestTemplate(RequestSpec spec, PayloadMode mode, PayloadTemplate uri, PayloadTemplate body, int poolSize, Feeder feeder) {
+        this.spec = spec;
+        this.validator = ResponseValidator.of(spec.getCheck(), spec.getExtract());
+        this.mode = mode;
+        this.uri = uri;
+        this.constantUri = uri.isConstant() ? uri.getSource() : null;
+        this.body = body;
+        this.feeder = uri.isFed() || (body != null && body.isFed()) ? feeder : null;
+        if (mode == PayloadMode.POOL && !uri.isSessionBound() && (body == null || !body.isSessionBound())) {
+            // Constant parts need only one entry; entry i of both pools comes from the same record
+            String[] uris = new String[constantUri != null ? 1 : poolSize];
+            byte[][] bodies = body == null ? null : new byte[body.isConstant() ? 1 : poolSize][];
+            int needed = Math.max(uris.length, bodies != null ? bodies.length : 1);
+            int entries = 0;
+            PayloadBuffer buffer = PayloadBuffer.current();
+            try {
+                for (; entries < needed; entries++) {
+                    if (this.feeder != null) {
+                        buffer.setRecord(this.feeder.next());
+                    }
+                    if (entries < uris.length) {
+                        uris[entries] = uri.renderToString();
+                    }
+                    if (bodies != null && entries < bodies.length) {
+                        bodies[entries] = body.renderToArray();
+                    }
+                }
+            } catch (FeederExhaustedException e) {
+                // A SEQUENTIAL or UNIQUE file smaller than the pool: pool what there is
+                if (entries == 0) {
+                    throw e;
+                }
+            } finally {
+                buffer.setRecord(null);
+            }
+            this.poolEntries = Math.max(entries, 1);
+            this.uriPool = uris.length == 1 ? uris : Arrays.copyOf(uris, poolEntries);
+            this.bodyPool = bodies == null || bodies.length == 1 ? bodies : Arrays.copyOf(bodies, poolEntries);
+        } else {
+            this.poolEntries = 1;
+            this.uriPool = null;
+            this.bodyPool = body != null && body.isConstant() ? new byte[][] {body.renderToArray()} : null;
+        }
+    }
+    
+    public static RequestTemplate compile(RequestSpec spec, String baseUrl, PayloadMode mode, int poolSize) {
+        return compile(spec, baseUrl, mode, poolSize, null);
+    }
+    
+    public static RequestTemplate compile(RequestSpec spec, String baseUrl, PayloadMode mode, int poolSize, Feeder feeder) {
+        String base = baseUrl != null && baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        String path = spec.getPath();
+        if ("inventory".equals(spec.getGenerator())) {
+            path = feeder != null ? FED_INVENTORY_PATH : INVENTORY_PATH;
+        }
+        String bodyTemplate = spec.getBody();
+        if ("product".equals(spec.getGenerator())) {
+            bodyTemplate = PRODUCT_BODY;
+        } else if ("order".equals(spec.getGenerator())) {
+            bodyTemplate = feeder != null ? FED_ORDER_BODY : ORDER_BODY;
+        }
+        return new RequestTemplate(spec, mode, PayloadTemplate.compile(base + path),
+            bodyTemplate != null ? PayloadTemplate.compile(bodyTemplate) : null, Math.max(poolSize, 1), feeder);
+    }
+    
+    // Starts a request: picks its pool entry or draws its feeder record, then returns the URL.
+    // Must be called before body() on the same thread. Throws FeederExhaustedException when a
+    // SEQUENTIAL or UNIQUE feeder has run out.
+    public String uri() {
+        PayloadBuffer buffer = PayloadBuffer.current();
+        if (uriPool != null) {
+            int index = poolEntries == 1 ? 0 : ThreadLocalRandom.current().nextInt(poolEntries);
+            buffer.setPoolIndex(index);
+            return uriPool.length == 1 ? uriPool[0] : uriPool[index];
+        }
+        if (feeder != null) {
+            buffer.setRecord(feeder.next());
+        }
+        if (constantUri != null) {
+            return constantUri;
+        }
+        return uri.renderToString();
+    }
+    
+    public boolean hasBody() {
+        return body != null;
+    }
+    
+    // Body for a request sent synchronously on this thread: either a pooled array or the thread's
+    // buffer, valid for [0, buffer.getLength()) until the next render on the thread
+    public byte[] body(PayloadBuffer buffer) {
+        if (bodyPool != null) {
+            byte[] pooled = bodyPool[bodyPool.length == 1 ? 0 : buffer.getPoolIndex()];
+            buffer.setLength(pooled.length);
+            return pooled;
+        }
+        return body.render(buffer);
+    }
+    
+    // Body that stays valid after this thread moves on (asynchronous sends). Pooled arrays are
+    // never written after the pool is built, so they are shared rather than copied.
+    public byte[] detachedBody() {
+        PayloadBuffer buffer = PayloadBuffer.current();
+        byte[] data = body(buffer);
+        return data == buffer.getData() ? Arrays.copyOf(data, buffer.getLength()) : data;
+    }
+    
+    public RequestSpec getSpec() {
+        return spec;
+    }
+    
+    public ResponseValidator getValidator() {
+        return validator;
+    }
+    
+    public String getMethod() {
+        return spec.getMethod();
+    }
+    
+    public PayloadMode getMode() {
+        return mode;
+    }
+}
@@ -0,0 +1,331 @@
+package com.his.project.loadtest.payload;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import com.his.project.loadtest.metrics.RequestTrace;
+import com.his.project.loadtest.model.ResponseCheck;
+
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Evaluates a ResponseCheck while the body streams in. A pull parser walks the JSON, descends
+// only into values on the way to a checked path and skips everything else, and stops parsing as
+// soon as every path is settled; the rest of the body is then drained unparsed, so the connection
+// can be reused and the byte count is complete. Immutable, so one instance serves every thread.
+// The same walk extracts the scalar values a journey step passes on to later steps; an extract
+// path may use * for one array element picked at random (the same element for every path through
+// that array, so e.g. *.skuCode and *.price describe one product). A value that is not found fails
+// the request like a failed check.
+public class ResponseValidator {
+    private static final String ANY_ELEMENT = "*";
+    
+    private final long minBytes;
+    private final long maxBytes;
+    private final String[][] paths; // Segments of every checked path, then of every extracted path
+    private final String[] expected; // Scalar text each checked path must hold, null = presence only
+    private final int checks; // Paths before this index are checks, the rest are extracted
+    private final String[] variables; // Session variable of each extracted path
+    private final boolean[] throughAnyElement; // By variable: the path contains *
+    private final int maxDepth;
+    
+    private ResponseValidator(ResponseCheck check, Map<String, String> extract) {
+        this.minBytes = check != null ? check.getMinBytes() : 0;
+        this.maxBytes = check != null ? check.getMaxBytes() : 0;
+        List<String[]> segments = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        if (check != null) {
+            for (String field : check.getFields()) {
+                segments.add(parsePath(field));
+                values.add(null);
+            }
+            check.getValues().forEach((path, value) -> {
+                segments.add(parsePath(path));
+                values.add(value);
+            });
+        }
+        this.checks = segments.size();
+        List<String> names = new ArrayList<>();
+        extract.forEach((variable, path) -> {
+            segments.add(parsePath(path));
+            values.add(null);
+            names.add(variable);
+        });
+        this.paths = segments.toArray(new String[0][]);
+        this.expected = values.toArray(new String[0]);
+        this.variables = names.toArray(new String[0]);
+        this.throughAnyElement = new boolean[variables.length];
+        for (int i = 0; i < variables.length; i++) {
+            throughAnyElement[i] = Arrays.asList(paths[checks + i]).contains(ANY_ELEMENT);
+        }
+        int depth = 0;
+        for (String[] path : paths) {
+            depth = Math.max(depth, path.length);
+        }
+        this.maxDepth = depth;
+    }
+    
+    // null when the request has no checks
+    public static ResponseValidator of(ResponseCheck check) {
+        return of(check, Map.of());
+    }
+    
+    // null when the request has neither checks nor values to extract
+    public static ResponseValidator of(ResponseCheck check, Map<String, String> extract) {
+        return check != null || !extract.isEmpty() ? new ResponseValidator(check, extract) : null;
+    }
+    
+    static String[] parsePath(String path) {
+        String trimmed = path.trim();
+        if (trimmed.equals("$")) {
+            return new String[0];
+        }
+        if (trimmed.startsWith("$.")) {
+            trimmed = trimmed.substring(2);
+        }
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("Empty response check path: '" + path + "'");
+        }
+        return trimmed.split("\\.");
+    }
+    
+    // True when the body has to be parsed (not just counted), for checks or extraction
+    public boolean hasJsonChecks() {
+        return paths.length > 0;
+    }
+    
+    // Largest body that passes the size check; 0 = no limit
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+    
+    public boolean sizeMatches(long bytes) {
+        return bytes >= minBytes && (maxBytes <= 0 || bytes <= maxBytes);
+    }
+    
+    // Session variables the extracted values are stored in, in the order of RequestTrace.getExtracted()
+    public String[] getVariables() {
+        return variables;
+    }
+    
+    // Reads the body to the end, recording its size, whether it passed and the extracted values
+    // in the trace
+    public void consume(InputStream body, RequestTrace trace) throws IOException {
+        CountingInputStream in = new CountingInputStream(body);
+        boolean passed = true;
+        if (paths.length > 0) {
+            passed = matchesJson(in, trace);
+        }
+        byte[] scratch = new byte[4096];
+        while (in.read(scratch) >= 0) {
+            // Drained unparsed
+        }
+        trace.setBytesReceived(in.count);
+        trace.setCheckFailed(!passed || !sizeMatches(in.count));
+    }
+    
+    private boolean matchesJson(InputStream in, RequestTrace trace) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Progress progress = new Progress(paths.length, variables.length);
+        boolean parsed = true;
+        try {
+            visit(reader, new String[maxDepth], new boolean[maxDepth], 0, progress);
+        } catch (MalformedJsonException | EOFException | IllegalStateException | NumberFormatException e) {
+            // Not JSON, truncated JSON, or a scalar where an object or array was expected
+            parsed = false;
+        }
+        boolean found = true;
+        for (int i = 0; i < paths.length; i++) {
+            found &= i < checks ? progress.settled[i] : progress.values[i - checks] != null;
+        }
+        if (variables.length > 0) {
+            trace.setExtracted(progress.values);
+        }
+        return parsed && !progress.failed && found;
+    }
+    
+    // current holds the names or indexes on the way to this value; taken marks the array elements
+    // on the way that are the random pick for * paths
+    private void visit(JsonReader reader, String[] current, boolean[] taken, int depth, Progress progress) throws IOException {
+        boolean exact = false;
+        boolean below = false;
+        boolean needsValue = false;
+        boolean anyElement = false;
+        for (int i = 0; i < paths.length; i++) {
+            if (!progress.settled[i] && startsWith(paths[i], current, taken, depth)) {
+                if (paths[i].length == depth) {
+                    exact = true;
+                    needsValue |= expected[i] != null || i >= checks;
+                } else {
+                    below = true;
+                    anyElement |= paths[i][depth].equals(ANY_ELEMENT);
+                }
+            }
+        }
+        JsonToken token = reader.peek();
+        if (exact) {
+            String text = null;
+            if (needsValue) {
+                text = scalarText(reader, token);
+            }
+            for (int i = 0; i < paths.length; i++) {
+                if (!progress.settled[i] && paths[i].length == depth && startsWith(paths[i], current, taken, depth)) {
+                    if (i >= checks) {
+                        // Paths through a random element stay open until the body ends, as a later
+                        // element may still be picked instead
+                        progress.values[i - checks] = text;
+                        if (!throughAnyElement[i - checks]) {
+                            progress.settle(i);
+                        }
+                        continue;
+                    }
+                    progress.settle(i);
+                    if (expected[i] != null && !expected[i].equals(text)) {
+                        progress.failed = true;
+                    }
+                }
+            }
+            if (needsValue || progress.failed) {
+                return;
+            }
+        }
+        if (!below) {
+            reader.skipValue();
+            return;
+        }
+        if (token == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            taken[depth] = false;
+            while (reader.hasNext()) {
+                current[depth] = reader.nextName();
+                visit(reader, current, taken, depth + 1, progress);
+                if (progress.done()) {
+                    return;
+                }
+            }
+            reader.endObject();
+        } else if (token == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int index = 0; reader.hasNext(); index++) {
+                current[depth] = Integer.toString(index);
+                // Reservoir sampling: element i replaces the pick with probability 1/(i+1), so
+                // every element is equally likely without knowing the array's length
+                taken[depth] = anyElement && random.nextInt(index + 1) == 0;
+                if (taken[depth]) {
+                    forgetPick(current, taken, depth, progress);
+                }
+                visit(reader, current, taken, depth + 1, progress);
+                if (progress.done()) {
+                    return;
+                }
+            }
+            reader.endArray();
+        } else {
+            reader.skipValue();
+        }
+    }
+    
+    // Text of a scalar value as written in the body; null for an object or array (never matches)
+    private static String scalarText(JsonReader reader, JsonToken token) throws IOException {
+        switch (token) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return reader.nextBoolean() ? "true" : "false";
+            case NULL:
+                reader.nextNull();
+                return "null";
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+    
+    // Drops the values taken from the previously picked element of the array at depth, so paths
+    // through it never mix two elements
+    private void forgetPick(String[] current, boolean[] taken, int depth, Progress progress) {
+        for (int i = checks; i < paths.length; i++) {
+            if (paths[i].length > depth && paths[i][depth].equals(ANY_ELEMENT) && startsWith(paths[i], current, taken, depth)) {
+                progress.values[i - checks] = null;
+            }
+        }
+    }
+    
+    private static boolean startsWith(String[] path, String[] current, boolean[] taken, int depth) {
+        if (path.length < depth) {
+            return false;
+        }
+        for (int i = 0; i < depth; i++) {
+            if (path[i].equals(ANY_ELEMENT) ? !taken[i] : !path[i].equals(current[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static final class Progress {
+        final boolean[] settled;
+        final String[] values; // Extracted so far, by variable
+        int unsettled;
+        boolean failed;
+    
+        Progress(int paths, int variables) {
+            settled = new boolean[paths];
+            values = new String[variables];
+            unsettled = paths;
+        }
+    
+        void settle(int path) {
+            settled[path] = true;
+            unsettled--;
+        }
+    
+        boolean done() {
+            return failed || unsettled == 0;
+        }
+    }
+    
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+    
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+    
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+    
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.his.project.loadtest.payload;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+// State of one virtual user on a journey: the values its steps extracted from responses, read by
+// the ${var:NAME} placeholders of its later requests. Values are kept as UTF-8, like feeder
+// records, so templates copy bytes. Used by one thread at a time.
+public class Session {
+    private final Map<String, byte[]> values = new HashMap<>();
+    
+    public void put(String name, String value) {
+        values.put(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    // UTF-8 value of a variable, or null if no step has extracted it yet
+    public byte[] get(String name) {
+        return values.get(name);
+    }
+    
+    public String getString(String name) {
+        byte[] value = values.get(name);
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+    
+    public void clear() {
+        values.clear();
+    }
+}
@@ -0,0 +1,158 @@
+package com.his.project.loadtest.recorder;
+
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.IntervalStats;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Statistics rebuilt from a raw-sample recording for one time window
+public class RecordingAnalysis {
+    private RecordingManifest manifest;
+    private int files;
+    private long samplesRead; // Every sample in the files, before the window and endpoint filters
+    private double windowStartSeconds;
+    private double windowEndSeconds;
+    private double intervalSeconds;
+    private long requests;
+    private long successes;
+    private long failures;
+    private long responseBytes; // Sum over samples whose size is known
+    private int threads;
+    private LatencyHistogram responseTimes;
+    private Map<String, EndpointStats> endpointStats = new LinkedHashMap<>();
+    private Map<Integer, Long> statusCounts = new TreeMap<>(); // -1 = no response
+    private List<IntervalStats> intervals = new ArrayList<>();
+    
+    public RecordingManifest getManifest() {
+        return manifest;
+    }
+    
+    public void setManifest(RecordingManifest manifest) {
+        this.manifest = manifest;
+    }
+    
+    public int getFiles() {
+        return files;
+    }
+    
+    public void setFiles(int files) {
+        this.files = files;
+    }
+    
+    public long getSamplesRead() {
+        return samplesRead;
+    }
+    
+    public void setSamplesRead(long samplesRead) {
+        this.samplesRead = samplesRead;
+    }
+    
+    public double getWindowStartSeconds() {
+        return windowStartSeconds;
+    }
+    
+    public void setWindowStartSeconds(double windowStartSeconds) {
+        this.windowStartSeconds = windowStartSeconds;
+    }
+    
+    public double getWindowEndSeconds() {
+        return windowEndSeconds;
+    }
+    
+    public void setWindowEndSeconds(double windowEndSeconds) {
+        this.windowEndSeconds = windowEndSeconds;
+    }
+    
+    public double getIntervalSeconds() {
+        return intervalSeconds;
+    }
+    
+    public void setIntervalSeconds(double intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+    
+    public long getRequests() {
+        return requests;
+    }
+    
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+    
+    public long getSuccesses() {
+        return successes;
+    }
+    
+    public void setSuccesses(long successes) {
+        this.successes = successes;
+    }
+    
+    public long getFailures() {
+        return failures;
+    }
+    
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+    
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+    
+    public void setResponseBytes(long responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public LatencyHistogram getResponseTimes() {
+        return responseTimes;
+    }
+    
+    public void setResponseTimes(LatencyHistogram responseTimes) {
+        this.responseTimes = responseTimes;
+    }
+    
+    public Map<String, EndpointStats> getEndpointStats() {
+        return endpointStats;
+    }
+    
+    public void setEndpointStats(Map<String, EndpointStats> endpointStats) {
+        this.endpointStats = endpointStats;
+    }
+    
+    public Map<Integer, Long> getStatusCounts() {
+        return statusCounts;
+    }
+    
+    public void setStatusCounts(Map<Integer, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+    
+    public List<IntervalStats> getIntervals() {
+        return intervals;
+    }
+    
+    public void setIntervals(List<IntervalStats> intervals) {
+        this.intervals = intervals;
+    }
+    
+    public double getDurationSeconds() {
+        return windowEndSeconds - windowStartSeconds;
+    }
+    
+    public double getThroughput() {
+        return getDurationSeconds() > 0 ? requests / getDurationSeconds() : 0.0;
+    }
+}
@@ -0,0 +1,72 @@
+package com.his.project.loadtest.recorder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// recording.json: what the segment files need to be decoded. Written when recording starts and
+// rewritten with the totals when it stops.
+public class RecordingManifest {
+    private int version = SampleRecorder.VERSION;
+    private int recordBytes = SampleRecorder.RECORD_BYTES;
+    private long startEpochMillis; // Wall-clock time of offset 0 of every record's start time
+    private List<String> endpoints = new ArrayList<>(); // Record endpoint i + 1 is endpoints[i]
+    private long samples;
+    private long droppedSamples; // Not written because a segment file could not be created
+    private boolean complete; // False if the run did not stop cleanly; segments are still readable
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
+    public int getRecordBytes() {
+        return recordBytes;
+    }
+    
+    public void setRecordBytes(int recordBytes) {
+        this.recordBytes = recordBytes;
+    }
+    
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+    
+    public void setStartEpochMillis(long startEpochMillis) {
+        this.startEpochMillis = startEpochMillis;
+    }
+    
+    public List<String> getEndpoints() {
+        return endpoints;
+    }
+    
+    public void setEndpoints(List<String> endpoints) {
+        this.endpoints = endpoints;
+    }
+    
+    public long getSamples() {
+        return samples;
+    }
+    
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+    
+    public long getDroppedSamples() {
+        return droppedSamples;
+    }
+    
+    public void setDroppedSamples(long droppedSamples) {
+        this.droppedSamples = droppedSamples;
+    }
+    
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+}
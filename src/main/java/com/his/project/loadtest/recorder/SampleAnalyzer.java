@@ -0,0 +1,262 @@
+package com.his.project.loadtest.recorder;
+
+import com.google.gson.Gson;
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.IntervalStats;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Rebuilds percentiles, per-endpoint statistics, status codes and a time series from a
+// SampleRecorder directory, for the whole run or any window of it. Segment files are mapped
+// read-only and scanned twice: once to find the window's extent, once to aggregate.
+public class SampleAnalyzer {
+    // Above this many rows the interval is widened, which also bounds the memory of the time series
+    private static final int MAX_INTERVALS = 1000;
+    private static final int INTERVAL_DIGITS = 2;
+    
+    private final Path directory;
+    private Double fromSeconds; // null = start of the recording
+    private Double toSeconds; // null = end of the recording
+    private double intervalSeconds = 1.0;
+    private String endpoint; // null = all endpoints
+    
+    public SampleAnalyzer(String directory) {
+        this.directory = Path.of(directory);
+    }
+    
+    public void setFromSeconds(Double fromSeconds) {
+        this.fromSeconds = fromSeconds;
+    }
+    
+    public void setToSeconds(Double toSeconds) {
+        this.toSeconds = toSeconds;
+    }
+    
+    public void setIntervalSeconds(double intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+    
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+    
+    public RecordingAnalysis run() throws IOException {
+        RecordingManifest manifest;
+        try (Reader reader = Files.newBufferedReader(directory.resolve(SampleRecorder.MANIFEST_FILE), StandardCharsets.UTF_8)) {
+            manifest = new Gson().fromJson(reader, RecordingManifest.class);
+        }
+        if (manifest.getVersion() != SampleRecorder.VERSION || manifest.getRecordBytes() != SampleRecorder.RECORD_BYTES) {
+            throw new IOException("Unsupported recording version " + manifest.getVersion());
+        }
+        List<String> endpoints = manifest.getEndpoints();
+        int endpointFilter = 0;
+        if (endpoint != null) {
+            endpointFilter = endpoints.indexOf(endpoint) + 1;
+            if (endpointFilter == 0) {
+                throw new IllegalArgumentException("Recording has no endpoint '" + endpoint + "', it has " + endpoints);
+            }
+        }
+        long from = fromSeconds != null ? (long) (fromSeconds * 1e9) : Long.MIN_VALUE;
+        long to = toSeconds != null ? (long) (toSeconds * 1e9) : Long.MAX_VALUE;
+        
+        List<MappedByteBuffer> segments = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        long samplesRead = 0;
+        for (Path file : segmentFiles()) {
+            MappedByteBuffer segment = map(file);
+            long count = recordCount(segment);
+            segments.add(segment);
+            counts.add(count);
+            samplesRead += count;
+        }
+        
+        // Pass 1: extent of the samples inside the window
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int s = 0; s < segments.size(); s++) {
+            MappedByteBuffer segment = segments.get(s);
+            for (long i = 0; i < counts.get(s); i++) {
+                int offset = recordOffset(i);
+                long start = segment.getLong(offset);
+                if (start >= from && start < to && matches(segment, offset, endpointFilter)) {
+                    first = Math.min(first, start);
+                    last = Math.max(last, start);
+                }
+            }
+        }
+        
+        RecordingAnalysis analysis = new RecordingAnalysis();
+        analysis.setManifest(manifest);
+        analysis.setFiles(segments.size());
+        analysis.setSamplesRead(samplesRead);
+        analysis.setResponseTimes(new LatencyHistogram());
+        if (first > last) {
+            analysis.setWindowStartSeconds(fromSeconds != null ? fromSeconds : 0.0);
+            analysis.setWindowEndSeconds(toSeconds != null ? toSeconds : analysis.getWindowStartSeconds());
+            return analysis;
+        }
+        long windowStart = fromSeconds != null ? from : first;
+        long windowEnd = toSeconds != null ? to : last + 1;
+        long intervalNanos = Math.max((long) (intervalSeconds * 1e9), 1);
+        if ((windowEnd - windowStart) / intervalNanos >= MAX_INTERVALS) {
+            intervalNanos = (windowEnd - windowStart) / MAX_INTERVALS + 1;
+        }
+        int intervalCount = (int) ((windowEnd - windowStart + intervalNanos - 1) / intervalNanos);
+        LatencyHistogram[] intervalTimes = new LatencyHistogram[intervalCount];
+        long[] intervalFailures = new long[intervalCount];
+        
+        // Pass 2: aggregate
+        EndpointStats[] byEndpoint = new EndpointStats[endpoints.size() + 1];
+        Set<Integer> threads = new HashSet<>();
+        Map<Integer, Long> statusCounts = analysis.getStatusCounts();
+        long requests = 0;
+        long successes = 0;
+        long bytes = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            MappedByteBuffer segment = segments.get(s);
+            for (long i = 0; i < counts.get(s); i++) {
+                int offset = recordOffset(i);
+                long start = segment.getLong(offset);
+                if (start < from || start >= to || !matches(segment, offset, endpointFilter)) {
+                    continue;
+                }
+                long latency = segment.getLong(offset + 8);
+                int size = segment.getInt(offset + 16);
+                int endpointIndex = segment.getShort(offset + 20);
+                int status = segment.getShort(offset + 22);
+                boolean success = segment.get(offset + 28) == 1;
+                
+                requests++;
+                analysis.getResponseTimes().recordValue(latency);
+                if (endpointIndex < 0 || endpointIndex > endpoints.size()) {
+                    endpointIndex = 0;
+                }
+                EndpointStats stats = byEndpoint[endpointIndex];
+                if (stats == null) {
+                    stats = new EndpointStats();
+                    byEndpoint[endpointIndex] = stats;
+                }
+                stats.incrementRequest();
+                stats.addResponseTime(latency);
+                if (success) {
+                    stats.incrementSuccess();
+                    successes++;
+                } else {
+                    stats.incrementFailed();
+                }
+                statusCounts.merge(status, 1L, Long::sum);
+                if (size >= 0) {
+                    bytes += size;
+                }
+                threads.add(segment.getInt(offset + 24));
+                
+                int interval = (int) Math.min(Math.max((start - windowStart) / intervalNanos, 0), intervalCount - 1);
+                if (intervalTimes[interval] == null) {
+                    intervalTimes[interval] = new LatencyHistogram(INTERVAL_DIGITS);
+                }
+                intervalTimes[interval].recordValue(latency);
+                if (!success) {
+                    intervalFailures[interval]++;
+                }
+            }
+        }
+        
+        for (int i = 1; i < byEndpoint.length; i++) {
+            if (byEndpoint[i] != null) {
+                analysis.getEndpointStats().put(endpoints.get(i - 1), byEndpoint[i]);
+            }
+        }
+        if (byEndpoint[0] != null) {
+            analysis.getEndpointStats().put("(unknown)", byEndpoint[0]);
+        }
+        double intervalLength = intervalNanos / 1e9;
+        for (int i = 0; i < intervalCount; i++) {
+            IntervalStats row = new IntervalStats();
+            long rowStart = windowStart + i * intervalNanos;
+            row.setTimestampMs(manifest.getStartEpochMillis() + TimeUnit.NANOSECONDS.toMillis(rowStart));
+            row.setElapsedSeconds(rowStart / 1e9);
+            row.setEndpoint(endpoint != null ? endpoint : "ALL");
+            LatencyHistogram times = intervalTimes[i];
+            if (times != null) {
+                row.setRequests(times.getTotalCount());
+                row.setFailures(intervalFailures[i]);
+                row.setSuccesses(times.getTotalCount() - intervalFailures[i]);
+                row.setThroughput(times.getTotalCount() / intervalLength);
+                row.setMeanMs(times.getMean() / 1_000_000.0);
+                long[] percentiles = times.getValuesAtPercentiles(50.0, 90.0, 99.0);
+                row.setP50Ms(percentiles[0] / 1_000_000.0);
+                row.setP90Ms(percentiles[1] / 1_000_000.0);
+                row.setP99Ms(percentiles[2] / 1_000_000.0);
+                row.setMaxMs(times.getMaxValue() / 1_000_000.0);
+            }
+            analysis.getIntervals().add(row);
+        }
+        analysis.setWindowStartSeconds(windowStart / 1e9);
+        analysis.setWindowEndSeconds(windowEnd / 1e9);
+        analysis.setIntervalSeconds(intervalLength);
+        analysis.setRequests(requests);
+        analysis.setSuccesses(successes);
+        analysis.setFailures(requests - successes);
+        analysis.setResponseBytes(bytes);
+        analysis.setThreads(threads.size());
+        return analysis;
+    }
+    
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> path.getFileName().toString().startsWith("samples-") && path.toString().endsWith(".bin"))
+                .sorted()
+                .toList();
+        }
+    }
+    
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            if (segment.capacity() < SampleRecorder.HEADER_BYTES || segment.getInt(0) != SampleRecorder.MAGIC) {
+                throw new IOException("Not a sample segment: " + file);
+            }
+            return segment;
+        }
+    }
+    
+    // The header count is written when a segment is finished; a segment that was still being
+    // written when the generator died has none, and ends at the first unused (zero) record
+    private static long recordCount(MappedByteBuffer segment) {
+        long capacity = (segment.capacity() - SampleRecorder.HEADER_BYTES) / SampleRecorder.RECORD_BYTES;
+        long count = segment.getLong(SampleRecorder.COUNT_OFFSET);
+        if (count > 0) {
+            return Math.min(count, capacity);
+        }
+        count = 0;
+        while (count < capacity && segment.getShort(recordOffset(count) + 20) != 0) {
+            count++;
+        }
+        return count;
+    }
+    
+    private static int recordOffset(long index) {
+        return (int) (SampleRecorder.HEADER_BYTES + index * SampleRecorder.RECORD_BYTES);
+    }
+    
+    private static boolean matches(MappedByteBuffer segment, int offset, int endpointFilter) {
+        return endpointFilter == 0 || segment.getShort(offset + 20) == endpointFilter;
+    }
+}
@@ -0,0 +1,118 @@
+package com.his.project.loadtest.recorder;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Raw per-request log for offline analysis (see SampleAnalyzer). Every request becomes one
+// fixed-width little-endian record in a memory-mapped segment file:
+//
+//   offset  0  long   start, nanoseconds since the manifest's startEpochMillis
+//   offset  8  long   latency, nanoseconds
+//   offset 16  int    response body bytes, -1 = unknown
+//   offset 20  short  endpoint index + 1 (0 marks an unused record)
+//   offset 22  short  HTTP status, -1 = no response
+//   offset 24  int    id of the thread that recorded the sample
+//   offset 28  byte   1 = success
+//
+// Each segment file starts with a HEADER_BYTES header (magic, version, record size, writer id,
+// record count). Platform threads own a writer each, so recording never contends; virtual
+// threads are short-lived and share a small set of writers instead of creating a file each.
+public final class SampleRecorder implements Closeable {
+    static final int MAGIC = 0x5352544C; // "LTRS" in little-endian byte order
+    static final int VERSION = 1;
+    static final int RECORD_BYTES = 32;
+    static final int HEADER_BYTES = 32;
+    static final int COUNT_OFFSET = 16;
+    static final String MANIFEST_FILE = "recording.json";
+    
+    private final Path directory;
+    private final int segmentBytes;
+    private final RecordingManifest manifest = new RecordingManifest();
+    private final ThreadLocal<SegmentWriter> ownWriter;
+    private final SegmentWriter[] sharedWriters;
+    private final Queue<SegmentWriter> writers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger nextWriterId = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+    
+    public SampleRecorder(String directory, int segmentMegabytes, List<String> endpoints, long startEpochMillis) throws IOException {
+        this.directory = Path.of(directory);
+        Files.createDirectories(this.directory);
+        try (var existing = Files.list(this.directory)) {
+            if (existing.anyMatch(path -> path.getFileName().toString().startsWith("samples-"))) {
+                throw new IOException("Directory already contains a recording: " + directory);
+            }
+        }
+        long records = Math.max(1, ((long) segmentMegabytes * 1024 * 1024 - HEADER_BYTES) / RECORD_BYTES);
+        this.segmentBytes = (int) Math.min(HEADER_BYTES + records * RECORD_BYTES, Integer.MAX_VALUE - RECORD_BYTES);
+        manifest.setStartEpochMillis(startEpochMillis);
+        manifest.getEndpoints().addAll(endpoints);
+        writeManifest();
+        this.ownWriter = ThreadLocal.withInitial(this::newWriter);
+        this.sharedWriters = new SegmentWriter[Math.max(2, Runtime.getRuntime().availableProcessors())];
+        for (int i = 0; i < sharedWriters.length; i++) {
+            sharedWriters[i] = newWriter();
+        }
+    }
+    
+    // endpoint is the index into the manifest's endpoint list; startNanos is relative to startEpochMillis
+    public void record(int endpoint, long startNanos, long latencyNanos, int status, long bytes, boolean success) {
+        Thread thread = Thread.currentThread();
+        SegmentWriter writer = thread.isVirtual()
+            ? sharedWriters[(int) (thread.threadId() % sharedWriters.length)]
+            : ownWriter.get();
+        if (!writer.append(endpoint + 1, startNanos, latencyNanos, status, bytes, success, thread.threadId())) {
+            dropped.increment();
+        }
+    }
+    
+    private SegmentWriter newWriter() {
+        SegmentWriter writer = new SegmentWriter(this, nextWriterId.getAndIncrement(), segmentBytes);
+        writers.add(writer);
+        return writer;
+    }
+    
+    Path getDirectory() {
+        return directory;
+    }
+    
+    public long getDroppedSamples() {
+        return dropped.sum();
+    }
+    
+    // Total written to the segment files; known once the recorder is closed
+    public long getRecordedSamples() {
+        return manifest.getSamples();
+    }
+    
+    private void writeManifest() throws IOException {
+        try (Writer writer = Files.newBufferedWriter(directory.resolve(MANIFEST_FILE), StandardCharsets.UTF_8)) {
+            gson.toJson(manifest, writer);
+        }
+    }
+    
+    // Flushes every segment and completes the manifest; samples recorded afterwards are dropped
+    @Override
+    public void close() throws IOException {
+        long samples = 0;
+        for (SegmentWriter writer : writers) {
+            samples += writer.close();
+        }
+        manifest.setSamples(samples);
+        manifest.setDroppedSamples(dropped.sum());
+        manifest.setComplete(true);
+        writeManifest();
+    }
+}
@@ -0,0 +1,90 @@
+package com.his.project.loadtest.recorder;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends records to a chain of memory-mapped segment files owned by one writer. A record is
+// a handful of puts into the mapping; the OS writes the pages back in the background, so the
+// request thread never makes a system call except when it rolls over to a new segment.
+final class SegmentWriter {
+    private final SampleRecorder recorder;
+    private final int writerId;
+    private final int segmentBytes;
+    private int segment = 0;
+    private MappedByteBuffer buffer;
+    private long segmentCount;
+    private long count;
+    private boolean failed;
+    
+    SegmentWriter(SampleRecorder recorder, int writerId, int segmentBytes) {
+        this.recorder = recorder;
+        this.writerId = writerId;
+        this.segmentBytes = segmentBytes;
+    }
+    
+    // Synchronized only for the writers shared by virtual threads and for close(); a platform
+    // thread's own writer takes the monitor uncontended
+    synchronized boolean append(int endpoint, long startNanos, long latencyNanos, int status, long bytes,
+                                boolean success, long threadId) {
+        if (buffer == null || buffer.remaining() < SampleRecorder.RECORD_BYTES) {
+            if (failed || !nextSegment()) {
+                return false;
+            }
+        }
+        buffer.putLong(startNanos);
+        buffer.putLong(latencyNanos);
+        buffer.putInt((int) Math.min(bytes, Integer.MAX_VALUE));
+        buffer.putShort((short) endpoint);
+        buffer.putShort((short) status);
+        buffer.putInt((int) threadId);
+        buffer.put((byte) (success ? 1 : 0));
+        buffer.put((byte) 0);
+        buffer.putShort((short) 0);
+        segmentCount++;
+        count++;
+        return true;
+    }
+    
+    private boolean nextSegment() {
+        finishSegment();
+        Path file = recorder.getDirectory().resolve(String.format("samples-%04d-%04d.bin", writerId, segment++));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed; unwritten pages stay sparse
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            failed = true;
+            buffer = null;
+            System.err.println("Sample recording stopped, cannot create " + file + ": " + e.getMessage());
+            return false;
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SampleRecorder.MAGIC);
+        buffer.putInt(SampleRecorder.VERSION);
+        buffer.putInt(SampleRecorder.RECORD_BYTES);
+        buffer.putInt(writerId);
+        buffer.position(SampleRecorder.HEADER_BYTES);
+        segmentCount = 0;
+        return true;
+    }
+    
+    // Stores the record count in the header so readers need not scan for the end. No force():
+    // dirty pages reach the file even if the generator crashes, and an msync here would stall
+    // the request thread that happened to fill the segment.
+    private void finishSegment() {
+        if (buffer != null) {
+            buffer.putLong(SampleRecorder.COUNT_OFFSET, segmentCount);
+            buffer = null;
+        }
+    }
+    
+    synchronized long close() {
+        finishSegment();
+        failed = true;
+        return count;
+    }
+}
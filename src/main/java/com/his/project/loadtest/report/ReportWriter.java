@@ -0,0 +1,410 @@
+package com.his.project.loadtest.report;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.IntervalStats;
+import com.his.project.loadtest.model.TestConfig;
+import com.his.project.loadtest.model.ThresholdResult;
+import com.his.project.loadtest.results.RunEnvironment;
+import com.his.project.loadtest.results.RunRecord;
+import com.his.project.loadtest.service.IntervalReporter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// End-of-run report: one self-contained HTML file (inline CSS and SVG charts, nothing fetched) to
+// attach to a ticket, and the same numbers as JSON for tools. Both are written straight to the
+// file as they are produced. The interval rows are read once, copied into the JSON and folded
+// into at most CHART_POINTS points per endpoint for the charts, so the memory the report needs is
+// fixed by the chart resolution and the number of endpoints, whatever the length of the run.
+public class ReportWriter {
+    private static final int CHART_POINTS = 500;
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+    private static final double MAX_NINES = 5; // Latency-by-percentile plots go up to p99.999
+    private static final Gson GSON = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+    
+    private final RunRecord record;
+    private final Map<String, EndpointStats> endpoints;
+    private final EndpointStats total;
+    private final Map<String, EndpointStats> transactions;
+    private final Map<String, SeriesBuffer> series = new LinkedHashMap<>();
+    
+    public ReportWriter(RunRecord record) {
+        this.record = record;
+        this.endpoints = record.getEndpointStats();
+        this.total = RunRecord.total(endpoints);
+        this.transactions = record.getTransactionStats();
+    }
+    
+    // Writes NAME.html and NAME.json for a target NAME, NAME.html or NAME.json; returns both paths
+    public List<Path> write(String target) throws IOException {
+        String base = target.replaceFirst("(?i)\\.(html?|json)$", "");
+        Path json = Path.of(base + ".json");
+        Path html = Path.of(base + ".html");
+        writeJson(json);
+        writeHtml(html);
+        return List.of(html, json);
+    }
+    
+    private void writeJson(Path path) throws IOException {
+        try (JsonWriter json = new JsonWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            json.setLenient(true); // NaN for a threshold judged over no requests
+            json.beginObject();
+            json.name("label").value(record.getLabel());
+            json.name("start").value(Instant.ofEpochMilli(record.getStartEpochMillis()).toString());
+            json.name("durationSeconds").value(record.getDurationSeconds());
+            json.name("environment");
+            GSON.toJson(record.getEnvironment(), RunEnvironment.class, json);
+            json.name("config");
+            GSON.toJson(record.getConfig(), TestConfig.class, json);
+            
+            json.name("summary");
+            if (total != null) {
+                writeStats(json, IntervalReporter.ALL_ENDPOINTS, total);
+            } else {
+                json.nullValue();
+            }
+            json.name("endpoints").beginArray();
+            for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+                writeStats(json, entry.getKey(), entry.getValue());
+            }
+            json.endArray();
+            // Whole journeys of a JOURNEY scenario, think time excluded
+            json.name("transactions").beginArray();
+            for (Map.Entry<String, EndpointStats> entry : transactions.entrySet()) {
+                writeStats(json, entry.getKey(), entry.getValue());
+            }
+            json.endArray();
+            
+            json.name("thresholds").beginArray();
+            for (ThresholdResult threshold : record.getThresholdResults()) {
+                json.beginObject();
+                json.name("threshold").value(threshold.getThreshold().describe());
+                json.name("actual").value(threshold.getActual());
+                json.name("unit").value(threshold.getThreshold().unit());
+                json.name("passed").value(threshold.isPassed());
+                json.name("abortedRun").value(threshold.isAbortedRun());
+                json.endObject();
+            }
+            json.endArray();
+            json.name("abortReason").value(record.getAbortReason());
+            
+            // Every interval row as reported during the run; the charts get them folded
+            json.name("intervals").beginArray();
+            for (IntervalStats row : record.getIntervals()) {
+                GSON.toJson(row, IntervalStats.class, json);
+                series.computeIfAbsent(row.getEndpoint(), endpoint -> new SeriesBuffer(CHART_POINTS)).add(row);
+            }
+            json.endArray();
+            json.endObject();
+        }
+    }
+    
+    private void writeStats(JsonWriter json, String name, EndpointStats stats) throws IOException {
+        json.beginObject();
+        json.name("endpoint").value(name);
+        json.name("requests").value(stats.getRequestCount());
+        json.name("successes").value(stats.getSuccessCount());
+        json.name("failures").value(stats.getFailedCount());
+        json.name("throughputRps").value(rate(stats.getRequestCount()));
+        json.name("errorRatePercent").value(errorRate(stats));
+        json.name("bytesSent").value(stats.getBytesSent());
+        json.name("bytesReceived").value(stats.getBytesReceived());
+        // Successful requests only, like the console results
+        json.name("responseTimeMs").beginObject();
+        json.name("min").value(stats.getResponseTimes().getMinValue() / 1_000_000.0);
+        json.name("mean").value(stats.getAvgResponseTime());
+        for (double percentile : PERCENTILES) {
+            json.name(percentileName(percentile)).value(stats.getPercentile(percentile));
+        }
+        json.name("max").value(stats.getMaxResponseTime());
+        json.endObject();
+        json.name("failureCategories").beginArray();
+        for (Outcome outcome : Outcome.values()) {
+            long count = stats.getOutcomeCount(outcome);
+            if (outcome == Outcome.SUCCESS || count == 0) {
+                continue;
+            }
+            json.beginObject();
+            json.name("category").value(outcome.getLabel());
+            json.name("count").value(count);
+            json.name("p50Ms").value(stats.getOutcomePercentile(outcome, 50.0));
+            json.name("p99Ms").value(stats.getOutcomePercentile(outcome, 99.0));
+            json.endObject();
+        }
+        json.endArray();
+        json.name("statusCodes").beginObject();
+        for (Map.Entry<Integer, Long> entry : stats.getStatusCounts().entrySet()) {
+            json.name(entry.getKey() < 0 ? "none" : String.valueOf(entry.getKey())).value(entry.getValue());
+        }
+        json.endObject();
+        json.name("latencyByPercentile").beginArray();
+        double[][] distribution = distribution(stats.getResponseTimes());
+        for (int i = 0; i < distribution[0].length; i++) {
+            json.beginArray().value(distribution[0][i]).value(distribution[1][i]).endArray();
+        }
+        json.endArray();
+        json.endObject();
+    }
+    
+    private void writeHtml(Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            String title = "Load Test Report" + (record.getLabel() != null ? " - " + record.getLabel() : "");
+            out.write("<!DOCTYPE html>\n<html lang=\"en\">\n<head>\n<meta charset=\"utf-8\">\n");
+            out.write("<title>" + escape(title) + "</title>\n<style>\n");
+            out.write("body{font-family:-apple-system,Segoe UI,Helvetica,Arial,sans-serif;margin:24px;color:#222;max-width:1100px}\n"
+                + "h1{font-size:22px}h2{font-size:17px;margin-top:28px;border-bottom:1px solid #ddd;padding-bottom:4px}\n"
+                + "table{border-collapse:collapse;margin:8px 0;font-size:13px}\n"
+                + "th,td{border:1px solid #ddd;padding:4px 8px;text-align:right}th{background:#f4f4f4}\n"
+                + "td.name,th.name{text-align:left}.pass{color:#1a7f37;font-weight:bold}.fail{color:#c62828;font-weight:bold}\n"
+                + ".chart{width:100%;max-width:960px;display:block;margin:8px 0}\n"
+                + ".chart .title{font-size:14px;font-weight:bold}.chart .tick,.chart .legend{font-size:11px}\n"
+                + ".chart .label{font-size:12px}.chart .grid{stroke:#e5e5e5}\n"
+                + "pre{background:#f7f7f7;padding:8px;font-size:12px;overflow-x:auto}\n");
+            out.write("</style>\n</head>\n<body>\n");
+            out.write("<h1>" + escape(title) + "</h1>\n");
+            writeSummary(out);
+            writeCharts(out);
+            writeEndpointTable(out);
+            writeTransactionTable(out);
+            writeFailures(out);
+            writeThresholds(out);
+            out.write("<h2>Configuration</h2>\n<pre>");
+            out.write(escape(new GsonBuilder().setPrettyPrinting().serializeSpecialFloatingPointValues().create()
+                .toJson(record.getConfig())));
+            out.write("</pre>\n");
+            out.write("</body>\n</html>\n");
+        }
+    }
+    
+    private void writeSummary(Writer out) throws IOException {
+        RunEnvironment environment = record.getEnvironment();
+        out.write("<table>\n");
+        row(out, "Started", Instant.ofEpochMilli(record.getStartEpochMillis()).toString());
+        row(out, "Duration", String.format(Locale.ROOT, "%.1f s", record.getDurationSeconds()));
+        row(out, "Target", record.getConfig().getGatewayBaseUrl());
+        if (environment != null) {
+            row(out, "Generator", environment.getHost() + ", " + environment.getCpus() + " CPUs, " + environment.getOs()
+                + ", Java " + environment.getJavaVersion());
+        }
+        if (total != null) {
+            row(out, "Requests", total.getRequestCount() + " (" + total.getFailedCount() + " failed, "
+                + String.format(Locale.ROOT, "%.2f%%", errorRate(total)) + ")");
+            row(out, "Throughput", String.format(Locale.ROOT, "%.2f req/s", rate(total.getRequestCount())));
+            row(out, "Response Times (successful)", String.format(Locale.ROOT, "p50 %.2f / p90 %.2f / p99 %.2f / p99.9 %.2f / max %.2f ms",
+                total.getPercentile(50.0), total.getPercentile(90.0), total.getPercentile(99.0), total.getPercentile(99.9),
+                total.getMaxResponseTime()));
+        }
+        if (!record.getThresholdResults().isEmpty()) {
+            boolean passed = record.getThresholdResults().stream().allMatch(ThresholdResult::isPassed);
+            out.write("<tr><th class=\"name\">SLO</th><td class=\"name " + (passed ? "pass\">PASS" : "fail\">FAIL")
+                + (record.getAbortReason() != null ? " (aborted: " + escape(record.getAbortReason()) + ")" : "") + "</td></tr>\n");
+        }
+        out.write("</table>\n");
+    }
+    
+    private void writeCharts(Writer out) throws IOException {
+        out.write("<h2>Over Time</h2>\n");
+        // Endpoint rows first; the ALL row (only reported with several endpoints) sums them
+        SvgChart throughput = new SvgChart("Throughput", "seconds", "req/s");
+        SvgChart tail = new SvgChart("p99 Response Time per Endpoint", "seconds", "ms");
+        SvgChart errors = new SvgChart("Failures", "seconds", "failures/s");
+        long failures = 0;
+        for (Map.Entry<String, SeriesBuffer> entry : series.entrySet()) {
+            SeriesBuffer buffer = entry.getValue();
+            throughput.addLine(entry.getKey(), buffer.time(), buffer.throughput());
+            if (!entry.getKey().equals(IntervalReporter.ALL_ENDPOINTS)) {
+                tail.addLine(entry.getKey(), buffer.time(), buffer.p99());
+            }
+            errors.addLine(entry.getKey(), buffer.time(), buffer.failureRate());
+            failures += buffer.totalFailures();
+        }
+        if (throughput.isEmpty()) {
+            out.write("<p>No interval data (the run had --report-interval 0).</p>\n");
+        } else {
+            throughput.write(out);
+            SeriesBuffer overall = series.containsKey(IntervalReporter.ALL_ENDPOINTS)
+                ? series.get(IntervalReporter.ALL_ENDPOINTS) : series.values().iterator().next();
+            SvgChart percentiles = new SvgChart("Response Time Percentiles"
+                + (series.size() > 1 ? " (all endpoints)" : ""), "seconds", "ms");
+            percentiles.addLine("p50", overall.time(), overall.p50());
+            percentiles.addLine("p90", overall.time(), overall.p90());
+            percentiles.addLine("p99", overall.time(), overall.p99());
+            percentiles.addLine("max", overall.time(), overall.max());
+            percentiles.write(out);
+            if (series.size() > 1) {
+                tail.write(out);
+            }
+            if (failures > 0) {
+                errors.write(out);
+            }
+        }
+        
+        out.write("<h2>Latency Distribution</h2>\n");
+        SvgChart distribution = new SvgChart("Response Time by Percentile (successful requests)", "percentile", "ms");
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            double[][] points = distribution(entry.getValue().getResponseTimes());
+            distribution.addLine(entry.getKey(), nines(points[0]), points[1]);
+        }
+        distribution.setXTicks(new double[] {0, 1, 2, 3, 4, 5}, nines -> nines == 0 ? "0%"
+            : percentileName(100 * (1 - Math.pow(10, -nines))).substring(1) + "%");
+        if (!distribution.isEmpty()) {
+            distribution.write(out);
+        }
+    }
+    
+    private void writeEndpointTable(Writer out) throws IOException {
+        out.write("<h2>Endpoints</h2>\n");
+        tableHeader(out, "Endpoint", "Requests", "req/s");
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            endpointRow(out, entry.getKey(), entry.getValue());
+        }
+        if (endpoints.size() > 1) {
+            endpointRow(out, IntervalReporter.ALL_ENDPOINTS, total);
+        }
+        out.write("</table>\n<p>Response times in ms, of successful requests.</p>\n");
+    }
+    
+    // Whole journeys next to the requests they are made of; the received column stays 0, as the
+    // bytes are counted per request
+    private void writeTransactionTable(Writer out) throws IOException {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        out.write("<h2>Journeys</h2>\n");
+        tableHeader(out, "Journey", "Journeys", "journeys/s");
+        for (Map.Entry<String, EndpointStats> entry : transactions.entrySet()) {
+            endpointRow(out, entry.getKey(), entry.getValue());
+        }
+        out.write("</table>\n<p>Transaction times in ms, from the start of a journey to its last response, of journeys"
+            + " where every step succeeded; think time excluded. A journey fails with its first failed step.</p>\n");
+    }
+    
+    private static void tableHeader(Writer out, String name, String count, String rate) throws IOException {
+        out.write("<table>\n<tr><th class=\"name\">" + name + "</th><th>" + count + "</th><th>Failed</th>"
+            + "<th>Errors</th><th>" + rate + "</th><th>Mean</th>");
+        for (double percentile : PERCENTILES) {
+            out.write("<th>" + percentileName(percentile) + "</th>");
+        }
+        out.write("<th>Max</th><th>Received MB</th></tr>\n");
+    }
+    
+    private void endpointRow(Writer out, String name, EndpointStats stats) throws IOException {
+        out.write("<tr><td class=\"name\">" + escape(name) + "</td><td>" + stats.getRequestCount() + "</td><td>"
+            + stats.getFailedCount() + "</td><td>" + String.format(Locale.ROOT, "%.2f%%", errorRate(stats)) + "</td><td>"
+            + String.format(Locale.ROOT, "%.1f", rate(stats.getRequestCount())) + "</td><td>"
+            + String.format(Locale.ROOT, "%.2f", stats.getAvgResponseTime()) + "</td>");
+        for (double percentile : PERCENTILES) {
+            out.write("<td>" + String.format(Locale.ROOT, "%.2f", stats.getPercentile(percentile)) + "</td>");
+        }
+        out.write("<td>" + String.format(Locale.ROOT, "%.2f", stats.getMaxResponseTime()) + "</td><td>"
+            + String.format(Locale.ROOT, "%.2f", stats.getBytesReceived() / 1_000_000.0) + "</td></tr>\n");
+    }
+    
+    private void writeFailures(Writer out) throws IOException {
+        out.write("<h2>Failures and Status Codes</h2>\n");
+        if (total == null || total.getFailedCount() == 0) {
+            out.write("<p>No failed requests.</p>\n");
+        } else {
+            out.write("<table>\n<tr><th class=\"name\">Endpoint</th><th class=\"name\">Category</th><th>Count</th>"
+                + "<th>Share of Requests</th><th>p50 ms</th><th>p99 ms</th></tr>\n");
+            for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+                EndpointStats stats = entry.getValue();
+                for (Outcome outcome : Outcome.values()) {
+                    long count = stats.getOutcomeCount(outcome);
+                    if (outcome == Outcome.SUCCESS || count == 0) {
+                        continue;
+                    }
+                    out.write("<tr><td class=\"name\">" + escape(entry.getKey()) + "</td><td class=\"name\">" + outcome.getLabel()
+                        + "</td><td>" + count + "</td><td>" + String.format(Locale.ROOT, "%.2f%%", count * 100.0 / stats.getRequestCount())
+                        + "</td><td>" + String.format(Locale.ROOT, "%.2f", stats.getOutcomePercentile(outcome, 50.0))
+                        + "</td><td>" + String.format(Locale.ROOT, "%.2f", stats.getOutcomePercentile(outcome, 99.0)) + "</td></tr>\n");
+                }
+            }
+            out.write("</table>\n");
+        }
+        out.write("<table>\n<tr><th class=\"name\">Endpoint</th><th class=\"name\">Status Codes</th></tr>\n");
+        for (Map.Entry<String, EndpointStats> entry : endpoints.entrySet()) {
+            StringBuilder codes = new StringBuilder();
+            entry.getValue().getStatusCounts().forEach((status, count) -> codes.append(codes.length() == 0 ? "" : ", ")
+                .append(status < 0 ? "no response" : String.valueOf(status)).append(": ").append(count));
+            out.write("<tr><td class=\"name\">" + escape(entry.getKey()) + "</td><td class=\"name\">" + codes + "</td></tr>\n");
+        }
+        out.write("</table>\n");
+    }
+    
+    private void writeThresholds(Writer out) throws IOException {
+        if (record.getThresholdResults().isEmpty()) {
+            return;
+        }
+        out.write("<h2>Thresholds</h2>\n<table>\n<tr><th class=\"name\">Threshold</th><th>Actual</th><th>Result</th></tr>\n");
+        for (ThresholdResult threshold : record.getThresholdResults()) {
+            String actual = Double.isNaN(threshold.getActual()) ? "no requests"
+                : String.format(Locale.ROOT, "%.2f %s", threshold.getActual(), threshold.getThreshold().unit());
+            out.write("<tr><td class=\"name\">" + escape(threshold.getThreshold().describe()) + "</td><td>" + escape(actual)
+                + "</td><td class=\"" + (threshold.isPassed() ? "pass\">PASS" : "fail\">FAIL")
+                + (threshold.isAbortedRun() ? " (aborted the run)" : "") + "</td></tr>\n");
+        }
+        out.write("</table>\n");
+    }
+    
+    private static void row(Writer out, String name, String value) throws IOException {
+        out.write("<tr><th class=\"name\">" + escape(name) + "</th><td class=\"name\">" + escape(value) + "</td></tr>\n");
+    }
+    
+    // Percentiles from 0 up to p99.999, evenly spaced in nines and stopping where the run had too
+    // few requests to tell them apart; [percentiles, ms]
+    private static double[][] distribution(LatencyHistogram times) {
+        if (times.getTotalCount() == 0) {
+            return new double[][] {new double[0], new double[0]};
+        }
+        double top = Math.min(MAX_NINES, Math.log10(times.getTotalCount()));
+        int points = (int) Math.floor(top * 10) + 1;
+        double[][] distribution = new double[2][points];
+        for (int i = 0; i < points; i++) {
+            distribution[0][i] = 100 * (1 - Math.pow(10, -i / 10.0));
+        }
+        long[] values = times.getValuesAtPercentiles(distribution[0]);
+        for (int i = 0; i < points; i++) {
+            distribution[1][i] = values[i] / 1_000_000.0;
+        }
+        return distribution;
+    }
+    
+    private static double[] nines(double[] percentiles) {
+        double[] nines = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            nines[i] = -Math.log10(1 - percentiles[i] / 100);
+        }
+        return nines;
+    }
+    
+    private double rate(long requests) {
+        return record.getDurationSeconds() > 0 ? requests / record.getDurationSeconds() : 0;
+    }
+    
+    private static double errorRate(EndpointStats stats) {
+        return stats.getRequestCount() == 0 ? 0 : stats.getFailedCount() * 100.0 / stats.getRequestCount();
+    }
+    
+    private static String percentileName(double percentile) {
+        String value = String.format(Locale.ROOT, "%.4f", percentile).replaceAll("0+$", "").replaceAll("\\.$", "");
+        return "p" + value;
+    }
+    
+    static String escape(String text) {
+        return text == null ? "" : text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
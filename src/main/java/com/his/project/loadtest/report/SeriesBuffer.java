@@ -0,0 +1,158 @@
+package com.his.project.loadtest.report;
+
+import com.his.project.loadtest.model.IntervalStats;
+
+// One endpoint's interval rows folded into at most a fixed number of chart points, in one pass
+// and without knowing the run's length up front. Rows are added to the current point until it
+// holds rowsPerPoint of them; once every point is used, neighbouring points are merged in pairs
+// and rowsPerPoint doubles. A run of any length therefore ends up with between half and all of the
+// points, each covering the same number of intervals.
+// Merged points keep the throughput exact; p50 is the success-weighted mean of the intervals' p50,
+// and p90, p99 and max the highest of the intervals', so the tail is never understated.
+class SeriesBuffer {
+    private final double[] start;
+    private final double[] seconds;
+    private final long[] requests;
+    private final long[] successes;
+    private final long[] failures;
+    private final double[] p50Weighted;
+    private final double[] p90;
+    private final double[] p99;
+    private final double[] max;
+    private int size;
+    private int rowsPerPoint = 1;
+    private int rowsInLast;
+    private double lastElapsed;
+    
+    SeriesBuffer(int capacity) {
+        // An even capacity, so points merge in whole pairs
+        capacity += capacity % 2;
+        start = new double[capacity];
+        seconds = new double[capacity];
+        requests = new long[capacity];
+        successes = new long[capacity];
+        failures = new long[capacity];
+        p50Weighted = new double[capacity];
+        p90 = new double[capacity];
+        p99 = new double[capacity];
+        max = new double[capacity];
+    }
+    
+    void add(IntervalStats row) {
+        double length = row.getElapsedSeconds() - lastElapsed;
+        if (size == 0 || rowsInLast == rowsPerPoint) {
+            if (size == start.length) {
+                compact();
+            }
+            start[size] = lastElapsed;
+            size++;
+            rowsInLast = 0;
+        }
+        int point = size - 1;
+        seconds[point] += length;
+        requests[point] += row.getRequests();
+        successes[point] += row.getSuccesses();
+        failures[point] += row.getFailures();
+        p50Weighted[point] += row.getP50Ms() * row.getSuccesses();
+        p90[point] = Math.max(p90[point], row.getP90Ms());
+        p99[point] = Math.max(p99[point], row.getP99Ms());
+        max[point] = Math.max(max[point], row.getMaxMs());
+        rowsInLast++;
+        lastElapsed = row.getElapsedSeconds();
+    }
+    
+    private void compact() {
+        int half = size / 2;
+        for (int i = 0; i < half; i++) {
+            int a = 2 * i;
+            int b = a + 1;
+            start[i] = start[a];
+            seconds[i] = seconds[a] + seconds[b];
+            requests[i] = requests[a] + requests[b];
+            successes[i] = successes[a] + successes[b];
+            failures[i] = failures[a] + failures[b];
+            p50Weighted[i] = p50Weighted[a] + p50Weighted[b];
+            p90[i] = Math.max(p90[a], p90[b]);
+            p99[i] = Math.max(p99[a], p99[b]);
+            max[i] = Math.max(max[a], max[b]);
+        }
+        for (int i = half; i < size; i++) {
+            seconds[i] = 0;
+            requests[i] = 0;
+            successes[i] = 0;
+            failures[i] = 0;
+            p50Weighted[i] = 0;
+            p90[i] = 0;
+            p99[i] = 0;
+            max[i] = 0;
+        }
+        size = half;
+        rowsPerPoint *= 2;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    // Seconds since the start at the end of each point
+    double[] time() {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = start[i] + seconds[i];
+        }
+        return values;
+    }
+    
+    double[] throughput() {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = seconds[i] > 0 ? requests[i] / seconds[i] : 0;
+        }
+        return values;
+    }
+    
+    double[] failureRate() {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = seconds[i] > 0 ? failures[i] / seconds[i] : 0;
+        }
+        return values;
+    }
+    
+    // NaN where nothing succeeded, which leaves a gap in the line
+    double[] p50() {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = successes[i] > 0 ? p50Weighted[i] / successes[i] : Double.NaN;
+        }
+        return values;
+    }
+    
+    double[] p90() {
+        return latency(p90);
+    }
+    
+    double[] p99() {
+        return latency(p99);
+    }
+    
+    double[] max() {
+        return latency(max);
+    }
+    
+    long totalFailures() {
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            total += failures[i];
+        }
+        return total;
+    }
+    
+    private double[] latency(double[] source) {
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = successes[i] > 0 ? source[i] : Double.NaN;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,168 @@
+package com.his.project.loadtest.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.DoubleFunction;
+
+// Line chart rendered as inline SVG, so the report needs no scripts or network access to show it.
+// NaN values leave a gap in their line.
+class SvgChart {
+    private static final String[] COLORS = {
+        "#1f77b4", "#d62728", "#2ca02c", "#ff7f0e", "#9467bd", "#8c564b", "#e377c2", "#17becf"
+    };
+    private static final int WIDTH = 960;
+    private static final int HEIGHT = 300;
+    private static final int LEFT = 70;
+    private static final int RIGHT = 190; // Legend
+    private static final int TOP = 30;
+    private static final int BOTTOM = 45;
+    
+    private final String title;
+    private final String xLabel;
+    private final String yLabel;
+    private final List<Line> lines = new ArrayList<>();
+    private DoubleFunction<String> xFormat = SvgChart::number;
+    private double[] xTicks;
+    
+    private static final class Line {
+        final String name;
+        final double[] x;
+        final double[] y;
+        
+        Line(String name, double[] x, double[] y) {
+            this.name = name;
+            this.x = x;
+            this.y = y;
+        }
+    }
+    
+    SvgChart(String title, String xLabel, String yLabel) {
+        this.title = title;
+        this.xLabel = xLabel;
+        this.yLabel = yLabel;
+    }
+    
+    void addLine(String name, double[] x, double[] y) {
+        lines.add(new Line(name, x, y));
+    }
+    
+    // Fixed ticks and their labels instead of evenly spaced numbers
+    void setXTicks(double[] ticks, DoubleFunction<String> format) {
+        this.xTicks = ticks;
+        this.xFormat = format;
+    }
+    
+    boolean isEmpty() {
+        for (Line line : lines) {
+            if (line.x.length > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    void write(Writer out) throws IOException {
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = 0;
+        for (Line line : lines) {
+            for (int i = 0; i < line.x.length; i++) {
+                minX = Math.min(minX, line.x[i]);
+                maxX = Math.max(maxX, line.x[i]);
+                if (!Double.isNaN(line.y[i])) {
+                    maxY = Math.max(maxY, line.y[i]);
+                }
+            }
+        }
+        if (minX > maxX) {
+            return;
+        }
+        if (maxX == minX) {
+            maxX = minX + 1;
+        }
+        double yStep = step(maxY > 0 ? maxY : 1);
+        maxY = Math.ceil((maxY > 0 ? maxY : 1) / yStep) * yStep;
+        double plotWidth = WIDTH - LEFT - RIGHT;
+        double plotHeight = HEIGHT - TOP - BOTTOM;
+        
+        out.write("<svg class=\"chart\" viewBox=\"0 0 " + WIDTH + " " + HEIGHT + "\" xmlns=\"http://www.w3.org/2000/svg\">\n");
+        out.write("<text x=\"" + LEFT + "\" y=\"18\" class=\"title\">" + ReportWriter.escape(title) + "</text>\n");
+        // Axes with grid lines
+        for (double y = 0; y <= maxY + yStep / 2; y += yStep) {
+            double py = TOP + plotHeight - y / maxY * plotHeight;
+            out.write(String.format(Locale.ROOT, "<line x1=\"%d\" y1=\"%.1f\" x2=\"%.1f\" y2=\"%.1f\" class=\"grid\"/>"
+                + "<text x=\"%d\" y=\"%.1f\" class=\"tick\" text-anchor=\"end\">%s</text>\n",
+                LEFT, py, LEFT + plotWidth, py, LEFT - 6, py + 4, number(y)));
+        }
+        double[] ticks = xTicks != null ? xTicks : ticks(minX, maxX);
+        for (double x : ticks) {
+            if (x < minX || x > maxX) {
+                continue;
+            }
+            double px = LEFT + (x - minX) / (maxX - minX) * plotWidth;
+            out.write(String.format(Locale.ROOT, "<line x1=\"%.1f\" y1=\"%d\" x2=\"%.1f\" y2=\"%.1f\" class=\"grid\"/>"
+                + "<text x=\"%.1f\" y=\"%.1f\" class=\"tick\" text-anchor=\"middle\">%s</text>\n",
+                px, TOP, px, TOP + plotHeight, px, TOP + plotHeight + 16, ReportWriter.escape(xFormat.apply(x))));
+        }
+        out.write(String.format(Locale.ROOT, "<text x=\"%.1f\" y=\"%d\" class=\"label\" text-anchor=\"middle\">%s</text>\n",
+            LEFT + plotWidth / 2, HEIGHT - 6, ReportWriter.escape(xLabel)));
+        out.write(String.format(Locale.ROOT, "<text x=\"14\" y=\"%.1f\" class=\"label\" text-anchor=\"middle\" "
+            + "transform=\"rotate(-90 14 %.1f)\">%s</text>\n", TOP + plotHeight / 2, TOP + plotHeight / 2, ReportWriter.escape(yLabel)));
+        
+        for (int l = 0; l < lines.size(); l++) {
+            Line line = lines.get(l);
+            String color = COLORS[l % COLORS.length];
+            StringBuilder points = new StringBuilder();
+            for (int i = 0; i <= line.x.length; i++) {
+                if (i == line.x.length || Double.isNaN(line.y[i])) {
+                    polyline(out, points, color);
+                    continue;
+                }
+                double px = LEFT + (line.x[i] - minX) / (maxX - minX) * plotWidth;
+                double py = TOP + plotHeight - line.y[i] / maxY * plotHeight;
+                points.append(String.format(Locale.ROOT, "%.1f,%.1f ", px, py));
+            }
+            double ly = TOP + 10 + l * 18;
+            out.write(String.format(Locale.ROOT, "<rect x=\"%d\" y=\"%.1f\" width=\"12\" height=\"4\" fill=\"%s\"/>"
+                + "<text x=\"%d\" y=\"%.1f\" class=\"legend\">%s</text>\n",
+                WIDTH - RIGHT + 12, ly - 4, color, WIDTH - RIGHT + 30, ly + 1, ReportWriter.escape(line.name)));
+        }
+        out.write("</svg>\n");
+    }
+    
+    private static void polyline(Writer out, StringBuilder points, String color) throws IOException {
+        if (points.length() == 0) {
+            return;
+        }
+        out.write("<polyline fill=\"none\" stroke=\"" + color + "\" stroke-width=\"1.5\" points=\"" + points + "\"/>\n");
+        points.setLength(0);
+    }
+    
+    // Five or so round-numbered ticks across the range
+    private static double[] ticks(double min, double max) {
+        double step = step(max - min);
+        List<Double> ticks = new ArrayList<>();
+        for (double tick = Math.ceil(min / step) * step; tick <= max; tick += step) {
+            ticks.add(tick);
+        }
+        return ticks.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+    
+    // 1, 2 or 5 times a power of ten, giving about five steps over the range
+    private static double step(double range) {
+        double rough = range / 5;
+        double magnitude = Math.pow(10, Math.floor(Math.log10(rough)));
+        double fraction = rough / magnitude;
+        return (fraction <= 1 ? 1 : fraction <= 2 ? 2 : fraction <= 5 ? 5 : 10) * magnitude;
+    }
+    
+    static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return String.valueOf((long) value);
+        }
+        return String.format(Locale.ROOT, Math.abs(value) >= 10 ? "%.1f" : "%.3g", value);
+    }
+}
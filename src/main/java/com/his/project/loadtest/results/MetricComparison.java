@@ -0,0 +1,75 @@
+package com.his.project.loadtest.results;
+
+// One metric of one endpoint in the baseline and the compared run
+public class MetricComparison {
+    private String endpoint;
+    private String metric; // throughput, p50, p99, ... or errors
+    private String unit;
+    private double baseline;
+    private double candidate;
+    private double deltaPercent; // Relative to the baseline; infinite when the baseline was 0
+    private double pValue; // NaN = too little data to test
+    private String test; // What the p-value was computed over
+    private Verdict verdict;
+    
+    public MetricComparison(String endpoint, String metric, String unit, double baseline, double candidate) {
+        this.endpoint = endpoint;
+        this.metric = metric;
+        this.unit = unit;
+        this.baseline = baseline;
+        this.candidate = candidate;
+        if (baseline == candidate) {
+            this.deltaPercent = 0;
+        } else {
+            this.deltaPercent = baseline == 0 ? Double.POSITIVE_INFINITY : (candidate - baseline) * 100 / baseline;
+        }
+    }
+    
+    public String getEndpoint() {
+        return endpoint;
+    }
+    
+    public String getMetric() {
+        return metric;
+    }
+    
+    public String getUnit() {
+        return unit;
+    }
+    
+    public double getBaseline() {
+        return baseline;
+    }
+    
+    public double getCandidate() {
+        return candidate;
+    }
+    
+    public double getDeltaPercent() {
+        return deltaPercent;
+    }
+    
+    public double getPValue() {
+        return pValue;
+    }
+    
+    public void setPValue(double pValue) {
+        this.pValue = pValue;
+    }
+    
+    public String getTest() {
+        return test;
+    }
+    
+    public void setTest(String test) {
+        this.test = test;
+    }
+    
+    public Verdict getVerdict() {
+        return verdict;
+    }
+    
+    public void setVerdict(Verdict verdict) {
+        this.verdict = verdict;
+    }
+}
@@ -0,0 +1,178 @@
+package com.his.project.loadtest.results;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.IntervalStats;
+import com.his.project.loadtest.service.IntervalReporter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+// Compares a run against a baseline run endpoint by endpoint: throughput, error rate and latency
+// percentiles. A change counts only when it is both larger than the threshold and significant.
+// Every run varies from second to second, so where both runs have enough report intervals a metric
+// is tested over its per-interval values (throughput, p50, p90, p99), which carries that variation.
+// Otherwise latency is tested over all samples straight from the histogram buckets, and the error
+// rate over all requests; all of it works on saved histograms and interval rows, so the cost does
+// not grow with the number of requests the runs made.
+public class RunComparison {
+    public static final double DEFAULT_THRESHOLD_PERCENT = 5;
+    public static final double DEFAULT_ALPHA = 0.01;
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+    private static final int MIN_INTERVALS = 5;
+    // Settings that name output files rather than shape the load
+    private static final Set<String> NOT_COMPARED = Set.of("resultFile", "resultLabel", "reportFile");
+    private static final Gson GSON = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+    
+    private final double thresholdPercent;
+    private final double alpha;
+    
+    public RunComparison(double thresholdPercent, double alpha) {
+        this.thresholdPercent = thresholdPercent;
+        this.alpha = alpha;
+    }
+    
+    // Every endpoint of the baseline also in the compared run, then all endpoints together
+    public List<MetricComparison> compare(RunRecord baseline, RunRecord candidate) {
+        Map<String, EndpointStats> before = baseline.getEndpointStats();
+        Map<String, EndpointStats> after = candidate.getEndpointStats();
+        List<MetricComparison> rows = new ArrayList<>();
+        for (Map.Entry<String, EndpointStats> entry : before.entrySet()) {
+            EndpointStats stats = after.get(entry.getKey());
+            if (stats != null) {
+                compare(entry.getKey(), entry.getValue(), stats, baseline, candidate, rows);
+            }
+        }
+        if (before.size() > 1 && after.size() > 1) {
+            compare(IntervalReporter.ALL_ENDPOINTS, RunRecord.total(before), RunRecord.total(after), baseline, candidate, rows);
+        }
+        return rows;
+    }
+    
+    private void compare(String endpoint, EndpointStats before, EndpointStats after,
+                         RunRecord baseline, RunRecord candidate, List<MetricComparison> rows) {
+        MetricComparison throughput = new MetricComparison(endpoint, "throughput", "req/s",
+            before.getRequestCount() / baseline.getDurationSeconds(), after.getRequestCount() / candidate.getDurationSeconds());
+        test(throughput, series(baseline, endpoint, false, IntervalStats::getThroughput),
+            series(candidate, endpoint, false, IntervalStats::getThroughput));
+        judge(throughput, false);
+        rows.add(throughput);
+        
+        MetricComparison errors = new MetricComparison(endpoint, "errors", "%",
+            errorRate(before), errorRate(after));
+        errors.setPValue(Significance.proportions(before.getFailedCount(), before.getRequestCount(),
+            after.getFailedCount(), after.getRequestCount()));
+        errors.setTest("requests");
+        judge(errors, true);
+        rows.add(errors);
+        
+        if (before.getSuccessCount() == 0 || after.getSuccessCount() == 0) {
+            return;
+        }
+        for (double percentile : PERCENTILES) {
+            MetricComparison latency = new MetricComparison(endpoint, percentileName(percentile), "ms",
+                before.getPercentile(percentile), after.getPercentile(percentile));
+            ToDoubleFunction<IntervalStats> column = intervalColumn(percentile);
+            if (column == null || !test(latency, series(baseline, endpoint, true, column), series(candidate, endpoint, true, column))) {
+                // The median by the shift of the whole distribution, the tail by the share of
+                // requests slower than the baseline's percentile
+                LatencyHistogram times = before.getResponseTimes();
+                latency.setPValue(percentile <= 50.0 ? Significance.mannWhitney(times, after.getResponseTimes())
+                    : Significance.exceedances(times, after.getResponseTimes(), times.getValueAtPercentile(percentile)));
+                latency.setTest("samples");
+            }
+            judge(latency, true);
+            rows.add(latency);
+        }
+    }
+    
+    // Tests over the interval values when both runs have enough of them
+    private boolean test(MetricComparison row, double[] before, double[] after) {
+        if (before.length < MIN_INTERVALS || after.length < MIN_INTERVALS) {
+            row.setPValue(Double.NaN);
+            row.setTest("-");
+            return false;
+        }
+        row.setPValue(Significance.mannWhitney(before, after));
+        row.setTest("intervals");
+        return true;
+    }
+    
+    // Beyond the threshold without a test to back it is still reported: it cannot be ruled out
+    private void judge(MetricComparison row, boolean higherIsWorse) {
+        double delta = row.getDeltaPercent();
+        if (Math.abs(delta) < thresholdPercent) {
+            row.setVerdict(Verdict.SAME);
+        } else if (row.getPValue() >= alpha) {
+            row.setVerdict(Verdict.NOISE);
+        } else {
+            row.setVerdict(higherIsWorse == delta > 0 ? Verdict.REGRESSION : Verdict.IMPROVEMENT);
+        }
+    }
+    
+    // One value per report interval of the endpoint, leaving out the final, partial interval
+    // (and for latency the intervals in which nothing succeeded)
+    private static double[] series(RunRecord record, String endpoint, boolean latency, ToDoubleFunction<IntervalStats> column) {
+        List<IntervalStats> rows = new ArrayList<>();
+        for (IntervalStats row : record.getIntervals()) {
+            if (endpoint.equals(row.getEndpoint())) {
+                rows.add(row);
+            }
+        }
+        if (!rows.isEmpty()) {
+            rows.remove(rows.size() - 1);
+        }
+        return rows.stream().filter(row -> !latency || row.getSuccesses() > 0).mapToDouble(column).toArray();
+    }
+    
+    private static ToDoubleFunction<IntervalStats> intervalColumn(double percentile) {
+        if (percentile == 50.0) {
+            return IntervalStats::getP50Ms;
+        }
+        if (percentile == 90.0) {
+            return IntervalStats::getP90Ms;
+        }
+        if (percentile == 99.0) {
+            return IntervalStats::getP99Ms;
+        }
+        return null;
+    }
+    
+    private static double errorRate(EndpointStats stats) {
+        return stats.getRequestCount() == 0 ? 0 : stats.getFailedCount() * 100.0 / stats.getRequestCount();
+    }
+    
+    private static String percentileName(double percentile) {
+        return "p" + (percentile == Math.floor(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile));
+    }
+    
+    // Top-level settings that differ between two runs' configs or environments, as "name: before -> after"
+    public static List<String> differences(Object before, Object after) {
+        JsonObject left = before != null ? GSON.toJsonTree(before).getAsJsonObject() : new JsonObject();
+        JsonObject right = after != null ? GSON.toJsonTree(after).getAsJsonObject() : new JsonObject();
+        Set<String> names = new LinkedHashSet<>(left.keySet());
+        names.addAll(right.keySet());
+        List<String> differences = new ArrayList<>();
+        for (String name : names) {
+            JsonElement a = left.get(name);
+            JsonElement b = right.get(name);
+            if (!NOT_COMPARED.contains(name) && (a == null ? b != null : !a.equals(b))) {
+                differences.add(name + ": " + shorten(a) + " -> " + shorten(b));
+            }
+        }
+        return differences;
+    }
+    
+    private static String shorten(JsonElement value) {
+        String text = value == null ? "-" : value.toString();
+        return text.length() > 60 ? text.substring(0, 57) + "..." : text;
+    }
+}
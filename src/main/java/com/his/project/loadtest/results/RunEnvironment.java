@@ -0,0 +1,86 @@
+package com.his.project.loadtest.results;
+
+import java.net.InetAddress;
+
+// Machine and JVM a run was generated from; two runs compare fairly only on comparable machines
+public class RunEnvironment {
+    private String host;
+    private String os;
+    private String arch;
+    private int cpus;
+    private long maxHeapMb;
+    private String javaVersion;
+    private String javaVm;
+    
+    public static RunEnvironment current() {
+        RunEnvironment environment = new RunEnvironment();
+        try {
+            environment.host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            environment.host = "unknown";
+        }
+        environment.os = System.getProperty("os.name") + " " + System.getProperty("os.version");
+        environment.arch = System.getProperty("os.arch");
+        environment.cpus = Runtime.getRuntime().availableProcessors();
+        environment.maxHeapMb = Runtime.getRuntime().maxMemory() / (1024 * 1024);
+        environment.javaVersion = System.getProperty("java.version");
+        environment.javaVm = System.getProperty("java.vm.name");
+        return environment;
+    }
+    
+    public String getHost() {
+        return host;
+    }
+    
+    public void setHost(String host) {
+        this.host = host;
+    }
+    
+    public String getOs() {
+        return os;
+    }
+    
+    public void setOs(String os) {
+        this.os = os;
+    }
+    
+    public String getArch() {
+        return arch;
+    }
+    
+    public void setArch(String arch) {
+        this.arch = arch;
+    }
+    
+    public int getCpus() {
+        return cpus;
+    }
+    
+    public void setCpus(int cpus) {
+        this.cpus = cpus;
+    }
+    
+    public long getMaxHeapMb() {
+        return maxHeapMb;
+    }
+    
+    public void setMaxHeapMb(long maxHeapMb) {
+        this.maxHeapMb = maxHeapMb;
+    }
+    
+    public String getJavaVersion() {
+        return javaVersion;
+    }
+    
+    public void setJavaVersion(String javaVersion) {
+        this.javaVersion = javaVersion;
+    }
+    
+    public String getJavaVm() {
+        return javaVm;
+    }
+    
+    public void setJavaVm(String javaVm) {
+        this.javaVm = javaVm;
+    }
+}
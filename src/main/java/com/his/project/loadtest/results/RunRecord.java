@@ -0,0 +1,120 @@
+package com.his.project.loadtest.results;
+
+import com.his.project.loadtest.distributed.WorkerResult;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.IntervalStats;
+import com.his.project.loadtest.model.TestConfig;
+import com.his.project.loadtest.model.TestResult;
+import com.his.project.loadtest.model.ThresholdResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Saved form of one run: what was run (config), where (environment) and what came out. The result
+// keeps the per-endpoint histograms bucket by bucket in the same encoding workers report in, so
+// the file stays a few kilobytes per endpoint however many requests the run made, and percentiles
+// read back from it are exactly those the run printed.
+public class RunRecord {
+    public static final int VERSION = 1;
+    
+    private int version = VERSION;
+    private String label;
+    private long startEpochMillis;
+    private RunEnvironment environment;
+    private TestConfig config;
+    private WorkerResult result;
+    private List<IntervalStats> intervals = new ArrayList<>();
+    private List<ThresholdResult> thresholdResults = new ArrayList<>();
+    private String abortReason;
+    
+    public static RunRecord of(TestConfig config, TestResult result) {
+        RunRecord record = new RunRecord();
+        record.label = config.getResultLabel();
+        record.startEpochMillis = System.currentTimeMillis() - result.getDurationMs();
+        record.environment = RunEnvironment.current();
+        record.config = config;
+        record.result = WorkerResult.from(result);
+        record.intervals = result.getIntervals();
+        record.thresholdResults = result.getThresholdResults();
+        record.abortReason = result.getAbortReason();
+        return record;
+    }
+    
+    // Per-endpoint statistics rebuilt from the saved histograms, in the order the run reported them
+    public Map<String, EndpointStats> getEndpointStats() {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        result.getEndpoints().forEach((endpoint, report) -> stats.put(endpoint, report.toStats()));
+        return stats;
+    }
+    
+    // Whole-journey statistics of a JOURNEY scenario; empty for other runs (and older files)
+    public Map<String, EndpointStats> getTransactionStats() {
+        Map<String, EndpointStats> stats = new LinkedHashMap<>();
+        if (result.getTransactions() != null) {
+            result.getTransactions().forEach((journey, report) -> stats.put(journey, report.toStats()));
+        }
+        return stats;
+    }
+    
+    // All endpoints together; null when the run recorded none
+    public static EndpointStats total(Map<String, EndpointStats> endpoints) {
+        EndpointStats total = null;
+        for (EndpointStats stats : endpoints.values()) {
+            if (total == null) {
+                total = new EndpointStats(stats.getResponseTimes().getSignificantDigits());
+            }
+            total.merge(stats);
+        }
+        return total;
+    }
+    
+    public double getDurationSeconds() {
+        return result.getDurationMs() / 1000.0;
+    }
+    
+    public long getTotalRequests() {
+        return result.getTotalRequests();
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+    
+    public void setLabel(String label) {
+        this.label = label;
+    }
+    
+    public long getStartEpochMillis() {
+        return startEpochMillis;
+    }
+    
+    public RunEnvironment getEnvironment() {
+        return environment;
+    }
+    
+    public TestConfig getConfig() {
+        return config;
+    }
+    
+    public WorkerResult getResult() {
+        return result;
+    }
+    
+    public List<IntervalStats> getIntervals() {
+        return intervals;
+    }
+    
+    public List<ThresholdResult> getThresholdResults() {
+        return thresholdResults;
+    }
+    
+    public String getAbortReason() {
+        return abortReason;
+    }
+}
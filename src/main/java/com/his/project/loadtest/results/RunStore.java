@@ -0,0 +1,70 @@
+package com.his.project.loadtest.results;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Reads and writes run records as JSON, gzipped when the file name ends in .gz. Loading detects
+// gzip by its magic bytes, so a renamed file still reads.
+public final class RunStore {
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    // Thresholds judged over no requests keep their NaN
+    private static final Gson GSON = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+    
+    private RunStore() {
+    }
+    
+    // Saves to the file, or to run-<time>.json.gz inside it when it is a directory; returns the path written
+    public static Path save(RunRecord record, String target) throws IOException {
+        Path path = Path.of(target);
+        if (Files.isDirectory(path)) {
+            path = path.resolve("run-" + LocalDateTime.now().format(FILE_TIME) + ".json.gz");
+        }
+        OutputStream out = Files.newOutputStream(path);
+        if (path.getFileName().toString().toLowerCase().endsWith(".gz")) {
+            out = new GZIPOutputStream(out, 64 * 1024);
+        }
+        try (Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8)) {
+            GSON.toJson(record, writer);
+        }
+        return path;
+    }
+    
+    public static RunRecord load(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024);
+        in.mark(2);
+        int magic = in.read() | (in.read() << 8);
+        in.reset();
+        if (magic == GZIPInputStream.GZIP_MAGIC) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            RunRecord record = GSON.fromJson(reader, RunRecord.class);
+            if (record == null || record.getResult() == null) {
+                throw new IOException("not a saved run result");
+            }
+            if (record.getVersion() > RunRecord.VERSION) {
+                throw new IOException("saved by a newer version (format " + record.getVersion() + ")");
+            }
+            return record;
+        } catch (JsonParseException e) {
+            throw new IOException("not a saved run result (" + e.getMessage() + ")", e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.his.project.loadtest.results;
+
+import com.his.project.loadtest.metrics.LatencyHistogram;
+
+import java.util.Arrays;
+
+// Two-sided significance tests used to tell a real change between two runs from noise. All return
+// a p-value: the chance of seeing a difference at least this large if both runs came from the same
+// distribution. NaN means there is too little data to test.
+public final class Significance {
+    private static final int MIN_SAMPLES = 3;
+    
+    private Significance() {
+    }
+    
+    // Mann-Whitney U over every recorded sample, computed from the histogram buckets: each bucket is
+    // one group of tied values ranked at its midrank, so the cost depends on the number of buckets,
+    // never on the number of samples. Histograms of different precision are first brought to the
+    // coarser layout of the two.
+    public static double mannWhitney(LatencyHistogram a, LatencyHistogram b) {
+        long n1 = a.getTotalCount();
+        long n2 = b.getTotalCount();
+        if (n1 < MIN_SAMPLES || n2 < MIN_SAMPLES) {
+            return Double.NaN;
+        }
+        int digits = Math.min(a.getSignificantDigits(), b.getSignificantDigits());
+        long highest = Math.max(a.getHighestTrackableValue(), b.getHighestTrackableValue());
+        a = inLayout(a, digits, highest);
+        b = inLayout(b, digits, highest);
+        double rank = 0;
+        double rankSumA = 0;
+        double ties = 0;
+        for (int i = 0; i < a.getBucketLength(); i++) {
+            long countA = a.getCountAtIndex(i);
+            long countB = b.getCountAtIndex(i);
+            double tied = countA + countB;
+            if (tied == 0) {
+                continue;
+            }
+            rankSumA += countA * (rank + (tied + 1) / 2);
+            ties += tied * tied * tied - tied;
+            rank += tied;
+        }
+        return uTest(rankSumA, n1, n2, ties);
+    }
+    
+    // Whether the share of samples above a value differs, e.g. above the baseline's p99.9, which is
+    // about 0.1% of either run if nothing changed. Sensitive to the tail alone, where a shift of the
+    // whole distribution (Mann-Whitney) says little; also computed from the buckets.
+    public static double exceedances(LatencyHistogram a, LatencyHistogram b, long value) {
+        return proportions(countAbove(a, value), a.getTotalCount(), countAbove(b, value), b.getTotalCount());
+    }
+    
+    // Mann-Whitney U over two small sets of values, e.g. the per-interval throughput of two runs
+    public static double mannWhitney(double[] a, double[] b) {
+        if (a.length < MIN_SAMPLES || b.length < MIN_SAMPLES) {
+            return Double.NaN;
+        }
+        double[] all = new double[a.length + b.length];
+        boolean[] fromA = new boolean[all.length];
+        Integer[] order = new Integer[all.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i < a.length ? a[i] : b[i - a.length];
+            fromA[i] = i < a.length;
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Double.compare(all[x], all[y]));
+        double rankSumA = 0;
+        double ties = 0;
+        int start = 0;
+        while (start < order.length) {
+            int end = start;
+            while (end + 1 < order.length && all[order[end + 1]] == all[order[start]]) {
+                end++;
+            }
+            double tied = end - start + 1;
+            double midrank = (start + end) / 2.0 + 1;
+            for (int i = start; i <= end; i++) {
+                if (fromA[order[i]]) {
+                    rankSumA += midrank;
+                }
+            }
+            ties += tied * tied * tied - tied;
+            start = end + 1;
+        }
+        return uTest(rankSumA, a.length, b.length, ties);
+    }
+    
+    // Two-proportion z-test, e.g. of the error rates of two runs
+    public static double proportions(long hitsA, long totalA, long hitsB, long totalB) {
+        if (totalA == 0 || totalB == 0) {
+            return Double.NaN;
+        }
+        double pooled = (double) (hitsA + hitsB) / (totalA + totalB);
+        double variance = pooled * (1 - pooled) * (1.0 / totalA + 1.0 / totalB);
+        if (variance == 0) {
+            return 1.0;
+        }
+        double z = ((double) hitsA / totalA - (double) hitsB / totalB) / Math.sqrt(variance);
+        return twoSided(z);
+    }
+    
+    // Normal approximation of U with the tie correction; sound from about eight values per side
+    private static double uTest(double rankSumA, double n1, double n2, double ties) {
+        double n = n1 + n2;
+        double u = rankSumA - n1 * (n1 + 1) / 2;
+        double variance = n1 * n2 / 12 * ((n + 1) - ties / (n * (n - 1)));
+        if (variance <= 0) {
+            // Every value tied: nothing tells the runs apart
+            return 1.0;
+        }
+        return twoSided((u - n1 * n2 / 2) / Math.sqrt(variance));
+    }
+    
+    private static double twoSided(double z) {
+        return Math.min(1.0, erfc(Math.abs(z) / Math.sqrt(2)));
+    }
+    
+    // Complementary error function by Chebyshev fitting (Numerical Recipes), relative error < 1.2e-7
+    private static double erfc(double x) {
+        double t = 1 / (1 + 0.5 * Math.abs(x));
+        double y = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+            + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+            + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? y : 2 - y;
+    }
+    
+    private static long countAbove(LatencyHistogram histogram, long value) {
+        long count = 0;
+        for (int i = histogram.getBucketLength() - 1; i >= 0 && histogram.valueFromIndex(i) > value; i--) {
+            count += histogram.getCountAtIndex(i);
+        }
+        return count;
+    }
+    
+    private static LatencyHistogram inLayout(LatencyHistogram histogram, int digits, long highest) {
+        if (histogram.getSignificantDigits() == digits && histogram.getHighestTrackableValue() == highest) {
+            return histogram;
+        }
+        LatencyHistogram copy = new LatencyHistogram(digits, highest);
+        for (int i = 0; i < histogram.getBucketLength(); i++) {
+            long count = histogram.getCountAtIndex(i);
+            if (count > 0) {
+                copy.recordValue(histogram.valueFromIndex(i), count);
+            }
+        }
+        return copy;
+    }
+}
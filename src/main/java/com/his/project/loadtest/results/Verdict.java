@@ -0,0 +1,18 @@
+package com.his.project.loadtest.results;
+
+public enum Verdict {
+    REGRESSION("REGRESSION"), // Worse by more than the threshold and significant
+    IMPROVEMENT("improved"),  // Better by more than the threshold and significant
+    NOISE("noise"),           // Changed by more than the threshold, but within run-to-run variation
+    SAME("same");             // Changed by less than the threshold
+    
+    private final String label;
+    
+    Verdict(String label) {
+        this.label = label;
+    }
+    
+    public String getLabel() {
+        return label;
+    }
+}
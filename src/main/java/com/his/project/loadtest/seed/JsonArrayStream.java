@@ -0,0 +1,51 @@
+package com.his.project.loadtest.seed;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Reads the objects of a top-level JSON array one at a time, so files of any size can be seeded
+// without loading them into memory
+public class JsonArrayStream implements Iterator<Map<String, Object>>, Closeable {
+    private static final Type RECORD_TYPE = new TypeToken<Map<String, Object>>(){}.getType();
+    
+    private final Gson gson;
+    private final JsonReader reader;
+    
+    public JsonArrayStream(Reader source, Gson gson) throws IOException {
+        this.gson = gson;
+        this.reader = new JsonReader(source);
+        reader.beginArray();
+    }
+    
+    @Override
+    public boolean hasNext() {
+        try {
+            return reader.hasNext();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public Map<String, Object> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return gson.fromJson(reader, RECORD_TYPE);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,31 @@
+package com.his.project.loadtest.seed;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Spaces requests evenly at a target rate across all callers: each acquire() reserves the next
+// free slot on a shared timeline and parks until it. Idle time is not banked, so a pause is
+// never followed by a burst above the rate.
+public class RateLimiter {
+    private final long intervalNanos;
+    private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+    
+    public RateLimiter(double ratePerSecond) {
+        this.intervalNanos = ratePerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond) : 0;
+    }
+    
+    public void acquire() throws InterruptedException {
+        if (intervalNanos == 0) {
+            return;
+        }
+        long slot = nextSlot.getAndUpdate(next -> Math.max(next, System.nanoTime()) + intervalNanos);
+        long wait;
+        while ((wait = slot - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.his.project.loadtest.seed;
+
+public class SeedConfig {
+    private int concurrency = 16; // Workers per phase
+    private double ratePerSecond = 0; // Requests per second across all phases (0 = unlimited)
+    private int productCount = 1000; // Generated products when no products file is given
+    private String productsFile = null; // JSON array of products to load instead of generated ones
+    private int queueCapacity = 1024; // Records buffered between a phase's reader and its workers
+    private int maxRetries = 3; // Retries of transient failures (no response, 429, 5xx)
+    private long retryBackoffMs = 200; // First retry delay; doubles per attempt, with jitter
+    private int inventoryQuantity = 100;
+    private int progressIntervalSeconds = 2;
+    
+    public int getConcurrency() {
+        return concurrency;
+    }
+    
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+    
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+    
+    public void setRatePerSecond(double ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+    
+    public int getProductCount() {
+        return productCount;
+    }
+    
+    public void setProductCount(int productCount) {
+        this.productCount = productCount;
+    }
+    
+    public String getProductsFile() {
+        return productsFile;
+    }
+    
+    public void setProductsFile(String productsFile) {
+        this.productsFile = productsFile;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+    
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+    
+    public long getRetryBackoffMs() {
+        return retryBackoffMs;
+    }
+    
+    public void setRetryBackoffMs(long retryBackoffMs) {
+        this.retryBackoffMs = retryBackoffMs;
+    }
+    
+    public int getInventoryQuantity() {
+        return inventoryQuantity;
+    }
+    
+    public void setInventoryQuantity(int inventoryQuantity) {
+        this.inventoryQuantity = inventoryQuantity;
+    }
+    
+    public int getProgressIntervalSeconds() {
+        return progressIntervalSeconds;
+    }
+    
+    public void setProgressIntervalSeconds(int progressIntervalSeconds) {
+        this.progressIntervalSeconds = progressIntervalSeconds;
+    }
+}
@@ -0,0 +1,194 @@
+package com.his.project.loadtest.seed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+// One seeding phase: records are submitted into a bounded queue (blocking the submitter when the
+// workers fall behind) and sent by a fixed set of worker threads, paced by a shared rate limiter.
+// Transient failures (no response, 429, 5xx) are retried with exponential backoff and jitter.
+// Successful records are handed to the listener, which is how a later phase is fed only with
+// records whose prerequisite exists.
+public class SeedPhase<T> {
+    private static final long MAX_BACKOFF_MS = 10_000;
+    private static final int MAX_REPORTED_FAILURES = 10;
+    // Marks the end of the input; one per worker
+    private static final Object END = new Object();
+    
+    private final String name;
+    private final SeedConfig config;
+    private final RateLimiter rateLimiter;
+    private final ToIntFunction<T> request; // Sends one record and returns the HTTP status (-1 = no response)
+    private final Function<T, String> label;
+    private final BlockingQueue<Object> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final AtomicInteger reportedFailures = new AtomicInteger();
+    private Consumer<T> onSuccess = record -> { };
+    private long expected = -1; // Known total for progress lines; -1 = unknown
+    private long startNanos;
+    private long endNanos;
+    
+    public SeedPhase(String name, SeedConfig config, RateLimiter rateLimiter, ToIntFunction<T> request, Function<T, String> label) {
+        this.name = name;
+        this.config = config;
+        this.rateLimiter = rateLimiter;
+        this.request = request;
+        this.label = label;
+        this.queue = new ArrayBlockingQueue<>(Math.max(config.getQueueCapacity(), 1));
+    }
+    
+    public void setOnSuccess(Consumer<T> onSuccess) {
+        this.onSuccess = onSuccess;
+    }
+    
+    public void setExpected(long expected) {
+        this.expected = expected;
+    }
+    
+    public void start() {
+        startNanos = System.nanoTime();
+        for (int i = 0; i < Math.max(config.getConcurrency(), 1); i++) {
+            Thread worker = new Thread(this::work, "seed-" + name + "-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+    
+    public void submit(T record) throws InterruptedException {
+        queue.put(record);
+        submitted.increment();
+    }
+    
+    // Signals that no more records will be submitted and waits for the workers to drain the queue
+    public void finish() throws InterruptedException {
+        for (int i = 0; i < workers.size(); i++) {
+            queue.put(END);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        endNanos = System.nanoTime();
+    }
+    
+    // Stops the workers without draining the queue, for when seeding fails part way; records still
+    // queued are dropped. Harmless after finish().
+    public void abort() throws InterruptedException {
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (endNanos == 0) {
+            endNanos = System.nanoTime();
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void work() {
+        try {
+            while (true) {
+                Object item = queue.take();
+                if (item == END) {
+                    return;
+                }
+                T record = (T) item;
+                if (send(record)) {
+                    succeeded.increment();
+                    onSuccess.accept(record);
+                } else {
+                    failed.increment();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private boolean send(T record) throws InterruptedException {
+        int status = -1;
+        for (int attempt = 0; attempt <= config.getMaxRetries(); attempt++) {
+            if (attempt > 0) {
+                retries.increment();
+                // Full jitter keeps retrying workers from hitting a recovering service in lockstep
+                long backoff = Math.min(config.getRetryBackoffMs() << Math.min(attempt - 1, 20), MAX_BACKOFF_MS);
+                Thread.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+            }
+            rateLimiter.acquire();
+            status = request.applyAsInt(record);
+            if (status >= 200 && status < 300) {
+                return true;
+            }
+            if (!isTransient(status)) {
+                break;
+            }
+        }
+        if (reportedFailures.incrementAndGet() <= MAX_REPORTED_FAILURES) {
+            System.err.println("  ✗ " + name + " failed: " + label.apply(record)
+                + (status < 0 ? " (no response)" : " (status " + status + ")"));
+        }
+        return false;
+    }
+    
+    private static boolean isTransient(int status) {
+        return status < 0 || status == 429 || status >= 500;
+    }
+    
+    public String progressLine() {
+        long done = succeeded.sum() + failed.sum();
+        String total = expected >= 0 ? "/" + expected : "";
+        return String.format("  [%s] %d%s done, %d ok, %d failed, %d retries, %.1f/s, queued %d",
+            name, done, total, succeeded.sum(), failed.sum(), retries.sum(), getThroughput(), queue.size());
+    }
+    
+    public String summaryLine() {
+        return String.format("  Summary: %d succeeded, %d failed, %d retries in %.1f s (%.1f/s)%s",
+            succeeded.sum(), failed.sum(), retries.sum(), getElapsedSeconds(), getThroughput(),
+            reportedFailures.get() > MAX_REPORTED_FAILURES ? ", first " + MAX_REPORTED_FAILURES + " failures shown" : "");
+    }
+    
+    public double getThroughput() {
+        double seconds = getElapsedSeconds();
+        return seconds > 0 ? (succeeded.sum() + failed.sum()) / seconds : 0.0;
+    }
+    
+    private double getElapsedSeconds() {
+        if (startNanos == 0) {
+            return 0.0;
+        }
+        long end = endNanos > 0 ? endNanos : System.nanoTime();
+        return (end - startNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+    
+    public boolean isRunning() {
+        return startNanos > 0 && endNanos == 0;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+    
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+    
+    public long getFailed() {
+        return failed.sum();
+    }
+}
@@ -0,0 +1,104 @@
+package com.his.project.loadtest.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongToDoubleFunction;
+
+// Issues requests for one endpoint on a fixed timeline (open model).
+// The n-th request is due when the integral of the rate since start reaches n, no matter how
+// long earlier requests took (start + n / rate for a constant rate), and the task receives that
+// intended send time so queueing delay is part of the latency (the caller measures the
+// dispatch lag from it as well).
+public class ArrivalScheduler implements Runnable {
+    // Integration step for time-varying rates; small enough to follow ramps closely
+    private static final long RATE_STEP_NANOS = 1_000_000;
+
+    private final LongToDoubleFunction rateAt;
+    private final long maxRequests;
+    private final long durationNanos;
+    private final long startNanos;
+    private final Executor executor;
+    private final LongConsumer task;
+
+    private volatile boolean stopped = false;
+
+    public ArrivalScheduler(String endpoint, double ratePerSecond, long maxRequests, long durationNanos,
+                            long startNanos, Executor executor, LongConsumer task) {
+        this(constant(endpoint, ratePerSecond), maxRequests, durationNanos, startNanos, executor, task);
+    }
+
+    // Time-varying rate: rateAt maps nanoseconds since start to requests per second (0 = pause)
+    public ArrivalScheduler(LongToDoubleFunction rateAt, long maxRequests, long durationNanos, long startNanos,
+                            Executor executor, LongConsumer task) {
+        this.rateAt = rateAt;
+        this.maxRequests = maxRequests;
+        this.durationNanos = durationNanos;
+        this.startNanos = startNanos;
+        this.executor = executor;
+        this.task = task;
+    }
+
+    @Override
+    public void run() {
+        double offsetNanos = rateAt.applyAsDouble(0) > 0 ? 0 : nextOffset(0);
+        for (long n = 0; !stopped; n++) {
+            if (maxRequests > 0 && n >= maxRequests) {
+                break;
+            }
+            long offset = (long) offsetNanos;
+            if (offsetNanos == Double.MAX_VALUE || (durationNanos > 0 && offset >= durationNanos)) {
+                break;
+            }
+            offsetNanos = nextOffset(offsetNanos);
+            long intended = startNanos + offset;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+                if (stopped) {
+                    return;
+                }
+            }
+            // A negative wait means we are already behind the plan; dispatch immediately
+            // and keep the original timestamp so the delay shows up in the latency.
+            try {
+                executor.execute(() -> task.accept(intended));
+            } catch (RejectedExecutionException e) {
+                break;
+            }
+        }
+    }
+
+    // Time at which one more request is due: integrates the rate forward from the previous send
+    private double nextOffset(double offsetNanos) {
+        double needed = 1.0;
+        double t = offsetNanos;
+        while (true) {
+            if (durationNanos > 0 && t >= durationNanos) {
+                return Double.MAX_VALUE;
+            }
+            double rate = rateAt.applyAsDouble((long) t);
+            double perStep = rate * RATE_STEP_NANOS / 1_000_000_000.0;
+            if (perStep >= needed) {
+                return t + needed / rate * 1_000_000_000.0;
+            }
+            if (durationNanos <= 0 && rate <= 0) {
+                return Double.MAX_VALUE;
+            }
+            needed -= perStep;
+            t += RATE_STEP_NANOS;
+        }
+    }
+
+    private static LongToDoubleFunction constant(String endpoint, double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate for " + endpoint + " must be positive: " + ratePerSecond);
+        }
+        return elapsed -> ratePerSecond;
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+}
@@ -0,0 +1,207 @@
+package com.his.project.loadtest.service;
+
+import com.google.gson.Gson;
+import com.his.project.loadtest.model.CapacityLevel;
+import com.his.project.loadtest.model.CapacityResult;
+import com.his.project.loadtest.model.CapacitySearchConfig;
+import com.his.project.loadtest.model.ConnectionReuse;
+import com.his.project.loadtest.model.LoadProfile;
+import com.his.project.loadtest.model.ProfileUnit;
+import com.his.project.loadtest.model.StageStats;
+import com.his.project.loadtest.model.StageTransition;
+import com.his.project.loadtest.model.TestConfig;
+import com.his.project.loadtest.model.TestResult;
+import com.his.project.loadtest.model.Threshold;
+import com.his.project.loadtest.model.ThresholdMetric;
+import com.his.project.loadtest.model.ThresholdResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Finds the highest request rate the services sustain within the SLO. Every level is its own
+// open-model run at one constant rate: a warm-up stage whose requests are left out, then a measured
+// stage judged against the latency and error-rate thresholds. The rate doubles from the start rate
+// until a level fails, then the gap between the highest passing and lowest failing rate is halved
+// until it is within the resolution or the level budget runs out.
+// Latency thresholds only see successful requests, so a level that fails most of its requests fast
+// could pass on latency alone. Levels are therefore always judged on the error rate over all
+// endpoints too: the user's threshold for it, or DEFAULT_ERROR_RATE_PERCENT without one.
+public class CapacitySearch {
+    private static final long DEFAULT_LEVEL_SECONDS = 10;
+    static final double DEFAULT_ERROR_RATE_PERCENT = 1.0;
+    
+    private final TestConfig config;
+    private final CapacitySearchConfig search;
+    private final List<Threshold> slo = new ArrayList<>();
+    private final long levelSeconds;
+    private final Gson gson = new Gson();
+    
+    public CapacitySearch(TestConfig config) {
+        this.config = config;
+        this.search = config.getCapacitySearch();
+        // Throughput thresholds would only restate the level's own rate
+        for (Threshold threshold : config.getThresholds()) {
+            if (threshold.getMetric() != ThresholdMetric.THROUGHPUT) {
+                slo.add(threshold);
+            }
+        }
+        if (slo.isEmpty()) {
+            throw new IllegalArgumentException("Capacity search needs a latency or error-rate --threshold to judge levels by");
+        }
+        boolean judgesErrors = false;
+        for (Threshold threshold : slo) {
+            judgesErrors |= threshold.getMetric() == ThresholdMetric.ERROR_RATE && threshold.getEndpoint() == null;
+        }
+        if (!judgesErrors) {
+            Threshold errors = new Threshold();
+            errors.setMetric(ThresholdMetric.ERROR_RATE);
+            errors.setLimit(DEFAULT_ERROR_RATE_PERCENT);
+            slo.add(errors);
+        }
+        if (config.getConnectionPool().getReuse() == ConnectionReuse.PER_USER) {
+            throw new IllegalArgumentException("Capacity search runs the open model, which cannot use per-user connections");
+        }
+        if (search.getStartRps() <= 0) {
+            throw new IllegalArgumentException("Capacity search start rate must be positive: " + search.getStartRps());
+        }
+        this.levelSeconds = config.getDurationSeconds() > 0 ? config.getDurationSeconds() : DEFAULT_LEVEL_SECONDS;
+    }
+    
+    public CapacityResult run() {
+        CapacityResult result = new CapacityResult();
+        double passed = 0;
+        double failed = 0;
+        double rate = search.getStartRps();
+        while (result.getLevels().size() < search.getMaxLevels()) {
+            CapacityLevel level = runLevel(result.getLevels().size() + 1, rate);
+            result.getLevels().add(level);
+            if (level.isSustained()) {
+                passed = Math.max(passed, rate);
+            } else {
+                failed = failed == 0 ? rate : Math.min(failed, rate);
+            }
+            if (failed == 0) {
+                // Still probing upwards
+                if (search.getMaxRps() > 0 && rate >= search.getMaxRps()) {
+                    break;
+                }
+                rate = search.getMaxRps() > 0 ? Math.min(rate * 2, search.getMaxRps()) : rate * 2;
+            } else {
+                if (failed - passed <= failed * search.getResolutionPercent() / 100) {
+                    break;
+                }
+                rate = (passed + failed) / 2;
+            }
+        }
+        result.setMaxSustainableRps(passed);
+        result.setFirstFailingRps(failed);
+        for (Threshold threshold : slo) {
+            if (threshold.getMetric() == ThresholdMetric.LATENCY) {
+                result.setKneePercentile(threshold.getPercentile());
+                break;
+            }
+        }
+        result.setKnee(findKnee(result.getLevelsByRate(), result.getKneePercentile()));
+        return result;
+    }
+    
+    // Runs and judges one level (overridden in tests)
+    CapacityLevel runLevel(int order, double rate) {
+        LoadProfile profile = new LoadProfile(ProfileUnit.RATE);
+        if (search.getWarmUpSeconds() > 0) {
+            profile.addStage("warm-up", search.getWarmUpSeconds(), rate, StageTransition.STEP);
+        }
+        profile.addStage("measured", levelSeconds, rate, StageTransition.STEP);
+        TestConfig levelConfig = baseConfig();
+        levelConfig.setLoadProfile(profile);
+        
+        System.out.println(String.format("Level %d: %.1f req/s, %d s warm-up + %d s measured",
+            order, rate, search.getWarmUpSeconds(), levelSeconds));
+        TestResult run = new LoadTestService(levelConfig).runLoadTest();
+        List<StageStats> stages = run.getStageStats();
+        
+        CapacityLevel level = new CapacityLevel();
+        level.setOrder(order);
+        level.setTargetRps(rate);
+        level.setMeasuredSeconds(levelSeconds);
+        level.setMeasured(stages.get(stages.size() - 1));
+        level.setMaxScheduleLagMs(run.getMaxScheduleLagMs());
+        judge(level);
+        StringBuilder breached = new StringBuilder();
+        for (ThresholdResult threshold : level.getThresholdResults()) {
+            if (!threshold.isPassed()) {
+                breached.append(breached.length() == 0 ? "" : ", ").append(threshold.getThreshold().describe());
+            }
+        }
+        System.out.println(String.format("  -> goodput %.1f req/s, p99 %.3f ms, errors %.2f%%: %s",
+            level.getGoodput(), level.getMeasured().getTotal().getPercentile(99.0),
+            level.getErrorRate(), level.isSustained() ? "PASS" : "FAIL (" + breached + ")"));
+        return level;
+    }
+    
+    // Checks a level's measured stage against every SLO threshold; it is sustained when all are met
+    void judge(CapacityLevel level) {
+        boolean sustained = true;
+        for (Threshold threshold : slo) {
+            double actual = SloGate.measure(threshold, level.getMeasured().getEndpointStats(), level.getMeasuredSeconds(),
+                config.getHistogramDigits());
+            boolean met = !Double.isNaN(actual) && threshold.isMet(actual);
+            level.getThresholdResults().add(new ThresholdResult(threshold, actual, met, false));
+            sustained &= met;
+        }
+        level.setSustained(sustained);
+    }
+    
+    // The thresholds levels are judged by, including the default error rate if it was added
+    public List<Threshold> getSlo() {
+        return slo;
+    }
+    
+    // Kneedle: with rate and latency both scaled to 0..1 over the levels tested, the knee is the
+    // level furthest below the straight line from the lowest to the highest level, i.e. the last
+    // point before latency grows faster than the rate. Needs three levels and a rising curve.
+    static CapacityLevel findKnee(List<CapacityLevel> levelsByRate, double percentile) {
+        if (levelsByRate.size() < 3) {
+            return null;
+        }
+        double minRate = levelsByRate.get(0).getTargetRps();
+        double maxRate = levelsByRate.get(levelsByRate.size() - 1).getTargetRps();
+        double minLatency = Double.MAX_VALUE;
+        double maxLatency = 0;
+        for (CapacityLevel level : levelsByRate) {
+            double latency = level.getMeasured().getTotal().getPercentile(percentile);
+            minLatency = Math.min(minLatency, latency);
+            maxLatency = Math.max(maxLatency, latency);
+        }
+        if (maxRate <= minRate || maxLatency <= minLatency) {
+            return null;
+        }
+        CapacityLevel knee = null;
+        double best = 0;
+        for (CapacityLevel level : levelsByRate) {
+            double x = (level.getTargetRps() - minRate) / (maxRate - minRate);
+            double y = (level.getMeasured().getTotal().getPercentile(percentile) - minLatency) / (maxLatency - minLatency);
+            if (x - y > best) {
+                best = x - y;
+                knee = level;
+            }
+        }
+        return knee;
+    }
+    
+    // The user's client settings (engine, threads, pool, scenario, mix) without their load shape
+    private TestConfig baseConfig() {
+        TestConfig copy = gson.fromJson(gson.toJson(config), TestConfig.class);
+        copy.setDelayMs(0);
+        copy.setRequestsPerService(null);
+        copy.setDurationSeconds(0);
+        copy.setReportIntervalSeconds(0);
+        copy.setTimeSeriesFile(null);
+        copy.setRecordDirectory(null);
+        copy.setMetricsPort(0);
+        copy.setWorkers(0);
+        copy.getThresholds().clear();
+        copy.setAbortAfterSeconds(0);
+        return copy;
+    }
+}
@@ -0,0 +1,58 @@
+package com.his.project.loadtest.service;
+
+import org.apache.hc.core5.pool.PoolStats;
+
+import java.util.function.Supplier;
+
+// Samples connection pool state while a test runs and keeps the peaks, so the summary shows
+// whether workers were queueing for connections (pending > 0) rather than waiting on the server.
+public class ConnectionPoolMonitor {
+    private static final long SAMPLE_INTERVAL_MS = 250;
+    
+    private final Supplier<PoolStats> poolStats;
+    private volatile boolean running = false;
+    private volatile int peakLeased = 0;
+    private volatile int peakPending = 0;
+    private Thread sampler;
+    
+    public ConnectionPoolMonitor(Supplier<PoolStats> poolStats) {
+        this.poolStats = poolStats;
+    }
+    
+    public void start() {
+        running = true;
+        sampler = new Thread(() -> {
+            while (running) {
+                sample();
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "pool-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+    
+    public void stop() {
+        running = false;
+        if (sampler != null) {
+            sampler.interrupt();
+        }
+    }
+    
+    private void sample() {
+        PoolStats stats = poolStats.get();
+        peakLeased = Math.max(peakLeased, stats.getLeased());
+        peakPending = Math.max(peakPending, stats.getPending());
+    }
+    
+    public int getPeakLeased() {
+        return peakLeased;
+    }
+    
+    public int getPeakPending() {
+        return peakPending;
+    }
+}
@@ -0,0 +1,215 @@
+package com.his.project.loadtest.service;
+
+import com.google.gson.Gson;
+import com.his.project.loadtest.metrics.EndpointSnapshot;
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.metrics.MetricsSnapshot;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.IntervalStats;
+import org.apache.hc.core5.pool.PoolStats;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+// Emits a snapshot of every endpoint each interval while the test runs: a compact console line
+// plus an optional time-series file (JSONL, or CSV when the file name ends in .csv).
+// Snapshots copy counters and histogram buckets from the live stats, so workers keep running.
+public class IntervalReporter {
+    public static final String ALL_ENDPOINTS = "ALL";
+    private static final String CSV_HEADER =
+        "timestampMs,elapsedSeconds,endpoint,requests,successes,failures,throughput,meanMs,p50Ms,p90Ms,p99Ms,maxMs,stage,target";
+    
+    private final Supplier<MetricsSnapshot> source;
+    private final long intervalMs;
+    private final String timeSeriesFile;
+    private final Supplier<PoolStats> poolStats;
+    private final int significantDigits;
+    private final List<IntervalStats> intervals = new ArrayList<>();
+    private final Gson gson = new Gson();
+    
+    private ScheduledExecutorService scheduler;
+    private BufferedWriter writer;
+    private boolean csv;
+    private Supplier<String> stage;
+    private DoubleSupplier target;
+    private Consumer<MetricsSnapshot> listener;
+    private MetricsSnapshot start;
+    private MetricsSnapshot previous;
+    
+    public IntervalReporter(Map<String, EndpointStats> endpointStats, long intervalMs, String timeSeriesFile,
+                            Supplier<PoolStats> poolStats, int significantDigits) {
+        this(() -> MetricsSnapshot.capture(endpointStats), intervalMs, timeSeriesFile, poolStats, significantDigits);
+    }
+    
+    // Reads cumulative snapshots from any source, e.g. a MetricsRegistry merging its shards
+    public IntervalReporter(Supplier<MetricsSnapshot> source, long intervalMs, String timeSeriesFile,
+                            Supplier<PoolStats> poolStats, int significantDigits) {
+        this.source = source;
+        this.intervalMs = intervalMs;
+        this.timeSeriesFile = timeSeriesFile;
+        this.poolStats = poolStats;
+        this.significantDigits = significantDigits;
+    }
+    
+    // Tags every row with the load profile stage and target current at the end of the interval
+    public void setStageSource(Supplier<String> stage, DoubleSupplier target) {
+        this.stage = stage;
+        this.target = target;
+    }
+    
+    // Receives the activity of every interval (e.g. a worker streaming it to the coordinator)
+    public void setListener(Consumer<MetricsSnapshot> listener) {
+        this.listener = listener;
+    }
+    
+    public void start() {
+        start = MetricsSnapshot.empty();
+        previous = start;
+        if (timeSeriesFile != null) {
+            try {
+                csv = timeSeriesFile.toLowerCase().endsWith(".csv");
+                Path path = Path.of(timeSeriesFile);
+                boolean existing = Files.exists(path) && Files.size(path) > 0;
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                if (csv && !existing) {
+                    writer.write(CSV_HEADER);
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                System.err.println("Cannot open time-series file " + timeSeriesFile + ": " + e.getMessage());
+                writer = null;
+            }
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "interval-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::report, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    // Stops the schedule and reports the final, possibly partial, interval
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(intervalMs + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                System.err.println("Error closing time-series file: " + e.getMessage());
+            }
+        }
+    }
+    
+    public List<IntervalStats> getIntervals() {
+        return intervals;
+    }
+    
+    private synchronized void report() {
+        try {
+            MetricsSnapshot current = source.get();
+            MetricsSnapshot interval = current.minus(previous);
+            double seconds = current.nanosSince(previous) / 1_000_000_000.0;
+            double elapsed = current.nanosSince(start) / 1_000_000_000.0;
+            previous = current;
+            if (seconds <= 0) {
+                return;
+            }
+            if (listener != null) {
+                listener.accept(interval);
+            }
+            
+            LatencyHistogram allTimes = new LatencyHistogram(significantDigits);
+            long allRequests = 0;
+            long allSuccesses = 0;
+            long allFailures = 0;
+            for (Map.Entry<String, EndpointSnapshot> entry : interval.getEndpoints().entrySet()) {
+                EndpointSnapshot snapshot = entry.getValue();
+                emit(toRow(current.getTimestampMs(), elapsed, entry.getKey(), snapshot.getRequests(), snapshot.getSuccesses(),
+                    snapshot.getFailures(), snapshot.getResponseTimes(), seconds));
+                allTimes.add(snapshot.getResponseTimes());
+                allRequests += snapshot.getRequests();
+                allSuccesses += snapshot.getSuccesses();
+                allFailures += snapshot.getFailures();
+            }
+            if (interval.getEndpoints().size() > 1) {
+                emit(toRow(current.getTimestampMs(), elapsed, ALL_ENDPOINTS, allRequests, allSuccesses, allFailures,
+                    allTimes, seconds));
+            }
+            if (stage != null) {
+                System.out.println(String.format("[%6.0fs] stage=%s target=%.1f", elapsed, stage.get(), target.getAsDouble()));
+            }
+            if (poolStats != null) {
+                PoolStats pool = poolStats.get();
+                System.out.println(String.format("[%6.0fs] pool leased=%d pending=%d available=%d max=%d",
+                    elapsed, pool.getLeased(), pool.getPending(), pool.getAvailable(), pool.getMax()));
+            }
+            if (writer != null) {
+                writer.flush();
+            }
+        } catch (Exception e) {
+            System.err.println("Error reporting interval: " + e.getMessage());
+        }
+    }
+    
+    private IntervalStats toRow(long timestampMs, double elapsed, String endpoint, long requests, long successes,
+                                long failures, LatencyHistogram times, double seconds) {
+        IntervalStats row = new IntervalStats();
+        row.setTimestampMs(timestampMs);
+        row.setElapsedSeconds(Math.round(elapsed * 1000) / 1000.0);
+        row.setEndpoint(endpoint);
+        row.setRequests(requests);
+        row.setSuccesses(successes);
+        row.setFailures(failures);
+        row.setThroughput(requests / seconds);
+        row.setMeanMs(times.getMean() / 1_000_000.0);
+        long[] percentiles = times.getValuesAtPercentiles(50.0, 90.0, 99.0);
+        row.setP50Ms(percentiles[0] / 1_000_000.0);
+        row.setP90Ms(percentiles[1] / 1_000_000.0);
+        row.setP99Ms(percentiles[2] / 1_000_000.0);
+        row.setMaxMs(times.getMaxValue() / 1_000_000.0);
+        if (stage != null) {
+            row.setStage(stage.get());
+            row.setTarget(target.getAsDouble());
+        }
+        return row;
+    }
+    
+    private void emit(IntervalStats row) throws IOException {
+        intervals.add(row);
+        System.out.println(String.format("[%6.0fs] %-20s rps=%8.1f ok=%7d fail=%6d p50=%8.2f p90=%8.2f p99=%8.2f max=%8.2f ms",
+            row.getElapsedSeconds(), row.getEndpoint(), row.getThroughput(), row.getSuccesses(), row.getFailures(),
+            row.getP50Ms(), row.getP90Ms(), row.getP99Ms(), row.getMaxMs()));
+        if (writer == null) {
+            return;
+        }
+        if (csv) {
+            writer.write(String.format("%d,%.3f,\"%s\",%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%s,%.1f",
+                row.getTimestampMs(), row.getElapsedSeconds(), row.getEndpoint(), row.getRequests(), row.getSuccesses(),
+                row.getFailures(), row.getThroughput(), row.getMeanMs(), row.getP50Ms(), row.getP90Ms(), row.getP99Ms(),
+                row.getMaxMs(), row.getStage() != null ? row.getStage() : "", row.getTarget()));
+        } else {
+            writer.write(gson.toJson(row));
+        }
+        writer.newLine();
+    }
+}
@@ -1,47 +1,287 @@
 package com.his.project.loadtest.service;
 
 import com.his.project.loadtest.client.ApiClient;
-import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.client.AsyncApiClient;
+import com.his.project.loadtest.client.ConnectionMetrics;
+import com.his.project.loadtest.feeder.Feeder;
+import com.his.project.loadtest.feeder.FeederConfig;
+import com.his.project.loadtest.feeder.FeederExhaustedException;
+import com.his.project.loadtest.metrics.MetricsRegistry;
+import com.his.project.loadtest.metrics.MetricsSnapshot;
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.metrics.RequestTrace;
+import com.his.project.loadtest.model.ClientEngine;
+import com.his.project.loadtest.model.ConnectionPoolConfig;
+import com.his.project.loadtest.model.ConnectionReuse;
+import com.his.project.loadtest.model.ExecutionMode;
+import com.his.project.loadtest.model.LoadProfile;
+import com.his.project.loadtest.model.LoadStage;
+import com.his.project.loadtest.model.RequestSpec;
+import com.his.project.loadtest.model.Scenario;
+import com.his.project.loadtest.model.ScenarioMode;
+import com.his.project.loadtest.model.StageStats;
 import com.his.project.loadtest.model.TestConfig;
 import com.his.project.loadtest.model.TestResult;
+import com.his.project.loadtest.payload.PayloadBuffer;
+import com.his.project.loadtest.payload.RequestTemplate;
+import com.his.project.loadtest.payload.ResponseValidator;
+import com.his.project.loadtest.payload.Session;
+import com.his.project.loadtest.recorder.SampleRecorder;
+import com.his.project.loadtest.util.Distribution;
+import org.apache.hc.core5.pool.PoolStats;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToIntFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
 public class LoadTestService {
+    // How often an idle profile worker checks whether the target has grown to include it
+    private static final long IDLE_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    
     private final TestConfig config;
+    private final LoadProfile profile;
+    private final Scenario scenario;
+    // Picks the next request of a WEIGHTED scenario; null for SEQUENTIAL
+    private final WeightedSampler sampler;
+    // Scenario requests compiled once (and pre-rendered in POOL mode) before the run
+    private final List<RequestTemplate> templates = new ArrayList<>();
+    // Per-request statistics; endpoint ids are positions in templates (and in recorded samples)
+    private final MetricsRegistry metrics;
+    // One registry per profile stage, with the same endpoint ids (null without a profile)
+    private final MetricsRegistry[] stageMetrics;
+    // JOURNEY scenarios only (null otherwise): whole-journey statistics under the scenario name,
+    // and each step's think time (null = none)
+    private final MetricsRegistry transactions;
+    private final Distribution[] thinkTimes;
+    private final LongAdder skippedSteps = new LongAdder();
+    // Test data shared by all templates; null without --feeder
+    private final Feeder feeder;
+    // Set once a SEQUENTIAL or UNIQUE feeder runs out; the run then winds down instead of failing every request
+    private final AtomicBoolean feederExhausted = new AtomicBoolean(false);
+    // Set when the run has to end early (feeder exhausted, SLO abort); every load loop checks it
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+    private volatile List<ArrivalScheduler> openSchedulers = List.of();
+    private final ConnectionPoolConfig pool;
+    private final ConnectionMetrics connectionMetrics;
     private final ApiClient apiClient;
+    // PER_USER connection reuse (closed model only): virtual user i owns a single-connection client,
+    // created on its first request; all of them share one deadline timer
+    private final AtomicReferenceArray<ApiClient> userClients;
+    private final ConnectionPoolConfig userPool;
+    private final ScheduledThreadPoolExecutor userDeadlines;
+    private final AsyncApiClient asyncApiClient;
     private final ExecutorService executorService;
+    // Common time origin of the run (load profile time and open-model timeline)
+    private long startNanos;
+    private Consumer<MetricsSnapshot> intervalListener;
+    // Raw per-request log; null unless --record is set
+    private SampleRecorder recorder;
     
     public LoadTestService(TestConfig config) {
         this.config = config;
-        this.apiClient = new ApiClient(config.getGatewayBaseUrl());
-        this.executorService = Executors.newFixedThreadPool(config.getThreads());
+        this.profile = config.getLoadProfile();
+        this.scenario = config.getScenario() != null
+            ? config.getScenario()
+            : Scenario.standard(config.isTestProductService(), config.isTestInventoryService(), config.isTestOrderService());
+        this.sampler = scenario.getMode() == ScenarioMode.WEIGHTED
+            ? new WeightedSampler(scenario.getRequests().stream().mapToDouble(RequestSpec::getWeight).toArray())
+            : null;
+        this.feeder = config.getFeeder() != null ? openFeeder(config.getFeeder()) : null;
+        for (RequestSpec spec : scenario.getRequests()) {
+            if (config.getResponseChecks().containsKey(spec.getName())) {
+                spec.setCheck(config.getResponseChecks().get(spec.getName()));
+            }
+            templates.add(RequestTemplate.compile(spec, config.getGatewayBaseUrl(), config.getPayloadMode(),
+                config.getPayloadPoolSize(), feeder));
+        }
+        List<String> endpointNames = scenario.getRequests().stream().map(RequestSpec::getName).toList();
+        this.metrics = new MetricsRegistry(endpointNames, config.getHistogramDigits());
+        this.stageMetrics = profile != null ? new MetricsRegistry[profile.getStages().size()] : null;
+        for (int i = 0; stageMetrics != null && i < stageMetrics.length; i++) {
+            stageMetrics[i] = new MetricsRegistry(endpointNames, config.getHistogramDigits());
+        }
+        if (scenario.getMode() == ScenarioMode.JOURNEY) {
+            this.transactions = new MetricsRegistry(List.of(scenario.getName()), config.getHistogramDigits());
+            this.thinkTimes = new Distribution[templates.size()];
+            for (int i = 0; i < thinkTimes.length; i++) {
+                String thinkTime = templates.get(i).getSpec().getThinkTime();
+                thinkTimes[i] = thinkTime != null ? Distribution.parse(thinkTime) : null;
+            }
+        } else {
+            this.transactions = null;
+            this.thinkTimes = null;
+        }
+        this.pool = config.getConnectionPool().resolvedFor(config.getThreads());
+        this.connectionMetrics = new ConnectionMetrics(config.getHistogramDigits());
+        if (pool.getReuse() == ConnectionReuse.PER_USER) {
+            if (config.isOpenModel()) {
+                // Open-model arrivals are not tied to a virtual user that could own a connection
+                throw new IllegalArgumentException("Per-user connection reuse needs the closed model (no --rate or rate profile)");
+            }
+            this.userPool = config.getConnectionPool().resolvedFor(1);
+            userPool.setMaxTotal(1);
+            userPool.setMaxPerRoute(1);
+            this.apiClient = null;
+            int users = profile != null ? (int) Math.ceil(profile.getMaxTarget()) : config.getThreads();
+            this.userClients = new AtomicReferenceArray<>(users);
+            this.userDeadlines = config.getTimeouts().getDeadlineMs() > 0 ? ApiClient.deadlineTimer() : null;
+        } else {
+            this.apiClient = new ApiClient(config.getGatewayBaseUrl(), pool, config.getTimeouts(), connectionMetrics);
+            this.userClients = null;
+            this.userPool = null;
+            this.userDeadlines = null;
+        }
+        this.asyncApiClient = config.getClientEngine() == ClientEngine.ASYNC
+            ? new AsyncApiClient(config.getGatewayBaseUrl(), config.getHttpProtocol(),
+                config.getMaxInFlight(), config.getIoThreads(), config.getTimeouts())
+            : null;
+        this.executorService = config.getExecutionMode() == ExecutionMode.VIRTUAL
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(config.getThreads());
+    }
+    
+    // Called with the activity of every report interval; forces interval reporting on
+    public void setIntervalListener(Consumer<MetricsSnapshot> intervalListener) {
+        this.intervalListener = intervalListener;
     }
     
     public TestResult runLoadTest() {
+        VirtualThreadMonitor monitor = null;
+        if (config.getExecutionMode() == ExecutionMode.VIRTUAL) {
+            monitor = new VirtualThreadMonitor(Duration.ofMillis(config.getPinnedThresholdMs()));
+            monitor.start();
+        }
+        
+        ConnectionPoolMonitor poolMonitor = new ConnectionPoolMonitor(this::getPoolStats);
+        poolMonitor.start();
+        
         TestResult result = new TestResult();
-        List<Long> allResponseTimes = new ArrayList<>();
-        Map<String, EndpointStats> endpointStats = result.getEndpointStats();
-        AtomicLong totalRequests = new AtomicLong(0);
-        AtomicLong successfulRequests = new AtomicLong(0);
-        AtomicLong failedRequests = new AtomicLong(0);
+        if (profile != null) {
+            for (LoadStage stage : profile.getStages()) {
+                result.getStageStats().add(new StageStats(stage, config.getHistogramDigits()));
+            }
+        }
+        // Start slightly in the future so all schedulers and workers share the same time origin
+        startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50);
+        if (config.getRecordDirectory() != null) {
+            recorder = openRecorder(System.currentTimeMillis() + 50);
+        }
+        
+        SloGate gate = null;
+        if (!config.getThresholds().isEmpty()) {
+            gate = new SloGate(config.getThresholds(), config.getSloWindowSeconds(), config.getAbortAfterSeconds(),
+                config.getHistogramDigits());
+            gate.setOnAbort(reason -> stop("SLO breached: " + reason));
+        }
+        
+        IntervalReporter reporter = null;
+        if (config.getReportIntervalSeconds() > 0 || intervalListener != null || gate != null) {
+            reporter = new IntervalReporter(metrics::capture,
+                TimeUnit.SECONDS.toMillis(Math.max(config.getReportIntervalSeconds(), 1)), config.getTimeSeriesFile(),
+                asyncApiClient == null ? this::getPoolStats : null, config.getHistogramDigits());
+            if (profile != null) {
+                reporter.setStageSource(() -> currentStage().getName(), () -> profile.targetAt(System.nanoTime() - startNanos));
+            }
+            reporter.setListener(chain(gate, intervalListener));
+            reporter.start();
+        }
+        
+        MetricsEndpoint metricsEndpoint = config.getMetricsPort() > 0 ? startMetricsEndpoint() : null;
+        
+        long allocatedBefore = totalAllocatedBytes();
+        if (config.isOpenModel()) {
+            runOpenModel(result);
+        } else if (profile != null) {
+            runProfiledClosedModel(result);
+        } else {
+            runClosedModel(result);
+        }
+        long allocatedAfter = totalAllocatedBytes();
+        result.setTotalRequests(metrics.getTotalRequests());
+        result.setSuccessfulRequests(metrics.getSuccessfulRequests());
+        result.setFailedRequests(metrics.getFailedRequests());
+        result.setResponseTimes(metrics.mergedResponseTimes());
+        result.getEndpointStats().putAll(metrics.snapshot());
+        for (int i = 0; i < result.getStageStats().size(); i++) {
+            StageStats stage = result.getStageStats().get(i);
+            stageMetrics[i].snapshot().forEach(stage::add);
+        }
+        if (transactions != null) {
+            result.getTransactionStats().putAll(transactions.snapshot());
+            result.setSkippedSteps(skippedSteps.sum());
+        }
+        if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+            result.setAllocatedBytes(allocatedAfter - allocatedBefore);
+        }
+        
+        if (reporter != null) {
+            reporter.stop();
+            result.setIntervals(reporter.getIntervals());
+        }
+        if (gate != null) {
+            gate.finish(result);
+        }
+        if (recorder != null) {
+            closeRecorder(result);
+        }
+        if (metricsEndpoint != null) {
+            metricsEndpoint.stop();
+        }
+        poolMonitor.stop();
+        result.setConnectionReuse(pool.getReuse());
+        result.setMaxPoolConnections(pool.getReuse() == ConnectionReuse.PER_USER ? userClientCount() : pool.getMaxTotal());
+        result.setPeakLeasedConnections(poolMonitor.getPeakLeased());
+        result.setPeakPendingLeases(poolMonitor.getPeakPending());
+        result.setConnectionsOpened(connectionMetrics.getConnectionsOpened());
+        result.setPoolWaitTimes(connectionMetrics.getLeaseWaitTimes());
+        closeClients();
+        if (feeder != null) {
+            result.setFeederRecords(feeder.getRecordsDrawn());
+            result.setFeederExhausted(feederExhausted.get());
+        }
+        
+        result.setExecutionMode(config.getExecutionMode());
+        if (monitor != null) {
+            monitor.stop();
+            result.setCarrierThreads(monitor.getPeakCarrierThreads());
+            result.setSchedulerParallelism(monitor.getSchedulerParallelism());
+            result.setPinnedThresholdMs(config.getPinnedThresholdMs());
+            result.setPinnedEvents(monitor.getPinnedEvents());
+            result.setPinnedSites(monitor.getPinnedSites());
+        }
+        return result;
+    }
+    
+    private void runClosedModel(TestResult result) {
+        long testStart = System.currentTimeMillis();
+        List<ToIntFunction<ApiClient>> requests = enabledEndpoints();
         
         // Track requests per endpoint if requestsPerService is set
-        // Each endpoint gets the full amount (Product GET: 10k, Product POST: 10k, Inventory GET: 10k, Order POST: 10k)
+        // Each endpoint gets the full amount (e.g. Product GET: 10k, Product POST: 10k, Inventory GET: 10k, Order POST: 10k)
         Integer requestsPerService = config.getRequestsPerService();
-        AtomicLong productGetCount = new AtomicLong(0);
-        AtomicLong productPostCount = new AtomicLong(0);
-        AtomicLong inventoryGetCount = new AtomicLong(0);
-        AtomicLong orderPostCount = new AtomicLong(0);
-        
-        int productGetTarget = requestsPerService != null && config.isTestProductService() ? requestsPerService : Integer.MAX_VALUE;
-        int productPostTarget = requestsPerService != null && config.isTestProductService() ? requestsPerService : Integer.MAX_VALUE;
-        int inventoryTarget = requestsPerService != null && config.isTestInventoryService() ? requestsPerService : Integer.MAX_VALUE;
-        int orderTarget = requestsPerService != null && config.isTestOrderService() ? requestsPerService : Integer.MAX_VALUE;
+        // Without a target nothing is counted, so unbounded runs never touch the shared counters
+        boolean bounded = requestsPerService != null;
+        long target = bounded ? requestsPerService : Long.MAX_VALUE;
+        // A journey counts as one (the target is a number of journeys)
+        AtomicLongArray sent = new AtomicLongArray(transactions != null ? 1 : requests.size());
         
         List<Future<?>> futures = new ArrayList<>();
         
@@ -49,82 +289,32 @@ public class LoadTestService {
         for (int i = 0; i < config.getThreads(); i++) {
             final int threadId = i;
             Future<?> future = executorService.submit(() -> {
-                for (int j = 0; j < config.getRequestsPerThread(); j++) {
+                // The virtual user's connection and journey state, kept across its iterations
+                ApiClient client = clientFor(threadId);
+                Session session = new Session();
+                for (int j = 0; j < config.getRequestsPerThread() && !stopped.get(); j++) {
                     try {
-                        // Test Product Service - GET
-                        if (config.isTestProductService() && productGetCount.get() < productGetTarget) {
-                            testEndpoint("GET /api/product", () -> {
-                                long start = System.currentTimeMillis();
-                                boolean success = apiClient.getProducts();
-                                long responseTime = System.currentTimeMillis() - start;
-                                synchronized (allResponseTimes) {
-                                    allResponseTimes.add(responseTime);
-                                }
-                                productGetCount.incrementAndGet();
-                                updateStats(endpointStats, "GET /api/product", success, responseTime, 
-                                    totalRequests, successfulRequests, failedRequests);
-                                return responseTime;
-                            });
-                        }
-                        
-                        // Test Product Service - POST
-                        if (config.isTestProductService() && productPostCount.get() < productPostTarget) {
-                            testEndpoint("POST /api/product", () -> {
-                                long start = System.currentTimeMillis();
-                                boolean success = apiClient.createProduct();
-                                long responseTime = System.currentTimeMillis() - start;
-                                synchronized (allResponseTimes) {
-                                    allResponseTimes.add(responseTime);
-                                }
-                                productPostCount.incrementAndGet();
-                                updateStats(endpointStats, "POST /api/product", success, responseTime,
-                                    totalRequests, successfulRequests, failedRequests);
-                                return responseTime;
-                            });
-                        }
-                        
-                        // Test Inventory Service - GET
-                        if (config.isTestInventoryService() && inventoryGetCount.get() < inventoryTarget) {
-                            testEndpoint("GET /api/inventory", () -> {
-                                long start = System.currentTimeMillis();
-                                boolean success = apiClient.checkInventory();
-                                long responseTime = System.currentTimeMillis() - start;
-                                synchronized (allResponseTimes) {
-                                    allResponseTimes.add(responseTime);
-                                }
-                                inventoryGetCount.incrementAndGet();
-                                updateStats(endpointStats, "GET /api/inventory", success, responseTime,
-                                    totalRequests, successfulRequests, failedRequests);
-                                return responseTime;
-                            });
-                        }
-                        
-                        // Test Order Service - POST
-                        if (config.isTestOrderService() && orderPostCount.get() < orderTarget) {
-                            testEndpoint("POST /api/order", () -> {
-                                long start = System.currentTimeMillis();
-                                boolean success = apiClient.placeOrder();
-                                long responseTime = System.currentTimeMillis() - start;
-                                synchronized (allResponseTimes) {
-                                    allResponseTimes.add(responseTime);
+                        // A slot is claimed before sending, so concurrent users cannot overshoot the target
+                        if (transactions != null) {
+                            if (!bounded || sent.getAndIncrement(0) < target) {
+                                runJourney(result, requests, client, session, System.nanoTime());
+                            }
+                        } else if (sampler != null) {
+                            int k = sampler.next();
+                            if (!bounded || sent.getAndIncrement(k) < target) {
+                                timedRequest(result, k, requests.get(k), client);
+                            }
+                        } else {
+                            for (int k = 0; k < requests.size(); k++) {
+                                if (!bounded || sent.getAndIncrement(k) < target) {
+                                    timedRequest(result, k, requests.get(k), client);
                                 }
-                                orderPostCount.incrementAndGet();
-                                updateStats(endpointStats, "POST /api/order", success, responseTime,
-                                    totalRequests, successfulRequests, failedRequests);
-                                return responseTime;
-                            });
+                            }
                         }
                         
                         // Check if all targets are reached
-                        if (requestsPerService != null) {
-                            boolean productGetDone = !config.isTestProductService() || productGetCount.get() >= productGetTarget;
-                            boolean productPostDone = !config.isTestProductService() || productPostCount.get() >= productPostTarget;
-                            boolean inventoryDone = !config.isTestInventoryService() || inventoryGetCount.get() >= inventoryTarget;
-                            boolean orderDone = !config.isTestOrderService() || orderPostCount.get() >= orderTarget;
-                            
-                            if (productGetDone && productPostDone && inventoryDone && orderDone) {
-                                break; // All targets reached
-                            }
+                        if (bounded && allReached(sent, target)) {
+                            break;
                         }
                         
                         // Delay between requests
@@ -153,36 +343,561 @@ public class LoadTestService {
         
         executorService.shutdown();
         
-        result.setTotalRequests(totalRequests.get());
-        result.setSuccessfulRequests(successfulRequests.get());
-        result.setFailedRequests(failedRequests.get());
-        result.setResponseTimes(allResponseTimes);
+        result.setDurationMs(System.currentTimeMillis() - testStart);
+    }
+    
+    // Open model: every endpoint gets its own scheduler that dispatches on a fixed timeline,
+    // so a slow gateway builds up a queue instead of quietly reducing the offered load.
+    private void runOpenModel(TestResult result) {
+        if (transactions != null) {
+            runOpenJourneys(result);
+            return;
+        }
+        AtomicLong scheduleLagSum = new AtomicLong(0);
+        AtomicLong maxScheduleLag = new AtomicLong(0);
         
-        return result;
+        List<ToIntFunction<ApiClient>> endpoints = enabledEndpoints();
+        List<String> names = templates.stream().map(template -> template.getSpec().getName()).toList();
+        // With a rate profile the map holds each endpoint's share of the profile target instead
+        Map<String, Double> rates = profile != null ? profileShares(names) : resolveEndpointRates(names);
+        long maxRequests = config.getDurationSeconds() > 0 || profile != null ? 0 : requestsPerEndpoint();
+        long durationNanos = profile != null ? profile.getTotalDurationNanos() : TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        long testStart = System.currentTimeMillis();
+        
+        // The async engine issues requests straight from the scheduler thread; its I/O threads
+        // complete them, so no worker thread is held per in-flight request.
+        List<Function<RequestTrace, CompletableFuture<Integer>>> asyncEndpoints = asyncApiClient != null ? enabledAsyncEndpoints() : null;
+        Executor dispatcher = asyncApiClient != null ? Runnable::run : executorService;
+        
+        List<ArrivalScheduler> schedulers = new ArrayList<>();
+        List<Thread> schedulerThreads = new ArrayList<>();
+        rates.forEach((endpoint, rate) -> {
+            // Resolved once per scheduler; the task only passes the id on
+            int id = metrics.idOf(endpoint);
+            ToIntFunction<ApiClient> call = endpoints.get(id);
+            Function<RequestTrace, CompletableFuture<Integer>> asyncCall = asyncEndpoints != null ? asyncEndpoints.get(id) : null;
+            RequestSpec spec = templates.get(id).getSpec();
+            LongConsumer task = intended -> testEndpoint(id, () -> {
+                long lag = System.nanoTime() - intended;
+                scheduleLagSum.addAndGet(lag);
+                maxScheduleLag.accumulateAndGet(lag, Math::max);
+                if (asyncCall != null) {
+                    // Completed on an I/O thread, so each request carries its own trace
+                    RequestTrace trace = new RequestTrace();
+                    asyncCall.apply(trace).whenComplete((status, error) -> {
+                        long responseTime = System.nanoTime() - intended;
+                        int code = status != null ? status : -1;
+                        Outcome outcome = Outcome.of(code, spec.isSuccess(code), trace);
+                        updateStats(id, outcome, code, responseTime, trace);
+                        recordStage(intended, id, outcome, code, responseTime);
+                        recordSample(id, intended, responseTime, code, trace.getBytesReceived(), outcome == Outcome.SUCCESS);
+                    });
+                    return lag;
+                }
+                int status = call.applyAsInt(apiClient);
+                // Measured from the intended send time, so time spent queued behind slow requests counts
+                long responseTime = System.nanoTime() - intended;
+                RequestTrace trace = RequestTrace.current();
+                Outcome outcome = Outcome.of(status, spec.isSuccess(status), trace);
+                updateStats(id, outcome, status, responseTime, trace);
+                recordStage(intended, id, outcome, status, responseTime);
+                recordSample(id, intended, responseTime, status, trace.getBytesReceived(), outcome == Outcome.SUCCESS);
+                return responseTime;
+            });
+            ArrivalScheduler scheduler = profile != null
+                ? new ArrivalScheduler(elapsed -> profile.targetAt(elapsed) * rate, 0, durationNanos, startNanos,
+                    dispatcher, task)
+                : new ArrivalScheduler(endpoint, rate, maxRequests, durationNanos, startNanos, dispatcher, task);
+            Thread thread = new Thread(scheduler, "scheduler-" + endpoint);
+            schedulers.add(scheduler);
+            schedulerThreads.add(thread);
+            thread.start();
+        });
+        openSchedulers = schedulers;
+        if (stopped.get()) {
+            schedulers.forEach(ArrivalScheduler::stop);
+        }
+        
+        try {
+            for (Thread thread : schedulerThreads) {
+                thread.join();
+            }
+            executorService.shutdown();
+            executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            if (asyncApiClient != null) {
+                asyncApiClient.awaitIdle();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            schedulers.forEach(ArrivalScheduler::stop);
+            executorService.shutdownNow();
+        }
+        
+        result.setDurationMs(System.currentTimeMillis() - testStart);
+        result.setOpenModel(true);
+        result.setTargetRps(profile != null ? profile.getMaxTarget() : rates.values().stream().mapToDouble(Double::doubleValue).sum());
+        result.setMaxScheduleLagMs(TimeUnit.NANOSECONDS.toMillis(maxScheduleLag.get()));
+        long dispatched = metrics.getTotalRequests();
+        result.setAvgScheduleLagMs(dispatched == 0 ? 0.0 : scheduleLagSum.get() / 1_000_000.0 / dispatched);
     }
     
-    private void testEndpoint(String endpointName, Callable<Long> test) {
+    // Open model for a journey: journeys start on one timeline (--rate and rate profiles count
+    // journeys per second), each as a new virtual user with an empty session. A journey holds its
+    // worker thread through the think times, so on the async engine too its steps are sent from
+    // that thread and waited for. Transaction times run from the intended start.
+    private void runOpenJourneys(TestResult result) {
+        List<ToIntFunction<ApiClient>> steps = enabledEndpoints();
+        if (!config.getEndpointRps().isEmpty()) {
+            System.err.println("Ignoring per-endpoint rates: a journey runs at one rate (--rate)");
+        }
+        double rate = config.getTargetRps() != null ? config.getTargetRps() : 0;
+        long maxRequests = config.getDurationSeconds() > 0 || profile != null ? 0 : requestsPerEndpoint();
+        long durationNanos = profile != null ? profile.getTotalDurationNanos() : TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+        long testStart = System.currentTimeMillis();
+        AtomicLong scheduleLagSum = new AtomicLong(0);
+        AtomicLong maxScheduleLag = new AtomicLong(0);
+        
+        String name = scenario.getName();
+        LongConsumer task = intended -> {
+            long lag = System.nanoTime() - intended;
+            scheduleLagSum.addAndGet(lag);
+            maxScheduleLag.accumulateAndGet(lag, Math::max);
+            runJourney(result, steps, apiClient, new Session(), intended);
+        };
+        ArrivalScheduler scheduler = profile != null
+            ? new ArrivalScheduler(profile::targetAt, 0, durationNanos, startNanos, executorService, task)
+            : new ArrivalScheduler(name, rate, maxRequests, durationNanos, startNanos, executorService, task);
+        Thread thread = new Thread(scheduler, "scheduler-" + name);
+        openSchedulers = List.of(scheduler);
+        thread.start();
+        if (stopped.get()) {
+            scheduler.stop();
+        }
+        
         try {
-            test.call();
-        } catch (Exception e) {
-            System.err.println("Error testing " + endpointName + ": " + e.getMessage());
+            thread.join();
+            executorService.shutdown();
+            executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scheduler.stop();
+            executorService.shutdownNow();
         }
+        
+        result.setDurationMs(System.currentTimeMillis() - testStart);
+        result.setOpenModel(true);
+        result.setTargetRps(profile != null ? profile.getMaxTarget() : rate);
+        result.setMaxScheduleLagMs(TimeUnit.NANOSECONDS.toMillis(maxScheduleLag.get()));
+        long started = transactions.getTotalRequests();
+        result.setAvgScheduleLagMs(started == 0 ? 0.0 : scheduleLagSum.get() / 1_000_000.0 / started);
     }
     
-    private void updateStats(Map<String, EndpointStats> endpointStats, String endpoint,
-                           boolean success, long responseTime,
-                           AtomicLong totalRequests, AtomicLong successfulRequests, AtomicLong failedRequests) {
-        endpointStats.computeIfAbsent(endpoint, k -> new EndpointStats()).incrementRequest();
-        endpointStats.get(endpoint).addResponseTime(responseTime);
+    // Closed model following a user profile: one worker per possible user, and worker i only sends
+    // while the profile target is above i, so concurrency follows the stages live.
+    private void runProfiledClosedModel(TestResult result) {
+        long testStart = System.currentTimeMillis();
+        List<ToIntFunction<ApiClient>> requests = enabledEndpoints();
+        long endNanos = startNanos + profile.getTotalDurationNanos();
+        int users = (int) Math.ceil(profile.getMaxTarget());
         
-        totalRequests.incrementAndGet();
-        if (success) {
-            endpointStats.get(endpoint).incrementSuccess();
-            successfulRequests.incrementAndGet();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            final int userIndex = i;
+            futures.add(executorService.submit(() -> {
+                ApiClient client = clientFor(userIndex);
+                Session session = new Session();
+                long now;
+                while ((now = System.nanoTime()) < endNanos && !stopped.get()) {
+                    if (now < startNanos || userIndex >= profile.targetAt(now - startNanos)) {
+                        LockSupport.parkNanos(IDLE_CHECK_NANOS);
+                        continue;
+                    }
+                    if (transactions != null) {
+                        runJourney(result, requests, client, session, now);
+                    } else if (sampler != null) {
+                        int k = sampler.next();
+                        timedRequest(result, k, requests.get(k), client);
+                    } else {
+                        for (int k = 0; k < requests.size(); k++) {
+                            timedRequest(result, k, requests.get(k), client);
+                        }
+                    }
+                    if (config.getDelayMs() > 0) {
+                        try {
+                            Thread.sleep(config.getDelayMs());
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            }));
+        }
+        
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                System.err.println("Error waiting for thread: " + e.getMessage());
+            }
+        }
+        executorService.shutdown();
+        
+        result.setDurationMs(System.currentTimeMillis() - testStart);
+    }
+    
+    // Starts the scrape endpoint, or reports why it could not and runs without it (e.g. several
+    // distributed workers on one host asking for the same port)
+    private MetricsEndpoint startMetricsEndpoint() {
+        MetricsEndpoint endpoint = new MetricsEndpoint(metrics, config.getMetricsPort());
+        if (asyncApiClient != null) {
+            endpoint.addGauge("client_in_flight", "Requests held by the async client", asyncApiClient::getInFlight);
         } else {
-            endpointStats.get(endpoint).incrementFailed();
-            failedRequests.incrementAndGet();
+            endpoint.addGauge("pool_leased_connections", "Connections leased from the pool", () -> getPoolStats().getLeased());
+            endpoint.addGauge("pool_pending_leases", "Requests waiting for a pooled connection", () -> getPoolStats().getPending());
+        }
+        if (profile != null) {
+            endpoint.addGauge("profile_target", "Current load profile target (" + profile.getUnit().name().toLowerCase() + ")",
+                () -> profile.targetAt(System.nanoTime() - startNanos));
+        }
+        try {
+            endpoint.start();
+            System.out.println("Metrics endpoint: http://localhost:" + config.getMetricsPort() + "/metrics");
+            return endpoint;
+        } catch (IOException e) {
+            System.err.println("Metrics endpoint not started on port " + config.getMetricsPort() + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    // Live state of the connection pool(s), summed over per-user clients
+    public PoolStats getPoolStats() {
+        if (userClients == null) {
+            return apiClient.getPoolStats();
+        }
+        int leased = 0;
+        int pending = 0;
+        int available = 0;
+        int max = 0;
+        for (int i = 0; i < userClients.length(); i++) {
+            ApiClient client = userClients.get(i);
+            if (client == null) {
+                continue;
+            }
+            PoolStats stats = client.getPoolStats();
+            leased += stats.getLeased();
+            pending += stats.getPending();
+            available += stats.getAvailable();
+            max += stats.getMax();
+        }
+        return new PoolStats(leased, pending, available, max);
+    }
+    
+    // Heap allocated by all threads of this JVM so far (includes the clients and the JDK's own
+    // threads), or -1 when the JVM cannot measure it
+    private static long totalAllocatedBytes() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getTotalThreadAllocatedBytes();
+            }
+        } catch (UnsupportedOperationException e) {
+            // Fall through: not available on this JVM
+        }
+        return -1;
+    }
+    
+    private SampleRecorder openRecorder(long startEpochMillis) {
+        List<String> endpoints = new ArrayList<>();
+        templates.forEach(template -> endpoints.add(template.getSpec().getName()));
+        try {
+            return new SampleRecorder(config.getRecordDirectory(), config.getRecordSegmentMb(), endpoints, startEpochMillis);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start sample recording in " + config.getRecordDirectory(), e);
+        }
+    }
+    
+    private void closeRecorder(TestResult result) {
+        try {
+            recorder.close();
+            result.setRecordedSamples(recorder.getRecordedSamples());
+            result.setDroppedSamples(recorder.getDroppedSamples());
+        } catch (IOException e) {
+            System.err.println("Error finishing sample recording: " + e.getMessage());
+        }
+    }
+    
+    private static Feeder openFeeder(FeederConfig feederConfig) {
+        try {
+            return Feeder.open(feederConfig);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open feeder file " + feederConfig.getFile(), e);
+        }
+    }
+    
+    // The client virtual user 'user' sends with: its own under PER_USER reuse, the shared one otherwise
+    private ApiClient clientFor(int user) {
+        if (userClients == null) {
+            return apiClient;
+        }
+        ApiClient client = userClients.get(user);
+        if (client == null) {
+            client = new ApiClient(config.getGatewayBaseUrl(), userPool, config.getTimeouts(), connectionMetrics, userDeadlines);
+            userClients.set(user, client);
+        }
+        return client;
+    }
+    
+    private int userClientCount() {
+        int count = 0;
+        for (int i = 0; i < userClients.length(); i++) {
+            if (userClients.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private void closeClients() {
+        try {
+            if (apiClient != null) {
+                apiClient.close();
+            }
+            if (userClients != null) {
+                for (int i = 0; i < userClients.length(); i++) {
+                    if (userClients.get(i) != null) {
+                        userClients.get(i).close();
+                    }
+                }
+            }
+            if (userDeadlines != null) {
+                userDeadlines.shutdownNow();
+            }
+            if (asyncApiClient != null) {
+                asyncApiClient.close();
+            }
+            if (feeder != null) {
+                feeder.close();
+            }
+        } catch (Exception e) {
+            System.err.println("Error closing HTTP clients: " + e.getMessage());
         }
     }
+    
+    // Blocking call per scenario request, sent with the given client and returning the HTTP status
+    // (-1 = no response), indexed by endpoint id (scenario order)
+    private List<ToIntFunction<ApiClient>> enabledEndpoints() {
+        List<ToIntFunction<ApiClient>> endpoints = new ArrayList<>();
+        if (asyncApiClient != null) {
+            // Closed model on the async engine: each virtual user still waits for its response
+            enabledAsyncEndpoints().forEach(call -> endpoints.add(client -> call.apply(RequestTrace.current()).join()));
+            return endpoints;
+        }
+        for (RequestTemplate template : templates) {
+            endpoints.add(client -> client.execute(template));
+        }
+        return endpoints;
+    }
+    
+    private List<Function<RequestTrace, CompletableFuture<Integer>>> enabledAsyncEndpoints() {
+        List<Function<RequestTrace, CompletableFuture<Integer>>> endpoints = new ArrayList<>();
+        for (RequestTemplate template : templates) {
+            endpoints.add(trace -> asyncApiClient.execute(template, trace));
+        }
+        return endpoints;
+    }
+    
+    // Sends one request on the calling thread and records it everywhere under endpoint id;
+    // returns its outcome, or null when it was not sent
+    private Outcome timedRequest(TestResult result, int id, ToIntFunction<ApiClient> call, ApiClient client) {
+        RequestSpec spec = templates.get(id).getSpec();
+        return testEndpoint(id, () -> {
+            long start = System.nanoTime();
+            int status = call.applyAsInt(client);
+            long responseTime = System.nanoTime() - start;
+            // Filled in by whichever client sent it, including the async one when joined here
+            RequestTrace trace = RequestTrace.current();
+            Outcome outcome = Outcome.of(status, spec.isSuccess(status), trace);
+            updateStats(id, outcome, status, responseTime, trace);
+            recordStage(start, id, outcome, status, responseTime);
+            recordSample(id, start, responseTime, status, trace.getBytesReceived(), outcome == Outcome.SUCCESS);
+            return outcome;
+        });
+    }
+    
+    // One journey of a virtual user on the calling thread: the steps in order with the user's
+    // session attached, so every step reads what the earlier ones extracted. A failed step ends
+    // the journey, since later steps would act on values that never arrived, and the journey
+    // counts as failed with that step's outcome. The transaction time runs from start to the last
+    // response without the think time; journeys cut short by the end of the run are not counted.
+    private void runJourney(TestResult result, List<ToIntFunction<ApiClient>> steps, ApiClient client,
+                            Session session, long start) {
+        PayloadBuffer buffer = PayloadBuffer.current();
+        buffer.setSession(session);
+        transactions.begin(0);
+        long thinking = 0;
+        Outcome journey = Outcome.SUCCESS;
+        try {
+            for (int i = 0; i < steps.size(); i++) {
+                Outcome outcome = stopped.get() ? null : timedRequest(result, i, steps.get(i), client);
+                if (outcome == null) {
+                    transactions.abandon(0);
+                    return;
+                }
+                if (outcome != Outcome.SUCCESS) {
+                    journey = outcome;
+                    skippedSteps.add(steps.size() - i - 1);
+                    break;
+                }
+                storeExtracted(i, session);
+                if (thinkTimes[i] != null && i < steps.size() - 1) {
+                    long pauseStart = System.nanoTime();
+                    Thread.sleep(Duration.ofNanos(thinkTimes[i].sampleNanos()));
+                    thinking += System.nanoTime() - pauseStart;
+                }
+            }
+            transactions.record(0, journey, -1, System.nanoTime() - start - thinking, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            transactions.abandon(0);
+        } finally {
+            buffer.setSession(null);
+        }
+    }
+    
+    // Copies the values a step's response yielded into the session (templates are in step order)
+    private void storeExtracted(int step, Session session) {
+        ResponseValidator validator = templates.get(step).getValidator();
+        String[] values = RequestTrace.current().getExtracted();
+        if (validator == null || values == null) {
+            return;
+        }
+        String[] variables = validator.getVariables();
+        for (int i = 0; i < variables.length; i++) {
+            if (values[i] != null) {
+                session.put(variables[i], values[i]);
+            }
+        }
+    }
+    
+    private void recordSample(int endpoint, long sentNanos, long responseTime, int status, long bytes, boolean success) {
+        if (recorder != null) {
+            recorder.record(endpoint, sentNanos - startNanos, responseTime, status, bytes, success);
+        }
+    }
+    
+    private static boolean allReached(AtomicLongArray sent, long target) {
+        for (int i = 0; i < sent.length(); i++) {
+            if (sent.get(i) < target) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Explicit per-endpoint rates win; the global target is split evenly across the remaining endpoints
+    private Map<String, Double> resolveEndpointRates(Collection<String> endpoints) {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        List<String> shared = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            Double rate = config.getEndpointRps().get(endpoint);
+            if (rate != null) {
+                rates.put(endpoint, rate);
+            } else {
+                shared.add(endpoint);
+            }
+        }
+        for (String endpoint : config.getEndpointRps().keySet()) {
+            if (!endpoints.contains(endpoint)) {
+                System.err.println("Ignoring rate for unknown or disabled endpoint: " + endpoint);
+            }
+        }
+        if (config.getTargetRps() != null && !shared.isEmpty()) {
+            // Split in proportion to the scenario weights (evenly for the default scenario)
+            double totalWeight = shared.stream().mapToDouble(this::weightOf).sum();
+            for (String endpoint : shared) {
+                rates.put(endpoint, totalWeight > 0
+                    ? config.getTargetRps() * weightOf(endpoint) / totalWeight
+                    : config.getTargetRps() / shared.size());
+            }
+        }
+        return rates;
+    }
+    
+    // Fraction of a rate profile's target each endpoint receives: proportional to any --rate /
+    // --endpoint-rate settings, otherwise an even split
+    private Map<String, Double> profileShares(Collection<String> endpoints) {
+        Map<String, Double> shares = resolveEndpointRates(endpoints);
+        if (shares.isEmpty()) {
+            endpoints.forEach(endpoint -> shares.put(endpoint, 1.0));
+        }
+        double sum = shares.values().stream().mapToDouble(Double::doubleValue).sum();
+        shares.replaceAll((endpoint, share) -> share / sum);
+        return shares;
+    }
+    
+    private LoadStage currentStage() {
+        return profile.getStages().get(profile.stageIndexAt(System.nanoTime() - startNanos));
+    }
+    
+    // Attributes a request to the profile stage that was active when it was (meant to be) sent
+    private void recordStage(long sentNanos, int endpoint, Outcome outcome, int status, long responseTime) {
+        if (stageMetrics != null) {
+            stageMetrics[profile.stageIndexAt(sentNanos - startNanos)].record(endpoint, outcome, status, responseTime, null);
+        }
+    }
+    
+    private double weightOf(String endpoint) {
+        return scenario.getRequests().stream()
+            .filter(spec -> spec.getName().equals(endpoint))
+            .mapToDouble(RequestSpec::getWeight)
+            .findFirst()
+            .orElse(1.0);
+    }
+    
+    private long requestsPerEndpoint() {
+        return config.getRequestsPerService() != null
+            ? config.getRequestsPerService()
+            : (long) config.getThreads() * config.getRequestsPerThread();
+    }
+    
+    // Returns what the test returned, or null when it failed before recording the request
+    private <T> T testEndpoint(int endpoint, Callable<T> test) {
+        // In flight until recorded, which for the async engine happens later on an I/O thread
+        metrics.begin(endpoint);
+        try {
+            return test.call();
+        } catch (FeederExhaustedException e) {
+            // Reported once; the request was never sent, so it is not counted
+            metrics.abandon(endpoint);
+            if (feederExhausted.compareAndSet(false, true)) {
+                stop(e.getMessage());
+            }
+        } catch (Exception e) {
+            metrics.abandon(endpoint);
+            System.err.println("Error testing " + metrics.nameOf(endpoint) + ": " + e.getMessage());
+        }
+        return null;
+    }
+    
+    // Ends the run early: closed-model users finish their current request, open-model schedulers
+    // stop dispatching, and the results cover what was sent until then
+    public void stop(String reason) {
+        if (stopped.compareAndSet(false, true)) {
+            System.out.println(reason + ", stopping the test");
+            openSchedulers.forEach(ArrivalScheduler::stop);
+        }
+    }
+    
+    private static Consumer<MetricsSnapshot> chain(Consumer<MetricsSnapshot> first, Consumer<MetricsSnapshot> second) {
+        if (first == null || second == null) {
+            return first != null ? first : second;
+        }
+        return first.andThen(second);
+    }
+    
+    // Package-private for the JMH benchmarks (src/jmh/java)
+    void updateStats(int endpoint, Outcome outcome, int status, long responseTime, RequestTrace trace) {
+        metrics.record(endpoint, outcome, status, responseTime, trace);
+    }
 }
-
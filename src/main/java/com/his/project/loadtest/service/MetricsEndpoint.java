@@ -0,0 +1,183 @@
+package com.his.project.loadtest.service;
+
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.metrics.MetricsRegistry;
+import com.his.project.loadtest.metrics.Outcome;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+// Scrape endpoint serving the run's live metrics at /metrics in the Prometheus text format, or
+// OpenMetrics when the scraper asks for it: per-endpoint request counters by outcome, failure and
+// byte counters, requests in flight, response time histograms of the successful requests and any
+// gauges the service registers.
+// Every scrape reads the registry's shards in place, so workers are never blocked, and renders
+// into a text buffer reused across scrapes; its work and garbage depend on the number of endpoints
+// and histogram buckets, never on the number of requests. The JDK server handles exchanges on its
+// single dispatcher thread, which is what makes sharing the buffers safe.
+public class MetricsEndpoint {
+    private static final String OPENMETRICS = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final String PROMETHEUS = "text/plain; version=0.0.4; charset=utf-8";
+    // Upper bounds in seconds, the usual Prometheus defaults
+    private static final double[] BUCKETS = {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    
+    private final MetricsRegistry metrics;
+    private final int port;
+    private final String[] endpointLabels;
+    private final String[] bucketLabels;
+    private final String[] outcomeLabels;
+    private final int[] slotOfIndex; // Histogram bucket index -> BUCKETS slot (BUCKETS.length = +Inf)
+    private final long[] slots = new long[BUCKETS.length + 1];
+    private final List<Gauge> gauges = new ArrayList<>();
+    private final StringBuilder text = new StringBuilder(16 * 1024);
+    private HttpServer server;
+    
+    private static final class Gauge {
+        final String name;
+        final String help;
+        final DoubleSupplier value;
+    
+        Gauge(String name, String help, DoubleSupplier value) {
+            this.name = name;
+            this.help = help;
+            this.value = value;
+        }
+    }
+    
+    public MetricsEndpoint(MetricsRegistry metrics, int port) {
+        this.metrics = metrics;
+        this.port = port;
+        this.endpointLabels = new String[metrics.size()];
+        for (int i = 0; i < endpointLabels.length; i++) {
+            endpointLabels[i] = "endpoint=\"" + escape(metrics.nameOf(i)) + "\"";
+        }
+        this.bucketLabels = new String[BUCKETS.length + 1];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            bucketLabels[i] = "le=\"" + BUCKETS[i] + "\"";
+        }
+        bucketLabels[BUCKETS.length] = "le=\"+Inf\"";
+        this.outcomeLabels = new String[Outcome.values().length];
+        for (Outcome outcome : Outcome.values()) {
+            outcomeLabels[outcome.ordinal()] = "outcome=\"" + outcome.getLabel() + "\"";
+        }
+        // A bucket goes to the first bound its highest value fits under, so no count is placed
+        // below a bound it might exceed
+        LatencyHistogram layout = new LatencyHistogram(metrics.getSignificantDigits());
+        this.slotOfIndex = new int[layout.getBucketLength()];
+        for (int i = 0; i < slotOfIndex.length; i++) {
+            double seconds = layout.highestEquivalentValue(layout.valueFromIndex(i)) / 1e9;
+            int slot = 0;
+            while (slot < BUCKETS.length && seconds > BUCKETS[slot]) {
+                slot++;
+            }
+            slotOfIndex[i] = slot;
+        }
+    }
+    
+    // Adds a gauge read at every scrape; name without the loadtest_ prefix
+    public void addGauge(String name, String help, DoubleSupplier value) {
+        gauges.add(new Gauge("loadtest_" + name, help, value));
+    }
+    
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 16);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+    
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        boolean openMetrics = accept != null && accept.contains("application/openmetrics-text");
+        byte[] body = render(openMetrics).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", openMetrics ? OPENMETRICS : PROMETHEUS);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    private String render(boolean openMetrics) {
+        text.setLength(0);
+        counter("requests", "Requests completed, by outcome (success or the failure category)", openMetrics);
+        for (int i = 0; i < endpointLabels.length; i++) {
+            for (Outcome outcome : Outcome.values()) {
+                sample("loadtest_requests_total", endpointLabels[i], outcomeLabels[outcome.ordinal()], metrics.getOutcomeCount(i, outcome));
+            }
+        }
+        counter("check_failures", "Responses that failed a response check (included in failures)", openMetrics);
+        for (int i = 0; i < endpointLabels.length; i++) {
+            sample("loadtest_check_failures_total", endpointLabels[i], null, metrics.getCheckFailures(i));
+        }
+        counter("sent_bytes", "Request body bytes sent", openMetrics);
+        for (int i = 0; i < endpointLabels.length; i++) {
+            sample("loadtest_sent_bytes_total", endpointLabels[i], null, metrics.getBytesSent(i));
+        }
+        counter("received_bytes", "Response body bytes received", openMetrics);
+        for (int i = 0; i < endpointLabels.length; i++) {
+            sample("loadtest_received_bytes_total", endpointLabels[i], null, metrics.getBytesReceived(i));
+        }
+        header("in_flight", "gauge", "Requests sent and not yet completed");
+        for (int i = 0; i < endpointLabels.length; i++) {
+            sample("loadtest_in_flight", endpointLabels[i], null, metrics.getInFlight(i));
+        }
+        header("response_time_seconds", "histogram", "Response time of successful requests");
+        for (int i = 0; i < endpointLabels.length; i++) {
+            Arrays.fill(slots, 0);
+            long sumNanos = metrics.addResponseTimeCounts(i, slotOfIndex, slots);
+            // Cumulative, with +Inf and _count from the same read so they always agree
+            long cumulative = 0;
+            for (int slot = 0; slot < slots.length; slot++) {
+                cumulative += slots[slot];
+                sample("loadtest_response_time_seconds_bucket", endpointLabels[i], bucketLabels[slot], cumulative);
+            }
+            sample("loadtest_response_time_seconds_count", endpointLabels[i], null, cumulative);
+            text.append("loadtest_response_time_seconds_sum{").append(endpointLabels[i]).append("} ")
+                .append(sumNanos / 1e9).append('\n');
+        }
+        for (Gauge gauge : gauges) {
+            text.append("# TYPE ").append(gauge.name).append(" gauge\n");
+            text.append("# HELP ").append(gauge.name).append(' ').append(gauge.help).append('\n');
+            text.append(gauge.name).append(' ').append(gauge.value.getAsDouble()).append('\n');
+        }
+        if (openMetrics) {
+            text.append("# EOF\n");
+        }
+        return text.toString();
+    }
+    
+    // OpenMetrics names the counter family without _total, the Prometheus text format with it
+    private void counter(String name, String help, boolean openMetrics) {
+        header(openMetrics ? name : name + "_total", "counter", help);
+    }
+    
+    private void header(String name, String type, String help) {
+        text.append("# TYPE loadtest_").append(name).append(' ').append(type).append('\n');
+        text.append("# HELP loadtest_").append(name).append(' ').append(help).append('\n');
+    }
+    
+    private void sample(String name, String endpointLabel, String label, long value) {
+        text.append(name).append('{').append(endpointLabel);
+        if (label != null) {
+            text.append(',').append(label);
+        }
+        text.append("} ").append(value).append('\n');
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,162 @@
+package com.his.project.loadtest.service;
+
+import com.his.project.loadtest.metrics.EndpointSnapshot;
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.metrics.MetricsSnapshot;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.Threshold;
+import com.his.project.loadtest.model.ThresholdMetric;
+import com.his.project.loadtest.model.ThresholdResult;
+import com.his.project.loadtest.model.TestResult;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Checks the run's thresholds while it runs. Fed the activity of every report interval, it judges
+// each threshold over a sliding window of the latest intervals; one that stays breached for the
+// abort time stops the run through the abort callback (once). At the end every threshold is
+// judged again over the whole run, and one that aborted the run fails either way.
+// A window without requests breaches only throughput thresholds (nothing is completing).
+public class SloGate implements Consumer<MetricsSnapshot> {
+    private final List<Threshold> thresholds;
+    private final long windowNanos;
+    private final long abortAfterNanos; // 0 = never abort, verdict only
+    private final int significantDigits;
+    private final Deque<Interval> window = new ArrayDeque<>();
+    private final long[] breachedSince; // Start of the current breach, 0 = met
+    private final boolean[] abortedBy;
+    private Consumer<String> onAbort;
+    private long lastEnd;
+    private volatile String abortReason;
+    
+    // One interval of activity and the time it started
+    private static final class Interval {
+        final long startNanos;
+        final MetricsSnapshot activity;
+    
+        Interval(long startNanos, MetricsSnapshot activity) {
+            this.startNanos = startNanos;
+            this.activity = activity;
+        }
+    }
+    
+    public SloGate(List<Threshold> thresholds, long windowSeconds, long abortAfterSeconds, int significantDigits) {
+        this.thresholds = thresholds;
+        this.windowNanos = windowSeconds * 1_000_000_000L;
+        this.abortAfterNanos = abortAfterSeconds * 1_000_000_000L;
+        this.significantDigits = significantDigits;
+        this.breachedSince = new long[thresholds.size()];
+        this.abortedBy = new boolean[thresholds.size()];
+        this.lastEnd = System.nanoTime();
+    }
+    
+    // Called with the reason when a threshold has stayed breached for the abort time
+    public void setOnAbort(Consumer<String> onAbort) {
+        this.onAbort = onAbort;
+    }
+    
+    @Override
+    public synchronized void accept(MetricsSnapshot interval) {
+        long end = interval.getNanoTime();
+        window.addLast(new Interval(lastEnd, interval));
+        lastEnd = end;
+        // Keep the shortest run of latest intervals that still spans the window
+        while (window.size() > 1 && end - second().startNanos >= windowNanos) {
+            window.removeFirst();
+        }
+        double seconds = (end - window.peekFirst().startNanos) / 1_000_000_000.0;
+        List<MetricsSnapshot> activity = new ArrayList<>(window.size());
+        for (Interval entry : window) {
+            activity.add(entry.activity);
+        }
+        long intervalStart = window.peekLast().startNanos;
+        for (int i = 0; i < thresholds.size(); i++) {
+            Threshold threshold = thresholds.get(i);
+            double actual = measure(threshold, activity, seconds, significantDigits);
+            // No requests in the window: latency and error rate cannot be judged
+            if (Double.isNaN(actual) || threshold.isMet(actual)) {
+                if (breachedSince[i] != 0) {
+                    System.out.println("SLO recovered: " + threshold.describe());
+                }
+                breachedSince[i] = 0;
+                continue;
+            }
+            if (breachedSince[i] == 0) {
+                breachedSince[i] = intervalStart;
+                System.out.println("SLO breached: " + threshold.describe() + " (" + format(actual) + " " + threshold.unit()
+                    + " over the last " + Math.round(seconds) + " s)");
+            }
+            if (abortAfterNanos > 0 && abortReason == null && end - breachedSince[i] >= abortAfterNanos) {
+                abortedBy[i] = true;
+                abortReason = threshold.describe() + " breached for " + Math.round((end - breachedSince[i]) / 1e9)
+                    + " s (" + format(actual) + " " + threshold.unit() + ")";
+                if (onAbort != null) {
+                    onAbort.accept(abortReason);
+                }
+            }
+        }
+    }
+    
+    // Judges every threshold over the whole run and records the verdict in the result
+    public synchronized void finish(TestResult result) {
+        double seconds = result.getDurationMs() / 1000.0;
+        for (int i = 0; i < thresholds.size(); i++) {
+            Threshold threshold = thresholds.get(i);
+            double actual = measure(threshold, result.getEndpointStats(), seconds, significantDigits);
+            boolean passed = !Double.isNaN(actual) && threshold.isMet(actual) && !abortedBy[i];
+            result.getThresholdResults().add(new ThresholdResult(threshold, actual, passed, abortedBy[i]));
+        }
+        result.setAbortReason(abortReason);
+    }
+    
+    public String getAbortReason() {
+        return abortReason;
+    }
+    
+    private Interval second() {
+        Iterator<Interval> iterator = window.iterator();
+        iterator.next();
+        return iterator.next();
+    }
+    
+    // Value of a threshold's metric over a set of endpoint statistics (a whole run or one stage)
+    static double measure(Threshold threshold, Map<String, EndpointStats> stats, double seconds, int significantDigits) {
+        return measure(threshold, List.of(MetricsSnapshot.capture(stats)), seconds, significantDigits);
+    }
+    
+    // Value of a threshold's metric over some activity; NaN when there were no requests to judge
+    private static double measure(Threshold threshold, List<MetricsSnapshot> activity, double seconds, int significantDigits) {
+        long requests = 0;
+        long failures = 0;
+        LatencyHistogram times = threshold.getMetric() == ThresholdMetric.LATENCY ? new LatencyHistogram(significantDigits) : null;
+        for (MetricsSnapshot snapshot : activity) {
+            for (Map.Entry<String, EndpointSnapshot> entry : snapshot.getEndpoints().entrySet()) {
+                if (threshold.getEndpoint() != null && !threshold.getEndpoint().equals(entry.getKey())) {
+                    continue;
+                }
+                requests += entry.getValue().getRequests();
+                failures += entry.getValue().getFailures();
+                if (times != null) {
+                    times.add(entry.getValue().getResponseTimes());
+                }
+            }
+        }
+        switch (threshold.getMetric()) {
+            case LATENCY:
+                return requests == 0 ? Double.NaN : times.getValueAtPercentile(threshold.getPercentile()) / 1_000_000.0;
+            case ERROR_RATE:
+                return requests == 0 ? Double.NaN : failures * 100.0 / requests;
+            default:
+                return seconds > 0 ? requests / seconds : Double.NaN;
+        }
+    }
+    
+    private static String format(double value) {
+        return String.format("%.2f", value);
+    }
+}
@@ -0,0 +1,123 @@
+package com.his.project.loadtest.service;
+
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Watches the virtual-thread scheduler while a test runs: samples how many carrier threads are
+// alive and listens for JFR pinning events (a virtual thread blocking while holding its carrier,
+// e.g. inside a synchronized block), which is what stops the generator from scaling. Blocking that
+// is not pinning (Object.wait, file I/O) raises no event: the scheduler adds carriers beyond its
+// parallelism to compensate, which the carrier peak shows.
+public class VirtualThreadMonitor {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String CARRIER_THREAD_CLASS = "jdk.internal.misc.CarrierThread";
+    private static final long SAMPLE_INTERVAL_MS = 500;
+    
+    private final Duration pinnedThreshold;
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+    private volatile int peakCarrierThreads = 0;
+    private volatile boolean running = false;
+    private RecordingStream recording;
+    private Thread sampler;
+    
+    // Pinning events shorter than the threshold are not counted (zero counts every one)
+    public VirtualThreadMonitor(Duration pinnedThreshold) {
+        this.pinnedThreshold = pinnedThreshold;
+    }
+    
+    public void start() {
+        running = true;
+        try {
+            recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(pinnedThreshold).withStackTrace();
+            recording.onEvent(PINNED_EVENT, event -> {
+                pinnedEvents.increment();
+                pinnedSites.computeIfAbsent(pinnedSite(event.getStackTrace()), k -> new LongAdder()).increment();
+            });
+            recording.startAsync();
+        } catch (Exception e) {
+            // JFR may be unavailable (e.g. disabled on this JVM); carrier sampling still works
+            System.err.println("Virtual thread pinning detection unavailable: " + e.getMessage());
+            recording = null;
+        }
+        
+        sampler = new Thread(() -> {
+            while (running) {
+                peakCarrierThreads = Math.max(peakCarrierThreads, countCarrierThreads());
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "carrier-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+    
+    public void stop() {
+        running = false;
+        peakCarrierThreads = Math.max(peakCarrierThreads, countCarrierThreads());
+        if (sampler != null) {
+            sampler.interrupt();
+        }
+        if (recording != null) {
+            // stop() flushes events that are still buffered before the stream is closed
+            recording.stop();
+            recording.close();
+        }
+    }
+    
+    public int getPeakCarrierThreads() {
+        return peakCarrierThreads;
+    }
+    
+    // Carriers the scheduler keeps when none is blocked; a higher peak means it compensated
+    public int getSchedulerParallelism() {
+        String configured = System.getProperty("jdk.virtualThreadScheduler.parallelism");
+        return configured != null ? Integer.parseInt(configured) : Runtime.getRuntime().availableProcessors();
+    }
+    
+    public long getPinnedEvents() {
+        return pinnedEvents.sum();
+    }
+    
+    public Map<String, Long> getPinnedSites() {
+        Map<String, Long> sites = new ConcurrentHashMap<>();
+        pinnedSites.forEach((site, count) -> sites.put(site, count.sum()));
+        return sites;
+    }
+    
+    private static int countCarrierThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getClass().getName().equals(CARRIER_THREAD_CLASS)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    // First application or library frame below the JDK internals, which is where the pinning lock is held
+    private static String pinnedSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return frames.isEmpty() ? "unknown" : frames.get(0).getMethod().getType().getName();
+    }
+}
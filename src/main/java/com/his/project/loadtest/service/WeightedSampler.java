@@ -0,0 +1,69 @@
+package com.his.project.loadtest.service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Picks an index with probability proportional to its weight in O(1) (Vose's alias method).
+// The tables are immutable after construction and every thread draws from its own
+// ThreadLocalRandom, so sampling on the hot path never contends.
+public class WeightedSampler {
+    private final double[] probability;
+    private final int[] alias;
+    
+    public WeightedSampler(double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Weights must be finite and not negative: " + weight);
+            }
+            total += weight;
+        }
+        if (n == 0 || total <= 0) {
+            throw new IllegalArgumentException("At least one positive weight is required");
+        }
+        probability = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        Deque<Integer> small = new ArrayDeque<>();
+        Deque<Integer> large = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            (scaled[i] < 1.0 ? small : large).push(i);
+        }
+        while (!small.isEmpty() && !large.isEmpty()) {
+            int less = small.pop();
+            int more = large.pop();
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = scaled[more] + scaled[less] - 1.0;
+            (scaled[more] < 1.0 ? small : large).push(more);
+        }
+        // Whatever is left is 1.0 up to rounding error
+        while (!large.isEmpty()) {
+            probability[large.pop()] = 1.0;
+        }
+        while (!small.isEmpty()) {
+            probability[small.pop()] = 1.0;
+        }
+    }
+    
+    public int next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int column = random.nextInt(probability.length);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+    
+    // Probability that next() returns index, read back from the tables: its own column's share
+    // plus what every column aliased to it passes on
+    double probabilityOf(int index) {
+        double sum = probability[index];
+        for (int column = 0; column < alias.length; column++) {
+            if (alias[column] == index && column != index) {
+                sum += 1.0 - probability[column];
+            }
+        }
+        return sum / probability.length;
+    }
+}
@@ -0,0 +1,92 @@
+package com.his.project.loadtest.stub;
+
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.model.StageStats;
+import com.his.project.loadtest.model.TestResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CalibrationResult {
+    private List<StageStats> steps = new ArrayList<>(); // Closed-model staircase, one stage per user count
+    private double maxThroughput;
+    private int usersAtMax;
+    private int saturationUsers; // First user count where doubling gained less than 10%; 0 = never saturated
+    private double probeRate;
+    private String probeLatency;
+    private TestResult probeResult;
+    private LatencyHistogram stubServiceTimes; // Server-side time of the probe requests
+    
+    public List<StageStats> getSteps() {
+        return steps;
+    }
+    
+    public void setSteps(List<StageStats> steps) {
+        this.steps = steps;
+    }
+    
+    public double getMaxThroughput() {
+        return maxThroughput;
+    }
+    
+    public void setMaxThroughput(double maxThroughput) {
+        this.maxThroughput = maxThroughput;
+    }
+    
+    public int getUsersAtMax() {
+        return usersAtMax;
+    }
+    
+    public void setUsersAtMax(int usersAtMax) {
+        this.usersAtMax = usersAtMax;
+    }
+    
+    public int getSaturationUsers() {
+        return saturationUsers;
+    }
+    
+    public void setSaturationUsers(int saturationUsers) {
+        this.saturationUsers = saturationUsers;
+    }
+    
+    public double getProbeRate() {
+        return probeRate;
+    }
+    
+    public void setProbeRate(double probeRate) {
+        this.probeRate = probeRate;
+    }
+    
+    public String getProbeLatency() {
+        return probeLatency;
+    }
+    
+    public void setProbeLatency(String probeLatency) {
+        this.probeLatency = probeLatency;
+    }
+    
+    public TestResult getProbeResult() {
+        return probeResult;
+    }
+    
+    public void setProbeResult(TestResult probeResult) {
+        this.probeResult = probeResult;
+    }
+    
+    public LatencyHistogram getStubServiceTimes() {
+        return stubServiceTimes;
+    }
+    
+    public void setStubServiceTimes(LatencyHistogram stubServiceTimes) {
+        this.stubServiceTimes = stubServiceTimes;
+    }
+    
+    // Latency the generator adds at a percentile: client-measured minus stub-side time (ms).
+    // Percentiles of the two histograms are subtracted, an approximation of the per-request difference.
+    public double getAddedLatencyMs(double percentile) {
+        if (probeResult == null || stubServiceTimes == null) {
+            return 0.0;
+        }
+        return probeResult.getPercentile(percentile) - stubServiceTimes.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.his.project.loadtest.stub;
+
+import com.google.gson.Gson;
+import com.his.project.loadtest.model.LoadProfile;
+import com.his.project.loadtest.model.ProfileUnit;
+import com.his.project.loadtest.model.StageStats;
+import com.his.project.loadtest.model.StageTransition;
+import com.his.project.loadtest.model.TestConfig;
+import com.his.project.loadtest.model.TestResult;
+import com.his.project.loadtest.service.LoadTestService;
+import com.his.project.loadtest.util.Distribution;
+
+import java.io.IOException;
+
+// Measures what the generator itself can deliver on this machine, against an in-process stub:
+//   1. a closed-model staircase of 1, 2, 4, ... users up to --threads with zero stub latency,
+//      whose best step is the maximum request rate;
+//   2. an open-model probe at half of that rate with the configured stub latency, comparing the
+//      client-side latency with the stub's own service time to get the latency the tool adds.
+// The stub shares the CPU with the generator, so both figures are conservative.
+public class Calibrator {
+    private static final long DEFAULT_STEP_SECONDS = 5;
+    
+    private final TestConfig config;
+    private final Gson gson = new Gson();
+    
+    public Calibrator(TestConfig config) {
+        this.config = config;
+    }
+    
+    public CalibrationResult run() throws IOException {
+        CalibrationResult calibration = new CalibrationResult();
+        long stepSeconds = config.getDurationSeconds() > 0 ? config.getDurationSeconds() : DEFAULT_STEP_SECONDS;
+        int maxUsers = Math.max(1, config.getThreads());
+        
+        LoadProfile staircase = new LoadProfile(ProfileUnit.USERS);
+        for (int users = 1; ; users = Math.min(users * 2, maxUsers)) {
+            staircase.addStage(users + " users", stepSeconds, users, StageTransition.STEP);
+            if (users == maxUsers) {
+                break;
+            }
+        }
+        TestConfig ceiling = baseConfig();
+        ceiling.setThreads(maxUsers);
+        ceiling.setLoadProfile(staircase);
+        
+        System.out.println("Step 1/2: maximum rate, " + staircase.getStages().size() + " steps of " + stepSeconds + " s");
+        StubConfig instantStub = stubConfig();
+        instantStub.setLatency(Distribution.fixed(0));
+        try (StubGateway stub = new StubGateway(instantStub)) {
+            stub.start();
+            ceiling.setGatewayBaseUrl(stub.getBaseUrl());
+            TestResult result = new LoadTestService(ceiling).runLoadTest();
+            calibration.setSteps(result.getStageStats());
+        }
+        double previous = 0;
+        for (StageStats step : calibration.getSteps()) {
+            int users = (int) step.getStage().getTarget();
+            if (step.getThroughput() > calibration.getMaxThroughput()) {
+                calibration.setMaxThroughput(step.getThroughput());
+                calibration.setUsersAtMax(users);
+            }
+            if (calibration.getSaturationUsers() == 0 && previous > 0 && step.getThroughput() < previous * 1.1) {
+                calibration.setSaturationUsers(users);
+            }
+            previous = step.getThroughput();
+        }
+        
+        // Enough workers for the probe rate at the stub's mean latency, at half the measured ceiling
+        Distribution latency = config.getStub().getLatency();
+        double rate = calibration.getMaxThroughput() / 2;
+        if (latency.getMeanMillis() > 0) {
+            rate = Math.min(rate, maxUsers * 1000.0 / latency.getMeanMillis() / 2);
+        }
+        rate = Math.max(rate, 1);
+        calibration.setProbeRate(rate);
+        calibration.setProbeLatency(latency.toString());
+        TestConfig probe = baseConfig();
+        probe.setThreads(maxUsers);
+        probe.setTargetRps(rate);
+        probe.setDurationSeconds(stepSeconds * 2);
+        
+        System.out.println(String.format("Step 2/2: added latency at %.1f req/s, stub latency %s, %d s", rate, latency, stepSeconds * 2));
+        try (StubGateway stub = new StubGateway(stubConfig())) {
+            stub.start();
+            probe.setGatewayBaseUrl(stub.getBaseUrl());
+            calibration.setProbeResult(new LoadTestService(probe).runLoadTest());
+            calibration.setStubServiceTimes(stub.getServiceTimes());
+        }
+        return calibration;
+    }
+    
+    // The user's client settings (engine, threads model, pool, scenario) without their load shape
+    private TestConfig baseConfig() {
+        TestConfig copy = gson.fromJson(gson.toJson(config), TestConfig.class);
+        copy.setDelayMs(0);
+        copy.setTargetRps(null);
+        copy.getEndpointRps().clear();
+        copy.setRequestsPerService(null);
+        copy.setLoadProfile(null);
+        copy.setDurationSeconds(0);
+        copy.setReportIntervalSeconds(0);
+        copy.setTimeSeriesFile(null);
+        copy.setRecordDirectory(null);
+        copy.setMetricsPort(0);
+        copy.setResultFile(null);
+        copy.setWorkers(0);
+        // The SLO is the user's run's; a breach must not abort a calibration step
+        copy.getThresholds().clear();
+        copy.setAbortAfterSeconds(0);
+        return copy;
+    }
+    
+    private StubConfig stubConfig() {
+        StubConfig stub = gson.fromJson(gson.toJson(config.getStub()), StubConfig.class);
+        stub.setPort(0);
+        return stub;
+    }
+}
@@ -0,0 +1,51 @@
+package com.his.project.loadtest.stub;
+
+import com.his.project.loadtest.util.Distribution;
+
+public class StubConfig {
+    private int port = 9000; // 0 = any free port
+    private Distribution latency = Distribution.fixed(0); // Added before every response
+    private double errorRate = 0.0; // Fraction of requests answered with errorStatus
+    private int errorStatus = 500;
+    private int responseBytes = 0; // Pads response bodies to this size; 0 = minimal JSON
+    
+    public int getPort() {
+        return port;
+    }
+    
+    public void setPort(int port) {
+        this.port = port;
+    }
+    
+    public Distribution getLatency() {
+        return latency;
+    }
+    
+    public void setLatency(Distribution latency) {
+        this.latency = latency;
+    }
+    
+    public double getErrorRate() {
+        return errorRate;
+    }
+    
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+    
+    public int getErrorStatus() {
+        return errorStatus;
+    }
+    
+    public void setErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+    }
+    
+    public int getResponseBytes() {
+        return responseBytes;
+    }
+    
+    public void setResponseBytes(int responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+}
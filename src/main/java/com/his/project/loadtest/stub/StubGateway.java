@@ -0,0 +1,142 @@
+package com.his.project.loadtest.stub;
+
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// In-process stand-in for the API gateway: answers the endpoints ApiClient uses with the status
+// codes it expects, after a configurable latency, with optional errors and padded responses.
+// Every exchange runs on its own virtual thread, so injected latency costs no platform threads.
+public class StubGateway implements Closeable {
+    private final StubConfig config;
+    private final byte[] productList;
+    private final byte[] created;
+    private final byte[] inventory;
+    private final byte[] error;
+    private final byte[] unsupported;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    // Time from receiving a request to having written its response, injected latency included
+    private final LatencyHistogram serviceTimes = new LatencyHistogram();
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    public StubGateway(StubConfig config) {
+        this.config = config;
+        this.productList = body("[{\"id\":\"1\",\"name\":\"Test Product\",\"skuCode\":\"IPHONE-15-PRO-256\",\"price\":999.99}]",
+            config.getResponseBytes());
+        this.created = body("{\"status\":\"created\"}", config.getResponseBytes());
+        this.inventory = body("true", config.getResponseBytes());
+        this.error = body("{\"error\":\"injected failure\"}", 0);
+        this.unsupported = body("{\"error\":\"not supported by the stub gateway\"}", 0);
+    }
+    
+    public void start() throws IOException {
+        // Without TCP_NODELAY the JDK server's separate header and body writes meet the client's
+        // delayed ACK and add ~40 ms to every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(config.getPort()), 4096);
+        server.createContext("/api/product", exchange -> handle(exchange, "GET", productList, 200, "POST", created, 201));
+        server.createContext("/api/inventory", exchange -> handle(exchange, "GET", inventory, 200, "POST", created, 201));
+        server.createContext("/api/order", exchange -> handle(exchange, null, null, 0, "POST", created, 201));
+        server.createContext("/", exchange -> respond(exchange, 404, unsupported));
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.start();
+    }
+    
+    private void handle(HttpExchange exchange, String getMethod, byte[] getBody, int getStatus,
+                        String postMethod, byte[] postBody, int postStatus) throws IOException {
+        long start = System.nanoTime();
+        try (InputStream in = exchange.getRequestBody()) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String method = exchange.getRequestMethod();
+        byte[] body;
+        int status;
+        if (method.equals(getMethod)) {
+            body = getBody;
+            status = getStatus;
+        } else if (method.equals(postMethod)) {
+            body = postBody;
+            status = postStatus;
+        } else {
+            respond(exchange, 405, unsupported);
+            return;
+        }
+        
+        long delay = config.getLatency().sampleNanos();
+        if (delay > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(delay));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (config.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < config.getErrorRate()) {
+            errors.increment();
+            respond(exchange, config.getErrorStatus(), error);
+        } else {
+            respond(exchange, status, body);
+        }
+        requests.increment();
+        serviceTimes.recordValue(System.nanoTime() - start);
+    }
+    
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+    
+    // JSON body padded with a filler field up to the requested size
+    private static byte[] body(String json, int size) {
+        if (json.length() >= size) {
+            return json.getBytes(StandardCharsets.UTF_8);
+        }
+        String wrapped = "{\"data\":" + json + ",\"padding\":\"\"}";
+        int padding = Math.max(0, size - wrapped.length());
+        return ("{\"data\":" + json + ",\"padding\":\"" + "x".repeat(padding) + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+    
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+    
+    public long getRequestCount() {
+        return requests.sum();
+    }
+    
+    public long getErrorCount() {
+        return errors.sum();
+    }
+    
+    public LatencyHistogram getServiceTimes() {
+        return serviceTimes;
+    }
+    
+    public StubConfig getConfig() {
+        return config;
+    }
+    
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.his.project.loadtest.util;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+// A random duration in milliseconds, parsed from a short spec:
+//   fixed:MS                        always MS
+//   uniform:MIN:MAX                 evenly spread between MIN and MAX
+//   exponential:MEAN                memoryless, e.g. think times
+//   lognormal:MEDIAN:SIGMA          long right tail, typical of service latency
+//   bimodal:FAST:SLOW:SLOW_FRACTION mostly FAST, SLOW_FRACTION of samples SLOW (cache misses, GC)
+public class Distribution {
+    public enum Type { FIXED, UNIFORM, EXPONENTIAL, LOGNORMAL, BIMODAL }
+    
+    private Type type = Type.FIXED;
+    private double a;
+    private double b;
+    private double c;
+    
+    public Distribution() {
+    }
+    
+    public Distribution(Type type, double a, double b, double c) {
+        this.type = type;
+        this.a = a;
+        this.b = b;
+        this.c = c;
+    }
+    
+    public static Distribution fixed(double millis) {
+        return new Distribution(Type.FIXED, millis, 0, 0);
+    }
+    
+    public static Distribution parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        Type type = null;
+        for (Type candidate : Type.values()) {
+            if (candidate.name().equalsIgnoreCase(parts[0])) {
+                type = candidate;
+            }
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("Unknown distribution '" + parts[0]
+                + "' (fixed, uniform, exponential, lognormal, bimodal)");
+        }
+        int arguments;
+        switch (type) {
+            case FIXED:
+            case EXPONENTIAL:
+                arguments = 1;
+                break;
+            case BIMODAL:
+                arguments = 3;
+                break;
+            default:
+                arguments = 2;
+        }
+        if (parts.length != arguments + 1) {
+            throw new IllegalArgumentException("Expected " + arguments + " value(s) for " + parts[0] + ": " + spec);
+        }
+        double[] values = new double[3];
+        try {
+            for (int i = 0; i < arguments; i++) {
+                values[i] = Double.parseDouble(parts[i + 1]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid distribution: " + spec, e);
+        }
+        if (values[0] < 0 || values[1] < 0 || values[2] < 0) {
+            throw new IllegalArgumentException("Negative value in distribution: " + spec);
+        }
+        if (type == Type.UNIFORM && values[1] < values[0]) {
+            throw new IllegalArgumentException("Uniform maximum is below the minimum: " + spec);
+        }
+        if (type == Type.BIMODAL && values[2] > 1) {
+            throw new IllegalArgumentException("Bimodal slow fraction must be between 0 and 1: " + spec);
+        }
+        return new Distribution(type, values[0], values[1], values[2]);
+    }
+    
+    public double sampleMillis() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (type) {
+            case UNIFORM:
+                return a + random.nextDouble() * (b - a);
+            case EXPONENTIAL:
+                return -a * Math.log(1.0 - random.nextDouble());
+            case LOGNORMAL:
+                return a * Math.exp(b * random.nextGaussian());
+            case BIMODAL:
+                return random.nextDouble() < c ? b : a;
+            case FIXED:
+            default:
+                return a;
+        }
+    }
+    
+    public long sampleNanos() {
+        return (long) (sampleMillis() * 1_000_000.0);
+    }
+    
+    // Mean in milliseconds, used to size expectations (e.g. the added latency in calibration)
+    public double getMeanMillis() {
+        switch (type) {
+            case UNIFORM:
+                return (a + b) / 2;
+            case LOGNORMAL:
+                return a * Math.exp(b * b / 2);
+            case BIMODAL:
+                return a * (1 - c) + b * c;
+            case FIXED:
+            case EXPONENTIAL:
+            default:
+                return a;
+        }
+    }
+    
+    public boolean isZero() {
+        return type == Type.FIXED && a == 0;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    @Override
+    public String toString() {
+        switch (type) {
+            case UNIFORM:
+            case LOGNORMAL:
+                return type.name().toLowerCase(Locale.ROOT) + ":" + trim(a) + ":" + trim(b);
+            case BIMODAL:
+                return "bimodal:" + trim(a) + ":" + trim(b) + ":" + trim(c);
+            default:
+                return type.name().toLowerCase(Locale.ROOT) + ":" + trim(a);
+        }
+    }
+    
+    private static String trim(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
@@ -0,0 +1,53 @@
+package com.his.project.loadtest;
+
+import com.his.project.loadtest.seed.SeedConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DemoDataLoaderTest {
+    // Nothing listens here, so every request fails at once without retries
+    private static final String UNREACHABLE = "http://localhost:1";
+
+    @Test
+    @Timeout(30)
+    void missingProductsFileLeavesNoWorkersBehind(@TempDir Path dir) {
+        load(dir.resolve("missing.json"));
+        assertEquals(List.of(), liveWorkers());
+    }
+
+    @Test
+    @Timeout(30)
+    void malformedProductsFileStopsStartedPhases(@TempDir Path dir) throws IOException {
+        // The first record is sent before the second fails to parse, so both phases are running
+        Path file = dir.resolve("products.json");
+        Files.writeString(file, "[{\"skuCode\":\"A1\",\"price\":1}, \"not a product\"]", StandardCharsets.UTF_8);
+        load(file);
+        assertEquals(List.of(), liveWorkers());
+    }
+
+    private static void load(Path productsFile) {
+        SeedConfig config = new SeedConfig();
+        config.setConcurrency(2);
+        config.setMaxRetries(0);
+        config.setProductsFile(productsFile.toString());
+        new DemoDataLoader(UNREACHABLE, config).loadDemoData();
+    }
+
+    // Seeding workers are not daemon threads, so any left alive would keep the JVM from exiting
+    private static List<String> liveWorkers() {
+        return Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread.getName().startsWith("seed-") && !thread.isDaemon() && thread.isAlive())
+            .map(Thread::getName)
+            .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,172 @@
+package com.his.project.loadtest.feeder;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeederTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void sequentialHandsOutEveryRecordOnceInOrder() throws IOException {
+        try (Feeder feeder = feeder(jsonl(5), FeederStrategy.SEQUENTIAL)) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals(String.valueOf(i), feeder.next().getString("id"));
+            }
+            assertThrows(FeederExhaustedException.class, feeder::next);
+            assertTrue(feeder.isExhausted());
+            assertEquals(5, feeder.getRecordsDrawn());
+        }
+    }
+
+    @Test
+    void circularStartsOverAtTheEnd() throws IOException {
+        try (Feeder feeder = feeder(jsonl(4), FeederStrategy.CIRCULAR)) {
+            for (int i = 0; i < 10; i++) {
+                assertEquals(String.valueOf(i % 4), feeder.next().getString("id"));
+            }
+            assertEquals(10, feeder.getRecordsDrawn());
+        }
+    }
+
+    @Test
+    void uniqueGivesEachRecordToExactlyOneThread() throws Exception {
+        int records = 1000;
+        ConcurrentLinkedQueue<String> drawn = new ConcurrentLinkedQueue<>();
+        try (Feeder feeder = feeder(jsonl(records), FeederStrategy.UNIQUE)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                threads.add(new Thread(() -> {
+                    try {
+                        while (true) {
+                            drawn.add(feeder.next().getString("id"));
+                        }
+                    } catch (FeederExhaustedException e) {
+                        // Every thread ends here once the file is used up
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        assertEquals(records, drawn.size());
+        assertEquals(records, new HashSet<>(drawn).size());
+    }
+
+    @Test
+    void randomWithALargeBufferShufflesEachPass() throws IOException {
+        FeederConfig config = config(jsonl(50), FeederStrategy.RANDOM);
+        config.setRandomBufferSize(100);
+        try (Feeder feeder = Feeder.open(config)) {
+            List<String> order = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < 500; i++) {
+                String id = feeder.next().getString("id");
+                order.add(id);
+                seen.add(id);
+            }
+            // Repeats without running out, covers the whole file and is not in file order
+            assertEquals(50, seen.size());
+            List<String> fileOrder = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                fileOrder.add(String.valueOf(i));
+            }
+            assertNotEquals(fileOrder, order.subList(0, 50));
+        }
+    }
+
+    @Test
+    void randomWithASmallBufferStillDrawsOnlyFileRecords() throws IOException {
+        FeederConfig config = config(jsonl(20), FeederStrategy.RANDOM);
+        config.setRandomBufferSize(3);
+        try (Feeder feeder = Feeder.open(config)) {
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < 400; i++) {
+                int id = Integer.parseInt(feeder.next().getString("id"));
+                assertTrue(id >= 0 && id < 20);
+                seen.add(String.valueOf(id));
+            }
+            assertEquals(20, seen.size());
+        }
+    }
+
+    @Test
+    void jsonObjectsAreFlattenedToDottedNames() throws IOException {
+        Path file = write("data.json", "[{\"sku\":\"A-1\",\"price\":12.50,\"active\":true,\"note\":null,"
+            + "\"user\":{\"email\":\"a@b.c\",\"address\":{\"city\":\"Pune\"}},\"tags\":[\"x\",\"y\"]}]");
+        try (Feeder feeder = feeder(file, FeederStrategy.SEQUENTIAL)) {
+            FeederRecord record = feeder.next();
+            assertEquals("A-1", record.getString("sku"));
+            assertEquals("12.50", record.getString("price"));
+            assertEquals("true", record.getString("active"));
+            assertEquals("", record.getString("note"));
+            assertEquals("a@b.c", record.getString("user.email"));
+            assertEquals("Pune", record.getString("user.address.city"));
+            assertEquals("[\"x\",\"y\"]", record.getString("tags"));
+            assertNull(record.getString("missing"));
+        }
+    }
+
+    @Test
+    void csvSupportsQuotedFieldsAndSkipsBlankLines() throws IOException {
+        Path file = write("data.csv", "\uFEFFsku, name ,qty\r\nA-1,\"Phone, 5G\",3\n\nB-2,\"Say \"\"hi\"\"\nnow\"\nC-3\n");
+        try (Feeder feeder = feeder(file, FeederStrategy.SEQUENTIAL)) {
+            FeederRecord first = feeder.next();
+            assertEquals("A-1", first.getString("sku"));
+            assertEquals("Phone, 5G", first.getString("name"));
+            assertEquals("3", first.getString("qty"));
+            FeederRecord second = feeder.next();
+            assertEquals("Say \"hi\"\nnow", second.getString("name"));
+            assertEquals("", second.getString("qty"));
+            assertEquals("C-3", feeder.next().getString("sku"));
+            assertThrows(FeederExhaustedException.class, feeder::next);
+        }
+    }
+
+    @Test
+    void circularRejectsAnEmptyFile() throws IOException {
+        try (Feeder feeder = feeder(write("empty.jsonl", ""), FeederStrategy.CIRCULAR)) {
+            assertThrows(RuntimeException.class, feeder::next);
+        }
+    }
+
+    private Path jsonl(int records) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < records; i++) {
+            text.append("{\"id\":").append(i).append(",\"sku\":\"SKU-").append(i).append("\"}\n");
+        }
+        return write("records-" + records + ".jsonl", text.toString());
+    }
+
+    private Path write(String name, String text) throws IOException {
+        return Files.writeString(dir.resolve(name), text);
+    }
+
+    private static FeederConfig config(Path file, FeederStrategy strategy) {
+        FeederConfig config = new FeederConfig();
+        config.setFile(file.toString());
+        config.setStrategy(strategy);
+        return config;
+    }
+
+    private static Feeder feeder(Path file, FeederStrategy strategy) throws IOException {
+        return Feeder.open(config(file, strategy));
+    }
+}
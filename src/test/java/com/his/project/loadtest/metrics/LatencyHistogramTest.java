@@ -0,0 +1,168 @@
+package com.his.project.loadtest.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+
+    @Test
+    void smallValuesAreExact() {
+        // At 3 digits the first bucket has unit 1 up to 2047
+        LatencyHistogram histogram = new LatencyHistogram(3);
+        for (long value = 0; value < 2048; value++) {
+            LatencyHistogram single = new LatencyHistogram(3);
+            single.recordValue(value);
+            assertEquals(value, single.getValueAtPercentile(100));
+            histogram.recordValue(value);
+        }
+        assertEquals(1023, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    void relativeErrorStaysWithinPrecision() {
+        Random random = new Random(42);
+        for (int digits = 1; digits <= LatencyHistogram.MAX_SIGNIFICANT_DIGITS; digits++) {
+            LatencyHistogram histogram = new LatencyHistogram(digits);
+            double maxError = Math.pow(10, -digits);
+            for (int i = 0; i < 10_000; i++) {
+                long value = (long) Math.exp(random.nextDouble() * Math.log(histogram.getHighestTrackableValue()));
+                int index = indexOf(histogram, value);
+                long lowest = histogram.valueFromIndex(index);
+                long highest = histogram.highestEquivalentValue(lowest);
+                assertTrue(lowest <= value && value <= highest, value + " outside [" + lowest + ", " + highest + "]");
+                assertTrue(highest - lowest <= Math.max(0, maxError * value), digits + " digits, value " + value);
+            }
+        }
+    }
+
+    @Test
+    void percentilesAreNeverUnderstated() {
+        LatencyHistogram histogram = new LatencyHistogram(3);
+        for (long ms = 1; ms <= 1000; ms++) {
+            histogram.recordValue(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+        assertEquals(1000, histogram.getTotalCount());
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9}) {
+            long exact = TimeUnit.MILLISECONDS.toNanos((long) Math.ceil(percentile / 100.0 * 1000));
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(reported >= exact && reported <= exact * 1.001, percentile + ": " + reported + " vs " + exact);
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), histogram.getValueAtPercentile(100));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), histogram.getMinValue());
+        assertEquals(500.5e6, histogram.getMean(), 1e-3);
+    }
+
+    @Test
+    void addEqualsRecordingIntoOneHistogram() {
+        LatencyHistogram first = new LatencyHistogram(2);
+        LatencyHistogram second = new LatencyHistogram(2);
+        LatencyHistogram combined = new LatencyHistogram(2);
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            long value = random.nextInt(50_000_000);
+            (i % 3 == 0 ? first : second).recordValue(value);
+            combined.recordValue(value);
+        }
+        first.add(second);
+        
+        assertSameContents(combined, first);
+    }
+
+    @Test
+    void minusLeavesTheIntervalSamples() {
+        LatencyHistogram histogram = new LatencyHistogram(3);
+        histogram.recordValue(1_000);
+        histogram.recordValue(5_000_000);
+        LatencyHistogram earlier = histogram.copy();
+        histogram.recordValue(20_000, 3);
+        histogram.recordValue(40_000);
+        
+        LatencyHistogram interval = histogram.minus(earlier);
+        assertEquals(4, interval.getTotalCount());
+        assertEquals(100_000, interval.getTotalSum());
+        assertEquals(20_000, interval.getMinValue());
+        assertTrue(interval.getMaxValue() >= 40_000 && interval.getMaxValue() <= 40_040);
+        assertEquals(6, histogram.getTotalCount());
+    }
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        LatencyHistogram histogram = new LatencyHistogram(3);
+        Random random = new Random(3);
+        for (int i = 0; i < 2_000; i++) {
+            histogram.recordValue(random.nextInt(1_000_000_000));
+        }
+        EncodedHistogram encoded = histogram.encode();
+        assertTrue(encoded.getIndexes().length < histogram.getBucketLength());
+        
+        assertSameContents(histogram, LatencyHistogram.decode(encoded));
+    }
+
+    @Test
+    void valuesAboveTheRangeAreClampedNotDropped() {
+        LatencyHistogram histogram = new LatencyHistogram(2, 1_000_000);
+        histogram.recordValue(5_000_000);
+        histogram.recordValue(-10);
+        
+        assertEquals(2, histogram.getTotalCount());
+        assertEquals(0, histogram.getMinValue());
+        assertEquals(5_000_000, histogram.getMaxValue());
+        // The sample is counted in the top bucket, so percentiles report the end of the range
+        long top = histogram.getValueAtPercentile(100);
+        assertTrue(top >= 1_000_000 && top < 5_000_000, "top " + top);
+    }
+
+    @Test
+    void rejectsIncompatibleLayouts() {
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(2).add(new LatencyHistogram(3)));
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(3, 1_000).add(new LatencyHistogram(3)));
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(0));
+        assertThrows(IllegalArgumentException.class, () -> new LatencyHistogram(LatencyHistogram.MAX_SIGNIFICANT_DIGITS + 1));
+    }
+
+    @Test
+    void severalPercentilesInOnePassMatchSingleLookups() {
+        Random random = new Random(3);
+        LatencyHistogram histogram = new LatencyHistogram(3);
+        for (int i = 0; i < 50_000; i++) {
+            histogram.recordValue((long) (Math.exp(random.nextGaussian()) * 1_000_000));
+        }
+        double[] percentiles = {0, 1, 50, 50, 90, 99, 99.9, 100};
+        long[] values = histogram.getValuesAtPercentiles(percentiles);
+        for (int i = 0; i < percentiles.length; i++) {
+            assertEquals(histogram.getValueAtPercentile(percentiles[i]), values[i], "p" + percentiles[i]);
+        }
+        assertEquals(histogram.getMaxValue(), values[values.length - 1]);
+        assertArrayEquals(new long[2], new LatencyHistogram(3).getValuesAtPercentiles(50, 99));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValuesAtPercentiles(99, 50));
+    }
+
+    // The bucket a value lands in, found through the public index accessors
+    private static int indexOf(LatencyHistogram layout, long value) {
+        LatencyHistogram histogram = new LatencyHistogram(layout.getSignificantDigits(), layout.getHighestTrackableValue());
+        histogram.recordValue(value);
+        for (int i = 0; i < histogram.getBucketLength(); i++) {
+            if (histogram.getCountAtIndex(i) > 0) {
+                return i;
+            }
+        }
+        throw new AssertionError("value " + value + " not recorded");
+    }
+
+    private static void assertSameContents(LatencyHistogram expected, LatencyHistogram actual) {
+        assertEquals(expected.getTotalCount(), actual.getTotalCount());
+        assertEquals(expected.getTotalSum(), actual.getTotalSum());
+        assertEquals(expected.getMinValue(), actual.getMinValue());
+        assertEquals(expected.getMaxValue(), actual.getMaxValue());
+        for (int i = 0; i < expected.getBucketLength(); i++) {
+            assertEquals(expected.getCountAtIndex(i), actual.getCountAtIndex(i), "bucket " + i);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.his.project.loadtest.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoadProfileTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void parsesStagesWithDefaultsAndNames() {
+        LoadProfile profile = LoadProfile.parse("10s:100, 20:100:step:hold,10:0", ProfileUnit.RATE);
+        assertEquals(ProfileUnit.RATE, profile.getUnit());
+        assertEquals(3, profile.getStages().size());
+        assertEquals("stage-1", profile.getStages().get(0).getName());
+        assertEquals(StageTransition.LINEAR, profile.getStages().get(0).getTransition());
+        assertEquals("hold", profile.getStages().get(1).getName());
+        assertEquals(StageTransition.STEP, profile.getStages().get(1).getTransition());
+        assertEquals(40, profile.getTotalDurationSeconds());
+        assertEquals(40 * SECOND, profile.getTotalDurationNanos());
+        assertEquals(100.0, profile.getMaxTarget());
+    }
+
+    @Test
+    void rejectsInvalidStages() {
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("10", ProfileUnit.USERS));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("0:10", ProfileUnit.USERS));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("10:-1", ProfileUnit.USERS));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.parse("10:5:curve", ProfileUnit.USERS));
+    }
+
+    @Test
+    void linearStagesInterpolateFromThePreviousTarget() {
+        LoadProfile profile = LoadProfile.parse("10:100,20:100:step,10:0", ProfileUnit.USERS);
+        assertEquals(0.0, profile.targetAt(0), 1e-9);
+        assertEquals(25.0, profile.targetAt(2_500_000_000L), 1e-9);
+        assertEquals(50.0, profile.targetAt(5 * SECOND), 1e-9);
+        assertEquals(100.0, profile.targetAt(10 * SECOND), 1e-9);
+        assertEquals(100.0, profile.targetAt(29 * SECOND), 1e-9);
+        assertEquals(50.0, profile.targetAt(35 * SECOND), 1e-9);
+        // Before the start and after the end
+        assertEquals(0.0, profile.targetAt(-SECOND), 1e-9);
+        assertEquals(0.0, profile.targetAt(40 * SECOND), 1e-9);
+    }
+
+    @Test
+    void stepStagesJumpAtTheirStart() {
+        LoadProfile profile = LoadProfile.parse("5:10:step,5:30:step", ProfileUnit.USERS);
+        assertEquals(10.0, profile.targetAt(0));
+        assertEquals(10.0, profile.targetAt(5 * SECOND - 1));
+        assertEquals(30.0, profile.targetAt(5 * SECOND));
+    }
+
+    @Test
+    void stageIndexFollowsStageBoundaries() {
+        LoadProfile profile = LoadProfile.parse("5:10,10:20,5:0", ProfileUnit.USERS);
+        assertEquals(0, profile.stageIndexAt(0));
+        assertEquals(0, profile.stageIndexAt(5 * SECOND - 1));
+        assertEquals(1, profile.stageIndexAt(5 * SECOND));
+        assertEquals(2, profile.stageIndexAt(15 * SECOND));
+        // Requests completing after the end still belong to the last stage
+        assertEquals(2, profile.stageIndexAt(60 * SECOND));
+    }
+
+    @Test
+    void builtInShapesFillTheDurationAndPeakAtTheTarget() {
+        for (String shape : new String[]{"ramp", "spike", "soak", "staircase"}) {
+            for (long duration : new long[]{10, 11, 12, 13, 14, 37, 300, 3601}) {
+                LoadProfile profile = LoadProfile.builtIn(shape, ProfileUnit.USERS, 50, duration);
+                assertEquals(duration, profile.getTotalDurationSeconds(), shape + " " + duration);
+                assertEquals(50.0, profile.getMaxTarget(), 1e-9, shape);
+            }
+        }
+    }
+
+    @Test
+    void rampRisesHoldsAndDrains() {
+        LoadProfile ramp = LoadProfile.builtIn("ramp", ProfileUnit.USERS, 40, 100);
+        assertEquals(10.0, ramp.targetAt(6_250_000_000L), 1e-9);
+        assertEquals(40.0, ramp.targetAt(50 * SECOND), 1e-9);
+        assertEquals(20.0, ramp.targetAt(95 * SECOND), 1e-9);
+    }
+
+    @Test
+    void staircaseClimbsInFiveEqualSteps() {
+        LoadProfile staircase = LoadProfile.builtIn("staircase", ProfileUnit.RATE, 100, 50);
+        assertEquals(5, staircase.getStages().size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(20.0 * (i + 1), staircase.targetAt((10 * i + 5) * SECOND), 1e-9);
+        }
+    }
+
+    @Test
+    void spikeReturnsToTheBaseline() {
+        LoadProfile spike = LoadProfile.builtIn("spike", ProfileUnit.USERS, 100, 100);
+        assertEquals(20.0, spike.targetAt(10 * SECOND));
+        assertEquals(100.0, spike.targetAt(50 * SECOND));
+        assertEquals(20.0, spike.targetAt(90 * SECOND));
+    }
+
+    @Test
+    void soakWarmUpIsCappedAtFiveMinutes() {
+        LoadProfile soak = LoadProfile.builtIn("soak", ProfileUnit.USERS, 10, 10_000);
+        assertEquals(300, soak.getStages().get(0).getDurationSeconds());
+        assertEquals(9_700, soak.getStages().get(1).getDurationSeconds());
+    }
+
+    @Test
+    void shortOrUnknownShapes() {
+        assertEquals(10, LoadProfile.builtIn("ramp", ProfileUnit.USERS, 5, 2).getTotalDurationSeconds());
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.builtIn("sawtooth", ProfileUnit.USERS, 5, 60));
+    }
+}
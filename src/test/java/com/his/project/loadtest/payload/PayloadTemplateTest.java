@@ -0,0 +1,85 @@
+package com.his.project.loadtest.payload;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayloadTemplateTest {
+
+    @Test
+    void literalsRenderAsGiven() {
+        PayloadTemplate template = PayloadTemplate.compile("{\"name\":\"caf\u00e9\"}");
+        assertTrue(template.isConstant());
+        assertEquals("{\"name\":\"caf\u00e9\"}", template.renderToString());
+        // An unclosed placeholder is literal text
+        assertEquals("a${hex:4", PayloadTemplate.compile("a${hex:4").renderToString());
+    }
+
+    @Test
+    void hexAndSequenceSlots() {
+        String hex = PayloadTemplate.compile("${hex:40}").renderToString();
+        assertTrue(hex.matches("[0-9a-f]{40}"), hex);
+        assertTrue(PayloadTemplate.compile("${HEX:5}").renderToString().matches("[0-9A-F]{5}"));
+
+        PayloadTemplate seq = PayloadTemplate.compile("${seq}");
+        assertFalse(seq.isConstant());
+        long first = Long.parseLong(seq.renderToString());
+        assertEquals(first + 1, Long.parseLong(seq.renderToString()));
+    }
+
+    @Test
+    void integersStayWithinInclusiveBounds() {
+        PayloadTemplate template = PayloadTemplate.compile("${int:-3:3}");
+        boolean sawMin = false;
+        boolean sawMax = false;
+        for (int i = 0; i < 2_000; i++) {
+            long value = Long.parseLong(template.renderToString());
+            assertTrue(value >= -3 && value <= 3, String.valueOf(value));
+            sawMin |= value == -3;
+            sawMax |= value == 3;
+        }
+        assertTrue(sawMin && sawMax);
+        assertEquals("5", PayloadTemplate.compile("${int:5:5}").renderToString());
+    }
+
+    @Test
+    void negativeDecimalsRenderAsValidJson() {
+        PayloadTemplate template = PayloadTemplate.compile("{\"p\":${decimal:-1:1}}");
+        for (int i = 0; i < 2_000; i++) {
+            String json = template.renderToString();
+            JsonObject object = JsonParser.parseString(json).getAsJsonObject();
+            BigDecimal value = object.get("p").getAsBigDecimal();
+            assertTrue(value.compareTo(BigDecimal.ONE.negate()) >= 0 && value.compareTo(BigDecimal.ONE) < 0, json);
+            // Always two decimals, and the sign of -0.xx survives
+            assertTrue(json.matches("\\{\"p\":-?\\d+\\.\\d\\d}"), json);
+            assertEquals(value.signum() < 0, json.contains("-"), json);
+        }
+        assertEquals("-0.50", PayloadTemplate.compile("${decimal:-0.5:-0.5}").renderToString());
+        assertEquals("-12.05", PayloadTemplate.compile("${decimal:-12.05:-12.05}").renderToString());
+    }
+
+    @Test
+    void equalDecimalBoundsAreAConstant() {
+        PayloadTemplate template = PayloadTemplate.compile("${decimal:9.99:9.99}");
+        for (int i = 0; i < 10; i++) {
+            assertEquals("9.99", template.renderToString());
+        }
+    }
+
+    @Test
+    void invalidPlaceholdersFailAtCompile() {
+        assertThrows(IllegalArgumentException.class, () -> PayloadTemplate.compile("${int:5:1}"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadTemplate.compile("${decimal:2:1.5}"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadTemplate.compile("${int:1}"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadTemplate.compile("${int:a:b}"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadTemplate.compile("${uuid}"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadTemplate.compile("${feed:name:xml}"));
+    }
+}
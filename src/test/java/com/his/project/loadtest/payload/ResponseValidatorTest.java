@@ -0,0 +1,137 @@
+package com.his.project.loadtest.payload;
+
+import com.his.project.loadtest.metrics.RequestTrace;
+import com.his.project.loadtest.model.ResponseCheck;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResponseValidatorTest {
+    private static final String PRODUCTS = "[{\"skuCode\":\"A1\",\"price\":10,\"tags\":[\"x\"]},"
+        + "{\"skuCode\":\"B2\",\"price\":20,\"tags\":[]},"
+        + "{\"skuCode\":\"C3\",\"price\":30,\"tags\":[\"y\",\"z\"]}]";
+
+    @Test
+    void parsesDottedPathsWithOptionalRoot() {
+        assertArrayEquals(new String[]{"0", "skuCode"}, ResponseValidator.parsePath("0.skuCode"));
+        assertArrayEquals(new String[]{"order", "id"}, ResponseValidator.parsePath(" $.order.id "));
+        assertArrayEquals(new String[0], ResponseValidator.parsePath("$"));
+        assertThrows(IllegalArgumentException.class, () -> ResponseValidator.parsePath("$."));
+    }
+
+    @Test
+    void noChecksAndNothingToExtractNeedsNoValidator() {
+        assertNull(ResponseValidator.of(null));
+    }
+
+    @Test
+    void walksObjectsAndArrayIndexesToCheckedValues() throws IOException {
+        assertTrue(passes("1.skuCode==B2,2.tags.1==z,0.price==10", PRODUCTS));
+        assertFalse(passes("1.skuCode==A1", PRODUCTS));
+        assertFalse(passes("1.tags.0", PRODUCTS));
+        assertFalse(passes("3.skuCode", PRODUCTS));
+    }
+
+    @Test
+    void presenceChecksAcceptObjectsAndArrays() throws IOException {
+        String body = "{\"order\":{\"lines\":[{\"qty\":1}]},\"paid\":true,\"note\":null}";
+        assertTrue(passes("order.lines,order.lines.0.qty==1,paid==true,note==null", body));
+        // An object never equals scalar text
+        assertFalse(passes("order==x", body));
+    }
+
+    @Test
+    void wholeBodyCanBeCompared() throws IOException {
+        assertTrue(passes("$==true", "true"));
+        assertFalse(passes("$==true", "false"));
+    }
+
+    @Test
+    void scalarWhereAContainerIsExpectedFails() throws IOException {
+        assertFalse(passes("status.code", "{\"status\":\"ok\"}"));
+        assertFalse(passes("status", "not json"));
+        assertFalse(passes("b", "{\"a\":1,"));
+    }
+
+    @Test
+    void stopsParsingOnceSettledButCountsTheWholeBody() throws IOException {
+        // Everything after the checked value is drained unparsed, even if it is not valid JSON
+        String body = "{\"status\":\"ok\",\"rest\": <<garbage>>";
+        RequestTrace trace = consume(ResponseValidator.of(ResponseCheck.parse("status==ok")), body);
+        assertFalse(trace.isCheckFailed());
+        assertEquals(body.getBytes(StandardCharsets.UTF_8).length, trace.getBytesReceived());
+    }
+
+    @Test
+    void sizeLimitsApplyWithoutParsing() throws IOException {
+        ResponseValidator validator = ResponseValidator.of(ResponseCheck.parse("bytes>=5,bytes<=10"));
+        assertFalse(validator.hasJsonChecks());
+        assertFalse(consume(validator, "12345").isCheckFailed());
+        assertTrue(consume(validator, "1234").isCheckFailed());
+        assertTrue(consume(validator, "12345678901").isCheckFailed());
+    }
+
+    @Test
+    void extractsScalarsIntoVariables() throws IOException {
+        Map<String, String> extract = new LinkedHashMap<>();
+        extract.put("sku", "1.skuCode");
+        extract.put("price", "2.price");
+        ResponseValidator validator = ResponseValidator.of(null, extract);
+        assertArrayEquals(new String[]{"sku", "price"}, validator.getVariables());
+        RequestTrace trace = consume(validator, PRODUCTS);
+        assertFalse(trace.isCheckFailed());
+        assertArrayEquals(new String[]{"B2", "30"}, trace.getExtracted());
+    }
+
+    @Test
+    void missingExtractedValueFailsTheRequest() throws IOException {
+        RequestTrace trace = consume(ResponseValidator.of(null, Map.of("id", "order.id")), "{\"order\":{}}");
+        assertTrue(trace.isCheckFailed());
+        assertNull(trace.getExtracted()[0]);
+    }
+
+    @Test
+    void anyElementPathsTakeOneElementForEveryPath() throws IOException {
+        Map<String, String> extract = new LinkedHashMap<>();
+        extract.put("sku", "*.skuCode");
+        extract.put("price", "*.price");
+        ResponseValidator validator = ResponseValidator.of(null, extract);
+        Map<String, String> prices = Map.of("A1", "10", "B2", "20", "C3", "30");
+        Map<String, Integer> picks = new LinkedHashMap<>();
+        for (int i = 0; i < 300; i++) {
+            String[] values = consume(validator, PRODUCTS).getExtracted();
+            assertEquals(prices.get(values[0]), values[1], "values from two elements: " + String.join(",", values));
+            picks.merge(values[0], 1, Integer::sum);
+        }
+        // Each element is picked about a third of the time
+        assertEquals(3, picks.size());
+        picks.values().forEach(count -> assertTrue(count > 50, "picks " + picks));
+    }
+
+    @Test
+    void anyElementOfAnEmptyArrayIsNotFound() throws IOException {
+        RequestTrace trace = consume(ResponseValidator.of(null, Map.of("sku", "*.skuCode")), "[]");
+        assertTrue(trace.isCheckFailed());
+    }
+
+    private static boolean passes(String rules, String body) throws IOException {
+        return !consume(ResponseValidator.of(ResponseCheck.parse(rules)), body).isCheckFailed();
+    }
+
+    private static RequestTrace consume(ResponseValidator validator, String body) throws IOException {
+        RequestTrace trace = new RequestTrace();
+        validator.consume(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), trace);
+        return trace;
+    }
+}
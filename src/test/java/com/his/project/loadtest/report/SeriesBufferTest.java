@@ -0,0 +1,113 @@
+package com.his.project.loadtest.report;
+
+import com.his.project.loadtest.model.IntervalStats;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeriesBufferTest {
+
+    @Test
+    void keepsEveryRowWhileThereIsRoom() {
+        SeriesBuffer buffer = new SeriesBuffer(8);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(row(i, 10 * i, 0, i, i, i, i));
+        }
+        assertEquals(5, buffer.size());
+        assertArrayEquals(new double[]{1, 2, 3, 4, 5}, buffer.time());
+        assertArrayEquals(new double[]{10, 20, 30, 40, 50}, buffer.throughput());
+        assertArrayEquals(new double[]{1, 2, 3, 4, 5}, buffer.p99());
+    }
+
+    @Test
+    void fullBufferMergesNeighbouringPoints() {
+        SeriesBuffer buffer = new SeriesBuffer(4);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(row(i, 10, 0, 5, 6, 7, 8));
+        }
+        // Rows 1-2 and 3-4 merged, then row 5 starts a point that takes two rows
+        assertEquals(3, buffer.size());
+        assertArrayEquals(new double[]{2, 4, 5}, buffer.time());
+        assertArrayEquals(new double[]{10, 10, 10}, buffer.throughput());
+        buffer.add(row(6, 30, 0, 5, 6, 7, 8));
+        assertEquals(3, buffer.size());
+        assertArrayEquals(new double[]{2, 4, 6}, buffer.time());
+        assertArrayEquals(new double[]{10, 10, 20}, buffer.throughput());
+    }
+
+    @Test
+    void oddCapacityIsRoundedUpToWholePairs() {
+        SeriesBuffer buffer = new SeriesBuffer(3);
+        for (int i = 1; i <= 4; i++) {
+            buffer.add(row(i, 10, 0, 1, 1, 1, 1));
+        }
+        assertEquals(4, buffer.size());
+    }
+
+    @Test
+    void longRunsKeepBetweenHalfAndAllPointsAndExactTotals() {
+        SeriesBuffer buffer = new SeriesBuffer(10);
+        long requests = 0;
+        for (int i = 1; i <= 1000; i++) {
+            buffer.add(row(i, i % 7, i % 3, 1, 1, 1, 1));
+            requests += i % 7;
+            assertTrue(buffer.size() <= 10);
+        }
+        assertTrue(buffer.size() >= 5);
+        double[] time = buffer.time();
+        double[] throughput = buffer.throughput();
+        assertEquals(1000, time[time.length - 1], 1e-9);
+        double counted = throughput[0] * time[0];
+        for (int i = 1; i < time.length; i++) {
+            counted += throughput[i] * (time[i] - time[i - 1]);
+            // Every point but the last spans the same number of one-second rows
+            if (i < time.length - 1) {
+                assertEquals(time[0], time[i] - time[i - 1], 1e-9);
+            }
+        }
+        assertEquals(requests, counted, 1e-6);
+    }
+
+    @Test
+    void mergedLatenciesWeightTheMedianAndKeepTheTail() {
+        SeriesBuffer buffer = new SeriesBuffer(2);
+        buffer.add(row(1, 30, 0, 10, 20, 30, 40));
+        buffer.add(row(2, 10, 0, 50, 60, 70, 80));
+        buffer.add(row(3, 10, 0, 1, 1, 1, 1));
+        assertEquals(2, buffer.size());
+        // (30 * 10 + 10 * 50) / 40 successes
+        assertEquals(20.0, buffer.p50()[0], 1e-9);
+        assertEquals(60.0, buffer.p90()[0]);
+        assertEquals(70.0, buffer.p99()[0]);
+        assertEquals(80.0, buffer.max()[0]);
+    }
+
+    @Test
+    void pointsWithoutSuccessesLeaveGapsButCountFailures() {
+        SeriesBuffer buffer = new SeriesBuffer(4);
+        buffer.add(row(1, 10, 0, 5, 5, 5, 5));
+        buffer.add(row(3, 8, 8, 0, 0, 0, 0));
+        assertTrue(Double.isNaN(buffer.p50()[1]));
+        assertTrue(Double.isNaN(buffer.p99()[1]));
+        // The second row covers two seconds
+        assertEquals(4.0, buffer.failureRate()[1], 1e-9);
+        assertEquals(8, buffer.totalFailures());
+    }
+
+    // One second-by-second interval row ending at elapsed seconds
+    private static IntervalStats row(double elapsed, long requests, long failures,
+                                     double p50, double p90, double p99, double max) {
+        IntervalStats row = new IntervalStats();
+        row.setElapsedSeconds(elapsed);
+        row.setRequests(requests);
+        row.setSuccesses(requests - failures);
+        row.setFailures(failures);
+        row.setP50Ms(p50);
+        row.setP90Ms(p90);
+        row.setP99Ms(p99);
+        row.setMaxMs(max);
+        return row;
+    }
+}
@@ -0,0 +1,103 @@
+package com.his.project.loadtest.results;
+
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SignificanceTest {
+    private static final double[] LOW = {1, 2, 3, 4, 5, 6, 7, 8};
+    private static final double[] HIGH = {9, 10, 11, 12, 13, 14, 15, 16};
+
+    @Test
+    void separatedSetsAreSignificant() {
+        // U = 0 with 8 values a side: z = -32 / sqrt(64 / 12 * 17)
+        assertEquals(0.000777530, Significance.mannWhitney(LOW, HIGH), 1e-6);
+        assertEquals(Significance.mannWhitney(LOW, HIGH), Significance.mannWhitney(HIGH, LOW), 1e-12);
+    }
+
+    @Test
+    void identicalSetsAreNot() {
+        assertEquals(1.0, Significance.mannWhitney(LOW, LOW.clone()), 1e-9);
+        assertEquals(1.0, Significance.mannWhitney(new double[]{5, 5, 5, 5}, new double[]{5, 5, 5}));
+    }
+
+    @Test
+    void interleavedSetsAreNot() {
+        double[] odd = {1, 3, 5, 7, 9, 11, 13, 15};
+        double[] even = {2, 4, 6, 8, 10, 12, 14, 16};
+        assertTrue(Significance.mannWhitney(odd, even) > 0.5);
+    }
+
+    @Test
+    void tooFewValuesCannotBeTested() {
+        assertTrue(Double.isNaN(Significance.mannWhitney(new double[]{1, 2}, HIGH)));
+        assertTrue(Double.isNaN(Significance.mannWhitney(histogram(1, 2), histogram(LOW))));
+    }
+
+    @Test
+    void histogramTestMatchesTheValueTest() {
+        // Small values are exact buckets, so bucket midranks are the same ranks as the values'
+        double[] a = {3, 5, 5, 8, 12, 12, 12, 20, 21};
+        double[] b = {4, 5, 9, 12, 13, 20, 25, 30, 30, 31};
+        assertEquals(Significance.mannWhitney(a, b), Significance.mannWhitney(histogram(a), histogram(b)), 1e-12);
+    }
+
+    @Test
+    void histogramsOfDifferentPrecisionAreComparedInTheCoarserLayout() {
+        Random random = new Random(7);
+        LatencyHistogram fine = new LatencyHistogram(3);
+        LatencyHistogram coarse = new LatencyHistogram(1);
+        for (int i = 0; i < 10_000; i++) {
+            long value = TimeUnit.MILLISECONDS.toNanos(10 + random.nextInt(40));
+            fine.recordValue(value);
+            coarse.recordValue(value);
+        }
+        assertEquals(1.0, Significance.mannWhitney(fine, coarse), 1e-9);
+
+        LatencyHistogram slower = new LatencyHistogram(3);
+        for (int i = 0; i < 10_000; i++) {
+            slower.recordValue(TimeUnit.MILLISECONDS.toNanos(12 + random.nextInt(40)));
+        }
+        assertTrue(Significance.mannWhitney(coarse, slower) < 0.001);
+    }
+
+    @Test
+    void proportionsTestComparesRates() {
+        // Pooled rate 2%: z = -0.02 / sqrt(0.02 * 0.98 * 2 / 1000)
+        assertEquals(0.00140130, Significance.proportions(10, 1000, 30, 1000), 1e-6);
+        assertEquals(1.0, Significance.proportions(50, 1000, 50, 1000), 1e-9);
+        assertTrue(Significance.proportions(50, 1000, 55, 1000) > 0.5);
+    }
+
+    @Test
+    void proportionsWithoutVariationOrData() {
+        assertEquals(1.0, Significance.proportions(0, 500, 0, 800));
+        assertEquals(1.0, Significance.proportions(500, 500, 800, 800));
+        assertTrue(Double.isNaN(Significance.proportions(0, 0, 5, 100)));
+    }
+
+    @Test
+    void exceedancesCountTheTailAboveTheValue() {
+        LatencyHistogram baseline = new LatencyHistogram(3);
+        LatencyHistogram tail = new LatencyHistogram(3);
+        baseline.recordValue(TimeUnit.MILLISECONDS.toNanos(10), 10_000);
+        tail.recordValue(TimeUnit.MILLISECONDS.toNanos(10), 9_950);
+        tail.recordValue(TimeUnit.MILLISECONDS.toNanos(500), 50);
+        long threshold = TimeUnit.MILLISECONDS.toNanos(100);
+        assertTrue(Significance.exceedances(baseline, tail, threshold) < 0.001);
+        assertEquals(1.0, Significance.exceedances(baseline, baseline, threshold));
+    }
+
+    private static LatencyHistogram histogram(double... values) {
+        LatencyHistogram histogram = new LatencyHistogram(3);
+        for (double value : values) {
+            histogram.recordValue((long) value);
+        }
+        return histogram;
+    }
+}
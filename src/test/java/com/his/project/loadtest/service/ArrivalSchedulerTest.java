@@ -0,0 +1,118 @@
+package com.his.project.loadtest.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrivalSchedulerTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void constantRateSchedulesOnFixedTimeline() {
+        long start = System.nanoTime() + MS;
+        List<Long> intended = new ArrayList<>();
+        new ArrivalScheduler("test", 1000, 20, 0, start, Runnable::run, intended::add).run();
+        
+        assertEquals(20, intended.size());
+        for (int n = 0; n < intended.size(); n++) {
+            assertEquals(start + n * MS, intended.get(n));
+        }
+    }
+
+    @Test
+    void slowRequestsDoNotShiftLaterSendTimes() {
+        // Coordinated omission: the task runs on the scheduler thread and the first one stalls
+        // for 10 intervals, yet every later request keeps its planned timestamp and is sent late
+        long start = System.nanoTime() + MS;
+        List<Long> intended = new ArrayList<>();
+        List<Long> sent = new ArrayList<>();
+        new ArrivalScheduler("test", 1000, 15, 0, start, Runnable::run, time -> {
+            intended.add(time);
+            sent.add(System.nanoTime());
+            if (intended.size() == 1) {
+                sleep(10);
+            }
+        }).run();
+        
+        assertEquals(15, intended.size());
+        for (int n = 0; n < intended.size(); n++) {
+            assertEquals(start + n * MS, intended.get(n));
+        }
+        // Requests due during the stall go out immediately after it, all behind their plan
+        for (int n = 1; n <= 9; n++) {
+            assertTrue(sent.get(n) - intended.get(n) > 0);
+            assertTrue(sent.get(n) >= start + 10 * MS);
+        }
+    }
+
+    @Test
+    void durationBoundsTheRun() {
+        long start = System.nanoTime() + MS;
+        List<Long> intended = new ArrayList<>();
+        new ArrivalScheduler("test", 1000, 0, 10 * MS, start, Runnable::run, intended::add).run();
+        
+        assertEquals(10, intended.size());
+        assertEquals(start + 9 * MS, intended.get(9));
+    }
+
+    @Test
+    void timeVaryingRateFollowsTheIntegral() {
+        // Linear ramp from 0 to 2000/s over 100 ms: the integral, and so the request count, is 100
+        long start = System.nanoTime() + MS;
+        List<Long> intended = new ArrayList<>();
+        new ArrivalScheduler(elapsed -> 2000.0 * elapsed / (100 * MS), 0, 100 * MS, start, Runnable::run,
+            intended::add).run();
+        
+        assertTrue(Math.abs(intended.size() - 100) <= 1, "sent " + intended.size());
+        // The gaps shrink as the rate climbs
+        long firstGap = intended.get(1) - intended.get(0);
+        long lastGap = intended.get(intended.size() - 1) - intended.get(intended.size() - 2);
+        assertTrue(firstGap > 4 * lastGap, firstGap + " vs " + lastGap);
+    }
+
+    @Test
+    void pausedRateDelaysTheFirstSend() {
+        long start = System.nanoTime();
+        List<Long> intended = new ArrayList<>();
+        new ArrivalScheduler(elapsed -> elapsed < 5 * MS ? 0 : 1000, 0, 10 * MS, start, Runnable::run,
+            intended::add).run();
+        
+        assertTrue(intended.size() >= 4 && intended.size() <= 5, "sent " + intended.size());
+        assertTrue(intended.get(0) >= start + 5 * MS);
+    }
+
+    @Test
+    void stopEndsAnUnboundedRun() throws InterruptedException {
+        List<Long> intended = new ArrayList<>();
+        ArrivalScheduler scheduler = new ArrivalScheduler("test", 1000, 0, 0, System.nanoTime(), Runnable::run,
+            intended::add);
+        Thread thread = new Thread(scheduler);
+        thread.start();
+        sleep(20);
+        scheduler.stop();
+        thread.join(1000);
+        
+        assertFalse(thread.isAlive());
+    }
+
+    @Test
+    void rejectsNonPositiveRate() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new ArrivalScheduler("test", 0, 0, 0, System.nanoTime(), Runnable::run, time -> { }));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
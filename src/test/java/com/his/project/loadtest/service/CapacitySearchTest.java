@@ -0,0 +1,165 @@
+package com.his.project.loadtest.service;
+
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.model.CapacityLevel;
+import com.his.project.loadtest.model.CapacityResult;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.LoadStage;
+import com.his.project.loadtest.model.StageStats;
+import com.his.project.loadtest.model.StageTransition;
+import com.his.project.loadtest.model.TestConfig;
+import com.his.project.loadtest.model.Threshold;
+import com.his.project.loadtest.model.ThresholdMetric;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CapacitySearchTest {
+    private static final long MEASURED_SECONDS = 10;
+
+    // A search whose levels pass up to a fixed capacity instead of running against a gateway
+    private static final class FakeSearch extends CapacitySearch {
+        final double capacity;
+        final List<Double> rates = new ArrayList<>();
+
+        FakeSearch(TestConfig config, double capacity) {
+            super(config);
+            this.capacity = capacity;
+        }
+
+        @Override
+        CapacityLevel runLevel(int order, double rate) {
+            rates.add(rate);
+            CapacityLevel level = level(rate, 10, 0);
+            level.setOrder(order);
+            level.setSustained(rate <= capacity);
+            return level;
+        }
+    }
+
+    @Test
+    void doublesUntilALevelFailsThenBisects() {
+        FakeSearch search = new FakeSearch(config(10, 0, 5, 15, "p99<100"), 137);
+        CapacityResult result = search.run();
+        assertEquals(List.of(10.0, 20.0, 40.0, 80.0, 160.0, 120.0, 140.0, 130.0, 135.0), search.rates);
+        assertEquals(135.0, result.getMaxSustainableRps());
+        assertEquals(140.0, result.getFirstFailingRps());
+    }
+
+    @Test
+    void stopsAtTheMaximumRate() {
+        FakeSearch search = new FakeSearch(config(10, 50, 5, 15, "p99<100"), Double.MAX_VALUE);
+        CapacityResult result = search.run();
+        assertEquals(List.of(10.0, 20.0, 40.0, 50.0), search.rates);
+        assertEquals(50.0, result.getMaxSustainableRps());
+        assertEquals(0.0, result.getFirstFailingRps());
+    }
+
+    @Test
+    void levelBudgetEndsTheSearch() {
+        FakeSearch search = new FakeSearch(config(10, 0, 5, 3, "p99<100"), Double.MAX_VALUE);
+        search.run();
+        assertEquals(3, search.rates.size());
+    }
+
+    @Test
+    void failingStartRateBisectsDownwards() {
+        FakeSearch search = new FakeSearch(config(10, 0, 5, 15, "p99<100"), 5);
+        CapacityResult result = search.run();
+        assertEquals(10.0, search.rates.get(0));
+        assertEquals(5.0, search.rates.get(1));
+        assertTrue(result.getMaxSustainableRps() <= 5);
+        assertTrue(result.getFirstFailingRps() - result.getMaxSustainableRps() <= result.getFirstFailingRps() * 0.05);
+    }
+
+    @Test
+    void latencyOnlySloStillJudgesErrors() {
+        CapacitySearch search = new CapacitySearch(config(10, 0, 5, 15, "p99<100"));
+        assertEquals(2, search.getSlo().size());
+        Threshold errors = search.getSlo().get(1);
+        assertEquals(ThresholdMetric.ERROR_RATE, errors.getMetric());
+        assertEquals(CapacitySearch.DEFAULT_ERROR_RATE_PERCENT, errors.getLimit());
+
+        // Half the requests fail fast: latency alone would pass
+        CapacityLevel level = level(100, 5, 500);
+        search.judge(level);
+        assertTrue(level.getThresholdResults().get(0).isPassed());
+        assertFalse(level.getThresholdResults().get(1).isPassed());
+        assertFalse(level.isSustained());
+
+        CapacityLevel clean = level(100, 5, 0);
+        search.judge(clean);
+        assertTrue(clean.isSustained());
+    }
+
+    @Test
+    void usersErrorRateThresholdReplacesTheDefault() {
+        CapacitySearch search = new CapacitySearch(config(10, 0, 5, 15, "p99<100", "error_rate<60"));
+        assertEquals(2, search.getSlo().size());
+        CapacityLevel level = level(100, 5, 500);
+        search.judge(level);
+        assertTrue(level.isSustained());
+
+        // An error rate on one endpoint does not cover the others
+        CapacitySearch scoped = new CapacitySearch(config(10, 0, 5, 15, "GET /a:error_rate<60"));
+        assertEquals(2, scoped.getSlo().size());
+    }
+
+    @Test
+    void throughputThresholdsAloneCannotJudgeLevels() {
+        assertThrows(IllegalArgumentException.class, () -> new CapacitySearch(config(10, 0, 5, 15, "rps>10")));
+    }
+
+    @Test
+    void kneeIsTheLevelFurthestBelowTheDiagonal() {
+        List<CapacityLevel> levels = List.of(level(10, 10, 0), level(20, 11, 0), level(30, 12, 0),
+            level(40, 20, 0), level(50, 60, 0));
+        assertSame(levels.get(3), CapacitySearch.findKnee(levels, 99.0));
+    }
+
+    @Test
+    void kneeNeedsThreeLevelsAndRisingLatency() {
+        assertNull(CapacitySearch.findKnee(List.of(level(10, 10, 0), level(20, 50, 0)), 99.0));
+        assertNull(CapacitySearch.findKnee(List.of(level(10, 10, 0), level(20, 10, 0), level(30, 10, 0)), 99.0));
+    }
+
+    private static TestConfig config(double startRps, double maxRps, double resolutionPercent, int maxLevels,
+                                     String... thresholds) {
+        TestConfig config = new TestConfig();
+        for (String threshold : thresholds) {
+            config.getThresholds().add(Threshold.parse(threshold));
+        }
+        config.getCapacitySearch().setStartRps(startRps);
+        config.getCapacitySearch().setMaxRps(maxRps);
+        config.getCapacitySearch().setResolutionPercent(resolutionPercent);
+        config.getCapacitySearch().setMaxLevels(maxLevels);
+        return config;
+    }
+
+    // A measured level at the given rate: every success takes latencyMs, failures are instant
+    private static CapacityLevel level(double rate, long latencyMs, int failures) {
+        EndpointStats stats = new EndpointStats(3);
+        for (int i = 0; i < 1000 - failures; i++) {
+            stats.record(Outcome.SUCCESS, 200, TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        }
+        for (int i = 0; i < failures; i++) {
+            stats.record(Outcome.HTTP_5XX, 500, TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        StageStats measured = new StageStats(new LoadStage("measured", MEASURED_SECONDS, rate, StageTransition.STEP), 3);
+        measured.add("GET /api/product", stats);
+        CapacityLevel level = new CapacityLevel();
+        level.setTargetRps(rate);
+        level.setMeasuredSeconds(MEASURED_SECONDS);
+        level.setMeasured(measured);
+        return level;
+    }
+}
@@ -0,0 +1,148 @@
+package com.his.project.loadtest.service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.his.project.loadtest.model.Scenario;
+import com.his.project.loadtest.model.TestConfig;
+import com.his.project.loadtest.model.TestResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JourneyTest {
+    private static final int USERS = 4;
+    private static final int JOURNEYS_PER_USER = 25;
+
+    private final Gson gson = new Gson();
+    // Every catalogue response lists two products no other response lists, with their prices
+    private final AtomicInteger listings = new AtomicInteger();
+    private final Map<String, Double> prices = new ConcurrentHashMap<>();
+    private final Queue<String> stockChecks = new ConcurrentLinkedQueue<>();
+    private final Queue<JsonObject> orders = new ConcurrentLinkedQueue<>();
+    private volatile boolean catalogueWithoutSkus;
+    private ExecutorService executor;
+    private HttpServer server;
+
+    @BeforeEach
+    void startGateway() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 256);
+        server.createContext("/api/product", exchange -> {
+            int listing = listings.incrementAndGet();
+            StringBuilder body = new StringBuilder("[");
+            for (String suffix : new String[]{"a", "b"}) {
+                String sku = "SKU-" + listing + "-" + suffix;
+                double price = listing + (suffix.equals("a") ? 0.25 : 0.75);
+                prices.put(sku, price);
+                body.append(body.length() > 1 ? "," : "")
+                    .append(catalogueWithoutSkus ? "{\"price\":" + price + "}" : "{\"skuCode\":\"" + sku + "\",\"price\":" + price + "}");
+            }
+            respond(exchange, 200, body.append("]").toString());
+        });
+        server.createContext("/api/inventory", exchange -> {
+            String query = exchange.getRequestURI().getRawQuery();
+            String sku = query.substring("skuCode=".length(), query.indexOf('&'));
+            stockChecks.add(URLDecoder.decode(sku, StandardCharsets.UTF_8));
+            respond(exchange, 200, "true");
+        });
+        server.createContext("/api/order", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                orders.add(gson.fromJson(new String(in.readAllBytes(), StandardCharsets.UTF_8), JsonObject.class));
+            }
+            respond(exchange, 201, "{\"status\":\"created\"}");
+        });
+        executor = Executors.newFixedThreadPool(USERS);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @AfterEach
+    void stopGateway() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    @Timeout(60)
+    void laterStepsUseWhatTheSameUsersEarlierStepExtracted() {
+        TestResult result = run();
+        int journeys = USERS * JOURNEYS_PER_USER;
+        assertEquals(journeys, result.getTransactionStats().get("shopper").getRequestCount());
+        assertEquals(journeys, result.getTransactionStats().get("shopper").getSuccessCount());
+        assertEquals(0, result.getSkippedSteps());
+
+        // Each journey checks stock of a product from its own catalogue response: had users shared
+        // or overwritten each other's sessions, two checks would name the same response
+        assertEquals(journeys, stockChecks.size());
+        Set<String> listingsChecked = new HashSet<>();
+        for (String sku : stockChecks) {
+            assertTrue(prices.containsKey(sku), sku);
+            listingsChecked.add(sku.substring(0, sku.lastIndexOf('-')));
+        }
+        assertEquals(journeys, listingsChecked.size());
+
+        // Orders name the checked products, at the price listed for the same element
+        assertEquals(journeys, orders.size());
+        Set<String> ordered = new HashSet<>();
+        for (JsonObject order : orders) {
+            String sku = order.get("skuCode").getAsString();
+            assertEquals(prices.get(sku), order.get("price").getAsDouble(), 1e-9, sku);
+            ordered.add(sku);
+        }
+        assertEquals(new HashSet<>(stockChecks), ordered);
+    }
+
+    @Test
+    @Timeout(60)
+    void failedExtractionEndsTheJourney() {
+        catalogueWithoutSkus = true;
+        TestResult result = run();
+        int journeys = USERS * JOURNEYS_PER_USER;
+        assertEquals(journeys, result.getTransactionStats().get("shopper").getFailedCount());
+        // The stock check and order of every journey were never sent
+        assertEquals(2L * journeys, result.getSkippedSteps());
+        assertEquals(0, stockChecks.size());
+        assertEquals(0, orders.size());
+    }
+
+    private TestResult run() {
+        Scenario journey = Scenario.journey(null);
+        journey.validate();
+        TestConfig config = new TestConfig();
+        config.setGatewayBaseUrl("http://localhost:" + server.getAddress().getPort());
+        config.setScenario(journey);
+        config.setThreads(USERS);
+        config.setRequestsPerThread(JOURNEYS_PER_USER);
+        config.setDelayMs(0);
+        config.setReportIntervalSeconds(0);
+        return new LoadTestService(config).runLoadTest();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+}
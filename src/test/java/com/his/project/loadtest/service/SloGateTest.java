@@ -0,0 +1,154 @@
+package com.his.project.loadtest.service;
+
+import com.his.project.loadtest.metrics.EndpointSnapshot;
+import com.his.project.loadtest.metrics.LatencyHistogram;
+import com.his.project.loadtest.metrics.MetricsSnapshot;
+import com.his.project.loadtest.metrics.Outcome;
+import com.his.project.loadtest.model.EndpointStats;
+import com.his.project.loadtest.model.TestResult;
+import com.his.project.loadtest.model.Threshold;
+import com.his.project.loadtest.model.ThresholdResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SloGateTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final String ENDPOINT = "GET /api/product";
+
+    // Intervals are fed with synthetic end times one second apart, starting when the gate was built
+    private SloGate gate;
+    private long clock;
+    private final List<String> aborts = new ArrayList<>();
+
+    @Test
+    void sustainedBreachAbortsAfterTheAbortTime() {
+        start("p99<100", 2, 3);
+        feed(interval(10, 0, 500));
+        feed(interval(10, 0, 500));
+        assertNull(gate.getAbortReason());
+        feed(interval(10, 0, 500));
+        assertNotNull(gate.getAbortReason());
+        assertEquals(1, aborts.size());
+        // The callback fires once, however long the breach goes on
+        feed(interval(10, 0, 500));
+        assertEquals(1, aborts.size());
+    }
+
+    @Test
+    void breachThatLeavesTheWindowIsForgotten() {
+        // One slow second among fast ones: over the whole run p99 stays slow, but the window
+        // slides past it and the breach ends before the abort time
+        start("p99<100", 2, 3);
+        feed(interval(10, 0, 500));
+        for (int i = 0; i < 6; i++) {
+            feed(interval(10, 0, 5));
+        }
+        assertNull(gate.getAbortReason());
+        assertTrue(aborts.isEmpty());
+    }
+
+    @Test
+    void recoveryRestartsTheBreachClock() {
+        start("error_rate<10", 1, 3);
+        feed(interval(10, 5, 5));
+        feed(interval(10, 5, 5));
+        feed(interval(10, 0, 5));
+        feed(interval(10, 5, 5));
+        feed(interval(10, 5, 5));
+        assertNull(gate.getAbortReason());
+        feed(interval(10, 5, 5));
+        assertNotNull(gate.getAbortReason());
+    }
+
+    @Test
+    void emptyWindowBreachesOnlyThroughput() {
+        start("p99<100", 1, 1);
+        for (int i = 0; i < 3; i++) {
+            feed(empty());
+        }
+        assertNull(gate.getAbortReason());
+
+        start("rps>5", 1, 1);
+        for (int i = 0; i < 3; i++) {
+            feed(empty());
+        }
+        assertNotNull(gate.getAbortReason());
+    }
+
+    @Test
+    void finishJudgesTheWholeRunAndFailsTheAbortingThreshold() {
+        start("p99<100", 1, 1);
+        feed(interval(10, 0, 500));
+        feed(interval(10, 0, 500));
+        assertNotNull(gate.getAbortReason());
+
+        // The whole run is fast enough, but the threshold that stopped it fails anyway
+        TestResult result = new TestResult();
+        result.setDurationMs(10_000);
+        result.getEndpointStats().put(ENDPOINT, stats(1000, 0, 5));
+        gate.finish(result);
+        ThresholdResult verdict = result.getThresholdResults().get(0);
+        assertTrue(verdict.getActual() < 100);
+        assertFalse(verdict.isPassed());
+        assertTrue(verdict.isAbortedRun());
+        assertEquals(gate.getAbortReason(), result.getAbortReason());
+    }
+
+    @Test
+    void measuresEachMetricOverTheSelectedEndpoints() {
+        Map<String, EndpointStats> stats = Map.of(ENDPOINT, stats(90, 10, 20), "GET /api/inventory", stats(100, 0, 400));
+        assertEquals(10.0 / 200 * 100, SloGate.measure(Threshold.parse("error_rate<1"), stats, 10, 3), 1e-9);
+        assertEquals(20.0, SloGate.measure(Threshold.parse("rps>1"), stats, 10, 3), 1e-9);
+        assertEquals(20.0, SloGate.measure(Threshold.parse(ENDPOINT + ":p99<100"), stats, 10, 3), 0.1);
+        assertEquals(400.0, SloGate.measure(Threshold.parse("p99<100"), stats, 10, 3), 0.5);
+        assertTrue(Double.isNaN(SloGate.measure(Threshold.parse("GET /none:p99<100"), stats, 10, 3)));
+    }
+
+    private void start(String threshold, long windowSeconds, long abortAfterSeconds) {
+        aborts.clear();
+        gate = new SloGate(List.of(Threshold.parse(threshold)), windowSeconds, abortAfterSeconds, 3);
+        gate.setOnAbort(aborts::add);
+        clock = System.nanoTime();
+        // Closes the zero-length first interval, so every later one lasts exactly a second
+        gate.accept(new MetricsSnapshot(0, clock, Map.of()));
+    }
+
+    private void feed(Map<String, EndpointSnapshot> endpoints) {
+        clock += SECOND;
+        gate.accept(new MetricsSnapshot(0, clock, endpoints));
+    }
+
+    private static Map<String, EndpointSnapshot> interval(long requests, long failures, long millis) {
+        LatencyHistogram times = new LatencyHistogram(3);
+        for (long i = failures; i < requests; i++) {
+            times.recordValue(millis * MS);
+        }
+        return Map.of(ENDPOINT, new EndpointSnapshot(requests, requests - failures, failures, times));
+    }
+
+    private static Map<String, EndpointSnapshot> empty() {
+        return Map.of();
+    }
+
+    private static EndpointStats stats(long successes, long failures, long millis) {
+        EndpointStats stats = new EndpointStats(3);
+        for (long i = 0; i < successes; i++) {
+            stats.record(Outcome.SUCCESS, 200, millis * MS);
+        }
+        for (long i = 0; i < failures; i++) {
+            stats.record(Outcome.HTTP_5XX, 500, millis * MS);
+        }
+        return stats;
+    }
+}
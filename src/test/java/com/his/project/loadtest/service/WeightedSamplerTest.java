@@ -0,0 +1,85 @@
+package com.his.project.loadtest.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeightedSamplerTest {
+
+    @Test
+    void aliasTablesReproduceTheWeightsExactly() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            double[] weights = new double[1 + random.nextInt(12)];
+            for (int i = 0; i < weights.length; i++) {
+                // Some zero weights, some tiny, some large
+                weights[i] = random.nextInt(4) == 0 ? 0 : Math.pow(10, random.nextDouble() * 4 - 2);
+            }
+            weights[random.nextInt(weights.length)] += 1;
+            assertMatches(weights);
+        }
+    }
+
+    @Test
+    void commonMixesMatchTheirWeights() {
+        assertMatches(new double[]{1});
+        assertMatches(new double[]{1, 1, 1, 1});
+        assertMatches(new double[]{70, 20, 9, 1});
+        assertMatches(new double[]{0, 5, 0});
+        assertMatches(new double[]{1e-9, 1});
+    }
+
+    @Test
+    void zeroWeightsAreNeverDrawn() {
+        WeightedSampler sampler = new WeightedSampler(new double[]{0, 3, 0, 1});
+        int[] counts = new int[4];
+        for (int i = 0; i < 100_000; i++) {
+            counts[sampler.next()]++;
+        }
+        assertEquals(0, counts[0]);
+        assertEquals(0, counts[2]);
+        // 75% / 25%, well within sampling noise of 100k draws
+        assertEquals(0.75, counts[1] / 100_000.0, 0.01);
+    }
+
+    @Test
+    void drawsFollowTheWeights() {
+        double[] weights = {50, 30, 15, 5};
+        WeightedSampler sampler = new WeightedSampler(weights);
+        int[] counts = new int[weights.length];
+        int draws = 200_000;
+        for (int i = 0; i < draws; i++) {
+            counts[sampler.next()]++;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(weights[i] / 100, (double) counts[i] / draws, 0.01, "index " + i);
+        }
+    }
+
+    @Test
+    void rejectsUnusableWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new WeightedSampler(new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> new WeightedSampler(new double[]{0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new WeightedSampler(new double[]{2, -1}));
+        assertThrows(IllegalArgumentException.class, () -> new WeightedSampler(new double[]{1, Double.NaN}));
+        assertThrows(IllegalArgumentException.class, () -> new WeightedSampler(new double[]{1, Double.POSITIVE_INFINITY}));
+    }
+
+    private static void assertMatches(double[] weights) {
+        WeightedSampler sampler = new WeightedSampler(weights);
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            assertEquals(weights[i] / total, sampler.probabilityOf(i), 1e-9, "index " + i);
+            sum += sampler.probabilityOf(i);
+        }
+        assertTrue(Math.abs(sum - 1) < 1e-9);
+    }
+}